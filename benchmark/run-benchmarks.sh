@@ -0,0 +1,19 @@
+#!/bin/sh
+# Runs the fixture benchmarks, on a virtual display if none is set.
+# Usage: ./run-benchmarks.sh [JMH options], e.g.
+#   ./run-benchmarks.sh -p components=500,2000 SwingFixtureBenchmark.findComponent
+# Results are written as JMH JSON to results/<timestamp>.json.
+set -e
+cd "$(dirname "$0")"
+
+if [ -z "$DISPLAY" ]; then
+	DISPLAY_NUMBER=${BENCHMARK_DISPLAY:-99}
+	Xvfb ":$DISPLAY_NUMBER" -screen 0 1600x1200x24 -nolisten tcp &
+	XVFB_PID=$!
+	trap 'kill $XVFB_PID' EXIT
+	export DISPLAY=":$DISPLAY_NUMBER"
+	sleep 1
+fi
+
+mkdir -p results
+java -jar target/benchmarks.jar -rf json -rff "results/$(date +%Y%m%d-%H%M%S).json" "$@"
@@ -0,0 +1,156 @@
+/*******************************************************************************
+ * Copyright (c) 2012 - 2015 Signal Iduna Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Signal Iduna Corporation - initial API and implementation
+ * akquinet AG
+ *******************************************************************************/
+package org.testeditor.fixture.swing.benchmark;
+
+import java.awt.Component;
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.testeditor.fixture.swing.SwingFixture;
+
+/**
+ * Benchmarks of the hot fixture operations against the
+ * {@link SyntheticSwingApplication}. Each fork launches the application once
+ * with the size given by the parameters.
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class SwingFixtureBenchmark {
+
+	@Param({ "2000" })
+	private int components;
+
+	@Param({ "10000" })
+	private int tableRows;
+
+	@Param({ "5000" })
+	private int comboSize;
+
+	@Param({ "true" })
+	private boolean componentIndex;
+
+	private BenchmarkFixture fixture;
+	private File elementList;
+	private int next;
+
+	/**
+	 * Fixture exposing the protected lookup of the swing fixture.
+	 */
+	static class BenchmarkFixture extends SwingFixture {
+		Component lookup(String elementListKey) {
+			return findComponent(elementListKey);
+		}
+	}
+
+	/**
+	 * Launches the synthetic application.
+	 *
+	 * @throws IOException
+	 *             if the element list can't be written
+	 */
+	@Setup(Level.Trial)
+	public void launch() throws IOException {
+		System.setProperty("synthetic.components", String.valueOf(components));
+		System.setProperty("synthetic.tableRows", String.valueOf(tableRows));
+		System.setProperty("synthetic.comboSize", String.valueOf(comboSize));
+		elementList = File.createTempFile("synthetic-element-list", ".txt");
+		SyntheticSwingApplication.writeElementList(elementList, components);
+		fixture = new BenchmarkFixture();
+		fixture.setElementlist(elementList.getAbsolutePath());
+		fixture.setComponentIndexEnabled(componentIndex);
+		fixture.setStepTimingsDirectory("");
+		fixture.startApplication(SyntheticSwingApplication.class.getName());
+	}
+
+	/**
+	 * Stops the synthetic application.
+	 */
+	@TearDown(Level.Trial)
+	public void stop() {
+		fixture.stopApplication();
+		elementList.delete();
+	}
+
+	/**
+	 * @return element list key of the next text field, cycling through all
+	 *         fields
+	 */
+	private String nextTextField() {
+		next = (next + 7919) % components;
+		return SyntheticSwingApplication.textFieldKey(next);
+	}
+
+	/**
+	 * @return the looked up component
+	 */
+	@Benchmark
+	public Component findComponent() {
+		return fixture.lookup(nextTextField());
+	}
+
+	/**
+	 * @return result of the step
+	 */
+	@Benchmark
+	public boolean insertIntoTextField() {
+		return fixture.insertIntoTextField(nextTextField(), "x");
+	}
+
+	/**
+	 * @param blackhole
+	 *            consumes the results
+	 */
+	@Benchmark
+	public void selectComboBoxItemByName(Blackhole blackhole) {
+		next = (next + 7919) % comboSize;
+		blackhole.consume(fixture.selectComboBoxItemByName(SyntheticSwingApplication.COMBO_BOX,
+				SyntheticSwingApplication.comboItem(next)));
+	}
+
+	/**
+	 * @return result of the step
+	 */
+	@Benchmark
+	public boolean checkTableCellValue() {
+		return fixture.checkTableCellValue(SyntheticSwingApplication.TABLE,
+				SyntheticSwingApplication.cellValue(tableRows - 1), SyntheticSwingApplication.TABLE_COLUMN);
+	}
+
+	/**
+	 * @return result of the step
+	 */
+	@Benchmark
+	public boolean selectTableRowById() {
+		next = (next + 7919) % tableRows;
+		return fixture.selectTableRowById(SyntheticSwingApplication.TABLE, next);
+	}
+}
@@ -0,0 +1,158 @@
+/*******************************************************************************
+ * Copyright (c) 2012 - 2015 Signal Iduna Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Signal Iduna Corporation - initial API and implementation
+ * akquinet AG
+ *******************************************************************************/
+package org.testeditor.fixture.swing.benchmark;
+
+import java.awt.BorderLayout;
+import java.awt.GridLayout;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+
+import javax.swing.JCheckBox;
+import javax.swing.JComboBox;
+import javax.swing.JFrame;
+import javax.swing.JPanel;
+import javax.swing.JScrollPane;
+import javax.swing.JTable;
+import javax.swing.JTextField;
+import javax.swing.SwingUtilities;
+import javax.swing.table.DefaultTableModel;
+
+/**
+ * Generated Swing application for the benchmarks. The size of the
+ * application is configured with system properties:
+ * <ul>
+ * <li><code>synthetic.components</code>: number of text fields and check
+ * boxes (default 2000)</li>
+ * <li><code>synthetic.tableRows</code>: number of rows of the table (default
+ * 10000)</li>
+ * <li><code>synthetic.comboSize</code>: number of items of the combo box
+ * (default 5000)</li>
+ * </ul>
+ * All components are named, {@link #writeElementList(File, int)} writes the
+ * matching element list.
+ *
+ */
+public final class SyntheticSwingApplication {
+
+	/** Name of the frame. */
+	public static final String FRAME = "syntheticFrame";
+	/** Element list key of the combo box. */
+	public static final String COMBO_BOX = "Combo";
+	/** Element list key of the table. */
+	public static final String TABLE = "Table";
+	/** Element list key of the first table column. */
+	public static final String TABLE_COLUMN = "TableColumn";
+
+	private SyntheticSwingApplication() {
+	}
+
+	/**
+	 * @param index
+	 *            index of the text field
+	 * @return element list key of the text field
+	 */
+	public static String textFieldKey(int index) {
+		return "Field" + index;
+	}
+
+	/**
+	 * @param row
+	 *            index of the row
+	 * @return value of the first column of the row
+	 */
+	public static String cellValue(int row) {
+		return "row " + row;
+	}
+
+	/**
+	 * @param index
+	 *            index of the item
+	 * @return text of the combo box item
+	 */
+	public static String comboItem(int index) {
+		return "item " + index;
+	}
+
+	/**
+	 * Writes the element list of the application.
+	 *
+	 * @param file
+	 *            target file
+	 * @param components
+	 *            number of text fields and check boxes
+	 * @throws IOException
+	 *             if the file can't be written
+	 */
+	public static void writeElementList(File file, int components) throws IOException {
+		Writer writer = new OutputStreamWriter(new FileOutputStream(file), "UTF-8");
+		try {
+			writer.write("# generated by " + SyntheticSwingApplication.class.getSimpleName() + "\n");
+			for (int i = 0; i < components; i++) {
+				writer.write(textFieldKey(i) + " = textField" + i + "\n");
+			}
+			writer.write(COMBO_BOX + " = comboBox\n");
+			writer.write(TABLE + " = table\n");
+			writer.write(TABLE_COLUMN + " = 0\n");
+		} finally {
+			writer.close();
+		}
+	}
+
+	/**
+	 * Opens the main frame of the application.
+	 *
+	 * @param args
+	 *            not used
+	 */
+	public static void main(String[] args) {
+		final int components = Integer.getInteger("synthetic.components", 2000);
+		final int tableRows = Integer.getInteger("synthetic.tableRows", 10000);
+		final int comboSize = Integer.getInteger("synthetic.comboSize", 5000);
+		SwingUtilities.invokeLater(new Runnable() {
+			@Override
+			public void run() {
+				JFrame frame = new JFrame("Synthetic application");
+				frame.setName(FRAME);
+				JPanel fields = new JPanel(new GridLayout(0, 20));
+				for (int i = 0; i < components; i++) {
+					JTextField textField = new JTextField(4);
+					textField.setName("textField" + i);
+					fields.add(textField);
+					JCheckBox checkBox = new JCheckBox();
+					checkBox.setName("checkBox" + i);
+					fields.add(checkBox);
+				}
+				String[] items = new String[comboSize];
+				for (int i = 0; i < comboSize; i++) {
+					items[i] = comboItem(i);
+				}
+				JComboBox comboBox = new JComboBox(items);
+				comboBox.setName("comboBox");
+				DefaultTableModel model = new DefaultTableModel(new Object[] { "Name", "Index" }, 0);
+				for (int row = 0; row < tableRows; row++) {
+					model.addRow(new Object[] { cellValue(row), row });
+				}
+				JTable table = new JTable(model);
+				table.setName("table");
+				frame.setLayout(new BorderLayout());
+				frame.add(new JScrollPane(fields), BorderLayout.CENTER);
+				frame.add(comboBox, BorderLayout.NORTH);
+				frame.add(new JScrollPane(table), BorderLayout.EAST);
+				frame.setSize(1200, 900);
+				frame.setVisible(true);
+			}
+		});
+	}
+}
@@ -0,0 +1,370 @@
+/*******************************************************************************
+ * Copyright (c) 2012 - 2015 Signal Iduna Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Signal Iduna Corporation - initial API and implementation
+ * akquinet AG
+ *******************************************************************************/
+package org.testeditor.fixture.swing;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Binary journal of fixture steps. Each record holds the step method with
+ * its parameter types, the arguments, the locator the step resolved, the
+ * first error the step logged, the value the step returned and its
+ * duration. The journal is flushed
+ * after each record, so it survives a crash of the test JVM up to the last
+ * step.
+ *
+ * <pre>
+ * journal: int magic, records
+ * record:  UTF method, byte parameter count, UTF parameter types,
+ *          arguments, string locator, string error, result,
+ *          long duration in ns
+ * result:  byte type (0 none, 1 boolean, 2 int, 3 long, 4 string), value
+ * </pre>
+ *
+ * Strings are written as a length (-1 for <code>null</code>) and UTF-8 bytes.
+ *
+ */
+final class ActionJournal {
+
+	private static final int MAGIC = 0x53464a32;
+	private static final byte RESULT_NONE = 0;
+	private static final byte RESULT_BOOLEAN = 1;
+	private static final byte RESULT_INT = 2;
+	private static final byte RESULT_LONG = 3;
+	private static final byte RESULT_STRING = 4;
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+
+	private final DataOutputStream out;
+
+	/**
+	 * A step read from the journal.
+	 */
+	static final class Entry {
+		private final Method method;
+		private final Object[] arguments;
+		private final String locator;
+		private final String error;
+		private final Object result;
+		private final long nanos;
+
+		Entry(Method method, Object[] arguments, String locator, String error, Object result, long nanos) {
+			this.method = method;
+			this.arguments = arguments;
+			this.locator = locator;
+			this.error = error;
+			this.result = result;
+			this.nanos = nanos;
+		}
+
+		Method getMethod() {
+			return method;
+		}
+
+		Object[] getArguments() {
+			return arguments;
+		}
+
+		String getLocator() {
+			return locator;
+		}
+
+		String getError() {
+			return error;
+		}
+
+		Object getResult() {
+			return result;
+		}
+
+		long getNanos() {
+			return nanos;
+		}
+
+		@Override
+		public String toString() {
+			return method.getName() + Arrays.deepToString(arguments);
+		}
+	}
+
+	private ActionJournal(DataOutputStream out) {
+		this.out = out;
+	}
+
+	/**
+	 * Creates a new journal; an existing file is replaced.
+	 *
+	 * @param file
+	 *            the journal file
+	 * @return the journal
+	 * @throws IOException
+	 *             if the file can't be created
+	 */
+	static ActionJournal create(File file) throws IOException {
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+		out.writeInt(MAGIC);
+		out.flush();
+		return new ActionJournal(out);
+	}
+
+	/**
+	 * Appends a step.
+	 *
+	 * @param method
+	 *            the step method
+	 * @param arguments
+	 *            arguments of the step
+	 * @param locator
+	 *            locator resolved by the step or <code>null</code>
+	 * @param error
+	 *            first error logged by the step or <code>null</code>
+	 * @param result
+	 *            value returned by the step, <code>null</code> for none
+	 * @param nanos
+	 *            duration of the step
+	 * @throws IOException
+	 *             if writing fails
+	 */
+	synchronized void append(Method method, Object[] arguments, String locator, String error, Object result,
+			long nanos) throws IOException {
+		Class<?>[] types = method.getParameterTypes();
+		out.writeUTF(method.getName());
+		out.writeByte(types.length);
+		for (Class<?> type : types) {
+			out.writeUTF(type.getName());
+		}
+		for (int i = 0; i < types.length; i++) {
+			writeArgument(types[i], arguments[i]);
+		}
+		writeString(locator);
+		writeString(error);
+		writeResult(method.getReturnType(), result);
+		out.writeLong(nanos);
+		out.flush();
+	}
+
+	/**
+	 * Closes the journal.
+	 *
+	 * @throws IOException
+	 *             if closing fails
+	 */
+	synchronized void close() throws IOException {
+		out.close();
+	}
+
+	/**
+	 * Reads all steps of a journal.
+	 *
+	 * @param file
+	 *            the journal file
+	 * @return the steps in the recorded order
+	 * @throws IOException
+	 *             if the file is no journal or a step method doesn't exist
+	 *             anymore
+	 */
+	static List<Entry> read(File file) throws IOException {
+		DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+		try {
+			if (in.readInt() != MAGIC) {
+				throw new IOException(file + " is no action journal");
+			}
+			List<Entry> entries = new ArrayList<Entry>();
+			while (true) {
+				String name;
+				try {
+					name = in.readUTF();
+				} catch (EOFException e) {
+					return entries;
+				}
+				Class<?>[] types = new Class<?>[in.readUnsignedByte()];
+				for (int i = 0; i < types.length; i++) {
+					types[i] = typeOf(in.readUTF());
+				}
+				Object[] arguments = new Object[types.length];
+				for (int i = 0; i < types.length; i++) {
+					arguments[i] = readArgument(in, types[i]);
+				}
+				Method method;
+				try {
+					method = SwingFixture.class.getMethod(name, types);
+				} catch (NoSuchMethodException e) {
+					throw new IOException("step " + name + " of the journal doesn't exist: " + e);
+				}
+				String locator = readString(in);
+				String error = readString(in);
+				Object result = readResult(in);
+				entries.add(new Entry(method, arguments, locator, error, result, in.readLong()));
+			}
+		} finally {
+			in.close();
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private void writeArgument(Class<?> type, Object argument) throws IOException {
+		if (type == int.class) {
+			out.writeInt((Integer) argument);
+		} else if (type == long.class) {
+			out.writeLong((Long) argument);
+		} else if (type == boolean.class) {
+			out.writeBoolean((Boolean) argument);
+		} else if (type == String.class) {
+			writeString((String) argument);
+		} else if (type == String[].class) {
+			String[] strings = (String[]) argument;
+			if (strings == null) {
+				out.writeInt(-1);
+				return;
+			}
+			out.writeInt(strings.length);
+			for (String string : strings) {
+				writeString(string);
+			}
+		} else if (type == Map.class) {
+			Map<String, String> map = (Map<String, String>) argument;
+			if (map == null) {
+				out.writeInt(-1);
+				return;
+			}
+			out.writeInt(map.size());
+			for (Map.Entry<String, String> entry : map.entrySet()) {
+				writeString(entry.getKey());
+				writeString(entry.getValue());
+			}
+		}
+		// other types (e.g. class loaders) are replayed as null
+	}
+
+	private void writeResult(Class<?> type, Object result) throws IOException {
+		if (type == String.class) {
+			out.writeByte(RESULT_STRING);
+			writeString((String) result);
+		} else if (result instanceof Boolean) {
+			out.writeByte(RESULT_BOOLEAN);
+			out.writeBoolean((Boolean) result);
+		} else if (result instanceof Integer) {
+			out.writeByte(RESULT_INT);
+			out.writeInt((Integer) result);
+		} else if (result instanceof Long) {
+			out.writeByte(RESULT_LONG);
+			out.writeLong((Long) result);
+		} else {
+			out.writeByte(RESULT_NONE);
+		}
+	}
+
+	private static Object readResult(DataInputStream in) throws IOException {
+		byte type = in.readByte();
+		if (type == RESULT_BOOLEAN) {
+			return in.readBoolean();
+		}
+		if (type == RESULT_INT) {
+			return in.readInt();
+		}
+		if (type == RESULT_LONG) {
+			return in.readLong();
+		}
+		if (type == RESULT_STRING) {
+			return readString(in);
+		}
+		return null;
+	}
+
+	private static Object readArgument(DataInputStream in, Class<?> type) throws IOException {
+		if (type == int.class) {
+			return in.readInt();
+		}
+		if (type == long.class) {
+			return in.readLong();
+		}
+		if (type == boolean.class) {
+			return in.readBoolean();
+		}
+		if (type == String.class) {
+			return readString(in);
+		}
+		if (type == String[].class) {
+			int length = in.readInt();
+			if (length < 0) {
+				return null;
+			}
+			String[] strings = new String[length];
+			for (int i = 0; i < length; i++) {
+				strings[i] = readString(in);
+			}
+			return strings;
+		}
+		if (type == Map.class) {
+			int size = in.readInt();
+			if (size < 0) {
+				return null;
+			}
+			Map<String, String> map = new LinkedHashMap<String, String>();
+			for (int i = 0; i < size; i++) {
+				map.put(readString(in), readString(in));
+			}
+			return map;
+		}
+		return null;
+	}
+
+	private static Class<?> typeOf(String name) throws IOException {
+		if ("int".equals(name)) {
+			return int.class;
+		}
+		if ("long".equals(name)) {
+			return long.class;
+		}
+		if ("boolean".equals(name)) {
+			return boolean.class;
+		}
+		try {
+			return Class.forName(name);
+		} catch (ClassNotFoundException e) {
+			throw new IOException("unknown parameter type " + name + " Error: " + e);
+		}
+	}
+
+	private void writeString(String value) throws IOException {
+		if (value == null) {
+			out.writeInt(-1);
+			return;
+		}
+		byte[] bytes = value.getBytes(UTF8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	private static String readString(DataInputStream in) throws IOException {
+		int length = in.readInt();
+		if (length < 0) {
+			return null;
+		}
+		byte[] bytes = new byte[length];
+		in.readFully(bytes);
+		return new String(bytes, UTF8);
+	}
+}
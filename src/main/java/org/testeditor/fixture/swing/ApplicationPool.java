@@ -0,0 +1,195 @@
+/*******************************************************************************
+ * Copyright (c) 2012 - 2015 Signal Iduna Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Signal Iduna Corporation - initial API and implementation
+ * akquinet AG
+ *******************************************************************************/
+package org.testeditor.fixture.swing;
+
+import java.awt.Frame;
+import java.awt.Window;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.log4j.Logger;
+import org.fest.swing.edt.GuiActionRunner;
+import org.fest.swing.edt.GuiQuery;
+
+/**
+ * Keeps launched applications warm between tests. An application returned to
+ * the pool is reset to the state captured after its launch before it is
+ * handed out again: windows other than the main frame are disposed and the
+ * user editable state of the main frame is restored. Application state which
+ * is not shown in a component (e.g. data already stored by the AUT) is not
+ * reset.
+ *
+ */
+final class ApplicationPool {
+
+	private static final Logger LOGGER = Logger.getLogger(ApplicationPool.class);
+	private static final Map<String, PooledApplication> IDLE = new HashMap<String, PooledApplication>();
+	private static int launches;
+	private static int reuses;
+	private static int failedResets;
+
+	/**
+	 * A launched application with its main frame and baseline state.
+	 */
+	static final class PooledApplication {
+		private final Thread thread;
+		private final Frame mainFrame;
+		private final ComponentStateBaseline baseline;
+
+		/**
+		 * @param thread
+		 *            launcher thread of the application
+		 * @param mainFrame
+		 *            main frame of the application
+		 * @param baseline
+		 *            state of the main frame after the launch
+		 */
+		PooledApplication(Thread thread, Frame mainFrame, ComponentStateBaseline baseline) {
+			this.thread = thread;
+			this.mainFrame = mainFrame;
+			this.baseline = baseline;
+		}
+
+		/**
+		 * @return launcher thread of the application
+		 */
+		Thread getThread() {
+			return thread;
+		}
+
+		/**
+		 * @return main frame of the application
+		 */
+		Frame getMainFrame() {
+			return mainFrame;
+		}
+	}
+
+	private ApplicationPool() {
+	}
+
+	/**
+	 * Captures the baseline of a newly launched application.
+	 *
+	 * @param thread
+	 *            launcher thread of the application
+	 * @param mainFrame
+	 *            main frame of the application
+	 * @return the pooled application
+	 */
+	static PooledApplication launched(Thread thread, final Frame mainFrame) {
+		ComponentStateBaseline baseline = GuiActionRunner.execute(new GuiQuery<ComponentStateBaseline>() {
+			@Override
+			protected ComponentStateBaseline executeInEDT() {
+				return ComponentStateBaseline.capture(mainFrame);
+			}
+		});
+		synchronized (IDLE) {
+			launches++;
+		}
+		return new PooledApplication(thread, mainFrame, baseline);
+	}
+
+	/**
+	 * Takes the idle application for the path out of the pool and resets it
+	 * to its baseline. An application which can't be reset is disposed.
+	 *
+	 * @param path
+	 *            main class of the application
+	 * @return the reset application or <code>null</code> if there is none,
+	 *         the application has to be launched then
+	 */
+	static PooledApplication take(String path) {
+		final PooledApplication application;
+		synchronized (IDLE) {
+			application = IDLE.remove(path);
+		}
+		if (application == null) {
+			return null;
+		}
+		List<String> differences = GuiActionRunner.execute(new GuiQuery<List<String>>() {
+			@Override
+			protected List<String> executeInEDT() {
+				if (!application.mainFrame.isShowing()) {
+					return Collections.singletonList("main frame is not showing");
+				}
+				for (Window window : new ApplicationWindows(application.mainFrame, null).list()) {
+					if (window != application.mainFrame && window.isShowing()) {
+						window.dispose();
+					}
+				}
+				List<String> result = application.baseline.differences();
+				for (int pass = 0; pass < 2 && !result.isEmpty(); pass++) {
+					application.baseline.restore();
+					result = application.baseline.differences();
+				}
+				return result;
+			}
+		});
+		synchronized (IDLE) {
+			if (differences.isEmpty()) {
+				reuses++;
+				return application;
+			}
+			failedResets++;
+		}
+		LOGGER.warn("could not reset the pooled application " + path + ", launching it again: " + differences);
+		dispose(application);
+		return null;
+	}
+
+	/**
+	 * Returns the application to the pool. An application already idle for
+	 * the same path is disposed.
+	 *
+	 * @param path
+	 *            main class of the application
+	 * @param application
+	 *            the application
+	 */
+	static void giveBack(String path, PooledApplication application) {
+		PooledApplication replaced;
+		synchronized (IDLE) {
+			replaced = IDLE.put(path, application);
+		}
+		if (replaced != null && replaced != application) {
+			dispose(replaced);
+		}
+	}
+
+	/**
+	 * @return launches, reuses, failed resets and the reuse rate
+	 */
+	static String getStatistics() {
+		synchronized (IDLE) {
+			int starts = launches + reuses;
+			long rate = 0;
+			if (starts > 0) {
+				rate = Math.round(100.0 * reuses / starts);
+			}
+			return "launches: " + launches + ", reuses: " + reuses + ", failed resets: " + failedResets
+					+ ", reuse rate: " + rate + "%";
+		}
+	}
+
+	private static void dispose(final PooledApplication application) {
+		GuiActionRunner.execute(new GuiQuery<Void>() {
+			@Override
+			protected Void executeInEDT() {
+				application.mainFrame.dispose();
+				return null;
+			}
+		});
+	}
+}
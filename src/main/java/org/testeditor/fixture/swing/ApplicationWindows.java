@@ -0,0 +1,76 @@
+/*******************************************************************************
+ * Copyright (c) 2012 - 2015 Signal Iduna Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Signal Iduna Corporation - initial API and implementation
+ * akquinet AG
+ *******************************************************************************/
+package org.testeditor.fixture.swing;
+
+import java.awt.Window;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The windows of one AUT: its main window, the windows owned by it and the
+ * windows opened without owner, e.g. option panes without parent component,
+ * which Swing attaches to its shared owner frame. Windows of other
+ * applications in the same JVM are not included; for an isolated instance
+ * the ownerless windows are restricted to the windows of its class loader.
+ *
+ */
+final class ApplicationWindows {
+
+	private static final String SHARED_OWNER_FRAME = "javax.swing.SwingUtilities$SharedOwnerFrame";
+
+	private final Window mainWindow;
+	private final IsolatedApplicationLauncher launcher;
+
+	/**
+	 * @param mainWindow
+	 *            main window of the AUT, <code>null</code> if no application
+	 *            is running
+	 * @param launcher
+	 *            launcher of the isolated instance, <code>null</code> if the
+	 *            AUT is not isolated
+	 */
+	ApplicationWindows(Window mainWindow, IsolatedApplicationLauncher launcher) {
+		this.mainWindow = mainWindow;
+		this.launcher = launcher;
+	}
+
+	/**
+	 * Collects the windows of the AUT. Must be called in the EDT.
+	 *
+	 * @return the main window and all windows owned by it, directly or
+	 *         indirectly, followed by the ownerless windows of the AUT
+	 */
+	List<Window> list() {
+		List<Window> windows = new ArrayList<Window>();
+		if (mainWindow == null) {
+			return windows;
+		}
+		addOwned(mainWindow, windows);
+		for (Window ownerless : Window.getOwnerlessWindows()) {
+			if (SHARED_OWNER_FRAME.equals(ownerless.getClass().getName())) {
+				for (Window owned : ownerless.getOwnedWindows()) {
+					if (launcher == null || launcher.owns(owned)) {
+						addOwned(owned, windows);
+					}
+				}
+			}
+		}
+		return windows;
+	}
+
+	private static void addOwned(Window window, List<Window> windows) {
+		windows.add(window);
+		for (Window owned : window.getOwnedWindows()) {
+			addOwned(owned, windows);
+		}
+	}
+}
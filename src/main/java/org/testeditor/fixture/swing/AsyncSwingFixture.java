@@ -0,0 +1,352 @@
+/*******************************************************************************
+ * Copyright (c) 2012 - 2015 Signal Iduna Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Signal Iduna Corporation - initial API and implementation
+ * akquinet AG
+ *******************************************************************************/
+package org.testeditor.fixture.swing;
+
+import java.awt.Component;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import javax.swing.AbstractButton;
+import javax.swing.JComboBox;
+import javax.swing.JTable;
+import javax.swing.text.JTextComponent;
+
+import org.fest.swing.edt.GuiActionRunner;
+import org.fest.swing.edt.GuiQuery;
+
+/**
+ * Non-blocking facade of a {@link SwingFixture} for test harnesses which use
+ * the fixture without FitNesse. Lookups, reads and waits run on a dedicated
+ * executor and return <code>CompletableFuture</code>s, so independent checks
+ * can run while a wait is pending and be joined later. Reads of component
+ * state run in the EDT. Input (typing, clicking) is not offered here, it
+ * stays with the blocking fixture methods because the robot serializes it
+ * anyway. <br />
+ *
+ * A lookup completes with <code>null</code> if the component is not found; a
+ * read of a missing component completes exceptionally with an
+ * <code>IllegalArgumentException</code>. {@link #withTimeout(CompletableFuture, long)}
+ * bounds any future of the facade. {@link #shutdown()} completes all pending
+ * futures exceptionally with an <code>IllegalStateException</code>.
+ *
+ */
+public final class AsyncSwingFixture {
+
+	private static final AtomicInteger THREAD_NUMBER = new AtomicInteger();
+
+	private final SwingFixture fixture;
+	private final ExecutorService executor;
+	private final ScheduledExecutorService timer;
+	private final Set<CompletableFuture<?>> pending = Collections
+			.newSetFromMap(new ConcurrentHashMap<CompletableFuture<?>, Boolean>());
+
+	/**
+	 * @param fixture
+	 *            the fixture with the started application
+	 * @param threads
+	 *            number of threads of the executor, i.e. the number of
+	 *            lookups, reads and waits running at the same time
+	 */
+	public AsyncSwingFixture(SwingFixture fixture, int threads) {
+		this.fixture = fixture;
+		this.executor = Executors.newFixedThreadPool(threads, daemonThreads());
+		this.timer = Executors.newSingleThreadScheduledExecutor(daemonThreads());
+	}
+
+	/**
+	 * Looks up a component.
+	 *
+	 * @param elementListKey
+	 *            Key of the Component in element list
+	 * @return the component or <code>null</code> if it is not found
+	 */
+	public CompletableFuture<Component> lookup(final String elementListKey) {
+		return supply(new Supplier<Component>() {
+			@Override
+			public Component get() {
+				return fixture.findComponent(elementListKey);
+			}
+		});
+	}
+
+	/**
+	 * Reads a value of a component in the EDT.
+	 *
+	 * @param elementListKey
+	 *            Key of the Component in element list
+	 * @param reader
+	 *            function which reads the value, called in the EDT
+	 * @param <T>
+	 *            type of the value
+	 * @return the value
+	 */
+	public <T> CompletableFuture<T> read(final String elementListKey, final Function<Component, T> reader) {
+		return track(lookup(elementListKey).thenApplyAsync(new Function<Component, T>() {
+			@Override
+			public T apply(final Component component) {
+				if (component == null) {
+					throw new IllegalArgumentException("component " + elementListKey + " not found");
+				}
+				return GuiActionRunner.execute(new GuiQuery<T>() {
+					@Override
+					protected T executeInEDT() {
+						return reader.apply(component);
+					}
+				});
+			}
+		}, executor));
+	}
+
+	/**
+	 * Reads the text of a text component, button or the selected item of a
+	 * combo box.
+	 *
+	 * @param elementListKey
+	 *            Key of the Component in element list
+	 * @return the text
+	 */
+	public CompletableFuture<String> readText(String elementListKey) {
+		return read(elementListKey, new Function<Component, String>() {
+			@Override
+			public String apply(Component component) {
+				if (component instanceof JTextComponent) {
+					return ((JTextComponent) component).getText();
+				}
+				if (component instanceof AbstractButton) {
+					return ((AbstractButton) component).getText();
+				}
+				if (component instanceof JComboBox) {
+					return String.valueOf(((JComboBox) component).getSelectedItem());
+				}
+				throw new IllegalArgumentException(component.getClass().getName() + " has no text");
+			}
+		});
+	}
+
+	/**
+	 * @param elementListKey
+	 *            Key of the Component in element list
+	 * @return <code>true</code> if the component is enabled
+	 */
+	public CompletableFuture<Boolean> readEnabled(String elementListKey) {
+		return read(elementListKey, new Function<Component, Boolean>() {
+			@Override
+			public Boolean apply(Component component) {
+				return component.isEnabled();
+			}
+		});
+	}
+
+	/**
+	 * @param elementListKey
+	 *            Key of the check box, radio button or toggle button in the
+	 *            element list
+	 * @return <code>true</code> if the button is selected
+	 */
+	public CompletableFuture<Boolean> readSelected(String elementListKey) {
+		return read(elementListKey, new Function<Component, Boolean>() {
+			@Override
+			public Boolean apply(Component component) {
+				return ((AbstractButton) component).isSelected();
+			}
+		});
+	}
+
+	/**
+	 * @param elementListKey
+	 *            Key of the table in the element list
+	 * @return number of rows of the table
+	 */
+	public CompletableFuture<Integer> readTableRowCount(String elementListKey) {
+		return read(elementListKey, new Function<Component, Integer>() {
+			@Override
+			public Integer apply(Component component) {
+				return ((JTable) component).getRowCount();
+			}
+		});
+	}
+
+	/**
+	 * Waits until the component is enabled, see
+	 * {@link SwingFixture#waitUntilEnabled(String, int)}.
+	 *
+	 * @param elementListKey
+	 *            Key of the Component in element list
+	 * @param timeoutMilliSeconds
+	 *            maximum time to wait
+	 * @return <code>false</code> if the component was not enabled in time
+	 */
+	public CompletableFuture<Boolean> waitUntilEnabled(final String elementListKey, final int timeoutMilliSeconds) {
+		return supply(new Supplier<Boolean>() {
+			@Override
+			public Boolean get() {
+				return fixture.waitUntilEnabled(elementListKey, timeoutMilliSeconds);
+			}
+		});
+	}
+
+	/**
+	 * Waits until the text component shows the text, see
+	 * {@link SwingFixture#waitUntilTextEquals(String, String, int)}.
+	 *
+	 * @param elementListKey
+	 *            Key of the Component in element list
+	 * @param text
+	 *            expected text
+	 * @param timeoutMilliSeconds
+	 *            maximum time to wait
+	 * @return <code>false</code> if the text did not appear in time
+	 */
+	public CompletableFuture<Boolean> waitUntilTextEquals(final String elementListKey, final String text,
+			final int timeoutMilliSeconds) {
+		return supply(new Supplier<Boolean>() {
+			@Override
+			public Boolean get() {
+				return fixture.waitUntilTextEquals(elementListKey, text, timeoutMilliSeconds);
+			}
+		});
+	}
+
+	/**
+	 * Waits until the table has at least the number of rows, see
+	 * {@link SwingFixture#waitUntilTableRowCountAtLeast(String, int, int)}.
+	 *
+	 * @param elementListKey
+	 *            Key of the table in the element list
+	 * @param rowCount
+	 *            minimum number of rows
+	 * @param timeoutMilliSeconds
+	 *            maximum time to wait
+	 * @return <code>false</code> if the rows did not appear in time
+	 */
+	public CompletableFuture<Boolean> waitUntilTableRowCountAtLeast(final String elementListKey, final int rowCount,
+			final int timeoutMilliSeconds) {
+		return supply(new Supplier<Boolean>() {
+			@Override
+			public Boolean get() {
+				return fixture.waitUntilTableRowCountAtLeast(elementListKey, rowCount, timeoutMilliSeconds);
+			}
+		});
+	}
+
+	/**
+	 * Waits until the component is visible, see
+	 * {@link SwingFixture#waitUntilVisible(String, int)}.
+	 *
+	 * @param elementListKey
+	 *            Key of the Component in element list
+	 * @param timeoutMilliSeconds
+	 *            maximum time to wait
+	 * @return <code>false</code> if the component did not become visible in
+	 *         time
+	 */
+	public CompletableFuture<Boolean> waitUntilVisible(final String elementListKey, final int timeoutMilliSeconds) {
+		return supply(new Supplier<Boolean>() {
+			@Override
+			public Boolean get() {
+				return fixture.waitUntilVisible(elementListKey, timeoutMilliSeconds);
+			}
+		});
+	}
+
+	/**
+	 * Bounds a future: the returned future completes with the result of the
+	 * future or exceptionally with a <code>TimeoutException</code> when the
+	 * timeout elapses first. The work behind the future is not interrupted.
+	 *
+	 * @param future
+	 *            the future
+	 * @param timeoutMilliSeconds
+	 *            the timeout
+	 * @param <T>
+	 *            type of the result
+	 * @return the bounded future
+	 */
+	public <T> CompletableFuture<T> withTimeout(CompletableFuture<T> future, final long timeoutMilliSeconds) {
+		final CompletableFuture<T> bounded = new CompletableFuture<T>();
+		final ScheduledFuture<?> timeout = timer.schedule(new Runnable() {
+			@Override
+			public void run() {
+				bounded.completeExceptionally(new TimeoutException("no result after " + timeoutMilliSeconds + " ms"));
+			}
+		}, timeoutMilliSeconds, TimeUnit.MILLISECONDS);
+		future.whenComplete(new BiConsumer<T, Throwable>() {
+			@Override
+			public void accept(T result, Throwable failure) {
+				timeout.cancel(false);
+				if (failure == null) {
+					bounded.complete(result);
+				} else {
+					bounded.completeExceptionally(failure);
+				}
+			}
+		});
+		return track(bounded);
+	}
+
+	/**
+	 * Stops the threads of the facade and completes all pending futures
+	 * exceptionally, so callers joining them don't wait forever.
+	 */
+	public void shutdown() {
+		executor.shutdownNow();
+		timer.shutdownNow();
+		for (CompletableFuture<?> future : new ArrayList<CompletableFuture<?>>(pending)) {
+			future.completeExceptionally(new IllegalStateException("async swing fixture was shut down"));
+		}
+		pending.clear();
+	}
+
+	private <T> CompletableFuture<T> supply(Supplier<T> supplier) {
+		return track(CompletableFuture.supplyAsync(supplier, executor));
+	}
+
+	/**
+	 * Remembers the future until it completes, so {@link #shutdown()} can
+	 * complete it.
+	 */
+	private <T> CompletableFuture<T> track(final CompletableFuture<T> future) {
+		pending.add(future);
+		future.whenComplete(new BiConsumer<T, Throwable>() {
+			@Override
+			public void accept(T result, Throwable failure) {
+				pending.remove(future);
+			}
+		});
+		return future;
+	}
+
+	private static ThreadFactory daemonThreads() {
+		return new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(runnable, "swing-fixture-async-" + THREAD_NUMBER.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			}
+		};
+	}
+}
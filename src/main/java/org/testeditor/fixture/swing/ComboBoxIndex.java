@@ -0,0 +1,134 @@
+/*******************************************************************************
+ * Copyright (c) 2012 - 2015 Signal Iduna Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Signal Iduna Corporation - initial API and implementation
+ * akquinet AG
+ *******************************************************************************/
+package org.testeditor.fixture.swing;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.swing.ComboBoxModel;
+import javax.swing.JComboBox;
+import javax.swing.event.ListDataEvent;
+import javax.swing.event.ListDataListener;
+
+import org.fest.swing.driver.BasicJComboBoxCellReader;
+import org.fest.swing.edt.GuiActionRunner;
+import org.fest.swing.edt.GuiQuery;
+import org.fest.swing.edt.GuiTask;
+
+/**
+ * Index text -&gt; item index of a combo box model. The texts are read with
+ * the cell reader of FEST, so they are the same texts FEST matches. The index
+ * is built in one pass over the model on the first lookup and dropped by a
+ * <code>ListDataListener</code> as soon as the items change. Events for the
+ * interval -1 to -1 only report a new selected item and keep the index.
+ *
+ */
+final class ComboBoxIndex implements ListDataListener {
+
+	private final JComboBox comboBox;
+	private final ComboBoxModel model;
+	private volatile Map<String, Integer> items;
+
+	private ComboBoxIndex(JComboBox comboBox) {
+		this.comboBox = comboBox;
+		this.model = comboBox.getModel();
+	}
+
+	/**
+	 * Creates the index for the current model of the combo box and registers
+	 * it as listener of the model.
+	 *
+	 * @param comboBox
+	 *            the combo box
+	 * @return the index
+	 */
+	static ComboBoxIndex create(final JComboBox comboBox) {
+		return GuiActionRunner.execute(new GuiQuery<ComboBoxIndex>() {
+			@Override
+			protected ComboBoxIndex executeInEDT() {
+				ComboBoxIndex index = new ComboBoxIndex(comboBox);
+				index.model.addListDataListener(index);
+				return index;
+			}
+		});
+	}
+
+	/**
+	 * @param box
+	 *            the combo box
+	 * @return <code>true</code> if the index belongs to the current model of
+	 *         the combo box
+	 */
+	boolean isIndexOf(JComboBox box) {
+		return box == comboBox && box.getModel() == model;
+	}
+
+	/**
+	 * Returns the index of the first item with the text.
+	 *
+	 * @param text
+	 *            text of the item
+	 * @return the index of the item or -1 if no item has the text
+	 */
+	int indexOf(String text) {
+		Map<String, Integer> current = items;
+		if (current == null) {
+			current = GuiActionRunner.execute(new GuiQuery<Map<String, Integer>>() {
+				@Override
+				protected Map<String, Integer> executeInEDT() {
+					BasicJComboBoxCellReader cellReader = new BasicJComboBoxCellReader();
+					Map<String, Integer> result = new HashMap<String, Integer>();
+					for (int index = model.getSize() - 1; index >= 0; index--) {
+						result.put(cellReader.valueAt(comboBox, index), index);
+					}
+					items = result;
+					return result;
+				}
+			});
+		}
+		Integer index = current.get(text);
+		if (index == null) {
+			return -1;
+		}
+		return index;
+	}
+
+	/**
+	 * Unregisters the index from the model.
+	 */
+	void dispose() {
+		GuiActionRunner.execute(new GuiTask() {
+			@Override
+			protected void executeInEDT() {
+				model.removeListDataListener(ComboBoxIndex.this);
+			}
+		});
+		items = null;
+	}
+
+	@Override
+	public void intervalAdded(ListDataEvent e) {
+		items = null;
+	}
+
+	@Override
+	public void intervalRemoved(ListDataEvent e) {
+		items = null;
+	}
+
+	@Override
+	public void contentsChanged(ListDataEvent e) {
+		if (e.getIndex0() != -1 || e.getIndex1() != -1) {
+			items = null;
+		}
+	}
+}
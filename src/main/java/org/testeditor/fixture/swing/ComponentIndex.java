@@ -0,0 +1,236 @@
+/*******************************************************************************
+ * Copyright (c) 2012 - 2015 Signal Iduna Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Signal Iduna Corporation - initial API and implementation
+ * akquinet AG
+ *******************************************************************************/
+package org.testeditor.fixture.swing;
+
+import java.awt.Component;
+import java.awt.Container;
+import java.awt.event.ContainerEvent;
+import java.awt.event.ContainerListener;
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.lang.ref.WeakReference;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.fest.swing.edt.GuiActionRunner;
+import org.fest.swing.edt.GuiTask;
+
+/**
+ * Index of the named components below a root container (usually the main
+ * window of the AUT). The index is built with one walk over the hierarchy and
+ * kept up to date with a <code>ContainerListener</code> on every container and
+ * a <code>PropertyChangeListener</code> for renamed components, so a lookup by
+ * name does not need to scan the whole AWT hierarchy again. Components are
+ * only weakly referenced.
+ *
+ */
+class ComponentIndex {
+
+	private static final String NAME_PROPERTY = "name";
+
+	private final WeakReference<Container> root;
+	private final Map<String, List<WeakReference<Component>>> components = new ConcurrentHashMap<String, List<WeakReference<Component>>>();
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+
+	private final ContainerListener containerListener = new ContainerListener() {
+
+		@Override
+		public void componentAdded(ContainerEvent e) {
+			register(e.getChild());
+		}
+
+		@Override
+		public void componentRemoved(ContainerEvent e) {
+			unregister(e.getChild());
+		}
+	};
+
+	private final PropertyChangeListener nameListener = new PropertyChangeListener() {
+
+		@Override
+		public void propertyChange(PropertyChangeEvent evt) {
+			Component component = (Component) evt.getSource();
+			remove((String) evt.getOldValue(), component);
+			add((String) evt.getNewValue(), component);
+		}
+	};
+
+	/**
+	 * Creates the index for the given root container. The initial walk over
+	 * the hierarchy runs in the EDT.
+	 *
+	 * @param root
+	 *            root of the indexed hierarchy
+	 */
+	ComponentIndex(final Container root) {
+		this.root = new WeakReference<Container>(root);
+		GuiActionRunner.execute(new GuiTask() {
+			@Override
+			protected void executeInEDT() {
+				register(root);
+			}
+		});
+	}
+
+	/**
+	 * Returns the indexed component with the given name. A lookup counts as hit
+	 * only if exactly one component with this name exists, it is an instance
+	 * of the given type and it is showing, which is the same contract as the
+	 * FEST lookup by name.
+	 *
+	 * @param name
+	 *            name of the component
+	 * @param type
+	 *            expected type of the component
+	 * @return the component or <code>null</code> if the index can't answer
+	 *         the lookup unambiguously
+	 */
+	<T extends Component> T lookup(String name, Class<T> type) {
+		Component found = null;
+		if (name != null) {
+			List<WeakReference<Component>> candidates = components.get(name);
+			if (candidates != null) {
+				int count = 0;
+				for (WeakReference<Component> reference : candidates) {
+					Component component = reference.get();
+					if (component == null) {
+						candidates.remove(reference);
+					} else if (component.isShowing()) {
+						found = component;
+						count++;
+					}
+				}
+				if (count != 1) {
+					found = null;
+				}
+			}
+		}
+		if (type.isInstance(found)) {
+			hits.incrementAndGet();
+			return type.cast(found);
+		}
+		misses.incrementAndGet();
+		return null;
+	}
+
+	/**
+	 * @return the root container of this index, <code>null</code> if it was
+	 *         garbage collected
+	 */
+	Container getRoot() {
+		return root.get();
+	}
+
+	/**
+	 * @return number of lookups answered by the index
+	 */
+	long getHits() {
+		return hits.get();
+	}
+
+	/**
+	 * @return number of lookups the index could not answer
+	 */
+	long getMisses() {
+		return misses.get();
+	}
+
+	/**
+	 * Removes all listeners from the indexed hierarchy.
+	 */
+	void dispose() {
+		final Container container = root.get();
+		if (container != null) {
+			GuiActionRunner.execute(new GuiTask() {
+				@Override
+				protected void executeInEDT() {
+					unregister(container);
+				}
+			});
+		}
+		components.clear();
+	}
+
+	/**
+	 * Adds the component and all its children to the index.
+	 *
+	 * @param component
+	 *            component to add
+	 */
+	private void register(Component component) {
+		add(component.getName(), component);
+		component.removePropertyChangeListener(NAME_PROPERTY, nameListener);
+		component.addPropertyChangeListener(NAME_PROPERTY, nameListener);
+		if (component instanceof Container) {
+			Container container = (Container) component;
+			container.removeContainerListener(containerListener);
+			container.addContainerListener(containerListener);
+			for (Component child : container.getComponents()) {
+				register(child);
+			}
+		}
+	}
+
+	/**
+	 * Removes the component and all its children from the index.
+	 *
+	 * @param component
+	 *            component to remove
+	 */
+	private void unregister(Component component) {
+		remove(component.getName(), component);
+		component.removePropertyChangeListener(NAME_PROPERTY, nameListener);
+		if (component instanceof Container) {
+			Container container = (Container) component;
+			container.removeContainerListener(containerListener);
+			for (Component child : container.getComponents()) {
+				unregister(child);
+			}
+		}
+	}
+
+	private void add(String name, Component component) {
+		if (name == null) {
+			return;
+		}
+		List<WeakReference<Component>> candidates = components.get(name);
+		if (candidates == null) {
+			candidates = new CopyOnWriteArrayList<WeakReference<Component>>();
+			components.put(name, candidates);
+		}
+		for (WeakReference<Component> reference : candidates) {
+			if (reference.get() == component) {
+				return;
+			}
+		}
+		candidates.add(new WeakReference<Component>(component));
+	}
+
+	private void remove(String name, Component component) {
+		if (name == null) {
+			return;
+		}
+		List<WeakReference<Component>> candidates = components.get(name);
+		if (candidates != null) {
+			for (WeakReference<Component> reference : candidates) {
+				Component indexed = reference.get();
+				if (indexed == null || indexed == component) {
+					candidates.remove(reference);
+				}
+			}
+		}
+	}
+}
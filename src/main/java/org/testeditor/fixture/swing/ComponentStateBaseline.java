@@ -0,0 +1,240 @@
+/*******************************************************************************
+ * Copyright (c) 2012 - 2015 Signal Iduna Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Signal Iduna Corporation - initial API and implementation
+ * akquinet AG
+ *******************************************************************************/
+package org.testeditor.fixture.swing;
+
+import java.awt.Component;
+import java.awt.Container;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.WeakHashMap;
+
+import javax.swing.ButtonGroup;
+import javax.swing.ButtonModel;
+import javax.swing.DefaultButtonModel;
+import javax.swing.JComboBox;
+import javax.swing.JList;
+import javax.swing.JTable;
+import javax.swing.JToggleButton;
+import javax.swing.JTree;
+import javax.swing.table.TableModel;
+import javax.swing.text.JTextComponent;
+
+/**
+ * The user editable state of all components below a container: texts,
+ * selected combo box items, checked toggle buttons and the selections of
+ * lists, tables and trees. The rows of tables are part of the state, too: a
+ * table whose rows were added, removed or edited can't be restored and keeps
+ * differing from the baseline. The state is captured once and restored
+ * between tests. All methods must be called in the EDT.
+ *
+ */
+final class ComponentStateBaseline {
+
+	private final Map<Component, Object> states = new WeakHashMap<Component, Object>();
+
+	private ComponentStateBaseline() {
+	}
+
+	/**
+	 * Captures the state of all components below the root.
+	 *
+	 * @param root
+	 *            the root container
+	 * @return the baseline
+	 */
+	static ComponentStateBaseline capture(Container root) {
+		ComponentStateBaseline baseline = new ComponentStateBaseline();
+		baseline.collect(root);
+		return baseline;
+	}
+
+	/**
+	 * Restores the captured state. Toggle buttons are clicked, so the
+	 * listeners of the AUT see the same events as for a user. The selection
+	 * of a table is only restored if its rows are unchanged.
+	 */
+	void restore() {
+		for (Entry<Component, Object> entry : states.entrySet()) {
+			Component component = entry.getKey();
+			Object state = entry.getValue();
+			if (component instanceof JTextComponent) {
+				JTextComponent text = (JTextComponent) component;
+				if (!state.equals(text.getText())) {
+					text.setText((String) state);
+				}
+			} else if (component instanceof JComboBox) {
+				JComboBox comboBox = (JComboBox) component;
+				int index = (Integer) state;
+				if (index < comboBox.getItemCount() && comboBox.getSelectedIndex() != index) {
+					comboBox.setSelectedIndex(index);
+				}
+			} else if (component instanceof JToggleButton) {
+				restoreToggleButton((JToggleButton) component, (Boolean) state);
+			} else if (component instanceof JList) {
+				((JList) component).setSelectedIndices(toArray((List<?>) state));
+			} else if (component instanceof JTable) {
+				restoreTable((JTable) component, (TableState) state);
+			} else if (component instanceof JTree) {
+				((JTree) component).setSelectionRows(toArray((List<?>) state));
+			}
+		}
+	}
+
+	/**
+	 * Compares the current state with the baseline.
+	 *
+	 * @return the components which differ from the baseline, empty if the
+	 *         state was restored completely
+	 */
+	List<String> differences() {
+		List<String> differences = new ArrayList<String>();
+		for (Entry<Component, Object> entry : states.entrySet()) {
+			Object current = stateOf(entry.getKey());
+			if (!entry.getValue().equals(current)) {
+				differences.add(entry.getKey().getClass().getSimpleName() + " " + entry.getKey().getName() + ": "
+						+ current + " instead of " + entry.getValue());
+			}
+		}
+		return differences;
+	}
+
+	private void collect(Component component) {
+		Object state = stateOf(component);
+		if (state != null) {
+			states.put(component, state);
+		}
+		if (component instanceof Container) {
+			for (Component child : ((Container) component).getComponents()) {
+				collect(child);
+			}
+		}
+	}
+
+	private static Object stateOf(Component component) {
+		if (component instanceof JTextComponent) {
+			return ((JTextComponent) component).getText();
+		}
+		if (component instanceof JComboBox) {
+			return ((JComboBox) component).getSelectedIndex();
+		}
+		if (component instanceof JToggleButton) {
+			return ((JToggleButton) component).isSelected();
+		}
+		if (component instanceof JList) {
+			return toList(((JList) component).getSelectedIndices());
+		}
+		if (component instanceof JTable) {
+			return new TableState((JTable) component);
+		}
+		if (component instanceof JTree) {
+			return toList(((JTree) component).getSelectionRows());
+		}
+		return null;
+	}
+
+	private static void restoreTable(JTable table, TableState state) {
+		TableState current = new TableState(table);
+		if (current.rowCount != state.rowCount || current.contentHash != state.contentHash
+				|| current.selectedRows.equals(state.selectedRows)) {
+			return;
+		}
+		table.clearSelection();
+		for (int row : state.selectedRows) {
+			table.addRowSelectionInterval(row, row);
+		}
+	}
+
+	private static List<Integer> toList(int[] indices) {
+		List<Integer> list = new ArrayList<Integer>();
+		if (indices != null) {
+			for (int index : indices) {
+				list.add(index);
+			}
+		}
+		return list;
+	}
+
+	private static int[] toArray(List<?> indices) {
+		int[] array = new int[indices.size()];
+		for (int i = 0; i < array.length; i++) {
+			array[i] = (Integer) indices.get(i);
+		}
+		return array;
+	}
+
+	private static void restoreToggleButton(JToggleButton button, boolean selected) {
+		if (button.isSelected() == selected) {
+			return;
+		}
+		ButtonModel model = button.getModel();
+		ButtonGroup group = null;
+		if (model instanceof DefaultButtonModel) {
+			group = ((DefaultButtonModel) model).getGroup();
+		}
+		if (!selected && group != null) {
+			group.clearSelection();
+		} else {
+			button.doClick(0);
+		}
+	}
+
+	/**
+	 * Rows and selected rows of a table. The rows are compared by their
+	 * number and a hash of all cells of the model.
+	 */
+	private static final class TableState {
+		private final int rowCount;
+		private final int contentHash;
+		private final List<Integer> selectedRows;
+
+		TableState(JTable table) {
+			TableModel model = table.getModel();
+			int hash = 1;
+			for (int row = 0; row < model.getRowCount(); row++) {
+				for (int column = 0; column < model.getColumnCount(); column++) {
+					Object value = model.getValueAt(row, column);
+					int valueHash = 0;
+					if (value != null) {
+						valueHash = value.hashCode();
+					}
+					hash = 31 * hash + valueHash;
+				}
+			}
+			this.rowCount = model.getRowCount();
+			this.contentHash = hash;
+			this.selectedRows = toList(table.getSelectedRows());
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			if (!(other instanceof TableState)) {
+				return false;
+			}
+			TableState state = (TableState) other;
+			return rowCount == state.rowCount && contentHash == state.contentHash
+					&& selectedRows.equals(state.selectedRows);
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * (31 * rowCount + contentHash) + selectedRows.hashCode();
+		}
+
+		@Override
+		public String toString() {
+			return "rows " + rowCount + " (content " + Integer.toHexString(contentHash) + ") selected "
+					+ selectedRows;
+		}
+	}
+}
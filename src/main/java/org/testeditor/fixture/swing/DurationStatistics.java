@@ -0,0 +1,65 @@
+/*******************************************************************************
+ * Copyright (c) 2012 - 2015 Signal Iduna Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Signal Iduna Corporation - initial API and implementation
+ * akquinet AG
+ *******************************************************************************/
+package org.testeditor.fixture.swing;
+
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+
+/**
+ * Count, total and maximum duration of operations grouped by a key.
+ *
+ */
+final class DurationStatistics {
+
+	private final Map<String, long[]> durations = new TreeMap<String, long[]>();
+
+	/**
+	 * Records the duration of one operation.
+	 *
+	 * @param key
+	 *            group of the operation
+	 * @param nanos
+	 *            duration in nanoseconds
+	 */
+	synchronized void record(String key, long nanos) {
+		long[] values = durations.get(key);
+		if (values == null) {
+			values = new long[3];
+			durations.put(key, values);
+		}
+		values[0]++;
+		values[1] += nanos;
+		values[2] = Math.max(values[2], nanos);
+	}
+
+	/**
+	 * Removes all recorded durations.
+	 */
+	synchronized void clear() {
+		durations.clear();
+	}
+
+	@Override
+	public synchronized String toString() {
+		StringBuilder result = new StringBuilder();
+		for (Entry<String, long[]> entry : durations.entrySet()) {
+			long[] values = entry.getValue();
+			if (result.length() > 0) {
+				result.append(", ");
+			}
+			result.append(entry.getKey()).append(": ").append(values[0]).append("x total ")
+					.append(values[1] / 1000000).append(" ms max ").append(values[2] / 1000000).append(" ms");
+		}
+		return result.toString();
+	}
+}
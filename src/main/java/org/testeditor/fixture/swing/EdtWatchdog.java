@@ -0,0 +1,247 @@
+/*******************************************************************************
+ * Copyright (c) 2012 - 2015 Signal Iduna Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Signal Iduna Corporation - initial API and implementation
+ * akquinet AG
+ *******************************************************************************/
+package org.testeditor.fixture.swing;
+
+import java.awt.EventQueue;
+import java.util.ArrayDeque;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.log4j.Logger;
+
+/**
+ * Measures the responsiveness of the AUT while the fixture drives it. A
+ * daemon thread posts an empty probe event to the event queue every
+ * {@link #PROBE_INTERVAL} ms and measures how long it takes until the EDT
+ * runs it. If a probe is not run within the stall threshold, the stack
+ * trace of the EDT is taken, so the stall shows the code blocking the EDT.
+ * Each stall is linked to the fixture step running when its probe was
+ * posted, in the report as well as in the worst stall of the step, which is
+ * reported at the end of the step. Stalls caused by the fixture's own tasks
+ * in the EDT, e.g. painting a screenshot or reading a table, are not stalls
+ * of the AUT: if the EDT runs a FEST <code>GuiQuery</code> or
+ * <code>GuiTask</code> and no code of the AUT is on top of it, the stall is
+ * only counted as a fixture task. The last {@link #MAX_STALLS} stalls are
+ * kept for the report.
+ *
+ */
+final class EdtWatchdog {
+
+	static final long PROBE_INTERVAL = 100;
+	static final int MAX_STALLS = 20;
+
+	private static final Logger LOGGER = Logger.getLogger(EdtWatchdog.class);
+	private static final int MAX_STACK_FRAMES = 25;
+
+	private final long thresholdMillis;
+	private final Thread thread;
+	private final ArrayDeque<String> stalls = new ArrayDeque<String>();
+	private volatile boolean running = true;
+	private volatile Thread edt;
+	private volatile long probePosted;
+	private volatile String step;
+	private volatile long stepId;
+	private volatile long probeStepId;
+	private long stepWorst;
+	private long probes;
+	private long totalLatency;
+	private long maxLatency;
+	private int stallCount;
+	private int fixtureStallCount;
+
+	private EdtWatchdog(long thresholdMillis) {
+		this.thresholdMillis = thresholdMillis;
+		this.thread = new Thread("edt-watchdog") {
+			@Override
+			public void run() {
+				probe();
+			}
+		};
+		thread.setDaemon(true);
+	}
+
+	/**
+	 * Starts a watchdog.
+	 *
+	 * @param thresholdMillis
+	 *            latency of the event queue above which a stall is recorded
+	 * @return the running watchdog
+	 */
+	static EdtWatchdog start(long thresholdMillis) {
+		EdtWatchdog watchdog = new EdtWatchdog(thresholdMillis);
+		watchdog.thread.start();
+		return watchdog;
+	}
+
+	/**
+	 * Stops the probes.
+	 */
+	void stop() {
+		running = false;
+		thread.interrupt();
+	}
+
+	/**
+	 * Links the following stalls to a step and resets the worst stall of the
+	 * step.
+	 *
+	 * @param name
+	 *            name of the step
+	 */
+	synchronized void beginStep(String name) {
+		step = name;
+		stepId++;
+		stepWorst = 0;
+	}
+
+	/**
+	 * Ends the step.
+	 *
+	 * @return the worst latency of the event queue above the threshold
+	 *         during the step, including a stall still going on, 0 if there
+	 *         was none
+	 */
+	synchronized long endStep() {
+		long worst = stepWorst;
+		long pending = pendingMillis();
+		if (pending > thresholdMillis && probeStepId == stepId) {
+			worst = Math.max(worst, pending);
+		}
+		step = null;
+		stepId++;
+		stepWorst = 0;
+		return worst;
+	}
+
+	/**
+	 * @return probes, mean and maximum latency, number of stalls and the last
+	 *         stalls with the steps and the stack traces of the EDT
+	 */
+	synchronized String describe() {
+		StringBuilder result = new StringBuilder("probes: ").append(probes);
+		if (probes > 0) {
+			result.append(", mean latency: ").append(totalLatency / probes).append(" ms");
+		}
+		result.append(", max latency: ").append(maxLatency).append(" ms, stalls over ").append(thresholdMillis)
+				.append(" ms: ").append(stallCount).append(", fixture tasks over ").append(thresholdMillis)
+				.append(" ms: ").append(fixtureStallCount);
+		for (String stall : stalls) {
+			result.append('\n').append(stall);
+		}
+		return result.toString();
+	}
+
+	private long pendingMillis() {
+		long posted = probePosted;
+		if (posted == 0) {
+			return 0;
+		}
+		return (System.nanoTime() - posted) / 1000000;
+	}
+
+	private void probe() {
+		try {
+			while (running) {
+				final CountDownLatch done = new CountDownLatch(1);
+				long postedStepId;
+				String stalledStep;
+				synchronized (this) {
+					postedStepId = stepId;
+					stalledStep = step;
+				}
+				probeStepId = postedStepId;
+				probePosted = System.nanoTime();
+				EventQueue.invokeLater(new Runnable() {
+					@Override
+					public void run() {
+						edt = Thread.currentThread();
+						done.countDown();
+					}
+				});
+				StackTraceElement[] stack = null;
+				if (!done.await(thresholdMillis, TimeUnit.MILLISECONDS)) {
+					Thread blocked = edt;
+					if (blocked != null) {
+						stack = blocked.getStackTrace();
+					}
+					done.await();
+				}
+				long latency = pendingMillis();
+				probePosted = 0;
+				record(latency, postedStepId, stalledStep, stack);
+				Thread.sleep(PROBE_INTERVAL);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private synchronized void record(long latency, long postedStepId, String stalledStep,
+			StackTraceElement[] stack) {
+		probes++;
+		totalLatency += latency;
+		maxLatency = Math.max(maxLatency, latency);
+		if (latency <= thresholdMillis) {
+			return;
+		}
+		if (isFixtureTask(stack)) {
+			fixtureStallCount++;
+			LOGGER.debug("fixture task blocked the EDT for " + latency + " ms during step " + stalledStep);
+			return;
+		}
+		stallCount++;
+		if (stalledStep != null && postedStepId == stepId) {
+			stepWorst = Math.max(stepWorst, latency);
+		}
+		StringBuilder stall = new StringBuilder("EDT stalled ").append(latency).append(" ms during step ")
+				.append(stalledStep);
+		if (stack != null) {
+			for (int i = 0; i < stack.length && i < MAX_STACK_FRAMES; i++) {
+				stall.append("\n\tat ").append(stack[i]);
+			}
+		}
+		LOGGER.warn(stall);
+		stalls.addLast(stall.toString());
+		if (stalls.size() > MAX_STALLS) {
+			stalls.removeFirst();
+		}
+	}
+
+	/**
+	 * @param stack
+	 *            stack trace of the EDT during the stall, innermost frame
+	 *            first
+	 * @return <code>true</code> if the EDT ran a task of the fixture and only
+	 *         JDK, FEST or fixture code on top of it
+	 */
+	static boolean isFixtureTask(StackTraceElement[] stack) {
+		if (stack == null) {
+			return false;
+		}
+		for (StackTraceElement frame : stack) {
+			String type = frame.getClassName();
+			if ("org.fest.swing.edt.GuiQuery".equals(type) || "org.fest.swing.edt.GuiTask".equals(type)) {
+				return true;
+			}
+			if (!isJdkOrFixture(type)) {
+				return false;
+			}
+		}
+		return false;
+	}
+
+	private static boolean isJdkOrFixture(String type) {
+		return type.startsWith("java.") || type.startsWith("javax.") || type.startsWith("sun.")
+				|| type.startsWith("com.sun.") || type.startsWith("jdk.") || type.startsWith("org.fest.")
+				|| type.startsWith("org.testeditor.fixture.swing.");
+	}
+}
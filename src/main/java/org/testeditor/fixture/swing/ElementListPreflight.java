@@ -0,0 +1,194 @@
+/*******************************************************************************
+ * Copyright (c) 2012 - 2015 Signal Iduna Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Signal Iduna Corporation - initial API and implementation
+ * akquinet AG
+ *******************************************************************************/
+package org.testeditor.fixture.swing;
+
+import java.awt.Component;
+import java.awt.Container;
+import java.awt.Window;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.fest.swing.edt.GuiActionRunner;
+import org.fest.swing.edt.GuiQuery;
+
+/**
+ * Resolves all keys of an element list against the showing windows of the
+ * AUT in one walk over the component hierarchy. The result contains the
+ * binding key -&gt; locator -&gt; component of every key that could be resolved
+ * and lists all keys whose locator is missing or ambiguous.
+ *
+ */
+final class ElementListPreflight {
+
+	private final Map<String, String> locators = new LinkedHashMap<String, String>();
+	private final Map<String, WeakReference<Component>> bindings = new HashMap<String, WeakReference<Component>>();
+	private final List<String> missing = new ArrayList<String>();
+	private final List<String> ambiguous = new ArrayList<String>();
+
+	private ElementListPreflight() {
+	}
+
+	/**
+	 * Reads the keys of an element list file. Lines have the form
+	 * <code>key = locator</code>, lines starting with <code>#</code> are
+	 * comments.
+	 *
+	 * @param elementList
+	 *            path of the element list
+	 * @return the keys in the order of the file
+	 * @throws IOException
+	 *             if the element list can't be read
+	 */
+	static List<String> readKeys(String elementList) throws IOException {
+		List<String> keys = new ArrayList<String>();
+		BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(new File(elementList)),
+				"UTF-8"));
+		try {
+			String line = reader.readLine();
+			while (line != null) {
+				String trimmed = line.trim();
+				int separator = trimmed.indexOf('=');
+				if (!trimmed.startsWith("#") && separator > 0) {
+					keys.add(trimmed.substring(0, separator).trim());
+				}
+				line = reader.readLine();
+			}
+		} finally {
+			reader.close();
+		}
+		return keys;
+	}
+
+	/**
+	 * Resolves the given locators against the showing windows of the AUT.
+	 * Locators consisting only of digits are column indices of tables and are
+	 * not looked up.
+	 *
+	 * @param keyToLocator
+	 *            element list keys with their locators
+	 * @param windows
+	 *            the windows of the AUT
+	 * @return the result of the preflight
+	 */
+	static ElementListPreflight resolve(Map<String, String> keyToLocator, final ApplicationWindows windows) {
+		final ElementListPreflight preflight = new ElementListPreflight();
+		preflight.locators.putAll(keyToLocator);
+		Map<String, List<Component>> named = GuiActionRunner.execute(new GuiQuery<Map<String, List<Component>>>() {
+			@Override
+			protected Map<String, List<Component>> executeInEDT() {
+				Map<String, List<Component>> result = new HashMap<String, List<Component>>();
+				for (Window window : windows.list()) {
+					if (window.isShowing()) {
+						collect(window, result);
+					}
+				}
+				return result;
+			}
+		});
+		for (Entry<String, String> entry : keyToLocator.entrySet()) {
+			String locator = entry.getValue();
+			if (locator == null) {
+				preflight.missing.add(entry.getKey());
+			} else if (!locator.matches("\\d+")) {
+				List<Component> candidates = named.get(locator);
+				if (candidates == null) {
+					preflight.missing.add(entry.getKey() + " (" + locator + ")");
+				} else if (candidates.size() > 1) {
+					preflight.ambiguous.add(entry.getKey() + " (" + locator + ", " + candidates.size() + "x)");
+				} else {
+					preflight.bindings.put(locator, new WeakReference<Component>(candidates.get(0)));
+				}
+			}
+		}
+		return preflight;
+	}
+
+	private static void collect(Component component, Map<String, List<Component>> result) {
+		String name = component.getName();
+		if (name != null && component.isShowing()) {
+			List<Component> candidates = result.get(name);
+			if (candidates == null) {
+				candidates = new ArrayList<Component>(1);
+				result.put(name, candidates);
+			}
+			candidates.add(component);
+		}
+		if (component instanceof Container) {
+			for (Component child : ((Container) component).getComponents()) {
+				collect(child, result);
+			}
+		}
+	}
+
+	/**
+	 * Returns the component bound to the locator during the preflight, if it
+	 * is still showing and of the expected type.
+	 *
+	 * @param locator
+	 *            name of the component
+	 * @param type
+	 *            expected type of the component
+	 * @return the component or <code>null</code>
+	 */
+	<T extends Component> T lookup(String locator, Class<T> type) {
+		WeakReference<Component> reference = bindings.get(locator);
+		Component component = null;
+		if (reference != null) {
+			component = reference.get();
+		}
+		if (type.isInstance(component) && component.isShowing()) {
+			return type.cast(component);
+		}
+		return null;
+	}
+
+	/**
+	 * @return the resolved element list keys with their locators
+	 */
+	Map<String, String> getLocators() {
+		return Collections.unmodifiableMap(locators);
+	}
+
+	/**
+	 * @return <code>true</code> if no locator is missing or ambiguous
+	 */
+	boolean isValid() {
+		return missing.isEmpty() && ambiguous.isEmpty();
+	}
+
+	/**
+	 * @return a human readable report of the preflight
+	 */
+	String getReport() {
+		StringBuilder report = new StringBuilder();
+		report.append("keys: ").append(locators.size()).append(", bound: ").append(bindings.size());
+		report.append(", missing: ").append(missing.size()).append(", ambiguous: ").append(ambiguous.size());
+		if (!missing.isEmpty()) {
+			report.append("\nmissing: ").append(missing);
+		}
+		if (!ambiguous.isEmpty()) {
+			report.append("\nambiguous: ").append(ambiguous);
+		}
+		return report.toString();
+	}
+}
@@ -0,0 +1,396 @@
+/*******************************************************************************
+ * Copyright (c) 2012 - 2015 Signal Iduna Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Signal Iduna Corporation - initial API and implementation
+ * akquinet AG
+ *******************************************************************************/
+package org.testeditor.fixture.swing;
+
+import java.awt.AWTEvent;
+import java.awt.Component;
+import java.awt.Container;
+import java.awt.Toolkit;
+import java.awt.Window;
+import java.awt.event.AWTEventListener;
+import java.awt.event.HierarchyEvent;
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+
+import javax.swing.JTable;
+import javax.swing.RowSorter;
+import javax.swing.SwingUtilities;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.event.RowSorterEvent;
+import javax.swing.event.RowSorterListener;
+import javax.swing.event.TableModelEvent;
+import javax.swing.event.TableModelListener;
+import javax.swing.table.TableModel;
+import javax.swing.text.Document;
+import javax.swing.text.JTextComponent;
+
+import org.fest.swing.edt.GuiActionRunner;
+import org.fest.swing.edt.GuiTask;
+
+/**
+ * Waits for a condition of the AUT without polling. The condition installs
+ * listeners on the observed components and is evaluated in the EDT each time
+ * one of them fires, so the waiting thread wakes up as soon as the condition
+ * holds.
+ *
+ */
+final class EventDrivenWait {
+
+	private EventDrivenWait() {
+	}
+
+	/**
+	 * Condition on the state of the AUT. All methods are called in the EDT.
+	 */
+	abstract static class Condition {
+
+		/**
+		 * Installs the listeners which call the trigger on every change which
+		 * may affect the condition.
+		 *
+		 * @param trigger
+		 *            callback to evaluate the condition again
+		 */
+		abstract void install(Runnable trigger);
+
+		/**
+		 * Removes the listeners installed by {@link #install(Runnable)}.
+		 */
+		abstract void uninstall();
+
+		/**
+		 * @return <code>true</code> if the condition holds
+		 */
+		abstract boolean isSatisfied();
+	}
+
+	/**
+	 * Waits until the condition holds or the timeout is reached.
+	 *
+	 * @param condition
+	 *            condition to wait for
+	 * @param timeoutMillis
+	 *            maximum time to wait in milliseconds
+	 * @return <code>true</code> if the condition holds, <code>false</code> on
+	 *         timeout
+	 * @throws InterruptedException
+	 *             if the waiting thread is interrupted
+	 */
+	static boolean waitFor(final Condition condition, long timeoutMillis) throws InterruptedException {
+		final Object monitor = new Object();
+		final boolean[] satisfied = new boolean[1];
+		final Runnable trigger = new Runnable() {
+			@Override
+			public void run() {
+				if (condition.isSatisfied()) {
+					synchronized (monitor) {
+						satisfied[0] = true;
+						monitor.notifyAll();
+					}
+				}
+			}
+		};
+		GuiActionRunner.execute(new GuiTask() {
+			@Override
+			protected void executeInEDT() {
+				condition.install(trigger);
+				trigger.run();
+			}
+		});
+		try {
+			long deadline = System.currentTimeMillis() + timeoutMillis;
+			synchronized (monitor) {
+				long remaining = timeoutMillis;
+				while (!satisfied[0] && remaining > 0) {
+					monitor.wait(remaining);
+					remaining = deadline - System.currentTimeMillis();
+				}
+				return satisfied[0];
+			}
+		} finally {
+			GuiActionRunner.execute(new GuiTask() {
+				@Override
+				protected void executeInEDT() {
+					condition.uninstall();
+				}
+			});
+		}
+	}
+
+	/**
+	 * @param component
+	 *            observed component
+	 * @return condition which holds when the component is enabled
+	 */
+	static Condition enabled(final Component component) {
+		return new PropertyCondition(component, "enabled") {
+			@Override
+			boolean isSatisfied() {
+				return component.isEnabled();
+			}
+		};
+	}
+
+	/**
+	 * @param textComponent
+	 *            observed text component
+	 * @param text
+	 *            expected text
+	 * @return condition which holds when the text component contains exactly
+	 *         the given text
+	 */
+	static Condition textEquals(final JTextComponent textComponent, final String text) {
+		return new PropertyCondition(textComponent, "document") {
+			private Document document;
+			private final DocumentListener documentListener = new DocumentListener() {
+
+				@Override
+				public void insertUpdate(DocumentEvent e) {
+					fire();
+				}
+
+				@Override
+				public void removeUpdate(DocumentEvent e) {
+					fire();
+				}
+
+				@Override
+				public void changedUpdate(DocumentEvent e) {
+					fire();
+				}
+			};
+
+			@Override
+			void install(Runnable trigger) {
+				super.install(trigger);
+				attach();
+			}
+
+			@Override
+			void uninstall() {
+				super.uninstall();
+				detach();
+			}
+
+			@Override
+			protected void fire() {
+				if (document != textComponent.getDocument()) {
+					detach();
+					attach();
+				}
+				super.fire();
+			}
+
+			private void attach() {
+				document = textComponent.getDocument();
+				document.addDocumentListener(documentListener);
+			}
+
+			private void detach() {
+				if (document != null) {
+					document.removeDocumentListener(documentListener);
+					document = null;
+				}
+			}
+
+			@Override
+			boolean isSatisfied() {
+				return text.equals(textComponent.getText());
+			}
+		};
+	}
+
+	/**
+	 * @param table
+	 *            observed table
+	 * @param rowCount
+	 *            minimum number of rows
+	 * @return condition which holds when the table shows at least the given
+	 *         number of rows. The rows are counted in the view, so the
+	 *         condition is triggered by the row sorter if the table has one:
+	 *         the sorter updates the view after the model listeners of the
+	 *         AUT, and filters change the rows without a model event.
+	 */
+	static Condition tableRowCountAtLeast(final JTable table, final int rowCount) {
+		return new PropertyCondition(table, "model", "rowSorter") {
+			private TableModel model;
+			private RowSorter<?> sorter;
+			private final TableModelListener modelListener = new TableModelListener() {
+				@Override
+				public void tableChanged(TableModelEvent e) {
+					fire();
+				}
+			};
+			private final RowSorterListener sorterListener = new RowSorterListener() {
+				@Override
+				public void sorterChanged(RowSorterEvent e) {
+					fire();
+				}
+			};
+
+			@Override
+			void install(Runnable trigger) {
+				super.install(trigger);
+				attach();
+			}
+
+			@Override
+			void uninstall() {
+				super.uninstall();
+				detach();
+			}
+
+			@Override
+			protected void fire() {
+				if (model != table.getModel() || sorter != table.getRowSorter()) {
+					detach();
+					attach();
+				}
+				super.fire();
+			}
+
+			private void attach() {
+				model = table.getModel();
+				sorter = table.getRowSorter();
+				if (sorter == null) {
+					model.addTableModelListener(modelListener);
+				} else {
+					sorter.addRowSorterListener(sorterListener);
+				}
+			}
+
+			private void detach() {
+				if (model != null) {
+					model.removeTableModelListener(modelListener);
+					model = null;
+				}
+				if (sorter != null) {
+					sorter.removeRowSorterListener(sorterListener);
+					sorter = null;
+				}
+			}
+
+			@Override
+			boolean isSatisfied() {
+				return table.getRowCount() >= rowCount;
+			}
+		};
+	}
+
+	/**
+	 * @param name
+	 *            name of the observed component
+	 * @param windows
+	 *            the windows of the AUT
+	 * @return condition which holds when a component with the given name is
+	 *         showing in one of the windows of the AUT. The windows are
+	 *         searched once; afterwards only the components whose hierarchy
+	 *         changes are checked.
+	 */
+	static Condition visible(final String name, final ApplicationWindows windows) {
+		return new Condition() {
+			private AWTEventListener listener;
+			private boolean found;
+
+			@Override
+			void install(final Runnable trigger) {
+				listener = new AWTEventListener() {
+					@Override
+					public void eventDispatched(AWTEvent event) {
+						Component component = ((HierarchyEvent) event).getComponent();
+						if (!found && name.equals(component.getName()) && component.isShowing()
+								&& windows.list().contains(SwingUtilities.getWindowAncestor(component))) {
+							found = true;
+							trigger.run();
+						}
+					}
+				};
+				Toolkit.getDefaultToolkit().addAWTEventListener(listener, AWTEvent.HIERARCHY_EVENT_MASK);
+			}
+
+			@Override
+			void uninstall() {
+				Toolkit.getDefaultToolkit().removeAWTEventListener(listener);
+			}
+
+			@Override
+			boolean isSatisfied() {
+				if (found) {
+					return true;
+				}
+				for (Window window : windows.list()) {
+					if (window.isShowing() && containsShowing(window, name)) {
+						found = true;
+						return true;
+					}
+				}
+				return false;
+			}
+		};
+	}
+
+	private static boolean containsShowing(Component component, String name) {
+		if (name.equals(component.getName()) && component.isShowing()) {
+			return true;
+		}
+		if (component instanceof Container) {
+			for (Component child : ((Container) component).getComponents()) {
+				if (containsShowing(child, name)) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Condition triggered by bound properties of a component.
+	 */
+	private abstract static class PropertyCondition extends Condition implements PropertyChangeListener {
+		private final Component component;
+		private final String[] properties;
+		private Runnable trigger;
+
+		PropertyCondition(Component component, String... properties) {
+			this.component = component;
+			this.properties = properties;
+		}
+
+		@Override
+		void install(Runnable aTrigger) {
+			this.trigger = aTrigger;
+			for (String property : properties) {
+				component.addPropertyChangeListener(property, this);
+			}
+		}
+
+		@Override
+		void uninstall() {
+			for (String property : properties) {
+				component.removePropertyChangeListener(property, this);
+			}
+		}
+
+		@Override
+		public void propertyChange(PropertyChangeEvent evt) {
+			fire();
+		}
+
+		/**
+		 * Evaluates the condition again.
+		 */
+		protected void fire() {
+			trigger.run();
+		}
+	}
+}
@@ -0,0 +1,102 @@
+/*******************************************************************************
+ * Copyright (c) 2012 - 2015 Signal Iduna Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Signal Iduna Corporation - initial API and implementation
+ * akquinet AG
+ *******************************************************************************/
+package org.testeditor.fixture.swing;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Remembers lookups which failed a short time ago, so a step repeating a
+ * broken locator fails at once instead of searching the AUT again. Lookups
+ * are remembered per locator and expected type. Entries expire after the
+ * time to live; the default time to live of 0 disables the cache, since a
+ * component appearing within the time to live is not found.
+ *
+ */
+final class FailedLookupCache {
+
+	private final Map<String, Long> failures = new ConcurrentHashMap<String, Long>();
+	private volatile long timeToLiveMillis;
+	private final AtomicInteger hits = new AtomicInteger();
+
+	/**
+	 * @param milliSeconds
+	 *            how long a failed lookup is remembered, 0 to remember none
+	 */
+	void setTimeToLive(long milliSeconds) {
+		this.timeToLiveMillis = Math.max(0, milliSeconds);
+		if (timeToLiveMillis == 0) {
+			failures.clear();
+		}
+	}
+
+	/**
+	 * Remembers a failed lookup.
+	 *
+	 * @param locator
+	 *            locator of the lookup
+	 * @param type
+	 *            expected type of the component
+	 */
+	void failed(String locator, Class<?> type) {
+		if (timeToLiveMillis > 0 && locator != null) {
+			failures.put(key(locator, type), now() + timeToLiveMillis);
+		}
+	}
+
+	/**
+	 * @param locator
+	 *            locator of the lookup
+	 * @param type
+	 *            expected type of the component
+	 * @return <code>true</code> if the lookup failed within the time to live
+	 */
+	boolean failedRecently(String locator, Class<?> type) {
+		if (locator == null) {
+			return false;
+		}
+		String key = key(locator, type);
+		Long expiry = failures.get(key);
+		if (expiry == null) {
+			return false;
+		}
+		if (now() >= expiry) {
+			failures.remove(key);
+			return false;
+		}
+		hits.incrementAndGet();
+		return true;
+	}
+
+	/**
+	 * Forgets all failed lookups, e.g. when the window changes.
+	 */
+	void clear() {
+		failures.clear();
+	}
+
+	/**
+	 * @return number of lookups answered from the cache
+	 */
+	int getHits() {
+		return hits.get();
+	}
+
+	private static String key(String locator, Class<?> type) {
+		return type.getName() + ':' + locator;
+	}
+
+	private static long now() {
+		return System.nanoTime() / 1000000;
+	}
+}
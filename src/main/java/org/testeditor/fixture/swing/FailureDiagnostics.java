@@ -0,0 +1,406 @@
+/*******************************************************************************
+ * Copyright (c) 2012 - 2015 Signal Iduna Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Signal Iduna Corporation - initial API and implementation
+ * akquinet AG
+ *******************************************************************************/
+package org.testeditor.fixture.swing;
+
+import java.awt.Component;
+import java.awt.Container;
+import java.awt.Graphics2D;
+import java.awt.Window;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.text.SimpleDateFormat;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import javax.imageio.ImageIO;
+import javax.swing.AbstractButton;
+import javax.swing.JLabel;
+import javax.swing.text.JTextComponent;
+
+import org.apache.log4j.Logger;
+import org.fest.swing.edt.GuiActionRunner;
+import org.fest.swing.edt.GuiQuery;
+
+/**
+ * Captures diagnostics of failed fixture steps: a compact dump of the
+ * component hierarchy of the window and screenshots of the window. An
+ * optional ring buffer keeps frames painted after the last steps in memory,
+ * so the screen before the failure is available, too. It is empty by default
+ * and painted at most once per frame interval, so passing steps do not pay
+ * for a screenshot each. The test thread only paints
+ * the window into an image and walks the hierarchy in the EDT; PNG encoding
+ * and writing the files is done by a background thread. The frames kept in
+ * memory, the pending writes and the files in the target directory are
+ * capped; diagnostics beyond the caps are dropped.
+ *
+ */
+final class FailureDiagnostics {
+
+	private static final Logger LOGGER = Logger.getLogger(FailureDiagnostics.class);
+	private static final String FILE_PREFIX = "swing-failure-";
+	private static final int MAX_PENDING_WRITES = 4;
+	private static final int MAX_TEXT_LENGTH = 40;
+	private static final ThreadPoolExecutor WRITER = createWriter();
+
+	private final ArrayDeque<BufferedImage> frames = new ArrayDeque<BufferedImage>();
+	private long frameBytes;
+	private volatile int maxFrames;
+	private volatile long frameIntervalNanos = TimeUnit.SECONDS.toNanos(1);
+	private long lastFrameNanos;
+	private long maxMemoryBytes = 16L * 1024 * 1024;
+	private long maxDiskBytes = 100L * 1024 * 1024;
+	private File directory = new File(System.getProperty("java.io.tmpdir"), "swing-fixture-failures");
+
+	/**
+	 * @param directory
+	 *            target directory of the diagnostics
+	 */
+	void setDirectory(File directory) {
+		this.directory = directory;
+	}
+
+	/**
+	 * @param maxFrames
+	 *            number of frames kept in memory, 0 to keep none
+	 */
+	synchronized void setMaxFrames(int maxFrames) {
+		this.maxFrames = Math.max(0, maxFrames);
+		trim(this.maxFrames, maxMemoryBytes);
+	}
+
+	/**
+	 * @param frameIntervalMillis
+	 *            minimum time between two frames of the ring buffer, 0 to
+	 *            paint a frame after every step
+	 */
+	void setFrameInterval(long frameIntervalMillis) {
+		this.frameIntervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, frameIntervalMillis));
+	}
+
+	/**
+	 * @param maxMemoryBytes
+	 *            maximum size of the frames kept in memory
+	 * @param maxDiskBytes
+	 *            maximum size of all diagnostics in the target directory
+	 */
+	synchronized void setLimits(long maxMemoryBytes, long maxDiskBytes) {
+		this.maxMemoryBytes = maxMemoryBytes;
+		this.maxDiskBytes = maxDiskBytes;
+		trim(maxFrames, maxMemoryBytes);
+	}
+
+	/**
+	 * Drops the frames kept in memory.
+	 */
+	synchronized void clearFrames() {
+		trim(0, 0);
+	}
+
+	/**
+	 * @return number of frames kept in memory
+	 */
+	synchronized int frameCount() {
+		return frames.size();
+	}
+
+	/**
+	 * Paints the window into a frame of the ring buffer, unless the ring
+	 * buffer is disabled or the last frame is younger than the frame
+	 * interval.
+	 *
+	 * @param window
+	 *            the window
+	 */
+	void recordFrame(Window window) {
+		if (maxFrames == 0) {
+			return;
+		}
+		synchronized (this) {
+			long now = System.nanoTime();
+			if (!frames.isEmpty() && now - lastFrameNanos < frameIntervalNanos) {
+				return;
+			}
+			lastFrameNanos = now;
+		}
+		BufferedImage frame = paint(window);
+		if (frame != null) {
+			addFrame(frame);
+		}
+	}
+
+	/**
+	 * Captures the hierarchy and the current frame of the window and hands
+	 * them with the frames of the ring buffer to the background writer. The
+	 * ring buffer is emptied.
+	 *
+	 * @param step
+	 *            name of the failed step
+	 * @param error
+	 *            error of the step
+	 * @param window
+	 *            the window, <code>null</code> if no window is open
+	 * @return base name of the files written, <code>null</code> if the
+	 *         diagnostics were dropped because too many writes are pending
+	 */
+	String capture(String step, String error, final Window window) {
+		String baseName = FILE_PREFIX + new SimpleDateFormat("yyyyMMdd-HHmmss-SSS").format(new Date()) + "-" + step;
+		String hierarchy = "no window";
+		List<BufferedImage> images;
+		synchronized (this) {
+			images = new ArrayList<BufferedImage>(frames);
+			frames.clear();
+			frameBytes = 0;
+		}
+		if (window != null) {
+			hierarchy = GuiActionRunner.execute(new GuiQuery<String>() {
+				@Override
+				protected String executeInEDT() {
+					StringBuilder dump = new StringBuilder();
+					dump(window, 0, dump);
+					return dump.toString();
+				}
+			});
+			BufferedImage current = paint(window);
+			if (current != null) {
+				images.add(current);
+			}
+		}
+		try {
+			WRITER.execute(new Write(directory, baseName, step + ": " + error + "\n\n" + hierarchy, images,
+					maxDiskBytes));
+			return baseName;
+		} catch (RejectedExecutionException e) {
+			LOGGER.warn("too many pending failure diagnostics, dropped " + baseName);
+			return null;
+		}
+	}
+
+	/**
+	 * Waits until the pending diagnostics are written.
+	 *
+	 * @param timeoutMillis
+	 *            maximum time to wait
+	 */
+	static void flush(long timeoutMillis) {
+		try {
+			Future<?> marker = WRITER.submit(new Runnable() {
+				@Override
+				public void run() {
+					// marks the end of the pending writes
+				}
+			});
+			marker.get(timeoutMillis, TimeUnit.MILLISECONDS);
+		} catch (RejectedExecutionException e) {
+			LOGGER.warn("could not wait for the failure diagnostics Error: " + e);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (ExecutionException e) {
+			LOGGER.warn("could not wait for the failure diagnostics Error: " + e);
+		} catch (TimeoutException e) {
+			LOGGER.warn("failure diagnostics still pending after " + timeoutMillis + " ms");
+		}
+	}
+
+	private synchronized void addFrame(BufferedImage frame) {
+		long bytes = bytesOf(frame);
+		if (bytes > maxMemoryBytes) {
+			return;
+		}
+		trim(maxFrames - 1, maxMemoryBytes - bytes);
+		frames.addLast(frame);
+		frameBytes += bytes;
+	}
+
+	private void trim(int count, long bytes) {
+		while (!frames.isEmpty() && (frames.size() > count || frameBytes > bytes)) {
+			frameBytes -= bytesOf(frames.removeFirst());
+		}
+	}
+
+	private static long bytesOf(BufferedImage image) {
+		return 4L * image.getWidth() * image.getHeight();
+	}
+
+	private static BufferedImage paint(final Window window) {
+		return GuiActionRunner.execute(new GuiQuery<BufferedImage>() {
+			@Override
+			protected BufferedImage executeInEDT() {
+				if (!window.isShowing() || window.getWidth() <= 0 || window.getHeight() <= 0) {
+					return null;
+				}
+				BufferedImage image = new BufferedImage(window.getWidth(), window.getHeight(),
+						BufferedImage.TYPE_INT_RGB);
+				Graphics2D graphics = image.createGraphics();
+				try {
+					window.printAll(graphics);
+				} finally {
+					graphics.dispose();
+				}
+				return image;
+			}
+		});
+	}
+
+	/**
+	 * Appends one line per component: type, name, text, bounds and the
+	 * flags for invisible and disabled components. Must be called in the EDT.
+	 */
+	private static void dump(Component component, int depth, StringBuilder dump) {
+		for (int i = 0; i < depth; i++) {
+			dump.append("  ");
+		}
+		dump.append(component.getClass().getSimpleName());
+		if (component.getName() != null) {
+			dump.append(" name=").append(component.getName());
+		}
+		String text = textOf(component);
+		if (text != null) {
+			if (text.length() > MAX_TEXT_LENGTH) {
+				text = text.substring(0, MAX_TEXT_LENGTH) + "...";
+			}
+			dump.append(" text=\"").append(text.replace('\n', ' ')).append('"');
+		}
+		dump.append(" [").append(component.getX()).append(',').append(component.getY()).append(' ')
+				.append(component.getWidth()).append('x').append(component.getHeight()).append(']');
+		if (!component.isVisible()) {
+			dump.append(" invisible");
+		}
+		if (!component.isEnabled()) {
+			dump.append(" disabled");
+		}
+		dump.append('\n');
+		if (component instanceof Container) {
+			for (Component child : ((Container) component).getComponents()) {
+				dump(child, depth + 1, dump);
+			}
+		}
+	}
+
+	private static String textOf(Component component) {
+		if (component instanceof JTextComponent) {
+			return ((JTextComponent) component).getText();
+		}
+		if (component instanceof AbstractButton) {
+			return ((AbstractButton) component).getText();
+		}
+		if (component instanceof JLabel) {
+			return ((JLabel) component).getText();
+		}
+		return null;
+	}
+
+	private static ThreadPoolExecutor createWriter() {
+		ThreadPoolExecutor writer = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<Runnable>(MAX_PENDING_WRITES), new ThreadFactory() {
+					@Override
+					public Thread newThread(Runnable runnable) {
+						Thread thread = new Thread(runnable, "swing-fixture-failure-writer");
+						thread.setDaemon(true);
+						return thread;
+					}
+				});
+		writer.setRejectedExecutionHandler(new RejectedExecutionHandler() {
+			@Override
+			public void rejectedExecution(Runnable runnable, ThreadPoolExecutor executor) {
+				throw new RejectedExecutionException("failure diagnostics queue is full");
+			}
+		});
+		return writer;
+	}
+
+	/**
+	 * Writes the diagnostics of one failure and deletes the oldest
+	 * diagnostics if the directory exceeds its limit.
+	 */
+	private static final class Write implements Runnable {
+		private final File directory;
+		private final String baseName;
+		private final String hierarchy;
+		private final List<BufferedImage> images;
+		private final long maxDiskBytes;
+
+		Write(File directory, String baseName, String hierarchy, List<BufferedImage> images, long maxDiskBytes) {
+			this.directory = directory;
+			this.baseName = baseName;
+			this.hierarchy = hierarchy;
+			this.images = images;
+			this.maxDiskBytes = maxDiskBytes;
+		}
+
+		@Override
+		public void run() {
+			directory.mkdirs();
+			try {
+				Writer writer = new OutputStreamWriter(new FileOutputStream(new File(directory, baseName
+						+ "-hierarchy.txt")), "UTF-8");
+				try {
+					writer.write(hierarchy);
+				} finally {
+					writer.close();
+				}
+				for (int i = 0; i < images.size(); i++) {
+					int age = images.size() - 1 - i;
+					ImageIO.write(images.get(i), "png", new File(directory, baseName + "-frame-" + age + ".png"));
+				}
+			} catch (IOException e) {
+				LOGGER.error("could not write the failure diagnostics " + baseName + " Error: " + e);
+			}
+			enforceDiskLimit();
+		}
+
+		private void enforceDiskLimit() {
+			File[] files = directory.listFiles(new FilenameFilter() {
+				@Override
+				public boolean accept(File dir, String name) {
+					return name.startsWith(FILE_PREFIX);
+				}
+			});
+			if (files == null) {
+				return;
+			}
+			long total = 0;
+			for (File file : files) {
+				total += file.length();
+			}
+			Arrays.sort(files, new Comparator<File>() {
+				@Override
+				public int compare(File first, File second) {
+					return first.getName().compareTo(second.getName());
+				}
+			});
+			for (int i = 0; i < files.length && total > maxDiskBytes; i++) {
+				total -= files[i].length();
+				if (!files[i].delete()) {
+					LOGGER.warn("could not delete " + files[i]);
+				}
+			}
+		}
+	}
+}
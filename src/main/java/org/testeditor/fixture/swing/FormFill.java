@@ -0,0 +1,161 @@
+/*******************************************************************************
+ * Copyright (c) 2012 - 2015 Signal Iduna Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Signal Iduna Corporation - initial API and implementation
+ * akquinet AG
+ *******************************************************************************/
+package org.testeditor.fixture.swing;
+
+import java.awt.Component;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import javax.swing.JCheckBox;
+import javax.swing.JComboBox;
+import javax.swing.JRadioButton;
+import javax.swing.JToggleButton;
+import javax.swing.text.JTextComponent;
+
+import org.fest.swing.driver.BasicJComboBoxCellReader;
+import org.fest.swing.edt.GuiActionRunner;
+import org.fest.swing.edt.GuiTask;
+
+/**
+ * Fills several fields of a form in one task in the EDT. The action for a
+ * field is derived from the type of its component: text components get the
+ * value as text, combo boxes select the item with the value as text, check
+ * boxes and radio buttons are checked for <code>true</code> and unchecked for
+ * <code>false</code>.
+ *
+ */
+final class FormFill {
+
+	static final String OK = "OK";
+
+	private final Map<String, Component> components = new LinkedHashMap<String, Component>();
+	private final Map<String, String> values = new LinkedHashMap<String, String>();
+	private final Map<String, String> results = new LinkedHashMap<String, String>();
+
+	/**
+	 * Adds a field which could not be resolved.
+	 *
+	 * @param key
+	 *            element list key of the field
+	 * @param error
+	 *            reason why the field could not be resolved
+	 */
+	void addUnresolved(String key, String error) {
+		results.put(key, error);
+	}
+
+	/**
+	 * Adds a field to fill.
+	 *
+	 * @param key
+	 *            element list key of the field
+	 * @param component
+	 *            component of the field
+	 * @param value
+	 *            value of the field
+	 */
+	void add(String key, Component component, String value) {
+		components.put(key, component);
+		values.put(key, value);
+		results.put(key, null);
+	}
+
+	/**
+	 * Applies all fields in the EDT. Fields whose component is disabled are
+	 * applied again after all other fields, because they often depend on them
+	 * (e.g. radio buttons enabled by a check box).
+	 */
+	void apply() {
+		GuiActionRunner.execute(new GuiTask() {
+			@Override
+			protected void executeInEDT() {
+				List<String> deferred = new ArrayList<String>();
+				for (String key : components.keySet()) {
+					if (components.get(key).isEnabled()) {
+						results.put(key, applyField(components.get(key), values.get(key)));
+					} else {
+						deferred.add(key);
+					}
+				}
+				for (String key : deferred) {
+					if (components.get(key).isEnabled()) {
+						results.put(key, applyField(components.get(key), values.get(key)));
+					} else {
+						results.put(key, "component is disabled");
+					}
+				}
+			}
+		});
+	}
+
+	/**
+	 * @return <code>true</code> if every field was filled
+	 */
+	boolean isSuccessful() {
+		for (String result : results.values()) {
+			if (!OK.equals(result)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @return result of every field, <code>OK</code> or the error
+	 */
+	String getReport() {
+		StringBuilder report = new StringBuilder();
+		for (Entry<String, String> entry : results.entrySet()) {
+			if (report.length() > 0) {
+				report.append(", ");
+			}
+			report.append(entry.getKey()).append(": ").append(entry.getValue());
+		}
+		return report.toString();
+	}
+
+	private static String applyField(Component component, String value) {
+		if (component instanceof JTextComponent) {
+			((JTextComponent) component).setText(value);
+			return OK;
+		}
+		if (component instanceof JComboBox) {
+			return selectItem((JComboBox) component, value);
+		}
+		if (component instanceof JCheckBox || component instanceof JRadioButton) {
+			JToggleButton button = (JToggleButton) component;
+			boolean checked = Boolean.parseBoolean(value.trim());
+			if (button.isSelected() != checked) {
+				button.doClick(0);
+			}
+			if (button.isSelected() != checked) {
+				return "could not change the state to " + checked;
+			}
+			return OK;
+		}
+		return "unsupported component " + component.getClass().getName();
+	}
+
+	private static String selectItem(JComboBox comboBox, String value) {
+		BasicJComboBoxCellReader cellReader = new BasicJComboBoxCellReader();
+		for (int i = 0; i < comboBox.getItemCount(); i++) {
+			if (value.equals(cellReader.valueAt(comboBox, i))) {
+				comboBox.setSelectedIndex(i);
+				return OK;
+			}
+		}
+		return "item " + value + " not found";
+	}
+}
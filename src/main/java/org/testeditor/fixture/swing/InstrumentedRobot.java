@@ -0,0 +1,67 @@
+/*******************************************************************************
+ * Copyright (c) 2012 - 2015 Signal Iduna Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Signal Iduna Corporation - initial API and implementation
+ * akquinet AG
+ *******************************************************************************/
+package org.testeditor.fixture.swing;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+import org.fest.swing.core.Robot;
+
+/**
+ * Wraps a FEST robot and accounts the time of its calls to the phases of the
+ * running step: <code>waitForIdle</code> to
+ * {@link StepTimings.Phase#IDLE_WAIT}, all other calls to
+ * {@link StepTimings.Phase#INPUT}.
+ *
+ */
+final class InstrumentedRobot implements InvocationHandler {
+
+	private static final String WAIT_FOR_IDLE = "waitForIdle";
+
+	private final Robot robot;
+	private final StepTimings timings;
+
+	private InstrumentedRobot(Robot robot, StepTimings timings) {
+		this.robot = robot;
+		this.timings = timings;
+	}
+
+	/**
+	 * @param robot
+	 *            the robot to wrap
+	 * @param timings
+	 *            timings of the fixture
+	 * @return the instrumented robot
+	 */
+	static Robot wrap(Robot robot, StepTimings timings) {
+		return (Robot) Proxy.newProxyInstance(Robot.class.getClassLoader(), new Class<?>[] { Robot.class },
+				new InstrumentedRobot(robot, timings));
+	}
+
+	@Override
+	public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+		long start = timings.startPhase();
+		try {
+			return method.invoke(robot, args);
+		} catch (InvocationTargetException e) {
+			throw e.getCause();
+		} finally {
+			if (WAIT_FOR_IDLE.equals(method.getName())) {
+				timings.stopPhase(StepTimings.Phase.IDLE_WAIT, start);
+			} else {
+				timings.stopPhase(StepTimings.Phase.INPUT, start);
+			}
+		}
+	}
+}
@@ -0,0 +1,258 @@
+/*******************************************************************************
+ * Copyright (c) 2012 - 2015 Signal Iduna Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Signal Iduna Corporation - initial API and implementation
+ * akquinet AG
+ *******************************************************************************/
+package org.testeditor.fixture.swing;
+
+import java.awt.AWTEvent;
+import java.awt.Component;
+import java.awt.Container;
+import java.awt.Frame;
+import java.awt.Toolkit;
+import java.awt.Window;
+import java.awt.event.AWTEventListener;
+import java.awt.event.ActionListener;
+import java.awt.event.WindowListener;
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import javax.swing.AbstractButton;
+
+import org.apache.log4j.Logger;
+import org.fest.swing.edt.GuiActionRunner;
+import org.fest.swing.edt.GuiTask;
+
+/**
+ * Launches an AUT in its own class loader, so several instances of the same
+ * application can run side by side in one JVM without sharing static state.
+ * <p>
+ * Concurrency model: every instance has its own class loader, launcher thread
+ * and main frame; all lookups of a fixture are done below the main frame of
+ * its instance. All instances share the one EDT and the one screen of the
+ * JVM. Reads and model level actions (document text entry, fill form, table
+ * snapshots) of different instances run in parallel. Input through the robot
+ * is serialized by the {@link SharedRobot}, because there is only one mouse
+ * and keyboard; scenarios running in parallel should prefer the model level
+ * actions. A separate <code>AppContext</code> per instance is not used: it is
+ * internal API and FEST would still post its queries to the EDT of the
+ * calling thread.
+ *
+ */
+public class IsolatedApplicationLauncher {
+
+	private static final Logger LOGGER = Logger.getLogger(IsolatedApplicationLauncher.class);
+	private static final Map<Window, IsolatedApplicationLauncher> CLAIMED_WINDOWS = new WeakHashMap<Window, IsolatedApplicationLauncher>();
+
+	private final String mainClass;
+	private final String[] args;
+	private final URLClassLoader classLoader;
+	private Thread thread;
+	private Frame mainFrame;
+
+	/**
+	 * Creates a launcher for the main class, loaded from the class path of
+	 * the JVM in a new class loader.
+	 *
+	 * @param mainClass
+	 *            fully qualified name of the main class of the AUT
+	 * @param args
+	 *            arguments of the main method
+	 */
+	public IsolatedApplicationLauncher(String mainClass, String... args) {
+		this.mainClass = mainClass;
+		this.args = args;
+		this.classLoader = new URLClassLoader(classPath(), ClassLoader.getSystemClassLoader().getParent());
+	}
+
+	/**
+	 * Starts the main method of the AUT in a new thread with the isolated
+	 * class loader as context class loader.
+	 */
+	public void start() {
+		thread = new Thread(new ThreadGroup("AUT " + mainClass), "AUT launcher " + mainClass) {
+			@Override
+			public void run() {
+				try {
+					Class<?> applicationClass = Class.forName(mainClass, true, classLoader);
+					Method main = applicationClass.getMethod("main", String[].class);
+					main.invoke(null, (Object) args);
+				} catch (Exception e) {
+					LOGGER.error("could not start the application " + mainClass + " Error: " + e);
+				}
+			}
+		};
+		thread.setContextClassLoader(classLoader);
+		thread.start();
+	}
+
+	/**
+	 * Waits until a frame of this instance is showing and claims it, so no
+	 * other instance uses it as main frame. A frame belongs to this instance
+	 * if its class, one of its components or one of their listeners was
+	 * loaded by the class loader of this instance.
+	 *
+	 * @param timeoutMillis
+	 *            maximum time to wait
+	 * @return the main frame or <code>null</code> on timeout
+	 * @throws InterruptedException
+	 *             if the waiting thread is interrupted
+	 */
+	public Frame waitForMainFrame(long timeoutMillis) throws InterruptedException {
+		final Frame[] found = new Frame[1];
+		EventDrivenWait.waitFor(new EventDrivenWait.Condition() {
+			private AWTEventListener listener;
+
+			@Override
+			void install(final Runnable trigger) {
+				listener = new AWTEventListener() {
+					@Override
+					public void eventDispatched(AWTEvent event) {
+						trigger.run();
+					}
+				};
+				Toolkit.getDefaultToolkit().addAWTEventListener(listener, AWTEvent.WINDOW_EVENT_MASK);
+			}
+
+			@Override
+			void uninstall() {
+				Toolkit.getDefaultToolkit().removeAWTEventListener(listener);
+			}
+
+			@Override
+			boolean isSatisfied() {
+				found[0] = claimFrame();
+				return found[0] != null;
+			}
+		}, timeoutMillis);
+		mainFrame = found[0];
+		return mainFrame;
+	}
+
+	/**
+	 * @return the claimed main frame, <code>null</code> before
+	 *         {@link #waitForMainFrame(long)}
+	 */
+	public Frame getMainFrame() {
+		return mainFrame;
+	}
+
+	/**
+	 * @return the class loader of this instance
+	 */
+	public ClassLoader getClassLoader() {
+		return classLoader;
+	}
+
+	/**
+	 * @return the launcher thread, <code>null</code> before {@link #start()}
+	 */
+	public Thread getThread() {
+		return thread;
+	}
+
+	/**
+	 * @param window
+	 *            a window
+	 * @return <code>true</code> if the window belongs to this instance
+	 */
+	public boolean owns(Window window) {
+		synchronized (CLAIMED_WINDOWS) {
+			if (CLAIMED_WINDOWS.get(window) == this) {
+				return true;
+			}
+		}
+		return isLoadedBy(window, classLoader) || window.getOwner() != null && owns(window.getOwner());
+	}
+
+	/**
+	 * Disposes all windows of this instance and closes its class loader.
+	 */
+	public void stop() {
+		GuiActionRunner.execute(new GuiTask() {
+			@Override
+			protected void executeInEDT() {
+				for (Window window : Window.getWindows()) {
+					if (owns(window)) {
+						window.dispose();
+					}
+				}
+			}
+		});
+		synchronized (CLAIMED_WINDOWS) {
+			CLAIMED_WINDOWS.values().remove(this);
+		}
+		mainFrame = null;
+		try {
+			classLoader.close();
+		} catch (IOException e) {
+			LOGGER.warn("could not close the class loader of " + mainClass + " Error: " + e);
+		}
+	}
+
+	private Frame claimFrame() {
+		synchronized (CLAIMED_WINDOWS) {
+			for (Frame frame : Frame.getFrames()) {
+				if (frame.isShowing() && !CLAIMED_WINDOWS.containsKey(frame) && isLoadedBy(frame, classLoader)) {
+					CLAIMED_WINDOWS.put(frame, this);
+					return frame;
+				}
+			}
+		}
+		return null;
+	}
+
+	private static boolean isLoadedBy(Component component, ClassLoader loader) {
+		if (component.getClass().getClassLoader() == loader) {
+			return true;
+		}
+		if (component instanceof AbstractButton) {
+			for (ActionListener listener : ((AbstractButton) component).getActionListeners()) {
+				if (listener.getClass().getClassLoader() == loader) {
+					return true;
+				}
+			}
+		}
+		if (component instanceof Window) {
+			for (WindowListener listener : ((Window) component).getWindowListeners()) {
+				if (listener.getClass().getClassLoader() == loader) {
+					return true;
+				}
+			}
+		}
+		if (component instanceof Container) {
+			for (Component child : ((Container) component).getComponents()) {
+				if (isLoadedBy(child, loader)) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	private static URL[] classPath() {
+		List<URL> urls = new ArrayList<URL>();
+		for (String entry : System.getProperty("java.class.path").split(File.pathSeparator)) {
+			try {
+				urls.add(new File(entry).toURI().toURL());
+			} catch (MalformedURLException e) {
+				LOGGER.warn("ignoring class path entry " + entry + " Error: " + e);
+			}
+		}
+		return urls.toArray(new URL[urls.size()]);
+	}
+}
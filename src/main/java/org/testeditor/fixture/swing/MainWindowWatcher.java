@@ -0,0 +1,134 @@
+/*******************************************************************************
+ * Copyright (c) 2012 - 2015 Signal Iduna Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Signal Iduna Corporation - initial API and implementation
+ * akquinet AG
+ *******************************************************************************/
+package org.testeditor.fixture.swing;
+
+import java.awt.AWTEvent;
+import java.awt.Frame;
+import java.awt.Toolkit;
+import java.awt.Window;
+import java.awt.event.AWTEventListener;
+import java.awt.event.WindowEvent;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+import javax.swing.JFrame;
+
+/**
+ * Watches for the main frame of an application which is about to be
+ * launched. The watcher listens for <code>WINDOW_OPENED</code> and
+ * <code>WINDOW_ACTIVATED</code> events and must be installed before the
+ * launch. The frames existing at the installation are remembered and never
+ * taken for the main frame, even if they are activated during the launch. A
+ * frame matches if it is a <code>JFrame</code> and all configured
+ * criteria (title, name, class) match; criteria which are <code>null</code>
+ * are ignored.
+ *
+ */
+final class MainWindowWatcher implements AWTEventListener {
+
+	private final String title;
+	private final String name;
+	private final String className;
+	private final Object monitor = new Object();
+	private final Set<Frame> existingFrames = Collections.newSetFromMap(new WeakHashMap<Frame, Boolean>());
+	private Frame mainFrame;
+
+	/**
+	 * @param title
+	 *            expected title of the frame or <code>null</code>
+	 * @param name
+	 *            expected name of the frame or <code>null</code>
+	 * @param className
+	 *            simple or fully qualified name of the class of the frame or
+	 *            of one of its super classes, or <code>null</code>
+	 */
+	MainWindowWatcher(String title, String name, String className) {
+		this.title = title;
+		this.name = name;
+		this.className = className;
+	}
+
+	/**
+	 * Remembers the existing frames and starts listening for window events.
+	 */
+	void install() {
+		synchronized (monitor) {
+			existingFrames.addAll(Arrays.asList(Frame.getFrames()));
+		}
+		Toolkit.getDefaultToolkit().addAWTEventListener(this, AWTEvent.WINDOW_EVENT_MASK);
+	}
+
+	/**
+	 * Stops listening for window events.
+	 */
+	void uninstall() {
+		Toolkit.getDefaultToolkit().removeAWTEventListener(this);
+	}
+
+	/**
+	 * Waits until a matching frame is showing.
+	 *
+	 * @param timeoutMillis
+	 *            maximum time to wait
+	 * @return the frame or <code>null</code> on timeout
+	 * @throws InterruptedException
+	 *             if the waiting thread is interrupted
+	 */
+	Frame await(long timeoutMillis) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + timeoutMillis;
+		synchronized (monitor) {
+			long remaining = timeoutMillis;
+			while (mainFrame == null && remaining > 0) {
+				monitor.wait(remaining);
+				remaining = deadline - System.currentTimeMillis();
+			}
+			return mainFrame;
+		}
+	}
+
+	@Override
+	public void eventDispatched(AWTEvent event) {
+		int id = event.getID();
+		if (id != WindowEvent.WINDOW_OPENED && id != WindowEvent.WINDOW_ACTIVATED) {
+			return;
+		}
+		Window window = ((WindowEvent) event).getWindow();
+		if (window instanceof JFrame && window.isShowing() && matches((JFrame) window)) {
+			synchronized (monitor) {
+				if (mainFrame == null && !existingFrames.contains(window)) {
+					mainFrame = (Frame) window;
+					monitor.notifyAll();
+				}
+			}
+		}
+	}
+
+	private boolean matches(JFrame frame) {
+		if (title != null && !title.equals(frame.getTitle())) {
+			return false;
+		}
+		if (name != null && !name.equals(frame.getName())) {
+			return false;
+		}
+		if (className != null) {
+			for (Class<?> type = frame.getClass(); type != null; type = type.getSuperclass()) {
+				if (className.equals(type.getName()) || className.equals(type.getSimpleName())) {
+					return true;
+				}
+			}
+			return false;
+		}
+		return true;
+	}
+}
@@ -0,0 +1,174 @@
+/*******************************************************************************
+ * Copyright (c) 2012 - 2015 Signal Iduna Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Signal Iduna Corporation - initial API and implementation
+ * akquinet AG
+ *******************************************************************************/
+package org.testeditor.fixture.swing;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.fest.swing.core.Robot;
+import org.fest.swing.core.Settings;
+import org.fest.swing.edt.GuiActionRunner;
+import org.fest.swing.edt.GuiTask;
+
+/**
+ * Pacing of the input events of a FEST robot. In the default mode the
+ * settings of FEST are not changed. In the fast mode the fixed delays between
+ * events and after posting events are reduced to a minimum; instead the
+ * fixture waits after each action until the event queue is drained and
+ * pending repaints are done. When the fixture detects dropped input it backs
+ * off by doubling the delays, at most up to the FEST defaults. After
+ * {@link #RECOVERY_ACTIONS} verified actions without dropped input in a row
+ * the delays are halved again, at least down to the fast delays.
+ *
+ */
+final class RobotPacing {
+
+	/**
+	 * Modes of the pacing.
+	 */
+	enum Mode {
+		/** FEST default delays. */
+		DEFAULT,
+		/** Minimal delays, adapted on dropped input. */
+		FAST
+	}
+
+	private static final int FAST_DELAY_BETWEEN_EVENTS = 2;
+	private static final int FAST_EVENT_POSTING_DELAY = 5;
+	static final int RECOVERY_ACTIONS = 20;
+
+	private final Settings settings;
+	private final int defaultDelayBetweenEvents;
+	private final int defaultEventPostingDelay;
+	private final AtomicInteger backOffs = new AtomicInteger();
+	private Mode mode = Mode.DEFAULT;
+	private int verifiedActions;
+
+	/**
+	 * @param robot
+	 *            the paced robot
+	 */
+	RobotPacing(Robot robot) {
+		this.settings = robot.settings();
+		this.defaultDelayBetweenEvents = settings.delayBetweenEvents();
+		this.defaultEventPostingDelay = settings.eventPostingDelay();
+	}
+
+	/**
+	 * Switches the mode and resets the delays of the mode.
+	 *
+	 * @param newMode
+	 *            the mode
+	 */
+	void setMode(Mode newMode) {
+		this.mode = newMode;
+		if (newMode == Mode.FAST) {
+			settings.delayBetweenEvents(FAST_DELAY_BETWEEN_EVENTS);
+			settings.eventPostingDelay(FAST_EVENT_POSTING_DELAY);
+		} else {
+			settings.delayBetweenEvents(defaultDelayBetweenEvents);
+			settings.eventPostingDelay(defaultEventPostingDelay);
+		}
+	}
+
+	/**
+	 * @return <code>true</code> in the fast mode
+	 */
+	boolean isFast() {
+		return mode == Mode.FAST;
+	}
+
+	/**
+	 * Waits until the event queue is drained and the repaints triggered by
+	 * the last events are done. Repaints are posted to the event queue by the
+	 * <code>RepaintManager</code> while events are processed, so a second empty
+	 * task in the EDT runs after them.
+	 *
+	 * @param robot
+	 *            the robot
+	 */
+	void settle(Robot robot) {
+		robot.waitForIdle();
+		for (int i = 0; i < 2; i++) {
+			GuiActionRunner.execute(new GuiTask() {
+				@Override
+				protected void executeInEDT() {
+					// nothing to do, only waits for the tasks posted before
+				}
+			});
+		}
+	}
+
+	/**
+	 * Doubles the delays after dropped input was detected.
+	 *
+	 * @return <code>false</code> if the delays are already at the FEST
+	 *         defaults, retrying makes no sense then
+	 */
+	boolean backOff() {
+		int delay = settings.delayBetweenEvents();
+		int posting = settings.eventPostingDelay();
+		if (delay >= defaultDelayBetweenEvents && posting >= defaultEventPostingDelay) {
+			return false;
+		}
+		settings.delayBetweenEvents(Math.min(defaultDelayBetweenEvents, Math.max(1, delay * 2)));
+		settings.eventPostingDelay(Math.min(defaultEventPostingDelay, Math.max(1, posting * 2)));
+		backOffs.incrementAndGet();
+		verifiedActions = 0;
+		return true;
+	}
+
+	/**
+	 * Counts an action whose input arrived completely and halves the delays
+	 * after {@link #RECOVERY_ACTIONS} such actions in a row.
+	 */
+	void confirm() {
+		if (!isFast()) {
+			return;
+		}
+		verifiedActions++;
+		if (verifiedActions < RECOVERY_ACTIONS) {
+			return;
+		}
+		verifiedActions = 0;
+		halveDelays();
+	}
+
+	/**
+	 * Takes back the last {@link #backOff()} when the retry showed that no
+	 * input was dropped, e.g. because the AUT limits the input.
+	 */
+	void withdrawBackOff() {
+		if (isFast()) {
+			halveDelays();
+		}
+	}
+
+	private void halveDelays() {
+		settings.delayBetweenEvents(Math.max(FAST_DELAY_BETWEEN_EVENTS, settings.delayBetweenEvents() / 2));
+		settings.eventPostingDelay(Math.max(FAST_EVENT_POSTING_DELAY, settings.eventPostingDelay() / 2));
+	}
+
+	/**
+	 * @return number of back offs since the pacing was created
+	 */
+	int getBackOffs() {
+		return backOffs.get();
+	}
+
+	/**
+	 * @return current delays as text
+	 */
+	String describe() {
+		return mode + " (delay between events " + settings.delayBetweenEvents() + " ms, event posting delay "
+				+ settings.eventPostingDelay() + " ms, back offs " + backOffs.get() + ")";
+	}
+}
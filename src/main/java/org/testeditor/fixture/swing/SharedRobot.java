@@ -0,0 +1,106 @@
+/*******************************************************************************
+ * Copyright (c) 2012 - 2015 Signal Iduna Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Signal Iduna Corporation - initial API and implementation
+ * akquinet AG
+ *******************************************************************************/
+package org.testeditor.fixture.swing;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+import org.fest.swing.core.BasicRobot;
+import org.fest.swing.core.Robot;
+import org.fest.swing.core.Settings;
+
+/**
+ * One FEST robot shared by all isolated application instances of the JVM.
+ * FEST allows only one robot at a time (it holds a screen lock) and there is
+ * only one mouse and keyboard, so the robot is reference counted and every
+ * call to it is serialized. Each user gets its own view of the robot with
+ * its own <code>Settings</code>, so the pacing and the idle timeout of one
+ * fixture don't change those of another; the settings of the user are
+ * applied to the robot inside the serialized call.
+ *
+ */
+final class SharedRobot {
+
+	private static final Object LOCK = new Object();
+	private static Robot delegate;
+	private static int users;
+
+	private SharedRobot() {
+	}
+
+	/**
+	 * Returns a view of the shared robot with its own settings and creates
+	 * the robot for the first user.
+	 *
+	 * @return the shared robot
+	 */
+	static Robot acquire() {
+		synchronized (LOCK) {
+			if (users == 0) {
+				delegate = BasicRobot.robotWithCurrentAwtHierarchy();
+			}
+			users++;
+			final Settings settings = new Settings();
+			copy(delegate.settings(), settings);
+			return (Robot) Proxy.newProxyInstance(Robot.class.getClassLoader(), new Class<?>[] { Robot.class },
+					new InvocationHandler() {
+						@Override
+						public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+							if ("settings".equals(method.getName())) {
+								return settings;
+							}
+							synchronized (LOCK) {
+								if (delegate == null) {
+									throw new IllegalStateException("the shared robot was released");
+								}
+								copy(settings, delegate.settings());
+								try {
+									return method.invoke(delegate, args);
+								} catch (InvocationTargetException e) {
+									throw e.getCause();
+								}
+							}
+						}
+					});
+		}
+	}
+
+	/**
+	 * Releases the shared robot. The robot is cleaned up without disposing
+	 * any window when the last user releases it.
+	 */
+	static void release() {
+		synchronized (LOCK) {
+			users--;
+			if (users == 0) {
+				delegate.cleanUpWithoutDisposingWindows();
+				delegate = null;
+			}
+		}
+	}
+
+	/**
+	 * Copies the settings a fixture changes per step: delays, timeouts and
+	 * the lookup scope.
+	 */
+	private static void copy(Settings from, Settings to) {
+		to.delayBetweenEvents(from.delayBetweenEvents());
+		to.eventPostingDelay(from.eventPostingDelay());
+		to.idleTimeout(from.idleTimeout());
+		to.timeoutToBeVisible(from.timeoutToBeVisible());
+		to.timeoutToFindPopup(from.timeoutToFindPopup());
+		to.timeoutToFindSubMenu(from.timeoutToFindSubMenu());
+		to.componentLookupScope(from.componentLookupScope());
+	}
+}
@@ -0,0 +1,149 @@
+/*******************************************************************************
+ * Copyright (c) 2012 - 2015 Signal Iduna Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Signal Iduna Corporation - initial API and implementation
+ * akquinet AG
+ *******************************************************************************/
+package org.testeditor.fixture.swing;
+
+/**
+ * Time budgets of the fixture steps. The page budget starts when it is set
+ * and bounds all following steps; the step budget starts with each step.
+ * The deadline of a step is the earlier of both. Lookups and waits of the
+ * step take their timeouts from {@link #cap(long)} and fail once the
+ * deadline has passed, see {@link #check(String)}. A budget of 0 means no
+ * budget.
+ *
+ */
+final class StepBudget {
+
+	private static final long NO_DEADLINE = Long.MAX_VALUE;
+
+	private volatile long stepBudgetMillis;
+	private volatile long pageDeadline = NO_DEADLINE;
+	private volatile long stepDeadline = NO_DEADLINE;
+	private int exhaustedSteps;
+
+	/**
+	 * @param milliSeconds
+	 *            budget of each step, 0 for none
+	 */
+	void setStepBudget(long milliSeconds) {
+		this.stepBudgetMillis = Math.max(0, milliSeconds);
+	}
+
+	/**
+	 * Starts the budget of the page.
+	 *
+	 * @param milliSeconds
+	 *            budget of the following steps, 0 for none
+	 */
+	void startPage(long milliSeconds) {
+		if (milliSeconds > 0) {
+			pageDeadline = now() + milliSeconds;
+		} else {
+			pageDeadline = NO_DEADLINE;
+		}
+	}
+
+	/**
+	 * Starts the budget of a step.
+	 */
+	void startStep() {
+		long deadline = pageDeadline;
+		if (stepBudgetMillis > 0) {
+			deadline = Math.min(deadline, now() + stepBudgetMillis);
+		}
+		stepDeadline = deadline;
+	}
+
+	/**
+	 * Ends the budget of a step.
+	 */
+	void endStep() {
+		if (isExhausted()) {
+			synchronized (this) {
+				exhaustedSteps++;
+			}
+		}
+		stepDeadline = NO_DEADLINE;
+	}
+
+	/**
+	 * @return <code>true</code> if the step or page has a budget
+	 */
+	boolean isLimited() {
+		return stepDeadline != NO_DEADLINE;
+	}
+
+	/**
+	 * @return <code>true</code> if the deadline of the step has passed
+	 */
+	boolean isExhausted() {
+		return isLimited() && now() >= stepDeadline;
+	}
+
+	/**
+	 * @return <code>true</code> if the deadline of the page has passed
+	 */
+	boolean isPageExhausted() {
+		return pageDeadline != NO_DEADLINE && now() >= pageDeadline;
+	}
+
+	/**
+	 * Caps a timeout to the time left for the step.
+	 *
+	 * @param timeoutMillis
+	 *            timeout of a lookup or wait
+	 * @return the timeout or the time left, whichever is less, at least 0
+	 */
+	long cap(long timeoutMillis) {
+		if (!isLimited()) {
+			return timeoutMillis;
+		}
+		return Math.max(0, Math.min(timeoutMillis, stepDeadline - now()));
+	}
+
+	/**
+	 * Caps a timeout given as <code>int</code>, see {@link #cap(long)}.
+	 *
+	 * @param timeoutMillis
+	 *            timeout of a lookup or wait
+	 * @return the capped timeout
+	 */
+	int cap(int timeoutMillis) {
+		return (int) cap((long) timeoutMillis);
+	}
+
+	/**
+	 * Fails if the deadline of the step has passed.
+	 *
+	 * @param action
+	 *            the lookup or wait about to start, for the message
+	 */
+	void check(String action) {
+		if (isExhausted()) {
+			throw new IllegalStateException("time budget of the step exhausted before " + action);
+		}
+	}
+
+	/**
+	 * @return the budgets and the number of steps which exceeded them
+	 */
+	synchronized String describe() {
+		StringBuilder result = new StringBuilder("step budget: ").append(stepBudgetMillis).append(" ms");
+		if (pageDeadline != NO_DEADLINE) {
+			result.append(", page budget left: ").append(Math.max(0, pageDeadline - now())).append(" ms");
+		}
+		return result.append(", exhausted steps: ").append(exhaustedSteps).toString();
+	}
+
+	private static long now() {
+		return System.nanoTime() / 1000000;
+	}
+}
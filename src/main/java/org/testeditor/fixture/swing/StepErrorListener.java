@@ -0,0 +1,77 @@
+/*******************************************************************************
+ * Copyright (c) 2012 - 2015 Signal Iduna Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Signal Iduna Corporation - initial API and implementation
+ * akquinet AG
+ *******************************************************************************/
+package org.testeditor.fixture.swing;
+
+import org.apache.log4j.AppenderSkeleton;
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+import org.apache.log4j.spi.LoggingEvent;
+
+/**
+ * Registers the first error a step logs. The steps of the fixture report
+ * failures by logging an error and returning, so the first error tells
+ * whether and why a step failed. The listener is attached to the logger for
+ * the duration of one step and only counts errors of the thread running the
+ * step, so fixtures running in parallel don't see the errors of each other.
+ *
+ */
+final class StepErrorListener extends AppenderSkeleton {
+
+	private final Logger logger;
+	private final Thread stepThread = Thread.currentThread();
+	private volatile String firstError;
+
+	private StepErrorListener(Logger logger) {
+		this.logger = logger;
+	}
+
+	/**
+	 * Starts listening for the errors the logger logs in the current thread.
+	 *
+	 * @param logger
+	 *            logger of the fixture
+	 * @return the listener
+	 */
+	static StepErrorListener attach(Logger logger) {
+		StepErrorListener listener = new StepErrorListener(logger);
+		logger.addAppender(listener);
+		return listener;
+	}
+
+	/**
+	 * Stops listening.
+	 *
+	 * @return the first error logged by the step or <code>null</code>
+	 */
+	String detach() {
+		logger.removeAppender(this);
+		return firstError;
+	}
+
+	@Override
+	protected void append(LoggingEvent event) {
+		if (firstError == null && Thread.currentThread() == stepThread
+				&& event.getLevel().isGreaterOrEqual(Level.ERROR)) {
+			firstError = event.getRenderedMessage();
+		}
+	}
+
+	@Override
+	public boolean requiresLayout() {
+		return false;
+	}
+
+	@Override
+	public void close() {
+		// nothing to release
+	}
+}
@@ -0,0 +1,289 @@
+/*******************************************************************************
+ * Copyright (c) 2012 - 2015 Signal Iduna Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Signal Iduna Corporation - initial API and implementation
+ * akquinet AG
+ *******************************************************************************/
+package org.testeditor.fixture.swing;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Timings of the fixture steps split into phases. Each phase of a step is
+ * recorded in a histogram per step method with logarithmic buckets, so
+ * recording is a few atomic increments and the memory needed is fixed.
+ * Phases don't nest: a phase started while another one is running is
+ * accounted to the running phase.
+ *
+ */
+final class StepTimings {
+
+	/**
+	 * Phases of a fixture step.
+	 */
+	enum Phase {
+		/** Resolution of element list keys to locators. */
+		ELEMENT_LIST,
+		/** Lookup of components. */
+		LOOKUP,
+		/** Input through the robot. */
+		INPUT,
+		/** Explicit waits for the EDT to become idle. */
+		IDLE_WAIT,
+		/** Everything else, e.g. queries in the EDT. */
+		OTHER,
+		/** Whole step. */
+		TOTAL
+	}
+
+	private static final int BUCKETS = 40;
+
+	private final ConcurrentHashMap<String, Histogram[]> histograms = new ConcurrentHashMap<String, Histogram[]>();
+	private final ThreadLocal<Step> currentStep = new ThreadLocal<Step>();
+
+	/**
+	 * State of the running step of a thread.
+	 */
+	private static final class Step {
+		private final String method;
+		private final long start = System.nanoTime();
+		private final long[] phases = new long[Phase.values().length];
+		private boolean phaseRunning;
+
+		Step(String method) {
+			this.method = method;
+		}
+	}
+
+	/**
+	 * Histogram of durations with buckets for powers of two microseconds.
+	 */
+	static final class Histogram {
+		private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+		private final AtomicLong count = new AtomicLong();
+		private final AtomicLong sum = new AtomicLong();
+		private final AtomicLong max = new AtomicLong();
+
+		void record(long nanos) {
+			long micros = nanos / 1000;
+			int bucket = Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros));
+			buckets.incrementAndGet(bucket);
+			count.incrementAndGet();
+			sum.addAndGet(nanos);
+			long current = max.get();
+			while (nanos > current && !max.compareAndSet(current, nanos)) {
+				current = max.get();
+			}
+		}
+
+		long getCount() {
+			return count.get();
+		}
+
+		/**
+		 * @param percentile
+		 *            percentile between 0 and 100
+		 * @return upper bound of the bucket of the percentile in milliseconds
+		 */
+		double percentileMillis(double percentile) {
+			long total = count.get();
+			long threshold = (long) Math.ceil(total * percentile / 100);
+			long seen = 0;
+			for (int bucket = 0; bucket < BUCKETS; bucket++) {
+				seen += buckets.get(bucket);
+				if (seen >= threshold && seen > 0) {
+					return (1L << bucket) / 1000.0;
+				}
+			}
+			return maxMillis();
+		}
+
+		double meanMillis() {
+			long total = count.get();
+			if (total == 0) {
+				return 0;
+			}
+			return sum.get() / 1000000.0 / total;
+		}
+
+		double maxMillis() {
+			return max.get() / 1000000.0;
+		}
+	}
+
+	/**
+	 * Starts the timing of a step in the current thread.
+	 *
+	 * @param method
+	 *            name of the step method
+	 */
+	void startStep(String method) {
+		currentStep.set(new Step(method));
+	}
+
+	/**
+	 * Ends the timing of the step of the current thread and records its
+	 * phases.
+	 */
+	void endStep() {
+		Step step = currentStep.get();
+		if (step == null) {
+			return;
+		}
+		currentStep.remove();
+		long total = System.nanoTime() - step.start;
+		long accounted = 0;
+		Histogram[] methodHistograms = histogramsOf(step.method);
+		for (Phase phase : Phase.values()) {
+			if (phase != Phase.OTHER && phase != Phase.TOTAL && step.phases[phase.ordinal()] > 0) {
+				methodHistograms[phase.ordinal()].record(step.phases[phase.ordinal()]);
+				accounted += step.phases[phase.ordinal()];
+			}
+		}
+		methodHistograms[Phase.OTHER.ordinal()].record(Math.max(0, total - accounted));
+		methodHistograms[Phase.TOTAL.ordinal()].record(total);
+	}
+
+	/**
+	 * Starts a phase of the running step.
+	 *
+	 * @return start time to pass to {@link #stopPhase(Phase, long)}, -1 if no
+	 *         step is running or a phase is already running
+	 */
+	long startPhase() {
+		Step step = currentStep.get();
+		if (step == null || step.phaseRunning) {
+			return -1;
+		}
+		step.phaseRunning = true;
+		return System.nanoTime();
+	}
+
+	/**
+	 * Stops a phase of the running step.
+	 *
+	 * @param phase
+	 *            the phase
+	 * @param start
+	 *            value returned by {@link #startPhase()}
+	 */
+	void stopPhase(Phase phase, long start) {
+		if (start < 0) {
+			return;
+		}
+		Step step = currentStep.get();
+		if (step != null) {
+			step.phases[phase.ordinal()] += System.nanoTime() - start;
+			step.phaseRunning = false;
+		}
+	}
+
+	/**
+	 * @return <code>true</code> if nothing was recorded
+	 */
+	boolean isEmpty() {
+		return histograms.isEmpty();
+	}
+
+	/**
+	 * Writes count, mean, percentiles and maximum per step and phase as CSV.
+	 *
+	 * @param writer
+	 *            target of the CSV
+	 * @throws IOException
+	 *             if writing fails
+	 */
+	void writeCsv(Writer writer) throws IOException {
+		writer.write("method;phase;count;mean_ms;p50_ms;p90_ms;p99_ms;max_ms\n");
+		for (Map.Entry<String, Histogram[]> entry : new TreeMap<String, Histogram[]>(histograms).entrySet()) {
+			for (Phase phase : Phase.values()) {
+				Histogram histogram = entry.getValue()[phase.ordinal()];
+				if (histogram.getCount() > 0) {
+					writer.write(entry.getKey() + ";" + phase + ";" + histogram.getCount() + ";"
+							+ format(histogram.meanMillis()) + ";" + format(histogram.percentileMillis(50)) + ";"
+							+ format(histogram.percentileMillis(90)) + ";" + format(histogram.percentileMillis(99))
+							+ ";" + format(histogram.maxMillis()) + "\n");
+				}
+			}
+		}
+	}
+
+	/**
+	 * Writes count, mean, percentiles and maximum per step and phase as JSON.
+	 *
+	 * @param writer
+	 *            target of the JSON
+	 * @throws IOException
+	 *             if writing fails
+	 */
+	void writeJson(Writer writer) throws IOException {
+		writer.write("{");
+		String methodSeparator = "";
+		for (Map.Entry<String, Histogram[]> entry : new TreeMap<String, Histogram[]>(histograms).entrySet()) {
+			writer.write(methodSeparator + "\n  \"" + entry.getKey() + "\": {");
+			String phaseSeparator = "";
+			for (Phase phase : Phase.values()) {
+				Histogram histogram = entry.getValue()[phase.ordinal()];
+				if (histogram.getCount() > 0) {
+					writer.write(phaseSeparator + "\n    \"" + phase + "\": {\"count\": " + histogram.getCount()
+							+ ", \"mean_ms\": " + format(histogram.meanMillis()) + ", \"p50_ms\": "
+							+ format(histogram.percentileMillis(50)) + ", \"p90_ms\": "
+							+ format(histogram.percentileMillis(90)) + ", \"p99_ms\": "
+							+ format(histogram.percentileMillis(99)) + ", \"max_ms\": "
+							+ format(histogram.maxMillis()) + "}");
+					phaseSeparator = ",";
+				}
+			}
+			writer.write("\n  }");
+			methodSeparator = ",";
+		}
+		writer.write("\n}\n");
+	}
+
+	/**
+	 * @param method
+	 *            name of the step method
+	 * @param phase
+	 *            the phase
+	 * @return the histogram of the phase of the step, <code>null</code> if
+	 *         the step was never recorded
+	 */
+	Histogram getHistogram(String method, Phase phase) {
+		Histogram[] methodHistograms = histograms.get(method);
+		if (methodHistograms == null) {
+			return null;
+		}
+		return methodHistograms[phase.ordinal()];
+	}
+
+	private Histogram[] histogramsOf(String method) {
+		Histogram[] methodHistograms = histograms.get(method);
+		if (methodHistograms == null) {
+			methodHistograms = new Histogram[Phase.values().length];
+			for (int i = 0; i < methodHistograms.length; i++) {
+				methodHistograms[i] = new Histogram();
+			}
+			Histogram[] existing = histograms.putIfAbsent(method, methodHistograms);
+			if (existing != null) {
+				methodHistograms = existing;
+			}
+		}
+		return methodHistograms;
+	}
+
+	private static String format(double millis) {
+		return String.format(Locale.ROOT, "%.3f", millis);
+	}
+}
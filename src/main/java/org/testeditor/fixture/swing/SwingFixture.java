@@ -15,18 +15,52 @@
 package org.testeditor.fixture.swing;
 
 import java.awt.Component;
+import java.awt.Frame;
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.awt.Window;
+import java.beans.Introspector;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
 
+import javax.swing.JButton;
+import javax.swing.JCheckBox;
+import javax.swing.JComboBox;
 import javax.swing.JComponent;
 import javax.swing.JFrame;
+import javax.swing.JRadioButton;
+import javax.swing.JTable;
+import javax.swing.JToggleButton;
+import javax.swing.JTree;
+import javax.swing.text.JTextComponent;
+import javax.swing.tree.TreePath;
 
 import org.apache.log4j.Logger;
 import org.fest.swing.core.BasicRobot;
 import org.fest.swing.core.ComponentFinder;
 import org.fest.swing.core.GenericTypeMatcher;
 import org.fest.swing.core.Robot;
+import org.fest.swing.data.TableCell;
+import org.fest.swing.driver.BasicJComboBoxCellReader;
 import org.fest.swing.driver.BasicJTableCellReader;
+import org.fest.swing.edt.GuiActionRunner;
+import org.fest.swing.edt.GuiQuery;
+import org.fest.swing.edt.GuiTask;
 import org.fest.swing.exception.ComponentLookupException;
 import org.fest.swing.finder.WindowFinder;
 import org.fest.swing.fixture.FrameFixture;
@@ -43,16 +77,74 @@ import org.testeditor.fixture.core.interaction.Fixture;
 import org.testeditor.fixture.core.utils.ExceptionUtils;
 
 /**
- * Fixture for communication via socket with swing agent.
+ * Fixture for swing applications running in the test JVM. The
+ * {@link org.testeditor.fixture.swing.agent.RemoteSwingFixture} offers the
+ * same steps for applications running in a swing agent of their own and
+ * communicates with the agent via socket.
  * 
  */
 public class SwingFixture implements Fixture {
 	private static final Logger LOGGER = Logger.getLogger(SwingFixture.class);
-	private static Thread thread;
+	private static final String STEP_TIMINGS_FILE = "swing-fixture-step-timings";
+	private static final long FAILURE_DIAGNOSTICS_FLUSH_TIMEOUT = 5000;
+	private static final long LAUNCHER_THREAD_JOIN_TIMEOUT = 2000;
+	private Thread thread;
+	private IsolatedApplicationLauncher isolatedLauncher;
+	private int isolatedStartTimeout = 30000;
+	private boolean applicationPooling;
+	private boolean fullTeardown;
+	private String mainWindowTitle;
+	private String mainWindowName;
+	private String mainWindowClass;
+	private int mainWindowTimeout = 30000;
+	private long timeToFirstInteraction;
+	private final StepTimings stepTimings = new StepTimings();
+	private String stepTimingsDirectory;
+	private final FailureDiagnostics failureDiagnostics = new FailureDiagnostics();
+	private boolean failureDiagnosticsEnabled = true;
+	private String lastFailureDiagnostics;
+	private StepErrorListener stepErrorListener;
+	private long stepStart;
+	private volatile String stepLocator;
+	private Object stepResult;
+	private ActionJournal actionJournal;
+	private String replayReport = "";
+	private String applicationPath;
+	private ApplicationPool.PooledApplication pooledApplication;
 	private Robot robot;
+	private RobotPacing robotPacing;
+	private RobotPacing.Mode robotMode = RobotPacing.Mode.DEFAULT;
+	private boolean syntheticInput;
 	private FrameFixture window;
 
 	private ElementListService elementListService;
+	private String elementListPath;
+	private final Map<String, String> resolvedLocators = new ConcurrentHashMap<String, String>();
+	private ElementListPreflight preflight;
+	private boolean elementListPreflightEnabled;
+	private final Object componentIndexLock = new Object();
+	private ComponentIndex componentIndex;
+	private volatile boolean componentIndexEnabled = true;
+	private TextEntryMode textEntryMode = TextEntryMode.ROBOT;
+	private final Map<String, TextEntryMode> textEntryModes = new ConcurrentHashMap<String, TextEntryMode>();
+	private final DurationStatistics textEntryStatistics = new DurationStatistics();
+	private FormFill formFill;
+	private TableSnapshot tableSnapshot;
+	private int tableSnapshotChunkSize = 500;
+	private List<String> snapshotDiff = new ArrayList<String>();
+	private final Map<JTable, TableRowIndex> tableRowIndexes = new WeakHashMap<JTable, TableRowIndex>();
+	private final Map<JComboBox, ComboBoxIndex> comboBoxIndexes = new WeakHashMap<JComboBox, ComboBoxIndex>();
+	private int treeLoadTimeout = 10000;
+	private final StepBudget stepBudget = new StepBudget();
+	private final FailedLookupCache failedLookups = new FailedLookupCache();
+	private int robotIdleTimeout = -1;
+	private EdtWatchdog edtWatchdog;
+	private boolean edtWatchdogEnabled = true;
+	private int edtStallThreshold = 200;
+	private int edtStallLimit;
+	private String edtStallReport = "";
+	private boolean tableRowClick;
+	private final DurationStatistics tableRowSelectionStatistics = new DurationStatistics();
 
 	/**
 	 * Creates the element list instance representing the GUI-Map for widget
@@ -69,6 +161,78 @@ public class SwingFixture implements Fixture {
 	 */
 	public void setElementlist(String elementList) {
 		this.elementListService = ElementListService.instanceFor(elementList);
+		this.elementListPath = elementList;
+		resolvedLocators.clear();
+		preflight = null;
+		if (elementListPreflightEnabled && window != null) {
+			preflightElementList();
+		}
+	}
+
+	/**
+	 * Enables the preflight of the element list. If enabled, every key of the
+	 * element list is resolved against the AUT after the application is
+	 * started or the element list is set. <br />
+	 * 
+	 * Usage for FitNesse: |set element list preflight|true|
+	 * 
+	 * @param enabled
+	 *            <code>true</code> to run the preflight automatically
+	 */
+	public void setElementListPreflight(boolean enabled) {
+		this.elementListPreflightEnabled = enabled;
+	}
+
+	/**
+	 * Resolves all keys of the element list against the showing windows of the
+	 * AUT in one walk over the component hierarchy. All missing and ambiguous
+	 * locators are logged together. The resolved locators and components are
+	 * used by the following steps. <br />
+	 * 
+	 * Usage for FitNesse: |preflight element list|
+	 * 
+	 * @return <code>true</code> if every locator was found exactly once
+	 */
+	public boolean preflightElementList() {
+		Map<String, String> keyToLocator = new LinkedHashMap<String, String>();
+		try {
+			for (String key : ElementListPreflight.readKeys(elementListPath)) {
+				String locator = null;
+				try {
+					locator = elementListService.getValue(key);
+				} catch (ElementKeyNotFoundException e) {
+					LOGGER.debug("element list key not found: " + key);
+				}
+				keyToLocator.put(key, locator);
+			}
+		} catch (IOException e) {
+			LOGGER.error("could not read the element list " + elementListPath + " Error: " + e);
+			return stepResult(false);
+		}
+		preflight = ElementListPreflight.resolve(keyToLocator, applicationWindows());
+		for (Map.Entry<String, String> entry : preflight.getLocators().entrySet()) {
+			if (entry.getValue() != null) {
+				resolvedLocators.put(entry.getKey(), entry.getValue());
+			}
+		}
+		if (preflight.isValid()) {
+			LOGGER.info("element list preflight: " + preflight.getReport());
+			return stepResult(true);
+		}
+		LOGGER.error("element list preflight failed: " + preflight.getReport());
+		return stepResult(false);
+	}
+
+	/**
+	 * Returns the report of the last element list preflight.
+	 * 
+	 * @return report of the preflight
+	 */
+	public String getElementListPreflightReport() {
+		if (preflight == null) {
+			return stepResult("no preflight");
+		}
+		return stepResult(preflight.getReport());
 	}
 
 	/**
@@ -79,12 +243,19 @@ public class SwingFixture implements Fixture {
 	 * @return locator as String
 	 */
 	protected String getLocatorFromElementList(String elementListKey) {
-		String locator = null;
-
+		long start = stepTimings.startPhase();
+		String locator = resolvedLocators.get(elementListKey);
 		try {
-			locator = elementListService.getValue(elementListKey);
+			if (locator == null) {
+				locator = elementListService.getValue(elementListKey);
+			}
 		} catch (ElementKeyNotFoundException e) {
 			ExceptionUtils.handleElementKeyNotFoundException(elementListKey, e);
+		} finally {
+			stepTimings.stopPhase(StepTimings.Phase.ELEMENT_LIST, start);
+		}
+		if (stepLocator == null) {
+			stepLocator = locator;
 		}
 
 		return locator;
@@ -96,8 +267,196 @@ public class SwingFixture implements Fixture {
 	 */
 
 	public boolean startApplication(final String path) {
+		if (fullTeardown) {
+			TeardownAccounting.beforeTest();
+		}
+		applicationPath = path;
+		if (applicationPooling) {
+			pooledApplication = ApplicationPool.take(path);
+			if (pooledApplication != null) {
+				thread = pooledApplication.getThread();
+				robot = pacedRobot(BasicRobot.robotWithCurrentAwtHierarchy());
+				window = new FrameFixture(robot, pooledApplication.getMainFrame());
+				startEdtWatchdog();
+				if (elementListPreflightEnabled && elementListService != null) {
+					preflightElementList();
+				}
+				return stepResult(true);
+			}
+		}
 		startApplicationThread(path, null, Thread.currentThread().getContextClassLoader());
-		return true;
+		if (applicationPooling) {
+			robot.waitForIdle();
+			pooledApplication = ApplicationPool.launched(thread, window.target);
+		}
+		return stepResult(true);
+	}
+
+	/**
+	 * Enables the pool of warm applications. If enabled,
+	 * {@link #stopApplication()} keeps the application running and the next
+	 * {@link #startApplication(String)} of the same application reuses it
+	 * after resetting it to the state captured after its launch. If the reset
+	 * fails, the application is launched again. <br />
+	 * 
+	 * Usage for FitNesse: |set application pooling|true|
+	 * 
+	 * @param enabled
+	 *            <code>true</code> to keep applications warm
+	 */
+	public void setApplicationPooling(boolean enabled) {
+		this.applicationPooling = enabled;
+	}
+
+	/**
+	 * Returns launches, reuses, failed resets and the reuse rate of the
+	 * application pool of this JVM.
+	 * 
+	 * @return statistics of the application pool
+	 */
+	public String getApplicationPoolStatistics() {
+		return stepResult(ApplicationPool.getStatistics());
+	}
+
+	/**
+	 * Sets the pacing of the robot. In the mode <code>default</code> the
+	 * fixed delays of FEST are used. In the mode <code>fast</code> the delays
+	 * are reduced to a minimum and the fixture waits after each action until
+	 * the event queue is drained and the AUT has repainted. If the fixture
+	 * detects dropped input (typed text or a click on a check box which did
+	 * not arrive), it doubles the delays and repeats the input. <br />
+	 *
+	 * Usage for FitNesse: |set robot mode|fast|
+	 *
+	 * @param mode
+	 *            <code>fast</code> or <code>default</code>
+	 * @return <code>false</code> if the mode is unknown
+	 */
+	public boolean setRobotMode(String mode) {
+		try {
+			robotMode = RobotPacing.Mode.valueOf(mode.trim().toUpperCase(Locale.ROOT));
+		} catch (IllegalArgumentException e) {
+			LOGGER.error("unknown robot mode " + mode + " Error: " + e);
+			return stepResult(false);
+		}
+		if (robotPacing != null) {
+			robotPacing.setMode(robotMode);
+		}
+		return stepResult(true);
+	}
+
+	/**
+	 * Returns the robot mode with the current delays and how often the
+	 * pacing had to back off since the application was started.
+	 *
+	 * @return statistics of the robot pacing
+	 */
+	public String getRobotPacingStatistics() {
+		if (robotPacing == null) {
+			return stepResult(robotMode.toString());
+		}
+		return stepResult(robotPacing.describe());
+	}
+
+	/**
+	 * Selects the input driver of the robot for the next start of an
+	 * application. The driver <code>robot</code> moves the mouse and presses
+	 * keys of the OS like a user. The driver <code>synthetic</code> posts mouse
+	 * events straight to the event queue of the AUT and dispatches key events
+	 * to the component, so the tests neither need the focus of the display
+	 * nor the OS input queue, e.g. on a shared or headless build agent. <br />
+	 *
+	 * Usage for FitNesse: |set input driver|synthetic|
+	 *
+	 * @param driver
+	 *            <code>robot</code> or <code>synthetic</code>
+	 * @return <code>false</code> if the driver is unknown
+	 */
+	public boolean setInputDriver(String driver) {
+		String name = driver.trim().toLowerCase(Locale.ROOT);
+		if ("synthetic".equals(name)) {
+			syntheticInput = true;
+		} else if ("robot".equals(name)) {
+			syntheticInput = false;
+		} else {
+			LOGGER.error("unknown input driver " + driver + " Error: expected robot or synthetic");
+			return stepResult(false);
+		}
+		return stepResult(true);
+	}
+
+	private Robot pacedRobot(Robot baseRobot) {
+		Robot inputRobot = baseRobot;
+		if (syntheticInput) {
+			inputRobot = SyntheticRobot.wrap(baseRobot);
+		}
+		Robot instrumented = InstrumentedRobot.wrap(inputRobot, stepTimings);
+		robotPacing = new RobotPacing(instrumented);
+		robotPacing.setMode(robotMode);
+		return instrumented;
+	}
+
+	/**
+	 * In the fast robot mode waits until the AUT has processed the input and
+	 * verifies that the document received every typed character. If
+	 * characters are missing, the text before the input is restored and the
+	 * text is typed again with larger delays. If a retry doesn't insert more
+	 * characters than the attempt before, the field itself accepts fewer
+	 * characters, e.g. because of a length limit: the back off is taken back
+	 * and a warning is logged.
+	 */
+	private void verifyTypedText(JTextComponentFixture textField, TypedTextCheck check, String text) {
+		robotPacing.settle(robot);
+		int inserted = check.inserted();
+		while (inserted < text.length() && robotPacing.backOff()) {
+			LOGGER.debug("dropped input in text field, backing off: " + robotPacing.describe());
+			check.reset();
+			textField.enterText(text);
+			robotPacing.settle(robot);
+			if (check.inserted() <= inserted) {
+				robotPacing.withdrawBackOff();
+				LOGGER.warn("text field " + textField.target.getName() + " accepted only " + check.inserted()
+						+ " of " + text.length() + " typed characters, not typing again");
+				return;
+			}
+			inserted = check.inserted();
+		}
+		if (inserted >= text.length()) {
+			robotPacing.confirm();
+		}
+	}
+
+	/**
+	 * In the fast robot mode waits until the AUT has processed the click and
+	 * verifies the state of a toggle button. If the click was dropped, the
+	 * button is clicked again with larger delays.
+	 */
+	private void verifyToggled(final JToggleButton button, boolean selected) {
+		if (!isFastRobot()) {
+			return;
+		}
+		robotPacing.settle(robot);
+		while (isSelected(button) != selected && robotPacing.backOff()) {
+			LOGGER.debug("dropped click on " + button.getName() + ", backing off: " + robotPacing.describe());
+			robot.click(button);
+			robotPacing.settle(robot);
+		}
+		if (isSelected(button) == selected) {
+			robotPacing.confirm();
+		}
+	}
+
+	private boolean isFastRobot() {
+		return robotPacing != null && robotPacing.isFast();
+	}
+
+	private static boolean isSelected(final JToggleButton button) {
+		return GuiActionRunner.execute(new GuiQuery<Boolean>() {
+			@Override
+			protected Boolean executeInEDT() {
+				return button.isSelected();
+			}
+		});
 	}
 
 	/**
@@ -116,472 +475,2173 @@ public class SwingFixture implements Fixture {
 		};
 		cl = Thread.currentThread().getContextClassLoader();
 		thread.setContextClassLoader(cl);
+		MainWindowWatcher watcher = new MainWindowWatcher(mainWindowTitle, mainWindowName, mainWindowClass);
+		watcher.install();
+		long start = System.nanoTime();
 		thread.start();
+		startEdtWatchdog();
 
-		robot = BasicRobot.robotWithCurrentAwtHierarchy();
-		window = WindowFinder.findFrame(new GenericTypeMatcher<JFrame>(JFrame.class) {
-			@Override
-			protected boolean isMatching(JFrame frame) {
-				return frame.isActive() && frame.isFocused();
-			}
-		}).using(robot);
+		robot = pacedRobot(BasicRobot.robotWithCurrentAwtHierarchy());
+		Frame mainFrame = null;
+		try {
+			mainFrame = watcher.await(stepBudget.cap(mainWindowTimeout));
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} finally {
+			watcher.uninstall();
+		}
+		if (mainFrame != null) {
+			window = new FrameFixture(robot, mainFrame);
+		} else {
+			LOGGER.warn("main window of " + path + " not opened within " + mainWindowTimeout
+					+ " ms, falling back to the active frame");
+			window = WindowFinder.findFrame(new GenericTypeMatcher<JFrame>(JFrame.class) {
+				@Override
+				protected boolean isMatching(JFrame frame) {
+					return frame.isActive() && frame.isFocused();
+				}
+			}).using(robot);
+		}
+		robot.waitForIdle();
+		timeToFirstInteraction = (System.nanoTime() - start) / 1000000;
+		LOGGER.info("time to first interaction with " + path + ": " + timeToFirstInteraction + " ms");
+		if (elementListPreflightEnabled && elementListService != null) {
+			preflightElementList();
+		}
 	}
 
 	/**
-	 * Stops running AUT.
+	 * Sets the title the main window of the AUT must have. <br />
+	 * 
+	 * Usage for FitNesse: |set main window title|Geburtstagsliste|
 	 * 
+	 * @param title
+	 *            title of the main window, empty to match any title
 	 */
-	public boolean stopApplication() {
-		robot.cleanUp();
-		return true;
+	public void setMainWindowTitle(String title) {
+		this.mainWindowTitle = emptyToNull(title);
 	}
 
 	/**
-	 * Search and return the Component with the element list key.
+	 * Sets the name the main window of the AUT must have.
 	 * 
-	 * @param elementListKey
-	 *            Key of the Component in element list
-	 * @return Found component
+	 * @param name
+	 *            name of the main window, empty to match any name
 	 */
-	protected Component findComponent(String elementListKey) {
-		String locator = getLocatorFromElementList(elementListKey);
-		Component result = null;
-		try {
-			ComponentFinder finder = window.robot.finder();
-			Component component = finder.findByName(locator);
-			if (component != null) {
-				result = component;
-			} else {
-				LOGGER.error("The Component with the name " + locator + " could not be found.");
-			}
-		} catch (Exception e) {
-			LOGGER.error("find Component Error: " + e);
-		}
-		return result;
+	public void setMainWindowName(String name) {
+		this.mainWindowName = emptyToNull(name);
 	}
 
 	/**
-	 * Insert the Text into a JTextField.
+	 * Sets the class the main window of the AUT must have.
 	 * 
-	 * @param text
-	 *            The Text to fill the TextField
-	 * @param elementListKey
-	 *            Key of the Component in element list
+	 * @param className
+	 *            simple or fully qualified name of the class of the main
+	 *            window or one of its super classes, empty to match any class
 	 */
-	public boolean insertIntoTextField(String elementListKey, String text) {
-		String locator = getLocatorFromElementList(elementListKey);
-		try {
-			JTextComponentFixture textField = window.textBox(locator);
-			textField.enterText(text);
-			return true;
-		} catch (Exception e) {
-			LOGGER.error("insert text into a textField Error: " + e);
-			return false;
+	public void setMainWindowClass(String className) {
+		this.mainWindowClass = emptyToNull(className);
+	}
+
+	/**
+	 * Sets the maximum time to wait for the main window of the AUT.
+	 * 
+	 * @param milliSeconds
+	 *            maximum time to wait
+	 */
+	public void setMainWindowTimeout(int milliSeconds) {
+		this.mainWindowTimeout = milliSeconds;
+	}
+
+	/**
+	 * Returns the time from the launch of the AUT until its main window was
+	 * showing and the EDT was idle.
+	 * 
+	 * @return time to first interaction in milliseconds
+	 */
+	public long getTimeToFirstInteraction() {
+		return stepResult(timeToFirstInteraction);
+	}
+
+	private static String emptyToNull(String value) {
+		if (value == null || value.trim().isEmpty()) {
+			return null;
 		}
+		return value.trim();
 	}
 
 	/**
-	 * delete the text form the textField.
+	 * Starts the AUT in its own class loader. Several fixtures can run
+	 * isolated instances of the same application in one JVM at the same time,
+	 * each fixture only looks up components in the windows of its own
+	 * instance. See {@link IsolatedApplicationLauncher} for the concurrency
+	 * model. <br />
 	 * 
-	 * @param elementListKey
-	 *            Key of the Component in element list
+	 * Usage for FitNesse: |start isolated application|de.akquinet.birthday.controller.EmployeeController|
+	 * 
+	 * @param mainClass
+	 *            fully qualified name of the main class of the AUT
+	 * @return <code>true</code> if the main frame of the instance is showing
 	 */
-	public boolean deleteTextField(String elementListKey) {
-		String locator = getLocatorFromElementList(elementListKey);
+	public boolean startIsolatedApplication(String mainClass) {
+		if (fullTeardown) {
+			TeardownAccounting.beforeTest();
+		}
+		applicationPath = mainClass;
+		isolatedLauncher = new IsolatedApplicationLauncher(mainClass);
+		isolatedLauncher.start();
+		thread = isolatedLauncher.getThread();
+		robot = pacedRobot(SharedRobot.acquire());
 		try {
-			JTextComponentFixture textField = window.textBox(locator);
-			textField.deleteText();
-			return true;
-		} catch (Exception e) {
-			LOGGER.error("delete text from textField Error: " + e);
-			return false;
+			Frame frame = isolatedLauncher.waitForMainFrame(stepBudget.cap(isolatedStartTimeout));
+			if (frame == null) {
+				LOGGER.error("no frame of " + mainClass + " showing after " + isolatedStartTimeout + " ms");
+				stopIsolatedApplication();
+				return stepResult(false);
+			}
+			window = new FrameFixture(robot, frame);
+			startEdtWatchdog();
+		} catch (InterruptedException e) {
+			LOGGER.error("interrupted while waiting for " + mainClass + " Error: " + e);
+			stopIsolatedApplication();
+			return stepResult(false);
 		}
+		if (elementListPreflightEnabled && elementListService != null) {
+			preflightElementList();
+		}
+		return stepResult(true);
 	}
 
 	/**
-	 * Get the Text from the JTextField.
+	 * Sets the maximum time {@link #startIsolatedApplication(String)} waits
+	 * for the main frame.
 	 * 
-	 * @param elementListKey
-	 * @return
+	 * @param milliSeconds
+	 *            maximum time to wait
 	 */
-	public String getTextFromTextField(String elementListKey) {
-		String locator = getLocatorFromElementList(elementListKey);
-		String result = null;
-		try {
-			JTextComponentFixture textField = window.textBox(locator);
-			result = textField.text();
-		} catch (Exception e) {
-			LOGGER.error("get text from textField Error: " + e);
+	public void setIsolatedStartTimeout(int milliSeconds) {
+		this.isolatedStartTimeout = milliSeconds;
+	}
+
+	/**
+	 * Stops the isolated instance of the AUT and releases the shared robot.
+	 * 
+	 * @return always <code>true</code>
+	 */
+	private boolean stopIsolatedApplication() {
+		releaseApplicationState();
+		isolatedLauncher.stop();
+		isolatedLauncher = null;
+		window = null;
+		thread = null;
+		robot = null;
+		SharedRobot.release();
+		return true;
+	}
+
+	/**
+	 * Stops running AUT. Stopping an application which is not running only
+	 * logs a warning.
+	 * 
+	 */
+	public boolean stopApplication() {
+		if (robot == null) {
+			LOGGER.warn("stop application: no application is running");
+			return stepResult(true);
 		}
-		return result;
+		writeStepTimings();
+		if (failureDiagnosticsEnabled) {
+			FailureDiagnostics.flush(FAILURE_DIAGNOSTICS_FLUSH_TIMEOUT);
+		}
+		releaseApplicationState();
+		stopEdtWatchdog();
+		if (pooledApplication != null) {
+			robot.cleanUpWithoutDisposingWindows();
+			robot = null;
+			ApplicationPool.giveBack(applicationPath, pooledApplication);
+			pooledApplication = null;
+			return stepResult(true);
+		}
+		if (isolatedLauncher != null) {
+			stopIsolatedApplication();
+		} else if (fullTeardown) {
+			tearDownApplication();
+		} else {
+			robot.cleanUp();
+			robot = null;
+		}
+		if (fullTeardown) {
+			failureDiagnostics.clearFrames();
+			TeardownAccounting.afterTeardown(applicationPath);
+		}
+		return stepResult(true);
 	}
 
 	/**
-	 * Click the button with the name.
+	 * Disposes the windows of the AUT, stops the launcher thread and drops
+	 * the robot and the window fixture, so nothing of the AUT stays
+	 * reachable from the fixture. Windows of other applications in the JVM
+	 * are left open.
+	 */
+	private void tearDownApplication() {
+		final ApplicationWindows windows = applicationWindows();
+		robot.cleanUpWithoutDisposingWindows();
+		GuiActionRunner.execute(new GuiTask() {
+			@Override
+			protected void executeInEDT() {
+				for (Window each : windows.list()) {
+					if (each.isDisplayable()) {
+						each.dispose();
+					}
+				}
+			}
+		});
+		if (thread != null && thread.isAlive()) {
+			thread.interrupt();
+			try {
+				thread.join(LAUNCHER_THREAD_JOIN_TIMEOUT);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			if (thread.isAlive()) {
+				LOGGER.warn("launcher thread of " + applicationPath + " is still running");
+			}
+		}
+		Introspector.flushCaches();
+		window = null;
+		thread = null;
+		robot = null;
+		robotPacing = null;
+	}
+
+	private void startEdtWatchdog() {
+		stopEdtWatchdog();
+		if (edtWatchdogEnabled) {
+			edtWatchdog = EdtWatchdog.start(edtStallThreshold);
+		}
+	}
+
+	private void stopEdtWatchdog() {
+		if (edtWatchdog != null) {
+			edtWatchdog.stop();
+			edtStallReport = edtWatchdog.describe();
+			edtWatchdog = null;
+		}
+	}
+
+	/**
+	 * Enables the EDT watchdog. If enabled, the start of the application
+	 * starts a watchdog which measures the latency of the event queue of the
+	 * AUT with probe events and records stalls above the threshold with the
+	 * stack trace of the EDT and the running step. <br />
+	 *
+	 * Usage for FitNesse: |set edt watchdog|false|
+	 *
+	 * @param enabled
+	 *            <code>true</code> to watch the EDT of the next application
+	 */
+	public void setEdtWatchdog(boolean enabled) {
+		this.edtWatchdogEnabled = enabled;
+	}
+
+	/**
+	 * Sets the latency of the event queue above which the EDT watchdog
+	 * records a stall, effective with the next start of the application.
+	 * <br />
+	 *
+	 * Usage for FitNesse: |set edt stall threshold|100|
+	 *
+	 * @param milliSeconds
+	 *            threshold of a stall
+	 */
+	public void setEdtStallThreshold(int milliSeconds) {
+		this.edtStallThreshold = milliSeconds;
+	}
+
+	/**
+	 * Sets the longest stall of the EDT a step may see. A step during which
+	 * the EDT stalled longer fails, even if its action succeeded. <br />
+	 *
+	 * Usage for FitNesse: |set edt stall limit|2000|
+	 *
+	 * @param milliSeconds
+	 *            longest allowed stall, 0 to never fail a step
+	 */
+	public void setEdtStallLimit(int milliSeconds) {
+		this.edtStallLimit = milliSeconds;
+	}
+
+	/**
+	 * Returns the probes, latencies and last stalls of the EDT of the running
+	 * or, after the stop, the last application.
+	 *
+	 * @return report of the EDT watchdog
+	 */
+	public String getEdtStallReport() {
+		if (edtWatchdog != null) {
+			return stepResult(edtWatchdog.describe());
+		}
+		return stepResult(edtStallReport);
+	}
+
+	/**
+	 * Enables the full teardown. If enabled, {@link #stopApplication()}
+	 * disposes every window, stops the launcher thread and releases the robot
+	 * and the window fixture, so a long run in one JVM doesn't keep the AUTs
+	 * of earlier tests reachable. The class loader of the AUT can only be
+	 * unloaded if the AUT was started with
+	 * {@link #startIsolatedApplication(String)}. Heap use and live threads
+	 * are logged before and after each test; a warning is logged if they
+	 * keep growing. Pooled applications are kept running. <br />
+	 *
+	 * Usage for FitNesse: |set full teardown|true|
+	 *
+	 * @param enabled
+	 *            <code>true</code> to tear the AUT down completely
+	 */
+	public void setFullTeardown(boolean enabled) {
+		this.fullTeardown = enabled;
+	}
+
+	/**
+	 * Returns heap use and live threads before and after the last test with
+	 * full teardown and the number of growth warnings in this JVM.
+	 *
+	 * @return statistics of the full teardowns
+	 */
+	public String getTeardownStatistics() {
+		return stepResult(TeardownAccounting.describe());
+	}
+
+	/**
+	 * Sets the directory the step timings are written to by
+	 * {@link #stopApplication()}. The timings are not written by default. The
+	 * file names contain the time of the stop and the process id, so
+	 * parallel and consecutive runs don't overwrite each other. <br />
 	 * 
-	 * @param elementListKey
-	 *            Key of the Component in element list
+	 * Usage for FitNesse: |set step timings directory|target/timings|
+	 * 
+	 * @param directory
+	 *            target directory, empty to disable writing the timings
 	 */
-	public boolean clickButton(String elementListKey) {
-		String locator = getLocatorFromElementList(elementListKey);
-		try {
-			JButtonFixture button = window.button(locator);
-			button.click();
-			return true;
-		} catch (Exception e) {
-			LOGGER.error("click Button Error: " + e);
-			return false;
+	public void setStepTimingsDirectory(String directory) {
+		this.stepTimingsDirectory = emptyToNull(directory);
+	}
+
+	/**
+	 * Enables the capture of failure diagnostics. If enabled, a step which
+	 * logs an error, e.g. because an action failed with an exception, writes
+	 * a dump of the component hierarchy of the window and a screenshot of the
+	 * window into the failure diagnostics directory, together with the
+	 * screenshots of the last steps if {@link #setFailureScreenshotFrames(int)}
+	 * is set. Steps which only answer <code>false</code>, like
+	 * {@link #isCheckedCheckBox(String)}, capture nothing. The files are
+	 * written in the background. <br />
+	 * 
+	 * Usage for FitNesse: |set failure diagnostics|false|
+	 * 
+	 * @param enabled
+	 *            <code>true</code> to capture failure diagnostics
+	 */
+	public void setFailureDiagnostics(boolean enabled) {
+		this.failureDiagnosticsEnabled = enabled;
+	}
+
+	/**
+	 * Sets the directory the failure diagnostics are written to. <br />
+	 * 
+	 * Usage for FitNesse: |set failure diagnostics directory|target/failures|
+	 * 
+	 * @param directory
+	 *            target directory
+	 */
+	public void setFailureDiagnosticsDirectory(String directory) {
+		failureDiagnostics.setDirectory(new File(directory));
+	}
+
+	/**
+	 * Sets the number of screenshots of the last steps kept in memory for
+	 * the failure diagnostics. By default no screenshots are kept and only
+	 * the screen at the failure is captured. <br />
+	 * 
+	 * Usage for FitNesse: |set failure screenshot frames|5|
+	 * 
+	 * @param frames
+	 *            number of screenshots, 0 to capture only the screen at the
+	 *            failure
+	 */
+	public void setFailureScreenshotFrames(int frames) {
+		failureDiagnostics.setMaxFrames(frames);
+	}
+
+	/**
+	 * Sets the minimum time between two screenshots of the last steps. Steps
+	 * ending earlier do not paint the window. The default is one second.
+	 * <br />
+	 * 
+	 * Usage for FitNesse: |set failure screenshot interval|250|
+	 * 
+	 * @param millis
+	 *            minimum time between two screenshots, 0 to paint after
+	 *            every step
+	 */
+	public void setFailureScreenshotInterval(int millis) {
+		failureDiagnostics.setFrameInterval(millis);
+	}
+
+	/**
+	 * Sets the memory used for the screenshots of the last steps and the disk
+	 * space used for all failure diagnostics. If the directory exceeds its
+	 * limit, the oldest diagnostics are deleted. <br />
+	 * 
+	 * Usage for FitNesse: |set failure diagnostics memory|16|and disk limit|100|
+	 * 
+	 * @param memoryMegaBytes
+	 *            maximum memory of the screenshots in MB
+	 * @param diskMegaBytes
+	 *            maximum size of the failure diagnostics directory in MB
+	 */
+	public void setFailureDiagnosticsMemoryAndDiskLimit(int memoryMegaBytes, int diskMegaBytes) {
+		failureDiagnostics.setLimits(memoryMegaBytes * 1024L * 1024L, diskMegaBytes * 1024L * 1024L);
+	}
+
+	/**
+	 * Returns the base name of the files of the last failure diagnostics.
+	 * 
+	 * @return base name of the files, <code>null</code> if no failure was
+	 *         captured
+	 */
+	public String getLastFailureDiagnostics() {
+		return stepResult(lastFailureDiagnostics);
+	}
+
+	/**
+	 * Starts recording the following steps into an action journal. Each step
+	 * is appended with its arguments, the locator it resolved, the first
+	 * error it logged and its duration. The journal can be replayed with
+	 * {@link #replayActionJournal(String)}. <br />
+	 * 
+	 * Usage for FitNesse: |start action journal|target/journal.bin|
+	 * 
+	 * @param path
+	 *            path of the journal file, an existing file is replaced
+	 * @return <code>true</code> if the journal is created
+	 */
+	public boolean startActionJournal(String path) {
+		stopActionJournal();
+		try {
+			actionJournal = ActionJournal.create(new File(path));
+			return stepResult(true);
+		} catch (IOException e) {
+			LOGGER.error("could not create the action journal " + path + " Error: " + e);
+			return stepResult(false);
+		}
+	}
+
+	/**
+	 * Stops recording the steps and closes the action journal. <br />
+	 * 
+	 * Usage for FitNesse: |stop action journal|
+	 * 
+	 * @return <code>false</code> if the journal could not be closed
+	 */
+	public boolean stopActionJournal() {
+		if (actionJournal == null) {
+			return stepResult(true);
+		}
+		try {
+			actionJournal.close();
+			return stepResult(true);
+		} catch (IOException e) {
+			LOGGER.error("could not close the action journal Error: " + e);
+			return stepResult(false);
+		} finally {
+			actionJournal = null;
+		}
+	}
+
+	/**
+	 * Replays an action journal against the AUT as fast as possible: the
+	 * robot runs in the fast mode, recorded waits are replaced by waiting
+	 * until the AUT is idle, and the replay stops at the first step whose
+	 * outcome (failed or not, resolved locator, returned value) differs from
+	 * the recording. The journal usually starts with the start of the application. <br />
+	 * 
+	 * Usage for FitNesse: |replay action journal|target/journal.bin|
+	 * 
+	 * @param path
+	 *            path of the journal file
+	 * @return <code>true</code> if every step had the recorded outcome, the
+	 *         details are available with {@link #getActionJournalReplayReport()}
+	 */
+	public boolean replayActionJournal(String path) {
+		List<ActionJournal.Entry> entries;
+		try {
+			entries = ActionJournal.read(new File(path));
+		} catch (IOException e) {
+			LOGGER.error("could not read the action journal " + path + " Error: " + e);
+			replayReport = "could not read " + path + ": " + e;
+			return stepResult(false);
+		}
+		RobotPacing.Mode previousMode = robotMode;
+		setRobotMode(RobotPacing.Mode.FAST.name());
+		long recorded = 0;
+		long start = System.nanoTime();
+		try {
+			for (int i = 0; i < entries.size(); i++) {
+				ActionJournal.Entry entry = entries.get(i);
+				recorded += entry.getNanos();
+				String difference = replay(entry);
+				if (difference != null) {
+					replayReport = "step " + (i + 1) + " of " + entries.size() + " differs: " + entry + " "
+							+ difference;
+					LOGGER.error("action journal replay: " + replayReport);
+					return stepResult(false);
+				}
+			}
+		} finally {
+			setRobotMode(previousMode.name());
+		}
+		replayReport = "replayed " + entries.size() + " steps in " + (System.nanoTime() - start) / 1000000
+				+ " ms, recorded in " + recorded / 1000000 + " ms";
+		LOGGER.info("action journal replay: " + replayReport);
+		return stepResult(true);
+	}
+
+	/**
+	 * Returns the result of the last {@link #replayActionJournal(String)}: the
+	 * first differing step or the duration of the replay.
+	 * 
+	 * @return report of the replay
+	 */
+	public String getActionJournalReplayReport() {
+		return stepResult(replayReport);
+	}
+
+	/**
+	 * Replays one step of the journal.
+	 * 
+	 * @return the difference to the recorded outcome or <code>null</code>
+	 */
+	private String replay(ActionJournal.Entry entry) {
+		String error = null;
+		Object result = null;
+		stepLocator = null;
+		StepErrorListener listener = StepErrorListener.attach(LOGGER);
+		try {
+			if (!"waitMilliSeconds".equals(entry.getMethod().getName())) {
+				result = entry.getMethod().invoke(this, entry.getArguments());
+			}
+			if (robot != null && window != null) {
+				robot.waitForIdle();
+			}
+		} catch (InvocationTargetException e) {
+			error = String.valueOf(e.getCause());
+		} catch (IllegalAccessException e) {
+			error = String.valueOf(e);
+		} finally {
+			String logged = listener.detach();
+			if (error == null) {
+				error = logged;
+			}
+		}
+		if ((error == null) != (entry.getError() == null)) {
+			return "recorded error: " + entry.getError() + ", replayed error: " + error;
+		}
+		if (entry.getLocator() != null && !entry.getLocator().equals(stepLocator)) {
+			return "recorded locator: " + entry.getLocator() + ", replayed locator: " + stepLocator;
+		}
+		if (describesApplication(entry.getMethod()) && !equal(entry.getResult(), result)) {
+			return "recorded result: " + entry.getResult() + ", replayed result: " + result;
+		}
+		return null;
+	}
+
+	/**
+	 * @return <code>false</code> for steps without result and for steps
+	 *         which return timings or reports of the fixture itself, they
+	 *         differ in every run
+	 */
+	private static boolean describesApplication(Method method) {
+		String name = method.getName();
+		return method.getReturnType() != void.class && method.getReturnType() != long.class
+				&& !name.endsWith("Statistics") && !name.endsWith("Report") && !name.endsWith("Diagnostics");
+	}
+
+	private static boolean equal(Object recorded, Object replayed) {
+		if (recorded == null) {
+			return replayed == null;
+		}
+		return recorded.equals(replayed);
+	}
+
+	/**
+	 * Remembers the value returned by the running step for the action
+	 * journal and the failure diagnostics.
+	 *
+	 * @param result
+	 *            value returned by the step
+	 * @param <T>
+	 *            type of the value
+	 * @return the value
+	 */
+	private <T> T stepResult(T result) {
+		stepResult = result;
+		return result;
+	}
+
+	private void journal(Method method, Object[] args, String error, Object result) {
+		try {
+			actionJournal.append(method, args, stepLocator, error, result, System.nanoTime() - stepStart);
+		} catch (IOException e) {
+			LOGGER.warn("could not append " + method.getName() + " to the action journal Error: " + e);
+		}
+	}
+
+	/**
+	 * Writes the histograms of the step timings as CSV and JSON into the step
+	 * timings directory.
+	 */
+	private void writeStepTimings() {
+		if (stepTimingsDirectory == null || stepTimings.isEmpty()) {
+			return;
+		}
+		File directory = new File(stepTimingsDirectory);
+		directory.mkdirs();
+		String baseName = STEP_TIMINGS_FILE + "-" + new SimpleDateFormat("yyyyMMdd-HHmmss-SSS").format(new Date())
+				+ "-" + processId();
+		try {
+			Writer csv = new OutputStreamWriter(new FileOutputStream(new File(directory, baseName + ".csv")), "UTF-8");
+			try {
+				stepTimings.writeCsv(csv);
+			} finally {
+				csv.close();
+			}
+			Writer json = new OutputStreamWriter(
+					new FileOutputStream(new File(directory, baseName + ".json")), "UTF-8");
+			try {
+				stepTimings.writeJson(json);
+			} finally {
+				json.close();
+			}
+		} catch (IOException e) {
+			LOGGER.warn("could not write the step timings to " + directory + " Error: " + e);
+		}
+	}
+
+	/**
+	 * @return the id of this JVM process, the name of the runtime if it
+	 *         doesn't start with the id
+	 */
+	private static String processId() {
+		String name = ManagementFactory.getRuntimeMXBean().getName();
+		int at = name.indexOf('@');
+		if (at > 0) {
+			return name.substring(0, at);
+		}
+		return name;
+	}
+
+	/**
+	 * Drops all indexes and bindings of the components of the AUT.
+	 */
+	private void releaseApplicationState() {
+		disposeComponentIndex();
+		failedLookups.clear();
+		preflight = null;
+		synchronized (tableRowIndexes) {
+			for (TableRowIndex index : tableRowIndexes.values()) {
+				index.dispose();
+			}
+			tableRowIndexes.clear();
+		}
+		synchronized (comboBoxIndexes) {
+			for (ComboBoxIndex index : comboBoxIndexes.values()) {
+				index.dispose();
+			}
+			comboBoxIndexes.clear();
+		}
+	}
+
+	/**
+	 * Search and return the Component with the element list key.
+	 * 
+	 * @param elementListKey
+	 *            Key of the Component in element list
+	 * @return Found component
+	 */
+	protected Component findComponent(String elementListKey) {
+		String locator = getLocatorFromElementList(elementListKey);
+		Component result = null;
+		long start = stepTimings.startPhase();
+		try {
+			stepBudget.check("the lookup of " + locator);
+			if (failedLookups.failedRecently(locator, Component.class)) {
+				throw new ComponentLookupException("lookup of " + locator + " failed a moment ago");
+			}
+			Component component = lookupComponent(locator, Component.class);
+			if (component == null) {
+				ComponentFinder finder = window.robot.finder();
+				try {
+					component = finder.findByName(locator);
+				} catch (ComponentLookupException e) {
+					failedLookups.failed(locator, Component.class);
+					throw e;
+				}
+			}
+			if (component != null) {
+				result = component;
+			} else {
+				failedLookups.failed(locator, Component.class);
+				LOGGER.error("The Component with the name " + locator + " could not be found.");
+			}
+		} catch (Exception e) {
+			LOGGER.error("find Component Error: " + e);
+		} finally {
+			stepTimings.stopPhase(StepTimings.Phase.LOOKUP, start);
+		}
+		return result;
+	}
+
+	/**
+	 * Enables or disables the component index. If disabled every lookup walks
+	 * the AWT hierarchy with FEST like before. <br />
+	 *
+	 * Usage for FitNesse: |set component index enabled|false|
+	 *
+	 * @param enabled
+	 *            <code>true</code> to answer lookups from the index
+	 */
+	public void setComponentIndexEnabled(boolean enabled) {
+		this.componentIndexEnabled = enabled;
+		if (!enabled) {
+			disposeComponentIndex();
+		}
+	}
+
+	/**
+	 * Returns the hit and miss counters of the component index.
+	 *
+	 * @return statistics of the component index
+	 */
+	public String getComponentIndexStatistics() {
+		synchronized (componentIndexLock) {
+			if (componentIndex == null) {
+				return stepResult("hits: 0, misses: 0");
+			}
+			return stepResult("hits: " + componentIndex.getHits() + ", misses: " + componentIndex.getMisses());
+		}
+	}
+
+	/**
+	 * Looks up the component with the given name in the component index of
+	 * the current window.
+	 *
+	 * @param locator
+	 *            name of the component
+	 * @param type
+	 *            expected type of the component
+	 * @return the component or <code>null</code> if the index is disabled or
+	 *         can't answer the lookup
+	 */
+	protected <T extends Component> T lookupComponent(String locator, Class<T> type) {
+		if (preflight != null) {
+			T bound = preflight.lookup(locator, type);
+			if (bound != null) {
+				return bound;
+			}
+		}
+		FrameFixture current = window;
+		if (!componentIndexEnabled || current == null) {
+			return null;
+		}
+		ComponentIndex index;
+		synchronized (componentIndexLock) {
+			if (componentIndex == null || componentIndex.getRoot() != current.target) {
+				disposeComponentIndex();
+				componentIndex = new ComponentIndex(current.target);
+			}
+			index = componentIndex;
+		}
+		return index.lookup(locator, type);
+	}
+
+	/**
+	 * Removes the listeners of the component index from the AUT.
+	 */
+	private void disposeComponentIndex() {
+		synchronized (componentIndexLock) {
+			if (componentIndex != null) {
+				componentIndex.dispose();
+				componentIndex = null;
+			}
+		}
+	}
+
+	/**
+	 * Looks up the component of the given type with the given name: from the
+	 * preflight or the component index if possible, else with FEST in the
+	 * current window. Fails at once if the time budget of the step is
+	 * exhausted or the same lookup failed a moment ago.
+	 *
+	 * @param locator
+	 *            name of the component
+	 * @param type
+	 *            expected type of the component
+	 * @return the component
+	 * @throws ComponentLookupException
+	 *             if the component can't be found
+	 */
+	private <T extends Component> T lookup(String locator, Class<T> type) {
+		long start = stepTimings.startPhase();
+		try {
+			stepBudget.check("the lookup of " + locator);
+			if (failedLookups.failedRecently(locator, type)) {
+				throw new ComponentLookupException("lookup of " + locator + " failed a moment ago");
+			}
+			T component = lookupComponent(locator, type);
+			if (component != null) {
+				return component;
+			}
+			try {
+				return window.robot.finder().findByName(window.target, locator, type,
+						window.robot.settings().componentLookupScope().requireShowing());
+			} catch (ComponentLookupException e) {
+				failedLookups.failed(locator, type);
+				throw e;
+			}
+		} finally {
+			stepTimings.stopPhase(StepTimings.Phase.LOOKUP, start);
+		}
+	}
+
+	private JTextComponentFixture textBox(String locator) {
+		return new JTextComponentFixture(window.robot, lookup(locator, JTextComponent.class));
+	}
+
+	private JButtonFixture button(String locator) {
+		return new JButtonFixture(window.robot, lookup(locator, JButton.class));
+	}
+
+	private JComboBoxFixture comboBox(String locator) {
+		return new JComboBoxFixture(window.robot, lookup(locator, JComboBox.class));
+	}
+
+	private JRadioButtonFixture radioButton(String locator) {
+		return new JRadioButtonFixture(window.robot, lookup(locator, JRadioButton.class));
+	}
+
+	private JCheckBoxFixture checkBox(String locator) {
+		return new JCheckBoxFixture(window.robot, lookup(locator, JCheckBox.class));
+	}
+
+	private JTableFixture table(String locator) {
+		return new JTableFixture(window.robot, lookup(locator, JTable.class));
+	}
+
+	private JTree tree(String locator) {
+		return lookup(locator, JTree.class);
+	}
+
+	/**
+	 * Insert the Text into a JTextField.
+	 * 
+	 * @param text
+	 *            The Text to fill the TextField
+	 * @param elementListKey
+	 *            Key of the Component in element list
+	 */
+	public boolean insertIntoTextField(String elementListKey, String text) {
+		TextEntryMode mode = textEntryModes.get(elementListKey);
+		if (mode == null) {
+			mode = textEntryMode;
+		}
+		return stepResult(insertIntoTextField(elementListKey, text, mode));
+	}
+
+	/**
+	 * Insert the Text into a JTextField with the given text entry mode. <br />
+	 * 
+	 * Usage for FitNesse: |insert into text field|Name|with mode|document|text|Mustermann|
+	 * 
+	 * @param elementListKey
+	 *            Key of the Component in element list
+	 * @param mode
+	 *            name of the {@link TextEntryMode}: robot, document or
+	 *            clipboard
+	 * @param text
+	 *            The Text to fill the TextField
+	 */
+	public boolean insertIntoTextFieldWithModeText(String elementListKey, String mode, String text) {
+		try {
+			return stepResult(insertIntoTextField(elementListKey, text, TextEntryMode.fromName(mode)));
+		} catch (IllegalArgumentException e) {
+			LOGGER.error("unknown text entry mode " + mode + " Error: " + e);
+			return stepResult(false);
+		}
+	}
+
+	/**
+	 * Sets the text entry mode used by {@link #insertIntoTextField(String, String)}. <br />
+	 * 
+	 * Usage for FitNesse: |set text entry mode|document|
+	 * 
+	 * @param mode
+	 *            name of the {@link TextEntryMode}: robot, document or
+	 *            clipboard
+	 */
+	public boolean setTextEntryMode(String mode) {
+		try {
+			textEntryMode = TextEntryMode.fromName(mode);
+			return stepResult(true);
+		} catch (IllegalArgumentException e) {
+			LOGGER.error("unknown text entry mode " + mode + " Error: " + e);
+			return stepResult(false);
+		}
+	}
+
+	/**
+	 * Sets the text entry mode used by {@link #insertIntoTextField(String, String)}
+	 * for one element of the element list. <br />
+	 * 
+	 * Usage for FitNesse: |set text entry mode|clipboard|for element|Kommentar|
+	 * 
+	 * @param mode
+	 *            name of the {@link TextEntryMode}: robot, document or
+	 *            clipboard
+	 * @param elementListKey
+	 *            Key of the Component in element list
+	 */
+	public boolean setTextEntryModeForElement(String mode, String elementListKey) {
+		try {
+			textEntryModes.put(elementListKey, TextEntryMode.fromName(mode));
+			return stepResult(true);
+		} catch (IllegalArgumentException e) {
+			LOGGER.error("unknown text entry mode " + mode + " Error: " + e);
+			return stepResult(false);
+		}
+	}
+
+	/**
+	 * Returns count, total and maximum duration of the text entries per text
+	 * entry mode.
+	 * 
+	 * @return statistics of the text entries
+	 */
+	public String getTextEntryStatistics() {
+		return stepResult(textEntryStatistics.toString());
+	}
+
+	private boolean insertIntoTextField(String elementListKey, String text, TextEntryMode mode) {
+		String locator = getLocatorFromElementList(elementListKey);
+		try {
+			JTextComponentFixture textField = textBox(locator);
+			TypedTextCheck check = null;
+			if (mode == TextEntryMode.ROBOT && isFastRobot()) {
+				check = TypedTextCheck.attach(textField.target);
+			}
+			long start = System.nanoTime();
+			try {
+				mode.enterText(textField, text);
+				if (check != null) {
+					verifyTypedText(textField, check, text);
+				}
+			} finally {
+				if (check != null) {
+					check.detach();
+				}
+			}
+			long duration = System.nanoTime() - start;
+			textEntryStatistics.record(mode.name(), duration);
+			LOGGER.debug("entered " + text.length() + " characters with " + mode + " in " + duration / 1000000
+					+ " ms");
+			return true;
+		} catch (Exception e) {
+			LOGGER.error("insert text into a textField Error: " + e);
+			return false;
+		}
+	}
+
+	/**
+	 * Fills several fields of a form at once. All components are looked up
+	 * first, then all values are applied in one task in the EDT and the step
+	 * waits only once for the AUT to become idle. The action depends on the
+	 * type of the component: text fields get the value as text, combo boxes
+	 * select the item with the value as text, check boxes and radio buttons
+	 * are checked for <code>true</code> and unchecked for <code>false</code>. <br />
+	 * 
+	 * Usage for FitNesse: |fill form|!{Name:Mustermann,Vorname:Max,GeburtsTag:20}|
+	 * 
+	 * @param fields
+	 *            element list keys of the fields with their values
+	 * @return <code>true</code> if every field was filled, the result of each
+	 *         field is available with {@link #getFillFormResult()}
+	 */
+	public boolean fillForm(Map<String, String> fields) {
+		formFill = new FormFill();
+		try {
+			for (Map.Entry<String, String> field : fields.entrySet()) {
+				Component component = findComponent(field.getKey());
+				if (component == null) {
+					formFill.addUnresolved(field.getKey(), "component not found");
+				} else {
+					formFill.add(field.getKey(), component, field.getValue());
+				}
+			}
+			formFill.apply();
+			window.robot.waitForIdle();
+		} catch (Exception e) {
+			LOGGER.error("could not fill the form Error: " + e);
+			return stepResult(false);
+		}
+		if (!formFill.isSuccessful()) {
+			LOGGER.error("could not fill the form: " + formFill.getReport());
+			return stepResult(false);
+		}
+		return stepResult(true);
+	}
+
+	/**
+	 * Returns the result of every field of the last {@link #fillForm(Map)}.
+	 * 
+	 * @return <code>OK</code> or the error for every field
+	 */
+	public String getFillFormResult() {
+		if (formFill == null) {
+			return stepResult("");
+		}
+		return stepResult(formFill.getReport());
+	}
+
+	/**
+	 * delete the text form the textField.
+	 * 
+	 * @param elementListKey
+	 *            Key of the Component in element list
+	 */
+	public boolean deleteTextField(String elementListKey) {
+		String locator = getLocatorFromElementList(elementListKey);
+		try {
+			JTextComponentFixture textField = textBox(locator);
+			textField.deleteText();
+			return stepResult(true);
+		} catch (Exception e) {
+			LOGGER.error("delete text from textField Error: " + e);
+			return stepResult(false);
+		}
+	}
+
+	/**
+	 * Get the Text from the JTextField.
+	 * 
+	 * @param elementListKey
+	 * @return
+	 */
+	public String getTextFromTextField(String elementListKey) {
+		String locator = getLocatorFromElementList(elementListKey);
+		String result = null;
+		try {
+			JTextComponentFixture textField = textBox(locator);
+			result = textField.text();
+		} catch (Exception e) {
+			LOGGER.error("get text from textField Error: " + e);
+		}
+		return stepResult(result);
+	}
+
+	/**
+	 * Click the button with the name.
+	 * 
+	 * @param elementListKey
+	 *            Key of the Component in element list
+	 */
+	public boolean clickButton(String elementListKey) {
+		String locator = getLocatorFromElementList(elementListKey);
+		try {
+			JButtonFixture button = button(locator);
+			button.click();
+			if (isFastRobot()) {
+				robotPacing.settle(robot);
+			}
+			return stepResult(true);
+		} catch (Exception e) {
+			LOGGER.error("click Button Error: " + e);
+			return stepResult(false);
+		}
+	}
+
+	/**
+	 * select the item by the text of the comboBox item. The item is looked up
+	 * in an index of the item texts of the comboBox and selected by its
+	 * index. Texts which are not in the index, e.g. regular expressions, are
+	 * matched by FEST.
+	 * 
+	 * @param elementListKey
+	 *            Key of the Component in element list
+	 * @param item
+	 *            name of the item
+	 */
+	public boolean selectComboBoxItemByName(String elementListKey, String item) {
+		String locator = getLocatorFromElementList(elementListKey);
+		try {
+			JComboBoxFixture comboBoxFixture = comboBox(locator);
+			int index = comboBoxIndexOf(comboBoxFixture.target).indexOf(item);
+			if (index < 0) {
+				comboBoxFixture.selectItem(item);
+			} else {
+				selectComboBoxIndex(comboBoxFixture.target, index);
+			}
+			return stepResult(true);
+		} catch (ComponentLookupException e) {
+			LOGGER.error("No or more then one comboBox found Error: " + e);
+			return stepResult(false);
+		} catch (Exception e) {
+			LOGGER.error("could not select the item in comboBox Error: " + e);
+			return stepResult(false);
+		}
+	}
+
+	/**
+	 * select the item by the index of the comboBox item.
+	 * 
+	 * @param elementListKey
+	 *            Key of the Component in element list
+	 * @param index
+	 *            index of the item
+	 */
+	public boolean selectComboBoxItemById(String elementListKey, int index) {
+		String locator = getLocatorFromElementList(elementListKey);
+		try {
+			JComboBoxFixture comboBoxFixture = comboBox(locator);
+			selectComboBoxIndex(comboBoxFixture.target, index);
+			return stepResult(true);
+		} catch (ComponentLookupException e) {
+			LOGGER.error("No or more then one comboBox found Error: " + e);
+			return stepResult(false);
+		} catch (Exception e) {
+			LOGGER.error("could not select the item in comboBox Error: " + e);
+			return stepResult(false);
+		}
+	}
+
+	/**
+	 * Returns the index of the item texts of the comboBox, creates it if the
+	 * comboBox has none or got a new model.
+	 */
+	private ComboBoxIndex comboBoxIndexOf(JComboBox comboBox) {
+		synchronized (comboBoxIndexes) {
+			ComboBoxIndex index = comboBoxIndexes.get(comboBox);
+			if (index == null || !index.isIndexOf(comboBox)) {
+				if (index != null) {
+					index.dispose();
+				}
+				index = ComboBoxIndex.create(comboBox);
+				comboBoxIndexes.put(comboBox, index);
+			}
+			return index;
+		}
+	}
+
+	/**
+	 * Selects the item with the index in the EDT and waits until the AUT has
+	 * processed the selection.
+	 */
+	private void selectComboBoxIndex(final JComboBox comboBox, final int index) {
+		GuiActionRunner.execute(new GuiTask() {
+			@Override
+			protected void executeInEDT() {
+				if (!comboBox.isEnabled() || !comboBox.isShowing()) {
+					throw new IllegalStateException("comboBox " + comboBox.getName() + " is disabled or not showing");
+				}
+				if (index < 0 || index >= comboBox.getItemCount()) {
+					throw new IndexOutOfBoundsException("comboBox " + comboBox.getName() + " has no item " + index);
+				}
+				comboBox.setSelectedIndex(index);
+			}
+		});
+		robot.waitForIdle();
+	}
+
+	/**
+	 * clears the selection from the ComboBox.
+	 * 
+	 * @param elementListKey
+	 *            Key of the Component in element list
+	 */
+	public boolean clearSelectionComboBox(String elementListKey) {
+		String locator = getLocatorFromElementList(elementListKey);
+		try {
+			JComboBoxFixture comboBox = comboBox(locator);
+			comboBox.clearSelection();
+			return stepResult(true);
+		} catch (ComponentLookupException e) {
+			LOGGER.error("No or more then one comboBox found Error: " + e);
+			return stepResult(false);
+		} catch (Exception e) {
+			LOGGER.error("could not clear the selection in comboBox Error: " + e);
+			return stepResult(false);
+		}
+	}
+
+	/**
+	 * Returns the text of the selected item in the ComboBox.
+	 * 
+	 * @param elementListKey
+	 *            Key of the Component in element list
+	 * @return text of the selected Item
+	 */
+	public String getSelectedComboBoxItemText(String elementListKey) {
+		String locator = getLocatorFromElementList(elementListKey);
+		String result = null;
+		try {
+			final JComboBoxFixture comboBox = comboBox(locator);
+			result = GuiActionRunner.execute(new GuiQuery<String>() {
+				@Override
+				protected String executeInEDT() {
+					int index = comboBox.target.getSelectedIndex();
+					if (index < 0) {
+						return null;
+					}
+					return new BasicJComboBoxCellReader().valueAt(comboBox.target, index);
+				}
+			});
+		} catch (ComponentLookupException e) {
+			LOGGER.error("No or more then one comboBox found Error: " + e);
+		} catch (Exception e) {
+			LOGGER.error("could get the text of the selected item Error: " + e);
+		}
+		return stepResult(result);
+	}
+
+	/**
+	 * Returns the id of the selected item in the ComboBox.
+	 * 
+	 * @param elementListKey
+	 *            Key of the Component in element list
+	 * @return id of the selected Item
+	 */
+	public int getSelectedComboBoxItemId(String elementListKey) {
+		String locator = getLocatorFromElementList(elementListKey);
+		int result = -2;
+		try {
+			JComboBoxFixture comboBox = comboBox(locator);
+			result = comboBox.target.getSelectedIndex();
+		} catch (ComponentLookupException e) {
+			LOGGER.error("No or more then one comboBox found Error: " + e);
+		} catch (Exception e) {
+			LOGGER.error("could get the id of the selected item Error: " + e);
+		}
+		return stepResult(result);
+	}
+
+	/**
+	 * Check the radioButton.
+	 * 
+	 * @param elementListKey
+	 *            Key of the Component in element list
+	 */
+	public boolean checkRadioButton(String elementListKey) {
+		String locator = getLocatorFromElementList(elementListKey);
+		LOGGER.debug("elementListKey: " + elementListKey);
+		LOGGER.debug("locator: " + locator);
+		try {
+			JRadioButtonFixture radioButton = radioButton(locator);
+			radioButton.check();
+			verifyToggled(radioButton.target, true);
+			return stepResult(true);
+		} catch (Exception e) {
+			LOGGER.error("could not check the radioButton Error: " + e);
+			return stepResult(false);
+		}
+	}
+
+	/**
+	 * Uncheck Radiobutton
+	 * 
+	 * @param elementListKey
+	 */
+	public boolean uncheckRadioButton(String elementListKey) {
+		String locator = getLocatorFromElementList(elementListKey);
+		LOGGER.debug("elementListKey: " + elementListKey);
+		LOGGER.debug("locator: " + locator);
+		try {
+			JRadioButtonFixture radioButton = radioButton(locator);
+			radioButton.uncheck();
+			return stepResult(true);
+		} catch (Exception e) {
+			LOGGER.error("could not check the radioButton Error: " + e);
+			return stepResult(false);
+		}
+	}
+
+	/**
+	 * Check the radioButton.
+	 * 
+	 * @param elementListKey
+	 *            Key of the Component in element list
+	 * @return boolean State of the radioButton
+	 */
+	public boolean isCheckedRadioButton(String elementListKey) {
+		String locator = getLocatorFromElementList(elementListKey);
+		boolean result = false;
+		try {
+			JRadioButtonFixture radioButton = radioButton(locator);
+			result = radioButton.target.isSelected();
+		} catch (Exception e) {
+			LOGGER.error("could not get the State of the radioButton Error: " + e);
+		}
+		return stepResult(result);
+	}
+
+	/**
+	 * check the checkBox.
+	 * 
+	 * @param elementListKey
+	 *            Key of the Component in element list
+	 */
+	public boolean checkCheckBox(String elementListKey) {
+		String locator = getLocatorFromElementList(elementListKey);
+		try {
+			JCheckBoxFixture checkBox = checkBox(locator);
+			checkBox.check();
+			verifyToggled(checkBox.target, true);
+			return stepResult(true);
+		} catch (Exception e) {
+			LOGGER.error("could not check the checkBox Error: " + e);
+			return stepResult(false);
+		}
+	}
+
+	/**
+	 * uncheck the checkBox.
+	 * 
+	 * @param elementListKey
+	 *            Key of the Component in element list
+	 */
+	public boolean uncheckCheckBox(String elementListKey) {
+		String locator = getLocatorFromElementList(elementListKey);
+		try {
+			JCheckBoxFixture checkBox = checkBox(locator);
+			checkBox.uncheck();
+			verifyToggled(checkBox.target, false);
+			return stepResult(true);
+		} catch (Exception e) {
+			LOGGER.error("could not uncheck the checkBox Error: " + e);
+			return stepResult(false);
+		}
+	}
+
+	/**
+	 * returns the state of the checkBox.
+	 * 
+	 * @param elementListKey
+	 *            Key of the Component in element list
+	 * @return boolean state of the checkBox
+	 */
+	public boolean isCheckedCheckBox(String elementListKey) {
+		String locator = getLocatorFromElementList(elementListKey);
+		boolean result = false;
+		try {
+			JCheckBoxFixture checkBox = checkBox(locator);
+			result = checkBox.target.isSelected();
+		} catch (Exception e) {
+			LOGGER.error("could get the State of the checkBox Error: " + e);
+		}
+		return stepResult(result);
+	}
+
+	/**
+	 * select the Row with the index from the table.
+	 * 
+	 * @param elementListKey
+	 *            Key of the Component in element list
+	 * @param Id
+	 *            index from the Row
+	 */
+	public boolean selectTableRowById(String elementListKey, int Id) {
+		String locator = getLocatorFromElementList(elementListKey);
+		try {
+			JTableFixture table = table(locator);
+			if (Id >= 0 && Id < table.rowCount()) {
+				table.selectRows(Id);
+				return stepResult(true);
+			} else {
+				LOGGER.error("Id was not in range from the tabel row count.");
+				return stepResult(false);
+			}
+
+		} catch (Exception e) {
+			LOGGER.error("could not select the Row from the tabel Error: " + e);
+			return stepResult(false);
+		}
+	}
+
+	/**
+	 * Selects the row with the index of the table model. The index is
+	 * converted to the view, so sorting and filtering of the table don't
+	 * matter. The row is scrolled into view once and selected through the
+	 * selection model of the table, see
+	 * {@link #setTableRowSelectionClick(boolean)}. <br />
+	 *
+	 * Usage for FitNesse: |select table row by model index|AlleAngestellten|4711|
+	 *
+	 * @param elementListKey
+	 *            Key of the table in element list
+	 * @param modelRow
+	 *            index of the row in the table model
+	 */
+	public boolean selectTableRowByModelIndex(String elementListKey, int modelRow) {
+		String locator = getLocatorFromElementList(elementListKey);
+		try {
+			selectTableRow(table(locator).target, modelRow, true);
+			return stepResult(true);
+		} catch (ComponentLookupException e) {
+			LOGGER.error("No or more then one table found Error: " + e);
+			return stepResult(false);
+		} catch (Exception e) {
+			LOGGER.error("could not select the model row " + modelRow + " of the table Error: " + e);
+			return stepResult(false);
+		}
+	}
+
+	/**
+	 * Selects the row with the index of the view of the table, i.e. the
+	 * index of the sorted and filtered row as the user sees it, without
+	 * scrolling the table step by step, see
+	 * {@link #selectTableRowByModelIndex(String, int)}. <br />
+	 *
+	 * Usage for FitNesse: |select table row by view index|AlleAngestellten|0|
+	 *
+	 * @param elementListKey
+	 *            Key of the table in element list
+	 * @param viewRow
+	 *            index of the row in the view of the table
+	 */
+	public boolean selectTableRowByViewIndex(String elementListKey, int viewRow) {
+		String locator = getLocatorFromElementList(elementListKey);
+		try {
+			selectTableRow(table(locator).target, viewRow, false);
+			return stepResult(true);
+		} catch (ComponentLookupException e) {
+			LOGGER.error("No or more then one table found Error: " + e);
+			return stepResult(false);
+		} catch (Exception e) {
+			LOGGER.error("could not select the view row " + viewRow + " of the table Error: " + e);
+			return stepResult(false);
+		}
+	}
+
+	/**
+	 * Sets whether the row steps by model or view index click the row with
+	 * the robot after selecting it, e.g. for tables which react on mouse
+	 * events instead of selection events. <br />
+	 *
+	 * Usage for FitNesse: |set table row selection click|true|
+	 *
+	 * @param click
+	 *            <code>true</code> to click the selected row
+	 */
+	public void setTableRowSelectionClick(boolean click) {
+		this.tableRowClick = click;
+	}
+
+	/**
+	 * Returns count, total and maximum duration of the row selections by
+	 * model or view index, grouped by the magnitude of the row count of the
+	 * tables.
+	 *
+	 * @return statistics of the row selections
+	 */
+	public String getTableRowSelectionStatistics() {
+		return stepResult(tableRowSelectionStatistics.toString());
+	}
+
+	/**
+	 * Scrolls the row into view with one <code>scrollRectToVisible</code> and
+	 * selects it through the selection model in the EDT, then clicks it if
+	 * enabled and waits until the AUT has processed the selection.
+	 */
+	private void selectTableRow(final JTable table, final int row, final boolean modelIndex) {
+		long start = System.nanoTime();
+		final int[] result = GuiActionRunner.execute(new GuiQuery<int[]>() {
+			@Override
+			protected int[] executeInEDT() {
+				if (!table.isEnabled() || !table.isShowing()) {
+					throw new IllegalStateException("table " + table.getName() + " is disabled or not showing");
+				}
+				int viewRow = row;
+				if (modelIndex) {
+					if (row < 0 || row >= table.getModel().getRowCount()) {
+						throw new IndexOutOfBoundsException("table model has no row " + row);
+					}
+					viewRow = table.convertRowIndexToView(row);
+					if (viewRow < 0) {
+						throw new IllegalStateException("model row " + row + " is filtered out of the view");
+					}
+				} else if (row < 0 || row >= table.getRowCount()) {
+					throw new IndexOutOfBoundsException("table has no visible row " + row);
+				}
+				Rectangle cell = table.getCellRect(viewRow, 0, true);
+				table.scrollRectToVisible(cell);
+				table.getSelectionModel().setSelectionInterval(viewRow, viewRow);
+				return new int[] { table.getModel().getRowCount(), cell.x + cell.width / 2,
+						cell.y + cell.height / 2 };
+			}
+		});
+		if (tableRowClick) {
+			robot.click(table, new Point(result[1], result[2]));
+		}
+		robot.waitForIdle();
+		String kind = "view index";
+		if (modelIndex) {
+			kind = "model index";
+		}
+		tableRowSelectionStatistics.record(kind + " up to " + rowMagnitude(result[0]) + " rows", System.nanoTime()
+				- start);
+	}
+
+	/**
+	 * @return the smallest power of ten which is at least the row count
+	 */
+	private static long rowMagnitude(int rowCount) {
+		long magnitude = 10;
+		while (magnitude < rowCount) {
+			magnitude *= 10;
+		}
+		return magnitude;
+	}
+
+	/**
+	 * Compares table entry with given value
+	 * 
+	 * @param elementListKey
+	 * @param value
+	 * @param column
+	 * @return if true or false
+	 */
+	public boolean checkTableCellValue(String elementListKey, String value, String column) {
+		String locator = getLocatorFromElementList(elementListKey);
+		int colLocator = Integer.parseInt(getLocatorFromElementList(column));
+		String content = null;
+		try {
+			JTableFixture table = table(locator);
+
+			BasicJTableCellReader cellReader = new BasicJTableCellReader();
+			content = cellReader.valueAt(table.target, (table.rowCount() - 1), colLocator);
+
+		} catch (Exception e) {
+			LOGGER.error("could not select the Row from the tabel Error: " + e);
+			return stepResult(false);
+		}
+		return stepResult(value.equals(content));
+	}
+
+	/**
+	 * Sets the number of rows read in one task in the EDT by the table
+	 * snapshot steps.
+	 * 
+	 * @param rows
+	 *            number of rows per chunk
+	 */
+	public void setTableSnapshotChunkSize(int rows) {
+		this.tableSnapshotChunkSize = Math.max(1, rows);
+	}
+
+	/**
+	 * Reads all rows of the table into a snapshot. The following snapshot
+	 * steps check the snapshot without accessing the GUI again. <br />
+	 * 
+	 * Usage for FitNesse: |capture table snapshot|AlleAngestellten|
+	 * 
+	 * @param elementListKey
+	 *            Key of the Component in element list
+	 */
+	public boolean captureTableSnapshot(String elementListKey) {
+		return stepResult(captureTableSnapshotOfRowsTo(elementListKey, 0, -1));
+	}
+
+	/**
+	 * Reads a range of rows of the table into a snapshot. <br />
+	 * 
+	 * Usage for FitNesse: |capture table snapshot|AlleAngestellten|of rows|100|to|199|
+	 * 
+	 * @param elementListKey
+	 *            Key of the Component in element list
+	 * @param firstRow
+	 *            view index of the first row
+	 * @param lastRow
+	 *            view index of the last row, -1 for the last row of the table
+	 */
+	public boolean captureTableSnapshotOfRowsTo(String elementListKey, int firstRow, int lastRow) {
+		String locator = getLocatorFromElementList(elementListKey);
+		try {
+			JTableFixture table = table(locator);
+			long start = System.nanoTime();
+			tableSnapshot = TableSnapshot.capture(table.target, firstRow, lastRow, tableSnapshotChunkSize);
+			LOGGER.debug("captured " + tableSnapshot.getRowCount() + " rows in " + (System.nanoTime() - start)
+					/ 1000000 + " ms");
+			return stepResult(true);
+		} catch (Exception e) {
+			tableSnapshot = null;
+			LOGGER.error("could not capture the table snapshot Error: " + e);
+			return stepResult(false);
+		}
+	}
+
+	/**
+	 * Compares a cell of the table snapshot with the given value.
+	 * 
+	 * @param row
+	 *            view index of the row
+	 * @param column
+	 *            name or index of the column
+	 * @param value
+	 *            expected value
+	 * @return <code>true</code> if the cell shows the value
+	 */
+	public boolean checkSnapshotCellValue(int row, String column, String value) {
+		try {
+			return stepResult(value.equals(tableSnapshot.valueAt(row, tableSnapshot.columnIndex(column))));
+		} catch (Exception e) {
+			LOGGER.error("could not check the cell of the table snapshot Error: " + e);
+			return stepResult(false);
+		}
+	}
+
+	/**
+	 * Checks whether any cell of a column of the table snapshot shows the
+	 * given value.
+	 * 
+	 * @param column
+	 *            name or index of the column
+	 * @param value
+	 *            expected value
+	 * @return <code>true</code> if the column contains the value
+	 */
+	public boolean checkSnapshotColumnContains(String column, String value) {
+		try {
+			return stepResult(tableSnapshot.columnContains(tableSnapshot.columnIndex(column), value));
+		} catch (Exception e) {
+			LOGGER.error("could not check the column of the table snapshot Error: " + e);
+			return stepResult(false);
 		}
 	}
 
 	/**
-	 * select the item by the text of the comboBox item.
+	 * Compares a row of the table snapshot with the given values.
 	 * 
-	 * @param elementListKey
-	 *            Key of the Component in element list
-	 * @param item
-	 *            name of the item
+	 * @param row
+	 *            view index of the row
+	 * @param values
+	 *            expected values of all columns separated by
+	 *            <code>;</code>
+	 * @return <code>true</code> if the row shows exactly these values
 	 */
-	public boolean selectComboBoxItemByName(String elementListKey, String item) {
-		String locator = getLocatorFromElementList(elementListKey);
+	public boolean checkSnapshotRowEquals(int row, String values) {
 		try {
-			JComboBoxFixture comboBoxFixture = window.comboBox(locator);
-			comboBoxFixture.selectItem(item);
-			return true;
-		} catch (ComponentLookupException e) {
-			LOGGER.error("No or more then one comboBox found Error: " + e);
-			return false;
+			return stepResult(tableSnapshot.rowEquals(row, values.split(";", -1)));
 		} catch (Exception e) {
-			LOGGER.error("could not select the item in comboBox Error: " + e);
-			return false;
+			LOGGER.error("could not check the row of the table snapshot Error: " + e);
+			return stepResult(false);
 		}
 	}
 
 	/**
-	 * select the item by the index of the comboBox item.
+	 * Compares the whole table snapshot with the expected table. All
+	 * differences are logged and returned by {@link #getSnapshotDiff()}.
 	 * 
-	 * @param elementListKey
-	 *            Key of the Component in element list
-	 * @param index
-	 *            index of the item
+	 * @param expected
+	 *            expected rows separated by line breaks, the values of a row
+	 *            separated by <code>;</code>
+	 * @return <code>true</code> if the snapshot matches the expected table
 	 */
-	public boolean selectComboBoxItemById(String elementListKey, int index) {
-		String locator = getLocatorFromElementList(elementListKey);
+	public boolean checkSnapshotEquals(String expected) {
+		List<String[]> rows = new ArrayList<String[]>();
+		for (String line : expected.trim().split("\\r?\\n")) {
+			rows.add(line.split(";", -1));
+		}
 		try {
-			JComboBoxFixture comboBoxFixture = window.comboBox(locator);
-			comboBoxFixture.selectItem(index);
-			return true;
-		} catch (ComponentLookupException e) {
-			LOGGER.error("No or more then one comboBox found Error: " + e);
-			return false;
+			snapshotDiff = tableSnapshot.diff(rows);
 		} catch (Exception e) {
-			LOGGER.error("could not select the item in comboBox Error: " + e);
-			return false;
+			LOGGER.error("could not compare the table snapshot Error: " + e);
+			return stepResult(false);
 		}
+		if (!snapshotDiff.isEmpty()) {
+			LOGGER.error("table snapshot differs: " + snapshotDiff);
+			return stepResult(false);
+		}
+		return stepResult(true);
 	}
 
 	/**
-	 * clears the selection from the ComboBox.
+	 * Returns the differences found by the last
+	 * {@link #checkSnapshotEquals(String)}.
+	 * 
+	 * @return the differences
+	 */
+	public String getSnapshotDiff() {
+		return stepResult(String.valueOf(snapshotDiff));
+	}
+
+	/**
+	 * Double click the row of the table.
 	 * 
 	 * @param elementListKey
 	 *            Key of the Component in element list
+	 * @param Id
+	 *            index from the Row
 	 */
-	public boolean clearSelectionComboBox(String elementListKey) {
+	public boolean doubleClickTableRowById(String elementListKey, int Id) {
 		String locator = getLocatorFromElementList(elementListKey);
 		try {
-			JComboBoxFixture comboBox = window.comboBox(locator);
-			comboBox.clearSelection();
-			return true;
-		} catch (ComponentLookupException e) {
-			LOGGER.error("No or more then one comboBox found Error: " + e);
-			return false;
+			JTableFixture table = table(locator);
+			if (!selectTableRowById(elementListKey, Id)) {
+				return stepResult(false);
+			}
+			table.cell(TableCell.row(Id).column(0)).doubleClick();
+			return stepResult(true);
 		} catch (Exception e) {
-			LOGGER.error("could not clear the selection in comboBox Error: " + e);
-			return false;
+			LOGGER.error("could not double click the tabel Error: " + e);
+			return stepResult(false);
 		}
 	}
 
 	/**
-	 * Returns the text of the selected item in the ComboBox.
+	 * Selects the first row of the table whose text in the given column
+	 * equals the value. The text is read from the cell renderer, the first
+	 * matching row in the current sort order and filter is selected. The rows
+	 * are looked up in an index which is built once and dropped when the
+	 * model or the row sorter changes. <br />
+	 * 
+	 * Usage for FitNesse: |select table row by value|AlleAngestellten|NameSpalte|Mustermann|
 	 * 
 	 * @param elementListKey
 	 *            Key of the Component in element list
-	 * @return text of the selected Item
+	 * @param column
+	 *            Key of the column index in element list
+	 * @param value
+	 *            value of the row in the column
 	 */
-	public String getSelectedComboBoxItemText(String elementListKey) {
+	public boolean selectTableRowByValue(String elementListKey, String column, String value) {
 		String locator = getLocatorFromElementList(elementListKey);
-		String result = null;
+		int colLocator = Integer.parseInt(getLocatorFromElementList(column));
 		try {
-			JComboBoxFixture comboBox = window.comboBox(locator);
-			result = comboBox.valueAt(comboBox.target.getSelectedIndex());
-		} catch (ComponentLookupException e) {
-			LOGGER.error("No or more then one comboBox found Error: " + e);
+			JTableFixture table = table(locator);
+			int viewRow = viewRowOfValue(table.target, colLocator, value);
+			if (viewRow < 0) {
+				LOGGER.error("No visible row with the value " + value + " in the table.");
+				return stepResult(false);
+			}
+			table.selectRows(viewRow);
+			return stepResult(true);
 		} catch (Exception e) {
-			LOGGER.error("could get the text of the selected item Error: " + e);
+			LOGGER.error("could not select the Row from the tabel Error: " + e);
+			return stepResult(false);
 		}
-		return result;
 	}
 
 	/**
-	 * Returns the id of the selected item in the ComboBox.
+	 * Double clicks the first row of the table whose text in the given
+	 * column equals the value, see
+	 * {@link #selectTableRowByValue(String, String, String)}.
 	 * 
 	 * @param elementListKey
 	 *            Key of the Component in element list
-	 * @return id of the selected Item
+	 * @param column
+	 *            Key of the column index in element list
+	 * @param value
+	 *            value of the row in the column
 	 */
-	public int getSelectedComboBoxItemId(String elementListKey) {
+	public boolean doubleClickTableRowByValue(String elementListKey, String column, String value) {
 		String locator = getLocatorFromElementList(elementListKey);
-		int result = -2;
+		int colLocator = Integer.parseInt(getLocatorFromElementList(column));
 		try {
-			JComboBoxFixture comboBox = window.comboBox(locator);
-			result = comboBox.target.getSelectedIndex();
-		} catch (ComponentLookupException e) {
-			LOGGER.error("No or more then one comboBox found Error: " + e);
+			JTableFixture table = table(locator);
+			int viewRow = viewRowOfValue(table.target, colLocator, value);
+			if (viewRow < 0) {
+				LOGGER.error("No visible row with the value " + value + " in the table.");
+				return stepResult(false);
+			}
+			table.cell(TableCell.row(viewRow).column(colLocator)).doubleClick();
+			return stepResult(true);
 		} catch (Exception e) {
-			LOGGER.error("could get the id of the selected item Error: " + e);
+			LOGGER.error("could not double click the tabel Error: " + e);
+			return stepResult(false);
 		}
-		return result;
 	}
 
 	/**
-	 * Check the radioButton.
+	 * Looks up the view index of the first row with the value in the row index
+	 * of the table.
 	 * 
-	 * @param elementListKey
-	 *            Key of the Component in element list
+	 * @param table
+	 *            the table
+	 * @param viewColumn
+	 *            view index of the column
+	 * @param value
+	 *            the value
+	 * @return the view index of the row or -1 if no visible row has the value
 	 */
-	public boolean checkRadioButton(String elementListKey) {
-		String locator = getLocatorFromElementList(elementListKey);
-		LOGGER.debug("elementListKey: " + elementListKey);
-		LOGGER.debug("locator: " + locator);
-		try {
-			JRadioButtonFixture radioButton = window.radioButton(locator);
-			radioButton.check();
-			return true;
-		} catch (Exception e) {
-			LOGGER.error("could not check the radioButton Error: " + e);
-			return false;
+	private int viewRowOfValue(JTable table, int viewColumn, String value) {
+		TableRowIndex index;
+		synchronized (tableRowIndexes) {
+			index = tableRowIndexes.get(table);
+			if (index == null || !index.isIndexOf(table)) {
+				if (index != null) {
+					index.dispose();
+				}
+				index = TableRowIndex.create(table);
+				tableRowIndexes.put(table, index);
+			}
 		}
+		return index.viewRowOf(table, viewColumn, value);
 	}
 
 	/**
-	 * Uncheck Radiobutton
+	 * returns the index from the selected row from the table.
 	 * 
 	 * @param elementListKey
+	 *            Key of the Component in element list
+	 * @return int Index of the selection
 	 */
-	public boolean uncheckRadioButton(String elementListKey) {
+	public int getSelectedTableRowIndex(String elementListKey) {
 		String locator = getLocatorFromElementList(elementListKey);
-		LOGGER.debug("elementListKey: " + elementListKey);
-		LOGGER.debug("locator: " + locator);
+		int result = -2;
 		try {
-			JRadioButtonFixture radioButton = window.radioButton(locator);
-			radioButton.uncheck();
-			return true;
+			JTableFixture table = table(locator);
+			result = table.target.getSelectedRow();
 		} catch (Exception e) {
-			LOGGER.error("could not check the radioButton Error: " + e);
-			return false;
+			LOGGER.error("could not get the selected index the tabel Error: " + e);
 		}
+		return stepResult(result);
 	}
 
 	/**
-	 * Check the radioButton.
-	 * 
+	 * Selects the node with the path in the tree. The path is resolved by
+	 * walking the model of the tree; only the nodes on the path are expanded.
+	 * Children which the tree loads lazily are awaited, see
+	 * {@link #setTreeLoadTimeout(int)}. The tree scrolls once to the selected
+	 * node. <br />
+	 *
+	 * Usage for FitNesse: |select tree path|Navigation|Kunden/Privat/Meier|
+	 *
 	 * @param elementListKey
-	 *            Key of the Component in element list
-	 * @return boolean State of the radioButton
+	 *            Key of the tree in element list
+	 * @param path
+	 *            texts of the nodes separated by <code>/</code>, starting with
+	 *            the root if the root is visible
+	 * @return <code>true</code> if the node was found and selected
 	 */
-	public boolean isCheckedRadioButton(String elementListKey) {
+	public boolean selectTreePath(String elementListKey, String path) {
 		String locator = getLocatorFromElementList(elementListKey);
-		boolean result = false;
 		try {
-			JRadioButtonFixture radioButton = window.radioButton(locator);
-			result = radioButton.target.isSelected();
+			final JTree tree = tree(locator);
+			final TreePath treePath = TreePathNavigator.expand(tree, path, false, stepBudget.cap(treeLoadTimeout));
+			GuiActionRunner.execute(new GuiTask() {
+				@Override
+				protected void executeInEDT() {
+					if (!tree.isEnabled() || !tree.isShowing()) {
+						throw new IllegalStateException("tree " + tree.getName() + " is disabled or not showing");
+					}
+					tree.setSelectionPath(treePath);
+					tree.scrollPathToVisible(treePath);
+				}
+			});
+			robot.waitForIdle();
+			return stepResult(true);
+		} catch (ComponentLookupException e) {
+			LOGGER.error("No or more then one tree found Error: " + e);
+			return stepResult(false);
 		} catch (Exception e) {
-			LOGGER.error("could not get the State of the radioButton Error: " + e);
+			LOGGER.error("could not select the path " + path + " in the tree Error: " + e);
+			return stepResult(false);
 		}
-		return result;
 	}
 
 	/**
-	 * check the checkBox.
-	 * 
+	 * Expands the node with the path in the tree and all nodes on the path,
+	 * see {@link #selectTreePath(String, String)}. <br />
+	 *
+	 * Usage for FitNesse: |expand tree path|Navigation|Kunden/Privat|
+	 *
 	 * @param elementListKey
-	 *            Key of the Component in element list
+	 *            Key of the tree in element list
+	 * @param path
+	 *            texts of the nodes separated by <code>/</code>
+	 * @return <code>true</code> if the node was found and expanded
 	 */
-	public boolean checkCheckBox(String elementListKey) {
+	public boolean expandTreePath(String elementListKey, String path) {
 		String locator = getLocatorFromElementList(elementListKey);
 		try {
-			JCheckBoxFixture checkBox = window.checkBox(locator);
-			checkBox.check();
-			return true;
+			final JTree tree = tree(locator);
+			final TreePath treePath = TreePathNavigator.expand(tree, path, true, stepBudget.cap(treeLoadTimeout));
+			GuiActionRunner.execute(new GuiTask() {
+				@Override
+				protected void executeInEDT() {
+					tree.scrollPathToVisible(treePath);
+				}
+			});
+			robot.waitForIdle();
+			return stepResult(true);
+		} catch (ComponentLookupException e) {
+			LOGGER.error("No or more then one tree found Error: " + e);
+			return stepResult(false);
 		} catch (Exception e) {
-			LOGGER.error("could not check the checkBox Error: " + e);
-			return false;
+			LOGGER.error("could not expand the path " + path + " in the tree Error: " + e);
+			return stepResult(false);
 		}
 	}
 
 	/**
-	 * uncheck the checkBox.
-	 * 
+	 * Returns the text of the selected node of the tree.
+	 *
 	 * @param elementListKey
-	 *            Key of the Component in element list
+	 *            Key of the tree in element list
+	 * @return text of the selected node or <code>null</code> if no node is
+	 *         selected
 	 */
-	public boolean uncheckCheckBox(String elementListKey) {
+	public String getTreeNodeText(String elementListKey) {
 		String locator = getLocatorFromElementList(elementListKey);
 		try {
-			JCheckBoxFixture checkBox = window.checkBox(locator);
-			checkBox.uncheck();
-			return true;
+			final JTree tree = tree(locator);
+			TreePath selection = GuiActionRunner.execute(new GuiQuery<TreePath>() {
+				@Override
+				protected TreePath executeInEDT() {
+					return tree.getSelectionPath();
+				}
+			});
+			if (selection == null) {
+				return stepResult(null);
+			}
+			return stepResult(TreePathNavigator.textOf(tree, selection));
+		} catch (ComponentLookupException e) {
+			LOGGER.error("No or more then one tree found Error: " + e);
 		} catch (Exception e) {
-			LOGGER.error("could not uncheck the checkBox Error: " + e);
-			return false;
+			LOGGER.error("could not get the text of the selected node Error: " + e);
 		}
+		return stepResult(null);
 	}
 
 	/**
-	 * returns the state of the checkBox.
+	 * Sets how long the tree steps wait for the children of a node which the
+	 * tree loads lazily. The timeout applies to each node on the path, so a
+	 * path through several lazy nodes may take longer in total. <br />
+	 *
+	 * Usage for FitNesse: |set tree load timeout|30000|
+	 *
+	 * @param milliSeconds
+	 *            maximum time to wait for the children of one node
+	 */
+	public void setTreeLoadTimeout(int milliSeconds) {
+		this.treeLoadTimeout = milliSeconds;
+	}
+
+	/**
+	 * double click the component with the name.
 	 * 
 	 * @param elementListKey
 	 *            Key of the Component in element list
-	 * @return boolean state of the checkBox
 	 */
-	public boolean isCheckedCheckBox(String elementListKey) {
-		String locator = getLocatorFromElementList(elementListKey);
-		boolean result = false;
+	public boolean doubleClickComponent(String elementListKey) {
 		try {
-			JCheckBoxFixture checkBox = window.checkBox(locator);
-			result = checkBox.target.isSelected();
+			JComponent component = (JComponent) findComponent(elementListKey);
+			window.robot.doubleClick(component);
+			return stepResult(true);
 		} catch (Exception e) {
-			LOGGER.error("could get the State of the checkBox Error: " + e);
+			LOGGER.error("could not doubleClick the component Error: " + e);
+			return stepResult(false);
 		}
-		return result;
 	}
 
 	/**
-	 * select the Row with the index from the table.
+	 * wait milli seconds
 	 * 
-	 * @param elementListKey
-	 *            Key of the Component in element list
-	 * @param Id
-	 *            index from the Row
+	 * @param milliSeconds
+	 *            milliseconds to wait
 	 */
-	public boolean selectTableRowById(String elementListKey, int Id) {
-		String locator = getLocatorFromElementList(elementListKey);
+	public boolean waitMilliSeconds(int milliSeconds) {
 		try {
-			JTableFixture table = window.table(locator);
-			if (Id <= table.rowCount()) {
-				table.selectRows(Id);
-				return true;
-			} else {
-				LOGGER.error("Id was not in range from the tabel row count.");
-				return false;
+			if (milliSeconds > 0) {
+				Thread.sleep(milliSeconds);
 			}
-
+			return stepResult(true);
 		} catch (Exception e) {
-			LOGGER.error("could not select the Row from the tabel Error: " + e);
-			return false;
+			LOGGER.error("could not wait/timeout: " + e);
+			return stepResult(false);
 		}
 	}
 
 	/**
-	 * Compares table entry with given value
+	 * Waits until the component is enabled. Returns as soon as the component
+	 * fires the change of its enabled state.
 	 * 
 	 * @param elementListKey
-	 * @param value
-	 * @param column
-	 * @return if true or false
+	 *            Key of the Component in element list
+	 * @param timeoutMilliSeconds
+	 *            maximum time to wait
+	 * @return <code>true</code> if the component is enabled within the timeout
 	 */
-	public boolean checkTableCellValue(String elementListKey, String value, String column) {
-		String locator = getLocatorFromElementList(elementListKey);
-		int colLocator = Integer.parseInt(getLocatorFromElementList(column));
-		String content = null;
+	public boolean waitUntilEnabled(String elementListKey, int timeoutMilliSeconds) {
 		try {
-			JTableFixture table = window.table(locator);
-
-			BasicJTableCellReader cellReader = new BasicJTableCellReader();
-			content = cellReader.valueAt(table.target, (table.rowCount() - 1), colLocator);
-
+			Component component = findComponent(elementListKey);
+			return stepResult(awaitCondition(EventDrivenWait.enabled(component), timeoutMilliSeconds));
 		} catch (Exception e) {
-			LOGGER.error("could not select the Row from the tabel Error: " + e);
-			return false;
+			LOGGER.error("could not wait until the component is enabled Error: " + e);
+			return stepResult(false);
 		}
-		return (value.equals(content));
 	}
 
 	/**
-	 * Double click the row of the table.
+	 * Waits until the text field contains the given text. Returns as soon as
+	 * the document of the text field contains the text.
 	 * 
 	 * @param elementListKey
 	 *            Key of the Component in element list
-	 * @param Id
-	 *            index from the Row
+	 * @param text
+	 *            expected text
+	 * @param timeoutMilliSeconds
+	 *            maximum time to wait
+	 * @return <code>true</code> if the text field contains the text within the
+	 *         timeout
 	 */
-	public boolean doubleClickTableRowById(String elementListKey, int Id) {
+	public boolean waitUntilTextEquals(String elementListKey, String text, int timeoutMilliSeconds) {
 		String locator = getLocatorFromElementList(elementListKey);
 		try {
-			JTableFixture table = window.table(locator);
-			selectTableRowById(locator, Id);
-			table.doubleClick();
-			return true;
+			JTextComponent textComponent = textBox(locator).target;
+			return stepResult(awaitCondition(EventDrivenWait.textEquals(textComponent, text), timeoutMilliSeconds));
 		} catch (Exception e) {
-			LOGGER.error("could not double click the tabel Error: " + e);
-			return false;
+			LOGGER.error("could not wait until the text equals Error: " + e);
+			return stepResult(false);
 		}
 	}
 
 	/**
-	 * returns the index from the selected row from the table.
+	 * Waits until the table has at least the given number of rows. Returns as
+	 * soon as the table model reports the rows.
 	 * 
 	 * @param elementListKey
 	 *            Key of the Component in element list
-	 * @return int Index of the selection
+	 * @param rowCount
+	 *            minimum number of rows
+	 * @param timeoutMilliSeconds
+	 *            maximum time to wait
+	 * @return <code>true</code> if the table has the rows within the timeout
 	 */
-	public int getSelectedTableRowIndex(String elementListKey) {
+	public boolean waitUntilTableRowCountAtLeast(String elementListKey, int rowCount, int timeoutMilliSeconds) {
 		String locator = getLocatorFromElementList(elementListKey);
-		int result = -2;
 		try {
-			JTableFixture table = window.table(locator);
-			result = table.target.getSelectedRow();
+			JTable table = table(locator).target;
+			return stepResult(awaitCondition(EventDrivenWait.tableRowCountAtLeast(table, rowCount), timeoutMilliSeconds));
 		} catch (Exception e) {
-			LOGGER.error("could not get the selected index the tabel Error: " + e);
+			LOGGER.error("could not wait for the rows of the table Error: " + e);
+			return stepResult(false);
 		}
-		return result;
 	}
 
 	/**
-	 * double click the component with the name.
+	 * Waits until the component is showing. The component doesn't need to
+	 * exist when the step starts, it may be added later to any window.
 	 * 
 	 * @param elementListKey
 	 *            Key of the Component in element list
+	 * @param timeoutMilliSeconds
+	 *            maximum time to wait
+	 * @return <code>true</code> if the component is showing within the timeout
 	 */
-	public boolean doubleClickComponent(String elementListKey) {
+	public boolean waitUntilVisible(String elementListKey, int timeoutMilliSeconds) {
 		String locator = getLocatorFromElementList(elementListKey);
 		try {
-			JComponent component = (JComponent) findComponent(locator);
-			window.robot.doubleClick(component);
-			return true;
+			return stepResult(awaitCondition(EventDrivenWait.visible(locator, applicationWindows()), timeoutMilliSeconds));
 		} catch (Exception e) {
-			LOGGER.error("could not doubleClick the component Error: " + e);
-			return false;
+			LOGGER.error("could not wait until the component is visible Error: " + e);
+			return stepResult(false);
 		}
 	}
 
 	/**
-	 * wait milli seconds
-	 * 
+	 * Sets the time budget of each step. Lookups and waits of a step get at
+	 * most the time left of its budget and fail at once when it is
+	 * exhausted, so a broken locator costs at most the budget instead of the
+	 * full timeouts. <br />
+	 *
+	 * Usage for FitNesse: |set step time budget|20000|
+	 *
 	 * @param milliSeconds
-	 *            milliseconds to wait
+	 *            budget of each step, 0 for none
 	 */
-	public boolean waitMilliSeconds(int milliSeconds) {
-		try {
-			if (milliSeconds > 0) {
-				window.wait(milliSeconds);
+	public void setStepTimeBudget(int milliSeconds) {
+		stepBudget.setStepBudget(milliSeconds);
+	}
 
-			}
-			return true;
-		} catch (Exception e) {
-			LOGGER.error("could not wait/timeout: " + e);
-			return false;
+	/**
+	 * Starts the time budget of the page: all following steps share it, see
+	 * {@link #setStepTimeBudget(int)}. <br />
+	 *
+	 * Usage for FitNesse: |set page time budget|300000|
+	 *
+	 * @param milliSeconds
+	 *            budget of the rest of the page, 0 for none
+	 */
+	public void setPageTimeBudget(int milliSeconds) {
+		stepBudget.startPage(milliSeconds);
+	}
+
+	/**
+	 * Sets how long a failed lookup is remembered. A lookup of the same
+	 * locator and type within that time fails at once, even if the component
+	 * appeared meanwhile, so only set it for pages which repeat broken
+	 * locators. By default failed lookups are not remembered. <br />
+	 *
+	 * Usage for FitNesse: |set failed lookup memory|5000|
+	 *
+	 * @param milliSeconds
+	 *            time to remember a failed lookup, 0 to look up every time
+	 */
+	public void setFailedLookupMemory(int milliSeconds) {
+		failedLookups.setTimeToLive(milliSeconds);
+	}
+
+	/**
+	 * Returns the time budgets, the number of steps which exhausted their
+	 * budget and the number of lookups failed from memory.
+	 *
+	 * @return statistics of the time budgets
+	 */
+	public String getTimeBudgetStatistics() {
+		return stepResult(stepBudget.describe() + ", remembered failed lookups: " + failedLookups.getHits());
+	}
+
+	/**
+	 * @return the windows of the running AUT
+	 */
+	private ApplicationWindows applicationWindows() {
+		Frame mainFrame = null;
+		if (window != null) {
+			mainFrame = window.target;
+		}
+		return new ApplicationWindows(mainFrame, isolatedLauncher);
+	}
+
+	/**
+	 * Waits for the condition and logs a timeout.
+	 * 
+	 * @param condition
+	 *            the condition to wait for
+	 * @param timeoutMilliSeconds
+	 *            maximum time to wait
+	 * @return <code>true</code> if the condition holds within the timeout
+	 * @throws InterruptedException
+	 *             if the test thread is interrupted
+	 */
+	private boolean awaitCondition(EventDrivenWait.Condition condition, int timeoutMilliSeconds)
+			throws InterruptedException {
+		stepBudget.check("the wait");
+		int timeout = stepBudget.cap(timeoutMilliSeconds);
+		boolean satisfied = EventDrivenWait.waitFor(condition, timeout);
+		if (!satisfied) {
+			LOGGER.error("condition not satisfied within " + timeout + " ms");
 		}
+		return satisfied;
 	}
 
 	/**
@@ -599,7 +2659,7 @@ public class SwingFixture implements Fixture {
 		} catch (Exception e) {
 			LOGGER.error("could not find out state, Error: " + e);
 		}
-		return result;
+		return stepResult(result);
 	}
 
 	/**
@@ -612,7 +2672,7 @@ public class SwingFixture implements Fixture {
 	 * @return boolean Status of consent
 	 */
 	public boolean checkIfTextEquals(String elementListKey, String text) {
-		return (text.equals(getTextFromTextField(elementListKey)));
+		return stepResult(text.equals(getTextFromTextField(elementListKey)));
 	}
 
 	/**
@@ -625,7 +2685,7 @@ public class SwingFixture implements Fixture {
 	 * @return boolean Status of non-compliance
 	 */
 	public boolean checkIfTextNotEquals(String elementListKey, String text) {
-		return !(text.equals(getTextFromTextField(elementListKey)));
+		return stepResult(!(text.equals(getTextFromTextField(elementListKey))));
 	}
 
 	/**
@@ -638,9 +2698,10 @@ public class SwingFixture implements Fixture {
 	 * @return boolean Status of consent
 	 */
 	public boolean checkIfSelectedItemIs(String elementListKey, String text) {
-		LOGGER.debug("ComboBox: " + getSelectedComboBoxItemText(elementListKey));
+		String selected = getSelectedComboBoxItemText(elementListKey);
+		LOGGER.debug("ComboBox: " + selected);
 		LOGGER.debug("Vorgegebener Text: " + text);
-		return (text.equals(getSelectedComboBoxItemText(elementListKey)));
+		return stepResult(text.equals(selected));
 	}
 
 	/**
@@ -653,7 +2714,7 @@ public class SwingFixture implements Fixture {
 	 * @return boolean Status of non-compliance
 	 */
 	public boolean checkIfSelectedItemIsNot(String elementListKey, String text) {
-		return !(text.equals(getSelectedComboBoxItemText(elementListKey)));
+		return stepResult(!(text.equals(getSelectedComboBoxItemText(elementListKey))));
 	}
 
 	@Override
@@ -662,13 +2723,72 @@ public class SwingFixture implements Fixture {
 	}
 
 	@Override
-	public void postInvoke(Method arg0, Object arg1, Object... arg2) throws InvocationTargetException,
+	public void postInvoke(Method method, Object instance, Object... args) throws InvocationTargetException,
 			IllegalAccessException {
+		stepTimings.endStep();
+		stepBudget.endStep();
+		String stall = null;
+		if (edtWatchdog != null) {
+			long worstStall = edtWatchdog.endStep();
+			if (edtStallLimit > 0 && worstStall > edtStallLimit) {
+				stall = "EDT stalled " + worstStall + " ms during " + method.getName() + ", limit " + edtStallLimit
+						+ " ms";
+				LOGGER.error(stall);
+			}
+		}
+		if (robotIdleTimeout >= 0) {
+			if (robot != null) {
+				robot.settings().idleTimeout(robotIdleTimeout);
+			}
+			robotIdleTimeout = -1;
+		}
+		String error = null;
+		if (stepErrorListener != null) {
+			error = stepErrorListener.detach();
+			stepErrorListener = null;
+		}
+		if (actionJournal != null && !method.getName().contains("ActionJournal")) {
+			journal(method, args, error, stepResult);
+		}
+		if (failureDiagnosticsEnabled) {
+			try {
+				if (error != null) {
+					Frame frame = null;
+					if (window != null) {
+						frame = window.target;
+					}
+					lastFailureDiagnostics = failureDiagnostics.capture(method.getName(), error, frame);
+					LOGGER.info("failure diagnostics of " + method.getName() + ": " + lastFailureDiagnostics);
+				} else if (window != null) {
+					failureDiagnostics.recordFrame(window.target);
+				}
+			} catch (RuntimeException e) {
+				LOGGER.warn("could not capture the failure diagnostics Error: " + e);
+			}
+		}
+		if (stall != null) {
+			throw new InvocationTargetException(new IllegalStateException(stall), stall);
+		}
 	}
 
 	@Override
-	public void preInvoke(Method arg0, Object arg1, Object... arg2) throws InvocationTargetException,
+	public void preInvoke(Method method, Object instance, Object... args) throws InvocationTargetException,
 			IllegalAccessException {
+		stepTimings.startStep(method.getName());
+		stepLocator = null;
+		stepResult = null;
+		stepStart = System.nanoTime();
+		stepBudget.startStep();
+		if (edtWatchdog != null) {
+			edtWatchdog.beginStep(method.getName());
+		}
+		if (stepBudget.isLimited() && robot != null) {
+			robotIdleTimeout = robot.settings().idleTimeout();
+			robot.settings().idleTimeout(Math.max(1, stepBudget.cap(robotIdleTimeout)));
+		}
+		if (failureDiagnosticsEnabled || actionJournal != null) {
+			stepErrorListener = StepErrorListener.attach(LOGGER);
+		}
 	}
 
 	@Override
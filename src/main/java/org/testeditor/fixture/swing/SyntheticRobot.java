@@ -0,0 +1,365 @@
+/*******************************************************************************
+ * Copyright (c) 2012 - 2015 Signal Iduna Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Signal Iduna Corporation - initial API and implementation
+ * akquinet AG
+ *******************************************************************************/
+package org.testeditor.fixture.swing;
+
+import java.awt.Component;
+import java.awt.KeyboardFocusManager;
+import java.awt.Point;
+import java.awt.Toolkit;
+import java.awt.Window;
+import java.awt.event.InputEvent;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseEvent;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+import javax.swing.SwingUtilities;
+
+import org.fest.swing.core.MouseButton;
+import org.fest.swing.core.Robot;
+import org.fest.swing.edt.GuiActionRunner;
+import org.fest.swing.edt.GuiQuery;
+import org.fest.swing.edt.GuiTask;
+
+/**
+ * Wraps a FEST robot and replaces its OS level input by synthetic events, so
+ * input neither needs the focus of the display nor waits for the OS. Mouse
+ * events are posted to the event queue with the target component as source.
+ * Clicks on a screen point are sent to the deepest component of the window
+ * at that point. Key events are dispatched in the EDT directly to the
+ * component FEST focused last, as long as it is showing and no other window
+ * is active: posted key events would be redirected to the focus owner of the
+ * display by the <code>KeyboardFocusManager</code>. Focus requests are made,
+ * but not waited for. All other calls, e.g. lookups, waits and mouse
+ * moves, go to the wrapped robot.
+ *
+ */
+final class SyntheticRobot implements InvocationHandler {
+
+	private final Robot robot;
+	private volatile Component keyTarget;
+	private int modifiers;
+
+	private SyntheticRobot(Robot robot) {
+		this.robot = robot;
+	}
+
+	/**
+	 * @param robot
+	 *            the robot to wrap
+	 * @return the robot with synthetic input
+	 */
+	static Robot wrap(Robot robot) {
+		return (Robot) Proxy.newProxyInstance(Robot.class.getClassLoader(), new Class<?>[] { Robot.class },
+				new SyntheticRobot(robot));
+	}
+
+	@Override
+	public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+		String name = method.getName();
+		if ("click".equals(name) || "doubleClick".equals(name) || "rightClick".equals(name)) {
+			click(name, args);
+			return null;
+		}
+		if ("focus".equals(name) || "focusAndWaitForFocusGain".equals(name)) {
+			focus((Component) args[0]);
+			return null;
+		}
+		if ("isReadyForInput".equals(name)) {
+			return isShowing((Component) args[0]);
+		}
+		if ("enterText".equals(name)) {
+			for (char character : ((String) args[0]).toCharArray()) {
+				typeCharacter(character);
+			}
+			robot.waitForIdle();
+			return null;
+		}
+		if ("type".equals(name)) {
+			typeCharacter((Character) args[0]);
+			robot.waitForIdle();
+			return null;
+		}
+		if (isKeyMethod(name)) {
+			pressAndReleaseKeys(name, args);
+			robot.waitForIdle();
+			return null;
+		}
+		try {
+			return method.invoke(robot, args);
+		} catch (InvocationTargetException e) {
+			throw e.getCause();
+		}
+	}
+
+	private static boolean isKeyMethod(String name) {
+		return "pressAndReleaseKey".equals(name) || "pressAndReleaseKeys".equals(name) || "pressKey".equals(name)
+				|| "releaseKey".equals(name) || "pressModifiers".equals(name) || "releaseModifiers".equals(name);
+	}
+
+	/**
+	 * Posts press, release and click events for clicks on a component. The
+	 * arguments follow the click methods of the robot: component, optional
+	 * point, optional button and number of clicks. Without component the
+	 * point is a point on the screen.
+	 */
+	private void click(String name, Object[] args) {
+		Component component = null;
+		Point point = null;
+		MouseButton button = MouseButton.LEFT_BUTTON;
+		int times = 1;
+		if ("doubleClick".equals(name)) {
+			times = 2;
+		} else if ("rightClick".equals(name)) {
+			button = MouseButton.RIGHT_BUTTON;
+		}
+		for (Object arg : args) {
+			if (arg instanceof Component) {
+				component = (Component) arg;
+			} else if (arg instanceof Point) {
+				point = (Point) arg;
+			} else if (arg instanceof MouseButton) {
+				button = (MouseButton) arg;
+			} else if (arg instanceof Integer) {
+				times = (Integer) arg;
+			}
+		}
+		if (component == null && point != null) {
+			final Point target = new Point(point);
+			component = GuiActionRunner.execute(new GuiQuery<Component>() {
+				@Override
+				protected Component executeInEDT() {
+					Component found = componentAt(target);
+					if (found != null) {
+						SwingUtilities.convertPointFromScreen(target, found);
+					}
+					return found;
+				}
+			});
+			point = target;
+		}
+		if (component == null) {
+			throw new IllegalStateException("no component to click at " + point);
+		}
+		postClicks(component, point, button, times);
+		robot.waitForIdle();
+	}
+
+	/**
+	 * @return the deepest component at the screen point in the active window
+	 *         or, if the point is outside of it, in the last opened showing
+	 *         window containing the point, <code>null</code> if there is
+	 *         none. Must be called in the EDT.
+	 */
+	private static Component componentAt(Point onScreen) {
+		Window[] windows = Window.getWindows();
+		Window active = KeyboardFocusManager.getCurrentKeyboardFocusManager().getActiveWindow();
+		if (active != null && contains(active, onScreen)) {
+			return deepestComponentAt(active, onScreen);
+		}
+		for (int i = windows.length - 1; i >= 0; i--) {
+			if (contains(windows[i], onScreen)) {
+				return deepestComponentAt(windows[i], onScreen);
+			}
+		}
+		return null;
+	}
+
+	private static boolean contains(Window window, Point onScreen) {
+		if (!window.isShowing()) {
+			return false;
+		}
+		Point location = window.getLocationOnScreen();
+		return window.contains(onScreen.x - location.x, onScreen.y - location.y);
+	}
+
+	private static Component deepestComponentAt(Window window, Point onScreen) {
+		Point inWindow = new Point(onScreen);
+		SwingUtilities.convertPointFromScreen(inWindow, window);
+		Component component = SwingUtilities.getDeepestComponentAt(window, inWindow.x, inWindow.y);
+		if (component == null) {
+			return window;
+		}
+		return component;
+	}
+
+	private void postClicks(final Component component, final Point point, final MouseButton button, final int times) {
+		GuiActionRunner.execute(new GuiTask() {
+			@Override
+			protected void executeInEDT() {
+				Point target = point;
+				if (target == null) {
+					target = new Point(component.getWidth() / 2, component.getHeight() / 2);
+				}
+				int mask = buttonMask(button);
+				int awtButton = awtButton(button);
+				boolean popupTrigger = button == MouseButton.RIGHT_BUTTON;
+				for (int count = 1; count <= times; count++) {
+					post(new MouseEvent(component, MouseEvent.MOUSE_PRESSED, now(), modifiers | mask, target.x,
+							target.y, count, popupTrigger, awtButton));
+					post(new MouseEvent(component, MouseEvent.MOUSE_RELEASED, now(), modifiers | mask, target.x,
+							target.y, count, false, awtButton));
+					post(new MouseEvent(component, MouseEvent.MOUSE_CLICKED, now(), modifiers | mask, target.x,
+							target.y, count, false, awtButton));
+				}
+			}
+		});
+	}
+
+	private void focus(final Component component) {
+		keyTarget = component;
+		GuiActionRunner.execute(new GuiTask() {
+			@Override
+			protected void executeInEDT() {
+				component.requestFocusInWindow();
+			}
+		});
+	}
+
+	private void typeCharacter(final char character) {
+		final Component target = keyTarget();
+		GuiActionRunner.execute(new GuiTask() {
+			@Override
+			protected void executeInEDT() {
+				int keyCode = KeyEvent.getExtendedKeyCodeForChar(character);
+				target.dispatchEvent(new KeyEvent(target, KeyEvent.KEY_PRESSED, now(), modifiers, keyCode,
+						character));
+				target.dispatchEvent(new KeyEvent(target, KeyEvent.KEY_TYPED, now(), modifiers,
+						KeyEvent.VK_UNDEFINED, character));
+				target.dispatchEvent(new KeyEvent(target, KeyEvent.KEY_RELEASED, now(), modifiers, keyCode,
+						character));
+			}
+		});
+	}
+
+	/**
+	 * Dispatches the key events of <code>pressAndReleaseKey(s)</code>,
+	 * <code>pressKey</code>, <code>releaseKey</code> and the modifier methods.
+	 */
+	private void pressAndReleaseKeys(String name, Object[] args) {
+		if ("pressModifiers".equals(name)) {
+			modifiers |= (Integer) args[0];
+			return;
+		}
+		if ("releaseModifiers".equals(name)) {
+			modifiers &= ~(Integer) args[0];
+			return;
+		}
+		if ("pressAndReleaseKeys".equals(name)) {
+			for (int keyCode : (int[]) args[0]) {
+				dispatchKey(keyCode, 0, true, true);
+			}
+			return;
+		}
+		int keyCode = (Integer) args[0];
+		int keyModifiers = 0;
+		if (args.length > 1 && args[1] instanceof int[]) {
+			for (int modifier : (int[]) args[1]) {
+				keyModifiers |= modifier;
+			}
+		}
+		dispatchKey(keyCode, keyModifiers, !"releaseKey".equals(name), !"pressKey".equals(name));
+	}
+
+	private void dispatchKey(final int keyCode, final int keyModifiers, final boolean press, final boolean release) {
+		final Component target = keyTarget();
+		GuiActionRunner.execute(new GuiTask() {
+			@Override
+			protected void executeInEDT() {
+				int mask = modifiers | keyModifiers;
+				if (press) {
+					target.dispatchEvent(new KeyEvent(target, KeyEvent.KEY_PRESSED, now(), mask, keyCode,
+							KeyEvent.CHAR_UNDEFINED));
+				}
+				if (release) {
+					target.dispatchEvent(new KeyEvent(target, KeyEvent.KEY_RELEASED, now(), mask, keyCode,
+							KeyEvent.CHAR_UNDEFINED));
+				}
+			}
+		});
+	}
+
+	/**
+	 * @return the component focused last by FEST or, if there is none or it
+	 *         is no longer showing or another window is active, the focus
+	 *         owner
+	 */
+	private Component keyTarget() {
+		Component target = GuiActionRunner.execute(new GuiQuery<Component>() {
+			@Override
+			protected Component executeInEDT() {
+				KeyboardFocusManager focusManager = KeyboardFocusManager.getCurrentKeyboardFocusManager();
+				Component focused = keyTarget;
+				if (focused != null && isCurrent(focused, focusManager.getActiveWindow())) {
+					return focused;
+				}
+				keyTarget = null;
+				return focusManager.getFocusOwner();
+			}
+		});
+		if (target == null) {
+			throw new IllegalStateException("no component to type into");
+		}
+		return target;
+	}
+
+	/**
+	 * @return <code>true</code> if the component is showing in the active
+	 *         window or no window of the JVM is active. Must be called in the
+	 *         EDT.
+	 */
+	private static boolean isCurrent(Component component, Window active) {
+		if (!component.isShowing() || !component.isDisplayable()) {
+			return false;
+		}
+		return active == null || SwingUtilities.getWindowAncestor(component) == active || component == active;
+	}
+
+	private static boolean isShowing(final Component component) {
+		return GuiActionRunner.execute(new GuiQuery<Boolean>() {
+			@Override
+			protected Boolean executeInEDT() {
+				return component.isShowing();
+			}
+		});
+	}
+
+	private static void post(MouseEvent event) {
+		Toolkit.getDefaultToolkit().getSystemEventQueue().postEvent(event);
+	}
+
+	private static long now() {
+		return System.currentTimeMillis();
+	}
+
+	private static int buttonMask(MouseButton button) {
+		if (button == MouseButton.RIGHT_BUTTON) {
+			return InputEvent.BUTTON3_MASK;
+		}
+		if (button == MouseButton.MIDDLE_BUTTON) {
+			return InputEvent.BUTTON2_MASK;
+		}
+		return InputEvent.BUTTON1_MASK;
+	}
+
+	private static int awtButton(MouseButton button) {
+		if (button == MouseButton.RIGHT_BUTTON) {
+			return MouseEvent.BUTTON3;
+		}
+		if (button == MouseButton.MIDDLE_BUTTON) {
+			return MouseEvent.BUTTON2;
+		}
+		return MouseEvent.BUTTON1;
+	}
+}
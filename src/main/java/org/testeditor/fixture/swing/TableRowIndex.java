@@ -0,0 +1,170 @@
+/*******************************************************************************
+ * Copyright (c) 2012 - 2015 Signal Iduna Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Signal Iduna Corporation - initial API and implementation
+ * akquinet AG
+ *******************************************************************************/
+package org.testeditor.fixture.swing;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.swing.JTable;
+import javax.swing.RowSorter;
+import javax.swing.event.RowSorterEvent;
+import javax.swing.event.RowSorterListener;
+import javax.swing.event.TableModelEvent;
+import javax.swing.event.TableModelListener;
+import javax.swing.table.TableModel;
+
+import org.fest.swing.driver.BasicJTableCellReader;
+import org.fest.swing.edt.GuiActionRunner;
+import org.fest.swing.edt.GuiQuery;
+import org.fest.swing.edt.GuiTask;
+
+/**
+ * Index rendered text -&gt; model rows per column of a table. The text is read
+ * like FEST reads a cell, from the renderer of the cell, so a value matches
+ * what the user sees. All rows with the same text are kept; a lookup returns
+ * the first of them in the current view. The index of a column is built in
+ * one pass over the rows shown in the view on the first lookup and dropped as
+ * soon as the model or the row sorter changes.
+ *
+ */
+final class TableRowIndex implements TableModelListener, RowSorterListener {
+
+	private static final BasicJTableCellReader CELL_READER = new BasicJTableCellReader();
+
+	private final TableModel model;
+	private final RowSorter<?> sorter;
+	private final Map<Integer, Map<String, List<Integer>>> columns =
+			new ConcurrentHashMap<Integer, Map<String, List<Integer>>>();
+
+	private TableRowIndex(TableModel model, RowSorter<?> sorter) {
+		this.model = model;
+		this.sorter = sorter;
+	}
+
+	/**
+	 * Creates the index for the current model and row sorter of the table and
+	 * registers it as listener of both.
+	 *
+	 * @param table
+	 *            the table
+	 * @return the index
+	 */
+	static TableRowIndex create(final JTable table) {
+		return GuiActionRunner.execute(new GuiQuery<TableRowIndex>() {
+			@Override
+			protected TableRowIndex executeInEDT() {
+				TableRowIndex index = new TableRowIndex(table.getModel(), table.getRowSorter());
+				index.model.addTableModelListener(index);
+				if (index.sorter != null) {
+					index.sorter.addRowSorterListener(index);
+				}
+				return index;
+			}
+		});
+	}
+
+	/**
+	 * @param table
+	 *            the table
+	 * @return <code>true</code> if the index belongs to the current model and
+	 *         row sorter of the table
+	 */
+	boolean isIndexOf(JTable table) {
+		return table.getModel() == model && table.getRowSorter() == sorter;
+	}
+
+	/**
+	 * Returns the first row of the view whose rendered text in the given
+	 * column equals the value.
+	 *
+	 * @param table
+	 *            the table of the index
+	 * @param viewColumn
+	 *            view index of the column
+	 * @param value
+	 *            the value, compared with the text of the cell renderer
+	 * @return the view index of the row or -1 if no row in the view has the
+	 *         value
+	 */
+	int viewRowOf(final JTable table, final int viewColumn, final String value) {
+		return GuiActionRunner.execute(new GuiQuery<Integer>() {
+			@Override
+			protected Integer executeInEDT() {
+				int modelColumn = table.convertColumnIndexToModel(viewColumn);
+				Map<String, List<Integer>> rows = columns.get(modelColumn);
+				if (rows == null) {
+					rows = build(table, viewColumn);
+					columns.put(modelColumn, rows);
+				}
+				List<Integer> modelRows = rows.get(value);
+				if (modelRows == null) {
+					return -1;
+				}
+				int first = -1;
+				for (int modelRow : modelRows) {
+					int viewRow = table.convertRowIndexToView(modelRow);
+					if (viewRow >= 0 && (first < 0 || viewRow < first)) {
+						first = viewRow;
+					}
+				}
+				return first;
+			}
+		});
+	}
+
+	/**
+	 * Reads the text of every row of the view in the column. Must be called
+	 * in the EDT.
+	 */
+	private static Map<String, List<Integer>> build(JTable table, int viewColumn) {
+		Map<String, List<Integer>> rows = new HashMap<String, List<Integer>>();
+		for (int viewRow = 0; viewRow < table.getRowCount(); viewRow++) {
+			String text = CELL_READER.valueAt(table, viewRow, viewColumn);
+			List<Integer> modelRows = rows.get(text);
+			if (modelRows == null) {
+				modelRows = new ArrayList<Integer>(1);
+				rows.put(text, modelRows);
+			}
+			modelRows.add(table.convertRowIndexToModel(viewRow));
+		}
+		return rows;
+	}
+
+	/**
+	 * Unregisters the index from the model and the row sorter.
+	 */
+	void dispose() {
+		GuiActionRunner.execute(new GuiTask() {
+			@Override
+			protected void executeInEDT() {
+				model.removeTableModelListener(TableRowIndex.this);
+				if (sorter != null) {
+					sorter.removeRowSorterListener(TableRowIndex.this);
+				}
+			}
+		});
+		columns.clear();
+	}
+
+	@Override
+	public void tableChanged(TableModelEvent e) {
+		columns.clear();
+	}
+
+	@Override
+	public void sorterChanged(RowSorterEvent e) {
+		columns.clear();
+	}
+}
@@ -0,0 +1,239 @@
+/*******************************************************************************
+ * Copyright (c) 2012 - 2015 Signal Iduna Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Signal Iduna Corporation - initial API and implementation
+ * akquinet AG
+ *******************************************************************************/
+package org.testeditor.fixture.swing;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.swing.JTable;
+
+import org.fest.swing.driver.BasicJTableCellReader;
+import org.fest.swing.edt.GuiActionRunner;
+import org.fest.swing.edt.GuiQuery;
+
+/**
+ * Snapshot of the displayed values of a range of rows of a
+ * <code>JTable</code>. The values are stored per column and can be queried
+ * without accessing the GUI again. Row indices are view indices of the table.
+ *
+ */
+final class TableSnapshot {
+
+	private final String[] columnNames;
+	private final String[][] columns;
+	private final int firstRow;
+	private final int rowCount;
+
+	/**
+	 * Creates a snapshot from already read values.
+	 *
+	 * @param columnNames
+	 *            names of the columns
+	 * @param columns
+	 *            values per column, all of the same length
+	 * @param firstRow
+	 *            view index of the first row of the snapshot
+	 */
+	TableSnapshot(String[] columnNames, String[][] columns, int firstRow) {
+		this.columnNames = columnNames;
+		this.columns = columns;
+		this.firstRow = firstRow;
+		if (columns.length > 0) {
+			this.rowCount = columns[0].length;
+		} else {
+			this.rowCount = 0;
+		}
+	}
+
+	/**
+	 * Reads the rows <code>firstRow</code> to <code>lastRow</code> of the
+	 * table. The rows are read in chunks, each in its own task in the EDT, so
+	 * the AUT can process other events between the chunks.
+	 *
+	 * @param table
+	 *            the table
+	 * @param first
+	 *            view index of the first row
+	 * @param last
+	 *            view index of the last row, a negative value or a value
+	 *            behind the last row of the table reads up to the end
+	 * @param chunkSize
+	 *            number of rows read in one task in the EDT
+	 * @return the snapshot
+	 */
+	static TableSnapshot capture(final JTable table, int first, int last, int chunkSize) {
+		String[] columnNames = GuiActionRunner.execute(new GuiQuery<String[]>() {
+			@Override
+			protected String[] executeInEDT() {
+				String[] result = new String[table.getColumnCount()];
+				for (int column = 0; column < result.length; column++) {
+					result[column] = table.getColumnName(column);
+				}
+				return result;
+			}
+		});
+		int tableRows = GuiActionRunner.execute(new GuiQuery<Integer>() {
+			@Override
+			protected Integer executeInEDT() {
+				return table.getRowCount();
+			}
+		});
+		int from = Math.max(0, first);
+		int to = tableRows - 1;
+		if (last >= 0 && last < to) {
+			to = last;
+		}
+		int size = Math.max(0, to - from + 1);
+		final String[][] columns = new String[columnNames.length][size];
+		final BasicJTableCellReader cellReader = new BasicJTableCellReader();
+		for (int chunkStart = 0; chunkStart < size; chunkStart += chunkSize) {
+			final int start = chunkStart;
+			final int end = Math.min(size, chunkStart + chunkSize);
+			final int offset = from;
+			GuiActionRunner.execute(new GuiQuery<Void>() {
+				@Override
+				protected Void executeInEDT() {
+					int columnCount = Math.min(columns.length, table.getColumnCount());
+					int rows = Math.min(end + offset, table.getRowCount()) - offset;
+					for (int row = start; row < rows; row++) {
+						for (int column = 0; column < columnCount; column++) {
+							columns[column][row] = cellReader.valueAt(table, row + offset, column);
+						}
+					}
+					return null;
+				}
+			});
+		}
+		return new TableSnapshot(columnNames, columns, from);
+	}
+
+	/**
+	 * @return number of rows in the snapshot
+	 */
+	int getRowCount() {
+		return rowCount;
+	}
+
+	/**
+	 * @return view index of the first row in the snapshot
+	 */
+	int getFirstRow() {
+		return firstRow;
+	}
+
+	/**
+	 * Returns the index of a column given by its name or its index.
+	 *
+	 * @param column
+	 *            name or index of the column
+	 * @return the index of the column
+	 * @throws IllegalArgumentException
+	 *             if there is no such column
+	 */
+	int columnIndex(String column) {
+		for (int i = 0; i < columnNames.length; i++) {
+			if (column.equals(columnNames[i])) {
+				return i;
+			}
+		}
+		try {
+			int index = Integer.parseInt(column.trim());
+			if (index >= 0 && index < columns.length) {
+				return index;
+			}
+		} catch (NumberFormatException e) {
+			// not an index, handled below
+		}
+		throw new IllegalArgumentException("column " + column + " not found in snapshot");
+	}
+
+	/**
+	 * @param row
+	 *            view index of the row
+	 * @param column
+	 *            index of the column
+	 * @return the displayed value of the cell
+	 * @throws IndexOutOfBoundsException
+	 *             if the row is not part of the snapshot
+	 */
+	String valueAt(int row, int column) {
+		if (row < firstRow || row >= firstRow + rowCount) {
+			throw new IndexOutOfBoundsException("row " + row + " is not part of the snapshot");
+		}
+		return columns[column][row - firstRow];
+	}
+
+	/**
+	 * @param column
+	 *            index of the column
+	 * @param value
+	 *            the value
+	 * @return <code>true</code> if any cell of the column shows the value
+	 */
+	boolean columnContains(int column, String value) {
+		for (String cell : columns[column]) {
+			if (value.equals(cell)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * @param row
+	 *            view index of the row
+	 * @param values
+	 *            expected values of all columns of the row
+	 * @return <code>true</code> if the row shows exactly these values
+	 */
+	boolean rowEquals(int row, String[] values) {
+		if (values.length != columns.length) {
+			return false;
+		}
+		for (int column = 0; column < values.length; column++) {
+			if (!values[column].equals(valueAt(row, column))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Compares the snapshot with the expected rows, starting with the first
+	 * row of the snapshot.
+	 *
+	 * @param expected
+	 *            expected values per row
+	 * @return all differences, empty if the snapshot matches
+	 */
+	List<String> diff(List<String[]> expected) {
+		List<String> differences = new ArrayList<String>();
+		if (expected.size() != rowCount) {
+			differences.add("expected " + expected.size() + " rows but was " + rowCount);
+		}
+		for (int i = 0; i < Math.min(expected.size(), rowCount); i++) {
+			String[] values = expected.get(i);
+			int row = firstRow + i;
+			if (values.length != columns.length) {
+				differences.add("row " + row + ": expected " + values.length + " columns but was " + columns.length);
+			}
+			for (int column = 0; column < Math.min(values.length, columns.length); column++) {
+				String actual = valueAt(row, column);
+				if (!values[column].equals(actual)) {
+					differences.add("row " + row + ", column " + column + ": expected <" + values[column]
+							+ "> but was <" + actual + ">");
+				}
+			}
+		}
+		return differences;
+	}
+}
@@ -0,0 +1,152 @@
+/*******************************************************************************
+ * Copyright (c) 2012 - 2015 Signal Iduna Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Signal Iduna Corporation - initial API and implementation
+ * akquinet AG
+ *******************************************************************************/
+package org.testeditor.fixture.swing;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.log4j.Logger;
+
+/**
+ * Heap use and live threads of the JVM before and after each test of a
+ * fixture with full teardown. The samples are kept for the whole JVM, so a
+ * growth across the tests of a long FitNesse run is detected: if the heap or
+ * the number of live threads after teardown grew for
+ * {@link #GROWTH_TESTS} tests in a row, a warning is logged. Heap use is
+ * the median of {@link #HEAP_SAMPLES} samples, each taken after a garbage
+ * collection request, so it only approximates the live heap; growth of the
+ * heap below {@link #HEAP_TOLERANCE} bytes is ignored.
+ *
+ */
+final class TeardownAccounting {
+
+	static final int GROWTH_TESTS = 3;
+	static final int HEAP_SAMPLES = 3;
+	static final long HEAP_TOLERANCE = 1024 * 1024;
+
+	private static final Logger LOGGER = Logger.getLogger(TeardownAccounting.class);
+	private static final long MB = 1024 * 1024;
+	private static final List<long[]> AFTER = new ArrayList<long[]>();
+	private static int tests;
+	private static int warnings;
+	private static long[] lastBefore;
+	private static Set<Long> threadsBefore = new HashSet<Long>();
+
+	private TeardownAccounting() {
+	}
+
+	/**
+	 * Samples heap and threads before a test.
+	 */
+	static synchronized void beforeTest() {
+		lastBefore = sample();
+		threadsBefore = liveThreadIds();
+	}
+
+	/**
+	 * Samples heap and threads after the teardown of a test, logs the
+	 * threads the test left running and warns if heap or threads keep
+	 * growing.
+	 *
+	 * @param application
+	 *            name of the AUT for the log
+	 */
+	static synchronized void afterTeardown(String application) {
+		long[] after = sample();
+		tests++;
+		List<String> leftRunning = new ArrayList<String>();
+		for (Thread thread : Thread.getAllStackTraces().keySet()) {
+			if (thread.isAlive() && !threadsBefore.contains(thread.getId())) {
+				leftRunning.add(thread.getName());
+			}
+		}
+		if (!leftRunning.isEmpty()) {
+			LOGGER.info(application + " left threads running: " + leftRunning);
+		}
+		AFTER.add(after);
+		if (AFTER.size() > GROWTH_TESTS + 1) {
+			AFTER.remove(0);
+		}
+		if (grows(AFTER, 0, HEAP_TOLERANCE)) {
+			warnings++;
+			LOGGER.warn("heap after teardown grew for " + GROWTH_TESTS + " tests in a row: " + describe());
+		}
+		if (grows(AFTER, 1, 0)) {
+			warnings++;
+			LOGGER.warn("live threads after teardown grew for " + GROWTH_TESTS + " tests in a row: " + describe());
+		}
+		LOGGER.info("teardown of " + application + ": " + describe());
+	}
+
+	/**
+	 * @return heap and threads of the last test and the number of growth
+	 *         warnings
+	 */
+	static synchronized String describe() {
+		StringBuilder result = new StringBuilder("tests: ").append(tests);
+		if (lastBefore != null) {
+			result.append(", before: heap ").append(lastBefore[0] / MB).append(" MB threads ")
+					.append(lastBefore[1]);
+		}
+		if (!AFTER.isEmpty()) {
+			long[] after = AFTER.get(AFTER.size() - 1);
+			result.append(", after: heap ").append(after[0] / MB).append(" MB threads ").append(after[1]);
+		}
+		return result.append(", growth warnings: ").append(warnings).toString();
+	}
+
+	/**
+	 * @param samples
+	 *            the samples of the last tests, oldest first
+	 * @param value
+	 *            index of the value in the samples, 0 for the heap, 1 for
+	 *            the threads
+	 * @param tolerance
+	 *            growth from one sample to the next which is not counted
+	 * @return <code>true</code> if the value grew by more than the tolerance
+	 *         in each of the last {@link #GROWTH_TESTS} samples
+	 */
+	static boolean grows(List<long[]> samples, int value, long tolerance) {
+		if (samples.size() <= GROWTH_TESTS) {
+			return false;
+		}
+		for (int i = samples.size() - GROWTH_TESTS; i < samples.size(); i++) {
+			if (samples.get(i)[value] - samples.get(i - 1)[value] <= tolerance) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static long[] sample() {
+		long[] heap = new long[HEAP_SAMPLES];
+		for (int i = 0; i < HEAP_SAMPLES; i++) {
+			System.gc();
+			heap[i] = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+		}
+		Arrays.sort(heap);
+		long threads = ManagementFactory.getThreadMXBean().getThreadCount();
+		return new long[] { heap[HEAP_SAMPLES / 2], threads };
+	}
+
+	private static Set<Long> liveThreadIds() {
+		Set<Long> ids = new HashSet<Long>();
+		for (Thread thread : Thread.getAllStackTraces().keySet()) {
+			ids.add(thread.getId());
+		}
+		return ids;
+	}
+}
@@ -0,0 +1,184 @@
+/*******************************************************************************
+ * Copyright (c) 2012 - 2015 Signal Iduna Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Signal Iduna Corporation - initial API and implementation
+ * akquinet AG
+ *******************************************************************************/
+package org.testeditor.fixture.swing;
+
+import java.awt.Toolkit;
+import java.awt.datatransfer.Clipboard;
+import java.awt.datatransfer.DataFlavor;
+import java.awt.datatransfer.StringSelection;
+import java.awt.datatransfer.Transferable;
+import java.awt.datatransfer.UnsupportedFlavorException;
+import java.awt.event.KeyEvent;
+import java.awt.event.KeyListener;
+import java.util.Locale;
+
+import javax.swing.text.JTextComponent;
+
+import org.fest.swing.edt.GuiActionRunner;
+import org.fest.swing.edt.GuiTask;
+import org.fest.swing.fixture.JTextComponentFixture;
+
+/**
+ * Strategies to enter text into a text component.
+ *
+ */
+public enum TextEntryMode {
+
+	/**
+	 * Types the text key by key with the robot.
+	 */
+	ROBOT {
+		@Override
+		void enterText(JTextComponentFixture textField, String text) {
+			textField.enterText(text);
+		}
+	},
+
+	/**
+	 * Inserts the text at the caret into the document in the EDT. The
+	 * <code>DocumentListener</code>s of the AUT are notified by the document.
+	 * If the text component has <code>KeyListener</code>s, the text is
+	 * inserted character by character and the listeners get a key pressed,
+	 * key typed and key released event for each character, like for typed
+	 * keys; a consumed key typed event is not inserted. The text component
+	 * must be enabled, editable and showing.
+	 */
+	DOCUMENT {
+		@Override
+		void enterText(JTextComponentFixture textField, final String text) {
+			final JTextComponent textComponent = textField.target;
+			GuiActionRunner.execute(new GuiTask() {
+				@Override
+				protected void executeInEDT() {
+					checkEditable(textComponent);
+					if (textComponent.getKeyListeners().length == 0) {
+						textComponent.replaceSelection(text);
+					} else {
+						for (char character : text.toCharArray()) {
+							typeCharacter(textComponent, character);
+						}
+					}
+				}
+			});
+			textField.robot.waitForIdle();
+		}
+	},
+
+	/**
+	 * Pastes the text from the system clipboard in the EDT. The previous
+	 * content of the clipboard is restored afterwards; a clipboard which was
+	 * empty is emptied again. The text component must be enabled, editable
+	 * and showing.
+	 */
+	CLIPBOARD {
+		@Override
+		void enterText(JTextComponentFixture textField, String text) {
+			final JTextComponent textComponent = textField.target;
+			Clipboard clipboard = Toolkit.getDefaultToolkit().getSystemClipboard();
+			Transferable previous = clipboard.getContents(null);
+			if (previous == null) {
+				previous = EMPTY;
+			}
+			clipboard.setContents(new StringSelection(text), null);
+			try {
+				GuiActionRunner.execute(new GuiTask() {
+					@Override
+					protected void executeInEDT() {
+						checkEditable(textComponent);
+						textComponent.paste();
+					}
+				});
+				textField.robot.waitForIdle();
+			} finally {
+				clipboard.setContents(previous, null);
+			}
+		}
+	};
+
+	/**
+	 * Clipboard content without any data flavor.
+	 */
+	private static final Transferable EMPTY = new Transferable() {
+		@Override
+		public DataFlavor[] getTransferDataFlavors() {
+			return new DataFlavor[0];
+		}
+
+		@Override
+		public boolean isDataFlavorSupported(DataFlavor flavor) {
+			return false;
+		}
+
+		@Override
+		public Object getTransferData(DataFlavor flavor) throws UnsupportedFlavorException {
+			throw new UnsupportedFlavorException(flavor);
+		}
+	};
+
+	/**
+	 * Enters the text into the text field.
+	 *
+	 * @param textField
+	 *            the text field
+	 * @param text
+	 *            the text to enter
+	 */
+	abstract void enterText(JTextComponentFixture textField, String text);
+
+	/**
+	 * Returns the mode with the given name, ignoring the case.
+	 *
+	 * @param name
+	 *            name of the mode
+	 * @return the mode
+	 */
+	public static TextEntryMode fromName(String name) {
+		return valueOf(name.trim().toUpperCase(Locale.ROOT));
+	}
+
+	/**
+	 * Fails like the robot if the text component can't take input. Must be
+	 * called in the EDT.
+	 */
+	private static void checkEditable(JTextComponent textComponent) {
+		if (!textComponent.isEnabled() || !textComponent.isEditable() || !textComponent.isShowing()) {
+			throw new IllegalStateException("the text component " + textComponent.getName()
+					+ " must be enabled, editable and showing");
+		}
+	}
+
+	/**
+	 * Notifies the key listeners of the text component about one character
+	 * and inserts it at the caret unless the key typed event is consumed.
+	 * Must be called in the EDT.
+	 */
+	private static void typeCharacter(JTextComponent textComponent, char character) {
+		long when = System.currentTimeMillis();
+		int keyCode = KeyEvent.getExtendedKeyCodeForChar(character);
+		KeyListener[] listeners = textComponent.getKeyListeners();
+		KeyEvent pressed = new KeyEvent(textComponent, KeyEvent.KEY_PRESSED, when, 0, keyCode, character);
+		for (KeyListener listener : listeners) {
+			listener.keyPressed(pressed);
+		}
+		KeyEvent typed = new KeyEvent(textComponent, KeyEvent.KEY_TYPED, when, 0, KeyEvent.VK_UNDEFINED, character);
+		for (KeyListener listener : listeners) {
+			listener.keyTyped(typed);
+		}
+		if (!typed.isConsumed()) {
+			textComponent.replaceSelection(String.valueOf(character));
+		}
+		KeyEvent released = new KeyEvent(textComponent, KeyEvent.KEY_RELEASED, when, 0, keyCode, character);
+		for (KeyListener listener : listeners) {
+			listener.keyReleased(released);
+		}
+	}
+}
@@ -0,0 +1,234 @@
+/*******************************************************************************
+ * Copyright (c) 2012 - 2015 Signal Iduna Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Signal Iduna Corporation - initial API and implementation
+ * akquinet AG
+ *******************************************************************************/
+package org.testeditor.fixture.swing;
+
+import javax.swing.JTree;
+import javax.swing.event.TreeModelEvent;
+import javax.swing.event.TreeModelListener;
+import javax.swing.tree.TreeModel;
+import javax.swing.tree.TreePath;
+
+import org.fest.swing.driver.BasicJTreeCellReader;
+import org.fest.swing.edt.GuiActionRunner;
+import org.fest.swing.edt.GuiQuery;
+import org.fest.swing.edt.GuiTask;
+
+/**
+ * Resolves a path like <code>A/B/C</code> in a tree by walking the
+ * <code>TreeModel</code>. Only the nodes on the path are expanded. If a node
+ * has no child with the next name yet, e.g. because the tree loads its
+ * children lazily, the navigator waits for the next event of the
+ * <code>TreeModelListener</code> and looks again until the timeout elapses.
+ * The timeout applies to each node on the path.
+ * The texts of the nodes are read with the cell reader of FEST. If the root
+ * of the tree is visible, the path starts with the root. While navigating,
+ * the tree doesn't scroll on expand; the caller scrolls once to the final
+ * node.
+ *
+ */
+final class TreePathNavigator implements TreeModelListener {
+
+	private static final String SEPARATOR = "/";
+
+	private final JTree tree;
+	private final TreeModel model;
+	private final Object lock = new Object();
+	private final BasicJTreeCellReader cellReader = new BasicJTreeCellReader();
+	private int changes;
+
+	private TreePathNavigator(JTree tree) {
+		this.tree = tree;
+		this.model = tree.getModel();
+	}
+
+	/**
+	 * Resolves the path and expands the nodes on it.
+	 *
+	 * @param tree
+	 *            the tree
+	 * @param path
+	 *            names of the nodes separated by <code>/</code>
+	 * @param expandLast
+	 *            <code>true</code> to expand the final node, too
+	 * @param timeoutMillis
+	 *            maximum time to wait for the children of a node
+	 * @return the path of the final node
+	 * @throws InterruptedException
+	 *             if interrupted while waiting for children
+	 */
+	static TreePath expand(final JTree tree, String path, boolean expandLast, long timeoutMillis)
+			throws InterruptedException {
+		String[] names = split(path);
+		final TreePathNavigator navigator = GuiActionRunner.execute(new GuiQuery<TreePathNavigator>() {
+			@Override
+			protected TreePathNavigator executeInEDT() {
+				TreePathNavigator result = new TreePathNavigator(tree);
+				result.model.addTreeModelListener(result);
+				return result;
+			}
+		});
+		final boolean scrollsOnExpand = GuiActionRunner.execute(new GuiQuery<Boolean>() {
+			@Override
+			protected Boolean executeInEDT() {
+				boolean previous = tree.getScrollsOnExpand();
+				tree.setScrollsOnExpand(false);
+				return previous;
+			}
+		});
+		try {
+			TreePath current = navigator.start(names[0]);
+			int first = 1;
+			if (current == null) {
+				current = new TreePath(navigator.model.getRoot());
+				first = 0;
+			}
+			for (int i = first; i < names.length; i++) {
+				current = navigator.child(current, names[i], System.currentTimeMillis() + timeoutMillis);
+			}
+			if (expandLast) {
+				navigator.expandNode(current);
+			}
+			return current;
+		} finally {
+			GuiActionRunner.execute(new GuiTask() {
+				@Override
+				protected void executeInEDT() {
+					navigator.model.removeTreeModelListener(navigator);
+					tree.setScrollsOnExpand(scrollsOnExpand);
+				}
+			});
+		}
+	}
+
+	/**
+	 * Returns the text of a node as FEST reads it.
+	 *
+	 * @param tree
+	 *            the tree
+	 * @param path
+	 *            path of the node
+	 * @return the text of the last node of the path
+	 */
+	static String textOf(final JTree tree, final TreePath path) {
+		return GuiActionRunner.execute(new GuiQuery<String>() {
+			@Override
+			protected String executeInEDT() {
+				return new BasicJTreeCellReader().valueAt(tree, path.getLastPathComponent());
+			}
+		});
+	}
+
+	private static String[] split(String path) {
+		String trimmed = path.trim();
+		if (trimmed.startsWith(SEPARATOR)) {
+			trimmed = trimmed.substring(1);
+		}
+		if (trimmed.length() == 0) {
+			throw new IllegalArgumentException("empty tree path");
+		}
+		return trimmed.split(SEPARATOR);
+	}
+
+	/**
+	 * @return the path of the visible root if it has the name, otherwise
+	 *         <code>null</code>
+	 */
+	private TreePath start(final String name) {
+		return GuiActionRunner.execute(new GuiQuery<TreePath>() {
+			@Override
+			protected TreePath executeInEDT() {
+				Object root = model.getRoot();
+				if (tree.isRootVisible() && name.equals(cellReader.valueAt(tree, root))) {
+					return new TreePath(root);
+				}
+				return null;
+			}
+		});
+	}
+
+	/**
+	 * Expands the parent and returns the path of its child with the name.
+	 * Waits for changes of the model while the child is missing.
+	 */
+	private TreePath child(final TreePath parent, final String name, long deadline) throws InterruptedException {
+		while (true) {
+			final int[] seen = new int[1];
+			TreePath result = GuiActionRunner.execute(new GuiQuery<TreePath>() {
+				@Override
+				protected TreePath executeInEDT() {
+					synchronized (lock) {
+						seen[0] = changes;
+					}
+					tree.expandPath(parent);
+					Object node = parent.getLastPathComponent();
+					int count = model.getChildCount(node);
+					for (int index = 0; index < count; index++) {
+						Object child = model.getChild(node, index);
+						if (name.equals(cellReader.valueAt(tree, child))) {
+							return parent.pathByAddingChild(child);
+						}
+					}
+					return null;
+				}
+			});
+			if (result != null) {
+				return result;
+			}
+			synchronized (lock) {
+				long remaining = deadline - System.currentTimeMillis();
+				while (changes == seen[0] && remaining > 0) {
+					lock.wait(remaining);
+					remaining = deadline - System.currentTimeMillis();
+				}
+				if (changes == seen[0]) {
+					throw new IllegalStateException("no node " + name + " below " + parent);
+				}
+			}
+		}
+	}
+
+	private void expandNode(final TreePath path) {
+		GuiActionRunner.execute(new GuiTask() {
+			@Override
+			protected void executeInEDT() {
+				tree.expandPath(path);
+			}
+		});
+	}
+
+	private void changed() {
+		synchronized (lock) {
+			changes++;
+			lock.notifyAll();
+		}
+	}
+
+	@Override
+	public void treeNodesChanged(TreeModelEvent e) {
+		changed();
+	}
+
+	@Override
+	public void treeNodesInserted(TreeModelEvent e) {
+		changed();
+	}
+
+	@Override
+	public void treeNodesRemoved(TreeModelEvent e) {
+		changed();
+	}
+
+	@Override
+	public void treeStructureChanged(TreeModelEvent e) {
+		changed();
+	}
+}
@@ -0,0 +1,108 @@
+/*******************************************************************************
+ * Copyright (c) 2012 - 2015 Signal Iduna Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Signal Iduna Corporation - initial API and implementation
+ * akquinet AG
+ *******************************************************************************/
+package org.testeditor.fixture.swing;
+
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.text.Document;
+import javax.swing.text.JTextComponent;
+
+import org.fest.swing.edt.GuiActionRunner;
+import org.fest.swing.edt.GuiQuery;
+import org.fest.swing.edt.GuiTask;
+
+/**
+ * Counts the characters the document of a text component received while the
+ * robot types, so dropped key events are detected even if the AUT changes
+ * the text, e.g. a document filter converting it to upper case.
+ *
+ */
+final class TypedTextCheck implements DocumentListener {
+
+	private final JTextComponent textComponent;
+	private final Document document;
+	private final String before;
+	private volatile int inserted;
+
+	private TypedTextCheck(JTextComponent textComponent) {
+		this.textComponent = textComponent;
+		this.document = textComponent.getDocument();
+		this.before = textComponent.getText();
+	}
+
+	/**
+	 * Starts counting the inserted characters.
+	 *
+	 * @param textComponent
+	 *            the text component
+	 * @return the check
+	 */
+	static TypedTextCheck attach(final JTextComponent textComponent) {
+		return GuiActionRunner.execute(new GuiQuery<TypedTextCheck>() {
+			@Override
+			protected TypedTextCheck executeInEDT() {
+				TypedTextCheck check = new TypedTextCheck(textComponent);
+				check.document.addDocumentListener(check);
+				return check;
+			}
+		});
+	}
+
+	/**
+	 * @return number of characters inserted since the check was attached or
+	 *         reset
+	 */
+	int inserted() {
+		return inserted;
+	}
+
+	/**
+	 * Restores the text the component had when the check was attached and
+	 * starts counting again.
+	 */
+	void reset() {
+		GuiActionRunner.execute(new GuiTask() {
+			@Override
+			protected void executeInEDT() {
+				textComponent.setText(before);
+				inserted = 0;
+			}
+		});
+	}
+
+	/**
+	 * Stops counting.
+	 */
+	void detach() {
+		GuiActionRunner.execute(new GuiTask() {
+			@Override
+			protected void executeInEDT() {
+				document.removeDocumentListener(TypedTextCheck.this);
+			}
+		});
+	}
+
+	@Override
+	public void insertUpdate(DocumentEvent e) {
+		inserted += e.getLength();
+	}
+
+	@Override
+	public void removeUpdate(DocumentEvent e) {
+		// replaced text is not counted
+	}
+
+	@Override
+	public void changedUpdate(DocumentEvent e) {
+		// attribute changes are not counted
+	}
+}
@@ -0,0 +1,226 @@
+/*******************************************************************************
+ * Copyright (c) 2012 - 2015 Signal Iduna Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Signal Iduna Corporation - initial API and implementation
+ * akquinet AG
+ *******************************************************************************/
+package org.testeditor.fixture.swing.agent;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.log4j.Logger;
+
+/**
+ * Client side of the connection to a {@link SwingAgent}. Requests are
+ * written into a buffer by {@link #send(String, Object...)} and go out on
+ * {@link #flush()}, so a batch of requests is sent at once and executed by
+ * the agent without waiting for the client in between. A reader thread
+ * completes the {@link PendingResult}s as the responses stream back.
+ *
+ */
+public final class AgentConnection {
+
+	private static final Logger LOGGER = Logger.getLogger(AgentConnection.class);
+
+	private final Socket socket;
+	private final DataOutputStream out;
+	private final DataInputStream in;
+	private final AtomicInteger nextId = new AtomicInteger();
+	private final Map<Integer, PendingResult> pending = new ConcurrentHashMap<Integer, PendingResult>();
+	private final Thread reader;
+	private volatile IOException broken;
+	private long callTimeout = 120000;
+
+	private AgentConnection(Socket socket) throws IOException {
+		this.socket = socket;
+		this.out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+		this.in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+		this.reader = new Thread("swing-agent-reader-" + socket.getPort()) {
+			@Override
+			public void run() {
+				readResponses();
+			}
+		};
+		reader.setDaemon(true);
+	}
+
+	/**
+	 * Connects to an agent.
+	 *
+	 * @param host
+	 *            host of the agent
+	 * @param port
+	 *            port of the agent
+	 * @param timeoutMillis
+	 *            maximum time to establish the connection
+	 * @return the connection
+	 * @throws IOException
+	 *             if the agent is not reachable
+	 */
+	public static AgentConnection connect(String host, int port, int timeoutMillis) throws IOException {
+		Socket socket = new Socket();
+		socket.setTcpNoDelay(true);
+		socket.connect(new InetSocketAddress(host, port), timeoutMillis);
+		AgentConnection connection = new AgentConnection(socket);
+		connection.reader.start();
+		return connection;
+	}
+
+	/**
+	 * @param milliSeconds
+	 *            maximum time {@link #call(String, Object...)} waits for a
+	 *            response; calls of the wait steps wait additionally for the
+	 *            timeout given as their last argument
+	 */
+	public void setCallTimeout(long milliSeconds) {
+		this.callTimeout = milliSeconds;
+	}
+
+	/**
+	 * Writes a request into the send buffer. The request is sent at the
+	 * latest on the next {@link #flush()} or {@link #call(String, Object...)}.
+	 *
+	 * @param method
+	 *            name of the fixture method
+	 * @param arguments
+	 *            arguments of the method
+	 * @return the result, completed when the response arrives
+	 */
+	public PendingResult send(String method, Object... arguments) {
+		PendingResult result = new PendingResult(method);
+		if (broken != null) {
+			result.fail("connection to the agent is broken", broken);
+			return result;
+		}
+		int id = nextId.incrementAndGet();
+		pending.put(id, result);
+		try {
+			synchronized (out) {
+				AgentProtocol.writeRequest(out, id, method, arguments);
+			}
+		} catch (IOException e) {
+			pending.remove(id);
+			result.fail("could not send the request", e);
+		}
+		if (broken != null && pending.remove(id) != null) {
+			result.fail("connection to the agent is broken", broken);
+		}
+		return result;
+	}
+
+	/**
+	 * Sends all buffered requests.
+	 *
+	 * @throws AgentException
+	 *             if the connection is broken
+	 */
+	public void flush() throws AgentException {
+		try {
+			synchronized (out) {
+				out.flush();
+			}
+		} catch (IOException e) {
+			fail(e);
+			throw new AgentException("could not send the requests to the agent", e);
+		}
+	}
+
+	/**
+	 * Sends a request with all buffered requests before it and waits for its
+	 * result.
+	 *
+	 * @param method
+	 *            name of the fixture method
+	 * @param arguments
+	 *            arguments of the method
+	 * @return the value returned by the fixture method
+	 * @throws AgentException
+	 *             if the call failed
+	 */
+	public Object call(String method, Object... arguments) throws AgentException {
+		PendingResult result = send(method, arguments);
+		flush();
+		try {
+			return result.get(timeoutOf(method, arguments));
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new AgentException("interrupted while waiting for " + method, e);
+		}
+	}
+
+	/**
+	 * @return the time to wait for the response of the call: the call
+	 *         timeout, plus the timeout argument of a wait step, which is its
+	 *         last integer argument
+	 */
+	private long timeoutOf(String method, Object[] arguments) {
+		if (method.startsWith("wait") && arguments.length > 0 && arguments[arguments.length - 1] instanceof Integer) {
+			return callTimeout + Math.max(0, (Integer) arguments[arguments.length - 1]);
+		}
+		return callTimeout;
+	}
+
+	/**
+	 * @return <code>false</code> if the connection to the agent broke
+	 */
+	public boolean isConnected() {
+		return broken == null && !socket.isClosed();
+	}
+
+	/**
+	 * Closes the connection. The agent stops the AUT and exits.
+	 */
+	public void close() {
+		try {
+			socket.close();
+		} catch (IOException e) {
+			LOGGER.warn("could not close the agent connection Error: " + e);
+		}
+	}
+
+	private void readResponses() {
+		try {
+			while (true) {
+				int id = in.readInt();
+				byte status = in.readByte();
+				Object value = AgentProtocol.readValue(in);
+				PendingResult result = pending.remove(id);
+				if (result == null) {
+					LOGGER.warn("response for unknown request " + id);
+				} else if (status == AgentProtocol.STATUS_OK) {
+					result.complete(value);
+				} else {
+					result.fail(String.valueOf(value), null);
+				}
+			}
+		} catch (IOException e) {
+			fail(e);
+		}
+	}
+
+	private void fail(IOException cause) {
+		if (broken == null) {
+			broken = cause;
+		}
+		for (Integer id : pending.keySet()) {
+			PendingResult result = pending.remove(id);
+			if (result != null) {
+				result.fail("connection to the agent is broken", cause);
+			}
+		}
+	}
+}
@@ -0,0 +1,41 @@
+/*******************************************************************************
+ * Copyright (c) 2012 - 2015 Signal Iduna Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Signal Iduna Corporation - initial API and implementation
+ * akquinet AG
+ *******************************************************************************/
+package org.testeditor.fixture.swing.agent;
+
+/**
+ * A call to the swing agent failed: the fixture method threw an exception in
+ * the agent, or the connection to the agent is broken, e.g. because the AUT
+ * terminated the agent JVM.
+ *
+ */
+public class AgentException extends Exception {
+
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * @param message
+	 *            description of the failure
+	 */
+	public AgentException(String message) {
+		super(message);
+	}
+
+	/**
+	 * @param message
+	 *            description of the failure
+	 * @param cause
+	 *            cause of the failure
+	 */
+	public AgentException(String message, Throwable cause) {
+		super(message, cause);
+	}
+}
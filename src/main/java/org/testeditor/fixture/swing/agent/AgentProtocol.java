@@ -0,0 +1,255 @@
+/*******************************************************************************
+ * Copyright (c) 2012 - 2015 Signal Iduna Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Signal Iduna Corporation - initial API and implementation
+ * akquinet AG
+ *******************************************************************************/
+package org.testeditor.fixture.swing.agent;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Binary protocol between the fixture and the swing agent. Requests and
+ * responses carry an id, so a client can send any number of requests before
+ * it reads the first response; the agent executes the requests in the order
+ * they arrive and streams each response back as soon as it is done.
+ *
+ * <pre>
+ * request:  int id, UTF method, byte argument count, arguments
+ * response: int id, byte status, value (status OK) or string (status ERROR)
+ * value:    byte type, payload
+ * </pre>
+ *
+ * Supported values are <code>null</code>, strings, integers, longs, booleans,
+ * string arrays and string maps, which covers the parameters and results of
+ * all fixture methods. Lengths read from the stream are checked against
+ * upper bounds, so a corrupt or foreign stream fails with an
+ * <code>IOException</code> instead of allocating huge arrays.
+ *
+ */
+final class AgentProtocol {
+
+	static final byte STATUS_OK = 0;
+	static final byte STATUS_ERROR = 1;
+
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+	private static final byte NULL = 0;
+	private static final byte STRING = 1;
+	private static final byte INT = 2;
+	private static final byte LONG = 3;
+	private static final byte BOOLEAN = 4;
+	private static final byte STRING_ARRAY = 5;
+	private static final byte STRING_MAP = 6;
+	private static final int MAX_STRING_BYTES = 64 * 1024 * 1024;
+	private static final int MAX_ELEMENTS = 1024 * 1024;
+
+	/**
+	 * A request read by the agent.
+	 */
+	static final class Request {
+		private final int id;
+		private final String method;
+		private final Object[] arguments;
+
+		Request(int id, String method, Object[] arguments) {
+			this.id = id;
+			this.method = method;
+			this.arguments = arguments;
+		}
+
+		int getId() {
+			return id;
+		}
+
+		String getMethod() {
+			return method;
+		}
+
+		Object[] getArguments() {
+			return arguments;
+		}
+	}
+
+	private AgentProtocol() {
+	}
+
+	/**
+	 * Writes a request without flushing the stream.
+	 *
+	 * @param out
+	 *            the stream
+	 * @param id
+	 *            id of the request
+	 * @param method
+	 *            name of the fixture method
+	 * @param arguments
+	 *            arguments of the method
+	 * @throws IOException
+	 *             if writing fails or an argument type is not supported
+	 */
+	static void writeRequest(DataOutputStream out, int id, String method, Object... arguments) throws IOException {
+		out.writeInt(id);
+		out.writeUTF(method);
+		out.writeByte(arguments.length);
+		for (Object argument : arguments) {
+			writeValue(out, argument);
+		}
+	}
+
+	/**
+	 * @param in
+	 *            the stream
+	 * @return the next request
+	 * @throws IOException
+	 *             if reading fails or the request is malformed
+	 */
+	static Request readRequest(DataInputStream in) throws IOException {
+		int id = in.readInt();
+		String method = in.readUTF();
+		Object[] arguments = new Object[in.readUnsignedByte()];
+		for (int i = 0; i < arguments.length; i++) {
+			arguments[i] = readValue(in);
+		}
+		return new Request(id, method, arguments);
+	}
+
+	/**
+	 * Writes a response without flushing the stream.
+	 *
+	 * @param out
+	 *            the stream
+	 * @param id
+	 *            id of the request
+	 * @param status
+	 *            {@link #STATUS_OK} or {@link #STATUS_ERROR}
+	 * @param value
+	 *            the result or the error message
+	 * @throws IOException
+	 *             if writing fails or the value type is not supported
+	 */
+	static void writeResponse(DataOutputStream out, int id, byte status, Object value) throws IOException {
+		out.writeInt(id);
+		out.writeByte(status);
+		writeValue(out, value);
+	}
+
+	/**
+	 * Writes a value.
+	 *
+	 * @param out
+	 *            the stream
+	 * @param value
+	 *            the value
+	 * @throws IOException
+	 *             if writing fails or the type is not supported
+	 */
+	@SuppressWarnings("unchecked")
+	static void writeValue(DataOutputStream out, Object value) throws IOException {
+		if (value == null) {
+			out.writeByte(NULL);
+		} else if (value instanceof String) {
+			out.writeByte(STRING);
+			writeString(out, (String) value);
+		} else if (value instanceof Integer) {
+			out.writeByte(INT);
+			out.writeInt((Integer) value);
+		} else if (value instanceof Long) {
+			out.writeByte(LONG);
+			out.writeLong((Long) value);
+		} else if (value instanceof Boolean) {
+			out.writeByte(BOOLEAN);
+			out.writeBoolean((Boolean) value);
+		} else if (value instanceof String[]) {
+			String[] strings = (String[]) value;
+			out.writeByte(STRING_ARRAY);
+			out.writeInt(strings.length);
+			for (String string : strings) {
+				writeValue(out, string);
+			}
+		} else if (value instanceof Map) {
+			Map<String, String> map = (Map<String, String>) value;
+			out.writeByte(STRING_MAP);
+			out.writeInt(map.size());
+			for (Map.Entry<String, String> entry : map.entrySet()) {
+				writeValue(out, entry.getKey());
+				writeValue(out, entry.getValue());
+			}
+		} else {
+			throw new IOException("type not supported by the agent protocol: " + value.getClass().getName());
+		}
+	}
+
+	/**
+	 * Reads a value.
+	 *
+	 * @param in
+	 *            the stream
+	 * @return the value
+	 * @throws IOException
+	 *             if reading fails or the type is unknown
+	 */
+	static Object readValue(DataInputStream in) throws IOException {
+		byte type = in.readByte();
+		switch (type) {
+		case NULL:
+			return null;
+		case STRING:
+			return readString(in);
+		case INT:
+			return in.readInt();
+		case LONG:
+			return in.readLong();
+		case BOOLEAN:
+			return in.readBoolean();
+		case STRING_ARRAY:
+			String[] strings = new String[readLength(in, MAX_ELEMENTS, "string array")];
+			for (int i = 0; i < strings.length; i++) {
+				strings[i] = (String) readValue(in);
+			}
+			return strings;
+		case STRING_MAP:
+			int size = readLength(in, MAX_ELEMENTS, "string map");
+			Map<String, String> map = new LinkedHashMap<String, String>();
+			for (int i = 0; i < size; i++) {
+				map.put((String) readValue(in), (String) readValue(in));
+			}
+			return map;
+		default:
+			throw new IOException("unknown value type " + type);
+		}
+	}
+
+	private static void writeString(DataOutputStream out, String value) throws IOException {
+		byte[] bytes = value.getBytes(UTF8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	private static String readString(DataInputStream in) throws IOException {
+		byte[] bytes = new byte[readLength(in, MAX_STRING_BYTES, "string")];
+		in.readFully(bytes);
+		return new String(bytes, UTF8);
+	}
+
+	/**
+	 * Reads a length and checks that it is neither negative nor larger than
+	 * the maximum.
+	 */
+	private static int readLength(DataInputStream in, int maximum, String what) throws IOException {
+		int length = in.readInt();
+		if (length < 0 || length > maximum) {
+			throw new IOException("invalid length " + length + " of a " + what);
+		}
+		return length;
+	}
+}
@@ -0,0 +1,189 @@
+/*******************************************************************************
+ * Copyright (c) 2012 - 2015 Signal Iduna Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Signal Iduna Corporation - initial API and implementation
+ * akquinet AG
+ *******************************************************************************/
+package org.testeditor.fixture.swing.agent;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.log4j.Logger;
+import org.testeditor.fixture.swing.SwingFixture;
+
+/**
+ * One connection of a client to the agent. The session hosts its own
+ * {@link SwingFixture} and calls its methods in the order the requests
+ * arrive, wrapped in <code>preInvoke</code> and <code>postInvoke</code> like
+ * the test runner does. Responses are flushed when no further request is
+ * buffered, so a batch of pipelined requests is answered with few packets.
+ *
+ */
+final class AgentSession implements Runnable {
+
+	private static final Logger LOGGER = Logger.getLogger(AgentSession.class);
+	private static final Map<String, List<Method>> METHODS = fixtureMethods();
+	private static final Set<String> LAUNCH_METHODS = new HashSet<String>(Arrays.asList("startApplication",
+			"startIsolatedApplication"));
+
+	private final Socket socket;
+	private final SwingFixture fixture = new SwingFixture();
+	private boolean applicationRunning;
+
+	/**
+	 * @param socket
+	 *            the connection to the client
+	 */
+	AgentSession(Socket socket) {
+		this.socket = socket;
+	}
+
+	@Override
+	public void run() {
+		try {
+			socket.setTcpNoDelay(true);
+			DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+			DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+			while (true) {
+				AgentProtocol.Request request = AgentProtocol.readRequest(in);
+				execute(request, out);
+				if (in.available() == 0) {
+					out.flush();
+				}
+			}
+		} catch (EOFException e) {
+			LOGGER.info("client closed the connection");
+		} catch (IOException e) {
+			LOGGER.error("agent connection failed Error: " + e);
+		} finally {
+			close();
+		}
+	}
+
+	private void execute(AgentProtocol.Request request, DataOutputStream out) throws IOException {
+		Method method = methodFor(request.getMethod(), request.getArguments());
+		if (method == null) {
+			AgentProtocol.writeResponse(out, request.getId(), AgentProtocol.STATUS_ERROR, "no fixture method "
+					+ request.getMethod() + " with " + request.getArguments().length + " matching arguments");
+			return;
+		}
+		Object result;
+		try {
+			fixture.preInvoke(method, fixture, request.getArguments());
+			try {
+				result = method.invoke(fixture, request.getArguments());
+			} finally {
+				fixture.postInvoke(method, fixture, request.getArguments());
+			}
+		} catch (InvocationTargetException e) {
+			AgentProtocol.writeResponse(out, request.getId(), AgentProtocol.STATUS_ERROR, String.valueOf(e
+					.getCause()));
+			return;
+		} catch (IllegalAccessException e) {
+			AgentProtocol.writeResponse(out, request.getId(), AgentProtocol.STATUS_ERROR, String.valueOf(e));
+			return;
+		} catch (RuntimeException e) {
+			AgentProtocol.writeResponse(out, request.getId(), AgentProtocol.STATUS_ERROR, String.valueOf(e));
+			return;
+		}
+		if (LAUNCH_METHODS.contains(method.getName()) && !Boolean.FALSE.equals(result)) {
+			applicationRunning = true;
+		} else if ("stopApplication".equals(method.getName())) {
+			applicationRunning = false;
+		}
+		AgentProtocol.writeResponse(out, request.getId(), AgentProtocol.STATUS_OK, result);
+	}
+
+	/**
+	 * Stops the application of the session, if it is still running, and
+	 * closes the connection.
+	 */
+	private void close() {
+		if (applicationRunning) {
+			try {
+				fixture.stopApplication();
+			} catch (RuntimeException e) {
+				LOGGER.warn("could not stop the application Error: " + e);
+			}
+		}
+		try {
+			socket.close();
+		} catch (IOException e) {
+			LOGGER.warn("could not close the agent connection Error: " + e);
+		}
+	}
+
+	private static Method methodFor(String name, Object[] arguments) {
+		List<Method> candidates = METHODS.get(name);
+		if (candidates == null) {
+			return null;
+		}
+		for (Method method : candidates) {
+			if (accepts(method.getParameterTypes(), arguments)) {
+				return method;
+			}
+		}
+		return null;
+	}
+
+	private static boolean accepts(Class<?>[] types, Object[] arguments) {
+		if (types.length != arguments.length) {
+			return false;
+		}
+		for (int i = 0; i < types.length; i++) {
+			if (!boxed(types[i]).isInstance(arguments[i]) && (arguments[i] != null || types[i].isPrimitive())) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static Class<?> boxed(Class<?> type) {
+		if (type == int.class) {
+			return Integer.class;
+		}
+		if (type == long.class) {
+			return Long.class;
+		}
+		if (type == boolean.class) {
+			return Boolean.class;
+		}
+		return type;
+	}
+
+	private static Map<String, List<Method>> fixtureMethods() {
+		Map<String, List<Method>> methods = new HashMap<String, List<Method>>();
+		for (Method method : SwingFixture.class.getMethods()) {
+			if (method.getDeclaringClass() == Object.class || method.getName().endsWith("Invoke")) {
+				continue;
+			}
+			List<Method> overloads = methods.get(method.getName());
+			if (overloads == null) {
+				overloads = new ArrayList<Method>();
+				methods.put(method.getName(), overloads);
+			}
+			overloads.add(method);
+		}
+		return methods;
+	}
+}
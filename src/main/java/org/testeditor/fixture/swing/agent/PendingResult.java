@@ -0,0 +1,76 @@
+/*******************************************************************************
+ * Copyright (c) 2012 - 2015 Signal Iduna Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Signal Iduna Corporation - initial API and implementation
+ * akquinet AG
+ *******************************************************************************/
+package org.testeditor.fixture.swing.agent;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Result of a request sent to the swing agent. The result is set by the
+ * reader thread of the connection as soon as the response arrives.
+ *
+ */
+public final class PendingResult {
+
+	private final String method;
+	private final CountDownLatch done = new CountDownLatch(1);
+	private volatile Object value;
+	private volatile AgentException failure;
+
+	/**
+	 * @param method
+	 *            name of the called fixture method
+	 */
+	PendingResult(String method) {
+		this.method = method;
+	}
+
+	/**
+	 * @return <code>true</code> if the response arrived or the connection
+	 *         failed
+	 */
+	public boolean isDone() {
+		return done.getCount() == 0;
+	}
+
+	/**
+	 * Waits for the result.
+	 *
+	 * @param timeoutMillis
+	 *            maximum time to wait
+	 * @return the value returned by the fixture method
+	 * @throws AgentException
+	 *             if the method failed in the agent, the connection broke or
+	 *             the timeout elapsed
+	 * @throws InterruptedException
+	 *             if the waiting thread is interrupted
+	 */
+	public Object get(long timeoutMillis) throws AgentException, InterruptedException {
+		if (!done.await(timeoutMillis, TimeUnit.MILLISECONDS)) {
+			throw new AgentException("no response for " + method + " after " + timeoutMillis + " ms");
+		}
+		if (failure != null) {
+			throw failure;
+		}
+		return value;
+	}
+
+	void complete(Object result) {
+		this.value = result;
+		done.countDown();
+	}
+
+	void fail(String message, Throwable cause) {
+		this.failure = new AgentException(method + ": " + message, cause);
+		done.countDown();
+	}
+}
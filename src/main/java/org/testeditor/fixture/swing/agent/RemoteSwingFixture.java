@@ -0,0 +1,725 @@
+/*******************************************************************************
+ * Copyright (c) 2012 - 2015 Signal Iduna Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Signal Iduna Corporation - initial API and implementation
+ * akquinet AG
+ *******************************************************************************/
+package org.testeditor.fixture.swing.agent;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Map;
+
+import org.apache.log4j.Logger;
+import org.testeditor.fixture.swing.SwingFixture;
+
+/**
+ * Swing fixture which runs the AUT out of process in a {@link SwingAgent}.
+ * Every fixture method is sent to the agent and executed there by a
+ * {@link SwingFixture}, so test tables work unchanged; the AUT has a heap and
+ * GC of its own and a crash of the AUT fails the running steps instead of
+ * the test runner. <br />
+ *
+ * Usage for FitNesse: |start agent|aut.jar:swing-fixture.jar:libs/*| or
+ * |connect to agent|localhost|4711|, followed by the usual steps, e.g.
+ * |start application|de.example.Main|. <br />
+ *
+ * Requests of a test harness can be pipelined through
+ * {@link #getConnection()}: several requests are sent with
+ * {@link AgentConnection#send(String, Object...)} and one
+ * {@link AgentConnection#flush()}, and their results are collected
+ * afterwards.
+ *
+ */
+public class RemoteSwingFixture extends SwingFixture {
+
+	private static final Logger LOGGER = Logger.getLogger(RemoteSwingFixture.class);
+	private static final int CONNECT_TIMEOUT = 5000;
+	private static final long POLL_INTERVAL = 50;
+
+	private AgentConnection connection;
+	private Process agentProcess;
+	private int agentStartTimeout = 30000;
+
+	/**
+	 * Connects to an agent which is already running.
+	 *
+	 * @param host
+	 *            host of the agent
+	 * @param port
+	 *            port of the agent
+	 * @return <code>true</code> if the connection is established
+	 */
+	public boolean connectToAgent(String host, int port) {
+		try {
+			connection = AgentConnection.connect(host, port, CONNECT_TIMEOUT);
+			return true;
+		} catch (IOException e) {
+			LOGGER.error("could not connect to the swing agent at " + host + ":" + port + " Error: " + e);
+			return false;
+		}
+	}
+
+	/**
+	 * Starts an agent in a new JVM on a free port and connects to it.
+	 *
+	 * @param classpath
+	 *            classpath of the agent JVM with the AUT, the fixture and its
+	 *            dependencies
+	 * @return <code>true</code> if the agent is started and connected
+	 */
+	public boolean startAgent(String classpath) {
+		File portFile = null;
+		try {
+			portFile = File.createTempFile("swing-agent", ".port");
+			if (!portFile.delete()) {
+				LOGGER.warn("could not delete " + portFile);
+			}
+			String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+			agentProcess = new ProcessBuilder(java, "-cp", classpath, SwingAgent.class.getName(), "0",
+					portFile.getPath()).inheritIO().start();
+			int port = waitForPort(portFile);
+			if (port < 0) {
+				LOGGER.error("swing agent did not start within " + agentStartTimeout + " ms");
+				stopAgent();
+				return false;
+			}
+			return connectToAgent("localhost", port);
+		} catch (IOException e) {
+			LOGGER.error("could not start the swing agent Error: " + e);
+			stopAgent();
+			return false;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			LOGGER.error("interrupted while starting the swing agent Error: " + e);
+			stopAgent();
+			return false;
+		} finally {
+			if (portFile != null && portFile.exists() && !portFile.delete()) {
+				LOGGER.warn("could not delete " + portFile);
+			}
+		}
+	}
+
+	/**
+	 * Sets the maximum time {@link #startAgent(String)} waits for the agent.
+	 *
+	 * @param milliSeconds
+	 *            maximum time to wait
+	 */
+	public void setAgentStartTimeout(int milliSeconds) {
+		this.agentStartTimeout = milliSeconds;
+	}
+
+	/**
+	 * Closes the connection to the agent. The agent stops the AUT if it is
+	 * still running and exits; an agent started by {@link #startAgent(String)}
+	 * which does not exit in time is destroyed.
+	 *
+	 * @return always <code>true</code>
+	 */
+	public boolean stopAgent() {
+		if (connection != null) {
+			connection.close();
+			connection = null;
+		}
+		if (agentProcess != null) {
+			long deadline = System.currentTimeMillis() + agentStartTimeout;
+			try {
+				while (isRunning(agentProcess) && System.currentTimeMillis() < deadline) {
+					Thread.sleep(POLL_INTERVAL);
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			if (isRunning(agentProcess)) {
+				LOGGER.warn("swing agent did not exit, destroying it");
+				agentProcess.destroy();
+			}
+			agentProcess = null;
+		}
+		return true;
+	}
+
+	/**
+	 * @return the connection to the agent, <code>null</code> if not
+	 *         connected
+	 */
+	public AgentConnection getConnection() {
+		return connection;
+	}
+
+	private int waitForPort(File portFile) throws IOException, InterruptedException {
+		long deadline = System.currentTimeMillis() + agentStartTimeout;
+		while (System.currentTimeMillis() < deadline) {
+			if (portFile.exists()) {
+				Reader reader = new InputStreamReader(new FileInputStream(portFile), "UTF-8");
+				try {
+					StringBuilder port = new StringBuilder();
+					for (int c = reader.read(); c >= 0; c = reader.read()) {
+						port.append((char) c);
+					}
+					return Integer.parseInt(port.toString().trim());
+				} finally {
+					reader.close();
+				}
+			}
+			if (!isRunning(agentProcess)) {
+				return -1;
+			}
+			Thread.sleep(POLL_INTERVAL);
+		}
+		return -1;
+	}
+
+	private static boolean isRunning(Process process) {
+		try {
+			process.exitValue();
+			return false;
+		} catch (IllegalThreadStateException e) {
+			return true;
+		}
+	}
+
+	/**
+	 * Calls the fixture method in the agent.
+	 *
+	 * @return the result of the method, <code>null</code> if the call failed
+	 */
+	private Object call(String method, Object... arguments) {
+		if (connection == null) {
+			LOGGER.error("not connected to a swing agent, can't call " + method);
+			return null;
+		}
+		try {
+			return connection.call(method, arguments);
+		} catch (AgentException e) {
+			LOGGER.error("remote call of " + method + " failed Error: " + e);
+			return null;
+		}
+	}
+
+	private int callInt(int errorValue, String method, Object... arguments) {
+		Object result = call(method, arguments);
+		if (result instanceof Integer) {
+			return (Integer) result;
+		}
+		return errorValue;
+	}
+
+	private long callLong(long errorValue, String method, Object... arguments) {
+		Object result = call(method, arguments);
+		if (result instanceof Long) {
+			return (Long) result;
+		}
+		return errorValue;
+	}
+
+	/**
+	 * The steps are wrapped by the fixture in the agent.
+	 */
+	@Override
+	public void preInvoke(Method method, Object instance, Object... args) throws InvocationTargetException,
+			IllegalAccessException {
+		// nothing to do in the test JVM
+	}
+
+	/**
+	 * The steps are wrapped by the fixture in the agent.
+	 */
+	@Override
+	public void postInvoke(Method method, Object instance, Object... args) throws InvocationTargetException,
+			IllegalAccessException {
+		// nothing to do in the test JVM
+	}
+
+	@Override
+	public void setElementlist(String elementList) {
+		call("setElementlist", elementList);
+	}
+
+	@Override
+	public void setElementListPreflight(boolean enabled) {
+		call("setElementListPreflight", enabled);
+	}
+
+	@Override
+	public boolean preflightElementList() {
+		return Boolean.TRUE.equals(call("preflightElementList"));
+	}
+
+	@Override
+	public String getElementListPreflightReport() {
+		return (String) call("getElementListPreflightReport");
+	}
+
+	@Override
+	public boolean startApplication(String path) {
+		return Boolean.TRUE.equals(call("startApplication", path));
+	}
+
+	@Override
+	public void setApplicationPooling(boolean enabled) {
+		call("setApplicationPooling", enabled);
+	}
+
+	@Override
+	public String getApplicationPoolStatistics() {
+		return (String) call("getApplicationPoolStatistics");
+	}
+
+	@Override
+	public boolean setRobotMode(String mode) {
+		return Boolean.TRUE.equals(call("setRobotMode", mode));
+	}
+
+	@Override
+	public String getRobotPacingStatistics() {
+		return (String) call("getRobotPacingStatistics");
+	}
+
+	@Override
+	public void startApplicationThread(String path, String[] args2, ClassLoader cl) {
+		call("startApplicationThread", path, args2, null);
+	}
+
+	@Override
+	public void setMainWindowTitle(String title) {
+		call("setMainWindowTitle", title);
+	}
+
+	@Override
+	public void setMainWindowName(String name) {
+		call("setMainWindowName", name);
+	}
+
+	@Override
+	public void setMainWindowClass(String className) {
+		call("setMainWindowClass", className);
+	}
+
+	@Override
+	public void setMainWindowTimeout(int milliSeconds) {
+		call("setMainWindowTimeout", milliSeconds);
+	}
+
+	@Override
+	public long getTimeToFirstInteraction() {
+		return callLong(-1, "getTimeToFirstInteraction");
+	}
+
+	@Override
+	public boolean startIsolatedApplication(String mainClass) {
+		return Boolean.TRUE.equals(call("startIsolatedApplication", mainClass));
+	}
+
+	@Override
+	public void setIsolatedStartTimeout(int milliSeconds) {
+		call("setIsolatedStartTimeout", milliSeconds);
+	}
+
+	@Override
+	public boolean stopApplication() {
+		return Boolean.TRUE.equals(call("stopApplication"));
+	}
+
+	@Override
+	public void setEdtWatchdog(boolean enabled) {
+		call("setEdtWatchdog", enabled);
+	}
+
+	@Override
+	public void setEdtStallThreshold(int milliSeconds) {
+		call("setEdtStallThreshold", milliSeconds);
+	}
+
+	@Override
+	public void setEdtStallLimit(int milliSeconds) {
+		call("setEdtStallLimit", milliSeconds);
+	}
+
+	@Override
+	public String getEdtStallReport() {
+		return (String) call("getEdtStallReport");
+	}
+
+	@Override
+	public void setFullTeardown(boolean enabled) {
+		call("setFullTeardown", enabled);
+	}
+
+	@Override
+	public String getTeardownStatistics() {
+		return (String) call("getTeardownStatistics");
+	}
+
+	@Override
+	public void setStepTimingsDirectory(String directory) {
+		call("setStepTimingsDirectory", directory);
+	}
+
+	@Override
+	public void setFailureDiagnostics(boolean enabled) {
+		call("setFailureDiagnostics", enabled);
+	}
+
+	@Override
+	public void setFailureDiagnosticsDirectory(String directory) {
+		call("setFailureDiagnosticsDirectory", directory);
+	}
+
+	@Override
+	public void setFailureScreenshotFrames(int frames) {
+		call("setFailureScreenshotFrames", frames);
+	}
+
+	@Override
+	public void setFailureScreenshotInterval(int millis) {
+		call("setFailureScreenshotInterval", millis);
+	}
+
+	@Override
+	public void setFailureDiagnosticsMemoryAndDiskLimit(int memoryMegaBytes, int diskMegaBytes) {
+		call("setFailureDiagnosticsMemoryAndDiskLimit", memoryMegaBytes, diskMegaBytes);
+	}
+
+	@Override
+	public String getLastFailureDiagnostics() {
+		return (String) call("getLastFailureDiagnostics");
+	}
+
+	@Override
+	public boolean startActionJournal(String path) {
+		return Boolean.TRUE.equals(call("startActionJournal", path));
+	}
+
+	@Override
+	public boolean stopActionJournal() {
+		return Boolean.TRUE.equals(call("stopActionJournal"));
+	}
+
+	@Override
+	public boolean replayActionJournal(String path) {
+		return Boolean.TRUE.equals(call("replayActionJournal", path));
+	}
+
+	@Override
+	public String getActionJournalReplayReport() {
+		return (String) call("getActionJournalReplayReport");
+	}
+
+	@Override
+	public void setComponentIndexEnabled(boolean enabled) {
+		call("setComponentIndexEnabled", enabled);
+	}
+
+	@Override
+	public String getComponentIndexStatistics() {
+		return (String) call("getComponentIndexStatistics");
+	}
+
+	@Override
+	public boolean insertIntoTextField(String elementListKey, String text) {
+		return Boolean.TRUE.equals(call("insertIntoTextField", elementListKey, text));
+	}
+
+	@Override
+	public boolean insertIntoTextFieldWithModeText(String elementListKey, String mode, String text) {
+		return Boolean.TRUE.equals(call("insertIntoTextFieldWithModeText", elementListKey, mode, text));
+	}
+
+	@Override
+	public boolean setInputDriver(String driver) {
+		return Boolean.TRUE.equals(call("setInputDriver", driver));
+	}
+
+	@Override
+	public boolean setTextEntryMode(String mode) {
+		return Boolean.TRUE.equals(call("setTextEntryMode", mode));
+	}
+
+	@Override
+	public boolean setTextEntryModeForElement(String mode, String elementListKey) {
+		return Boolean.TRUE.equals(call("setTextEntryModeForElement", mode, elementListKey));
+	}
+
+	@Override
+	public String getTextEntryStatistics() {
+		return (String) call("getTextEntryStatistics");
+	}
+
+	@Override
+	public boolean fillForm(Map<String, String> fields) {
+		return Boolean.TRUE.equals(call("fillForm", fields));
+	}
+
+	@Override
+	public String getFillFormResult() {
+		return (String) call("getFillFormResult");
+	}
+
+	@Override
+	public boolean deleteTextField(String elementListKey) {
+		return Boolean.TRUE.equals(call("deleteTextField", elementListKey));
+	}
+
+	@Override
+	public String getTextFromTextField(String elementListKey) {
+		return (String) call("getTextFromTextField", elementListKey);
+	}
+
+	@Override
+	public boolean clickButton(String elementListKey) {
+		return Boolean.TRUE.equals(call("clickButton", elementListKey));
+	}
+
+	@Override
+	public boolean selectComboBoxItemByName(String elementListKey, String item) {
+		return Boolean.TRUE.equals(call("selectComboBoxItemByName", elementListKey, item));
+	}
+
+	@Override
+	public boolean selectComboBoxItemById(String elementListKey, int index) {
+		return Boolean.TRUE.equals(call("selectComboBoxItemById", elementListKey, index));
+	}
+
+	@Override
+	public boolean clearSelectionComboBox(String elementListKey) {
+		return Boolean.TRUE.equals(call("clearSelectionComboBox", elementListKey));
+	}
+
+	@Override
+	public String getSelectedComboBoxItemText(String elementListKey) {
+		return (String) call("getSelectedComboBoxItemText", elementListKey);
+	}
+
+	@Override
+	public int getSelectedComboBoxItemId(String elementListKey) {
+		return callInt(-2, "getSelectedComboBoxItemId", elementListKey);
+	}
+
+	@Override
+	public boolean checkRadioButton(String elementListKey) {
+		return Boolean.TRUE.equals(call("checkRadioButton", elementListKey));
+	}
+
+	@Override
+	public boolean uncheckRadioButton(String elementListKey) {
+		return Boolean.TRUE.equals(call("uncheckRadioButton", elementListKey));
+	}
+
+	@Override
+	public boolean isCheckedRadioButton(String elementListKey) {
+		return Boolean.TRUE.equals(call("isCheckedRadioButton", elementListKey));
+	}
+
+	@Override
+	public boolean checkCheckBox(String elementListKey) {
+		return Boolean.TRUE.equals(call("checkCheckBox", elementListKey));
+	}
+
+	@Override
+	public boolean uncheckCheckBox(String elementListKey) {
+		return Boolean.TRUE.equals(call("uncheckCheckBox", elementListKey));
+	}
+
+	@Override
+	public boolean isCheckedCheckBox(String elementListKey) {
+		return Boolean.TRUE.equals(call("isCheckedCheckBox", elementListKey));
+	}
+
+	@Override
+	public boolean selectTableRowById(String elementListKey, int Id) {
+		return Boolean.TRUE.equals(call("selectTableRowById", elementListKey, Id));
+	}
+
+	@Override
+	public boolean selectTableRowByModelIndex(String elementListKey, int modelRow) {
+		return Boolean.TRUE.equals(call("selectTableRowByModelIndex", elementListKey, modelRow));
+	}
+
+	@Override
+	public boolean selectTableRowByViewIndex(String elementListKey, int viewRow) {
+		return Boolean.TRUE.equals(call("selectTableRowByViewIndex", elementListKey, viewRow));
+	}
+
+	@Override
+	public void setTableRowSelectionClick(boolean click) {
+		call("setTableRowSelectionClick", click);
+	}
+
+	@Override
+	public String getTableRowSelectionStatistics() {
+		return (String) call("getTableRowSelectionStatistics");
+	}
+
+	@Override
+	public boolean checkTableCellValue(String elementListKey, String value, String column) {
+		return Boolean.TRUE.equals(call("checkTableCellValue", elementListKey, value, column));
+	}
+
+	@Override
+	public void setTableSnapshotChunkSize(int rows) {
+		call("setTableSnapshotChunkSize", rows);
+	}
+
+	@Override
+	public boolean captureTableSnapshot(String elementListKey) {
+		return Boolean.TRUE.equals(call("captureTableSnapshot", elementListKey));
+	}
+
+	@Override
+	public boolean captureTableSnapshotOfRowsTo(String elementListKey, int firstRow, int lastRow) {
+		return Boolean.TRUE.equals(call("captureTableSnapshotOfRowsTo", elementListKey, firstRow, lastRow));
+	}
+
+	@Override
+	public boolean checkSnapshotCellValue(int row, String column, String value) {
+		return Boolean.TRUE.equals(call("checkSnapshotCellValue", row, column, value));
+	}
+
+	@Override
+	public boolean checkSnapshotColumnContains(String column, String value) {
+		return Boolean.TRUE.equals(call("checkSnapshotColumnContains", column, value));
+	}
+
+	@Override
+	public boolean checkSnapshotRowEquals(int row, String values) {
+		return Boolean.TRUE.equals(call("checkSnapshotRowEquals", row, values));
+	}
+
+	@Override
+	public boolean checkSnapshotEquals(String expected) {
+		return Boolean.TRUE.equals(call("checkSnapshotEquals", expected));
+	}
+
+	@Override
+	public String getSnapshotDiff() {
+		return (String) call("getSnapshotDiff");
+	}
+
+	@Override
+	public boolean doubleClickTableRowById(String elementListKey, int Id) {
+		return Boolean.TRUE.equals(call("doubleClickTableRowById", elementListKey, Id));
+	}
+
+	@Override
+	public boolean selectTableRowByValue(String elementListKey, String column, String value) {
+		return Boolean.TRUE.equals(call("selectTableRowByValue", elementListKey, column, value));
+	}
+
+	@Override
+	public boolean doubleClickTableRowByValue(String elementListKey, String column, String value) {
+		return Boolean.TRUE.equals(call("doubleClickTableRowByValue", elementListKey, column, value));
+	}
+
+	@Override
+	public int getSelectedTableRowIndex(String elementListKey) {
+		return callInt(-2, "getSelectedTableRowIndex", elementListKey);
+	}
+
+	@Override
+	public boolean selectTreePath(String elementListKey, String path) {
+		return Boolean.TRUE.equals(call("selectTreePath", elementListKey, path));
+	}
+
+	@Override
+	public boolean expandTreePath(String elementListKey, String path) {
+		return Boolean.TRUE.equals(call("expandTreePath", elementListKey, path));
+	}
+
+	@Override
+	public String getTreeNodeText(String elementListKey) {
+		return (String) call("getTreeNodeText", elementListKey);
+	}
+
+	@Override
+	public void setTreeLoadTimeout(int milliSeconds) {
+		call("setTreeLoadTimeout", milliSeconds);
+	}
+
+	@Override
+	public boolean doubleClickComponent(String elementListKey) {
+		return Boolean.TRUE.equals(call("doubleClickComponent", elementListKey));
+	}
+
+	@Override
+	public boolean waitMilliSeconds(int milliSeconds) {
+		return Boolean.TRUE.equals(call("waitMilliSeconds", milliSeconds));
+	}
+
+	@Override
+	public void setStepTimeBudget(int milliSeconds) {
+		call("setStepTimeBudget", milliSeconds);
+	}
+
+	@Override
+	public void setPageTimeBudget(int milliSeconds) {
+		call("setPageTimeBudget", milliSeconds);
+	}
+
+	@Override
+	public void setFailedLookupMemory(int milliSeconds) {
+		call("setFailedLookupMemory", milliSeconds);
+	}
+
+	@Override
+	public String getTimeBudgetStatistics() {
+		return (String) call("getTimeBudgetStatistics");
+	}
+
+	@Override
+	public boolean waitUntilEnabled(String elementListKey, int timeoutMilliSeconds) {
+		return Boolean.TRUE.equals(call("waitUntilEnabled", elementListKey, timeoutMilliSeconds));
+	}
+
+	@Override
+	public boolean waitUntilTextEquals(String elementListKey, String text, int timeoutMilliSeconds) {
+		return Boolean.TRUE.equals(call("waitUntilTextEquals", elementListKey, text, timeoutMilliSeconds));
+	}
+
+	@Override
+	public boolean waitUntilTableRowCountAtLeast(String elementListKey, int rowCount, int timeoutMilliSeconds) {
+		return Boolean.TRUE.equals(call("waitUntilTableRowCountAtLeast", elementListKey, rowCount, timeoutMilliSeconds));
+	}
+
+	@Override
+	public boolean waitUntilVisible(String elementListKey, int timeoutMilliSeconds) {
+		return Boolean.TRUE.equals(call("waitUntilVisible", elementListKey, timeoutMilliSeconds));
+	}
+
+	@Override
+	public boolean isElementEnabled(String elementListKey) {
+		return Boolean.TRUE.equals(call("isElementEnabled", elementListKey));
+	}
+
+	@Override
+	public boolean checkIfTextEquals(String elementListKey, String text) {
+		return Boolean.TRUE.equals(call("checkIfTextEquals", elementListKey, text));
+	}
+
+	@Override
+	public boolean checkIfTextNotEquals(String elementListKey, String text) {
+		return Boolean.TRUE.equals(call("checkIfTextNotEquals", elementListKey, text));
+	}
+
+	@Override
+	public boolean checkIfSelectedItemIs(String elementListKey, String text) {
+		return Boolean.TRUE.equals(call("checkIfSelectedItemIs", elementListKey, text));
+	}
+
+	@Override
+	public boolean checkIfSelectedItemIsNot(String elementListKey, String text) {
+		return Boolean.TRUE.equals(call("checkIfSelectedItemIsNot", elementListKey, text));
+	}
+}
@@ -0,0 +1,136 @@
+/*******************************************************************************
+ * Copyright (c) 2012 - 2015 Signal Iduna Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Signal Iduna Corporation - initial API and implementation
+ * akquinet AG
+ *******************************************************************************/
+package org.testeditor.fixture.swing.agent;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+
+import org.apache.log4j.Logger;
+
+/**
+ * Agent which runs the AUT in a JVM of its own. The agent is the main class
+ * of that JVM: it listens on a local port and hosts a
+ * {@link org.testeditor.fixture.swing.SwingFixture} for the client, which
+ * starts the AUT through the usual fixture methods. The classpath of the
+ * agent JVM contains the AUT, the fixture jar and its dependencies. <br />
+ *
+ * Usage: <code>java -cp aut.jar:swing-fixture.jar:libs/*
+ * org.testeditor.fixture.swing.agent.SwingAgent &lt;port&gt; [&lt;port file&gt;]</code>
+ * <br />
+ *
+ * With port 0 the agent chooses a free port; the port is written to the port
+ * file, if given. The agent serves one client and exits when the client
+ * disconnects, so the AUT never outlives the test run.
+ *
+ */
+public final class SwingAgent {
+
+	private static final Logger LOGGER = Logger.getLogger(SwingAgent.class);
+
+	private final ServerSocket serverSocket;
+
+	private SwingAgent(ServerSocket serverSocket) {
+		this.serverSocket = serverSocket;
+	}
+
+	/**
+	 * Opens the server socket of the agent on the loopback interface.
+	 *
+	 * @param port
+	 *            the port, 0 for a free port
+	 * @return the agent
+	 * @throws IOException
+	 *             if the port can't be opened
+	 */
+	public static SwingAgent open(int port) throws IOException {
+		return new SwingAgent(new ServerSocket(port, 1, InetAddress.getByName(null)));
+	}
+
+	/**
+	 * @return the port the agent listens on
+	 */
+	public int getPort() {
+		return serverSocket.getLocalPort();
+	}
+
+	/**
+	 * Waits for a client and serves it until it disconnects.
+	 *
+	 * @throws IOException
+	 *             if accepting the client fails
+	 */
+	public void serveOneClient() throws IOException {
+		Socket socket = serverSocket.accept();
+		LOGGER.info("client connected from " + socket.getRemoteSocketAddress());
+		new AgentSession(socket).run();
+	}
+
+	/**
+	 * Closes the server socket.
+	 */
+	public void close() {
+		try {
+			serverSocket.close();
+		} catch (IOException e) {
+			LOGGER.warn("could not close the agent socket Error: " + e);
+		}
+	}
+
+	/**
+	 * Starts the agent.
+	 *
+	 * @param args
+	 *            port and optional port file
+	 * @throws IOException
+	 *             if the agent can't be started
+	 */
+	public static void main(String[] args) throws IOException {
+		int port = 0;
+		if (args.length > 0) {
+			port = Integer.parseInt(args[0]);
+		}
+		SwingAgent agent = open(port);
+		if (args.length > 1) {
+			writePortFile(new File(args[1]), agent.getPort());
+		}
+		LOGGER.info("swing agent listening on port " + agent.getPort());
+		try {
+			agent.serveOneClient();
+		} finally {
+			agent.close();
+		}
+		System.exit(0);
+	}
+
+	/**
+	 * Writes the port to a temporary file first and renames it, so a
+	 * launcher polling for the file never reads a partial port.
+	 */
+	private static void writePortFile(File portFile, int port) throws IOException {
+		File temporary = new File(portFile.getPath() + ".tmp");
+		Writer writer = new OutputStreamWriter(new FileOutputStream(temporary), "UTF-8");
+		try {
+			writer.write(String.valueOf(port));
+		} finally {
+			writer.close();
+		}
+		if (!temporary.renameTo(portFile)) {
+			throw new IOException("could not create the port file " + portFile);
+		}
+	}
+}
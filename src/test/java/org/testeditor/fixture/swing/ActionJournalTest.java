@@ -0,0 +1,97 @@
+/*******************************************************************************
+ * Copyright (c) 2012 - 2015 Signal Iduna Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Signal Iduna Corporation - initial API and implementation
+ * akquinet AG
+ *******************************************************************************/
+package org.testeditor.fixture.swing;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+public class ActionJournalTest {
+
+	@Test
+	public void stepsAreReadAsRecorded() throws Exception {
+		File file = File.createTempFile("journal", ".bin");
+		file.deleteOnExit();
+		Map<String, String> fields = new LinkedHashMap<String, String>();
+		fields.put("Name", "Mustermann");
+		ActionJournal journal = ActionJournal.create(file);
+		journal.append(SwingFixture.class.getMethod("insertIntoTextField", String.class, String.class),
+				new Object[] { "Name", "Mustermann" }, "name", null, true, 1000);
+		journal.append(SwingFixture.class.getMethod("selectComboBoxItemById", String.class, int.class), new Object[] {
+				"Jahr", 3 }, "jahr", "could not select the item", false, 2000);
+		journal.append(SwingFixture.class.getMethod("fillForm", Map.class), new Object[] { fields }, null, null, true, 3000);
+		journal.append(SwingFixture.class.getMethod("getTextFromTextField", String.class), new Object[] { "Name" },
+				"name", null, null, 4000);
+		journal.close();
+
+		List<ActionJournal.Entry> entries = ActionJournal.read(file);
+		assertEquals(4, entries.size());
+		assertEquals("insertIntoTextField", entries.get(0).getMethod().getName());
+		assertArrayEquals(new Object[] { "Name", "Mustermann" }, entries.get(0).getArguments());
+		assertEquals("name", entries.get(0).getLocator());
+		assertNull(entries.get(0).getError());
+		assertEquals(3, entries.get(1).getArguments()[1]);
+		assertEquals("could not select the item", entries.get(1).getError());
+		assertEquals(fields, entries.get(2).getArguments()[0]);
+		assertEquals(3000, entries.get(2).getNanos());
+		assertEquals(Boolean.TRUE, entries.get(0).getResult());
+		assertEquals(Boolean.FALSE, entries.get(1).getResult());
+		assertNull(entries.get(3).getResult());
+		assertEquals(String.class, entries.get(3).getMethod().getReturnType());
+	}
+
+	@Test
+	public void replayDetectsChangedCheckResult() throws Exception {
+		Method check = SwingFixture.class.getMethod("checkIfTextEquals", String.class, String.class);
+		File same = File.createTempFile("journal", ".bin");
+		same.deleteOnExit();
+		ActionJournal journal = ActionJournal.create(same);
+		journal.append(check, new Object[] { "Text", "recorded" }, "standInText", null, false, 1000);
+		journal.close();
+		File changed = File.createTempFile("journal", ".bin");
+		changed.deleteOnExit();
+		journal = ActionJournal.create(changed);
+		journal.append(check, new Object[] { "Text", "recorded" }, "standInText", null, true, 1000);
+		journal.close();
+
+		SwingFixture fixture = new SwingFixture();
+		fixture.setElementlist("./src/test/resources/standInElementList.txt");
+		assertTrue(fixture.startApplication("org.testeditor.fixture.swing.StandInApplication"));
+		try {
+			assertTrue(fixture.replayActionJournal(same.getPath()));
+			assertFalse(fixture.replayActionJournal(changed.getPath()));
+			assertTrue(fixture.getActionJournalReplayReport(),
+					fixture.getActionJournalReplayReport().contains("recorded result: true, replayed result: false"));
+		} finally {
+			fixture.stopApplication();
+		}
+	}
+
+	@Test(expected = IOException.class)
+	public void otherFilesAreRejected() throws Exception {
+		File file = File.createTempFile("journal", ".txt");
+		file.deleteOnExit();
+		ActionJournal.read(file);
+	}
+
+}
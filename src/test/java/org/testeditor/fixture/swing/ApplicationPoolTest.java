@@ -0,0 +1,149 @@
+/*******************************************************************************
+ * Copyright (c) 2012 - 2015 Signal Iduna Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Signal Iduna Corporation - initial API and implementation
+ * akquinet AG
+ *******************************************************************************/
+package org.testeditor.fixture.swing;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.EventQueue;
+import java.awt.GridLayout;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.swing.JFrame;
+import javax.swing.JList;
+import javax.swing.JTable;
+import javax.swing.JTextField;
+import javax.swing.table.DefaultTableModel;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ApplicationPoolTest {
+
+	private JFrame frame;
+	private JTextField text;
+	private JList list;
+	private JTable table;
+	private DefaultTableModel rows;
+
+	@Before
+	public void setUp() throws Exception {
+		EventQueue.invokeAndWait(new Runnable() {
+			@Override
+			public void run() {
+				frame = new JFrame("pooled");
+				frame.setLayout(new GridLayout(3, 1));
+				text = new JTextField("initial", 20);
+				list = new JList(new Object[] { "a", "b", "c" });
+				list.setSelectedIndex(1);
+				rows = new DefaultTableModel(new Object[][] { { "Max" }, { "Erika" } }, new Object[] { "Name" });
+				table = new JTable(rows);
+				table.setRowSelectionInterval(0, 0);
+				frame.add(text);
+				frame.add(list);
+				frame.add(table);
+				frame.pack();
+				frame.setVisible(true);
+			}
+		});
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		EventQueue.invokeAndWait(new Runnable() {
+			@Override
+			public void run() {
+				frame.dispose();
+			}
+		});
+	}
+
+	@Test
+	public void resetRestoresTextAndSelections() throws Exception {
+		final ComponentStateBaseline[] baseline = new ComponentStateBaseline[1];
+		EventQueue.invokeAndWait(new Runnable() {
+			@Override
+			public void run() {
+				baseline[0] = ComponentStateBaseline.capture(frame);
+				text.setText("changed");
+				list.setSelectedIndex(2);
+				table.setRowSelectionInterval(1, 1);
+				assertEquals(3, baseline[0].differences().size());
+
+				baseline[0].restore();
+
+				assertTrue(baseline[0].differences().isEmpty());
+				assertEquals("initial", text.getText());
+				assertArrayEquals(new int[] { 1 }, list.getSelectedIndices());
+				assertArrayEquals(new int[] { 0 }, table.getSelectedRows());
+			}
+		});
+	}
+
+	@Test
+	public void addedTableRowsCanNotBeReset() throws Exception {
+		final ComponentStateBaseline[] baseline = new ComponentStateBaseline[1];
+		EventQueue.invokeAndWait(new Runnable() {
+			@Override
+			public void run() {
+				baseline[0] = ComponentStateBaseline.capture(frame);
+				rows.addRow(new Object[] { "Otto" });
+
+				baseline[0].restore();
+
+				assertFalse(baseline[0].differences().isEmpty());
+			}
+		});
+	}
+
+	@Test
+	public void resetApplicationIsReusedAndChangedRowsLaunchAgain() throws Exception {
+		String path = "pooled-" + System.nanoTime();
+		String before = ApplicationPool.getStatistics();
+		ApplicationPool.PooledApplication application = ApplicationPool.launched(Thread.currentThread(), frame);
+		ApplicationPool.giveBack(path, application);
+		EventQueue.invokeAndWait(new Runnable() {
+			@Override
+			public void run() {
+				text.setText("changed");
+			}
+		});
+
+		assertSame(application, ApplicationPool.take(path));
+		ApplicationPool.giveBack(path, application);
+		EventQueue.invokeAndWait(new Runnable() {
+			@Override
+			public void run() {
+				rows.addRow(new Object[] { "Otto" });
+			}
+		});
+		assertNull(ApplicationPool.take(path));
+
+		String after = ApplicationPool.getStatistics();
+		assertEquals(count(before, "launches") + 1, count(after, "launches"));
+		assertEquals(count(before, "reuses") + 1, count(after, "reuses"));
+		assertEquals(count(before, "failed resets") + 1, count(after, "failed resets"));
+		assertFalse(frame.isDisplayable());
+	}
+
+	private static int count(String statistics, String label) {
+		Matcher matcher = Pattern.compile(label + ": (\\d+)").matcher(statistics);
+		assertTrue(statistics, matcher.find());
+		return Integer.parseInt(matcher.group(1));
+	}
+}
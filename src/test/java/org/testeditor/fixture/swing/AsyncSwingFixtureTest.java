@@ -0,0 +1,98 @@
+/*******************************************************************************
+ * Copyright (c) 2012 - 2015 Signal Iduna Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Signal Iduna Corporation - initial API and implementation
+ * akquinet AG
+ *******************************************************************************/
+package org.testeditor.fixture.swing;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class AsyncSwingFixtureTest {
+
+	private SwingFixture fixture;
+	private AsyncSwingFixture async;
+
+	@Before
+	public void setUp() {
+		fixture = new SwingFixture();
+		fixture.setElementlist("./src/test/resources/standInElementList.txt");
+		assertTrue(fixture.startApplication("org.testeditor.fixture.swing.StandInApplication"));
+		async = new AsyncSwingFixture(fixture, 4);
+	}
+
+	@After
+	public void tearDown() {
+		async.shutdown();
+		fixture.stopApplication();
+	}
+
+	@Test
+	public void waitsAndReadsOverlap() throws Exception {
+		CompletableFuture<Boolean> copied = async.waitUntilTextEquals("Instances", "async", 10000);
+		CompletableFuture<Boolean> enabled = async.readEnabled("Copy");
+		CompletableFuture<String> before = async.readText("Text");
+		assertTrue(enabled.get());
+		assertEquals("", before.get());
+		assertFalse(copied.isDone());
+
+		fixture.setTextEntryMode("document");
+		assertTrue(fixture.insertIntoTextField("Text", "async"));
+		assertTrue(fixture.clickButton("Copy"));
+		assertTrue(async.withTimeout(copied, 10000).get());
+		assertEquals("async", async.readText("Instances").get());
+	}
+
+	@Test
+	public void missingComponentsAreReported() throws Exception {
+		assertNull(async.lookup("Missing").get());
+		try {
+			async.readText("Missing").get();
+			fail("read of a missing component must fail");
+		} catch (ExecutionException e) {
+			assertTrue(e.getCause() instanceof IllegalArgumentException);
+		}
+	}
+
+	@Test
+	public void timeoutsCompose() throws Exception {
+		CompletableFuture<Boolean> never = async.waitUntilTextEquals("Instances", "never", 10000);
+		try {
+			async.withTimeout(never, 100).get();
+			fail("the timeout must elapse first");
+		} catch (ExecutionException e) {
+			assertTrue(e.getCause() instanceof TimeoutException);
+		}
+	}
+
+	@Test
+	public void shutdownCompletesPendingFutures() throws Exception {
+		CompletableFuture<Boolean> never = async.waitUntilTextEquals("Instances", "never", 10000);
+		async.shutdown();
+		try {
+			never.get(1, TimeUnit.SECONDS);
+			fail("the pending wait must be completed by the shutdown");
+		} catch (ExecutionException e) {
+			assertTrue(e.getCause() instanceof IllegalStateException);
+		}
+	}
+
+}
@@ -0,0 +1,89 @@
+/*******************************************************************************
+ * Copyright (c) 2012 - 2015 Signal Iduna Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Signal Iduna Corporation - initial API and implementation
+ * akquinet AG
+ *******************************************************************************/
+package org.testeditor.fixture.swing;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.EventQueue;
+
+import javax.swing.DefaultComboBoxModel;
+import javax.swing.JComboBox;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ComboBoxIndexTest {
+
+	private JComboBox comboBox;
+	private ComboBoxIndex index;
+
+	@Before
+	public void setUp() throws Exception {
+		EventQueue.invokeAndWait(new Runnable() {
+			@Override
+			public void run() {
+				comboBox = new JComboBox(new Object[] { "1977", "1978", "1978", 1979 });
+			}
+		});
+		index = ComboBoxIndex.create(comboBox);
+	}
+
+	@After
+	public void tearDown() {
+		index.dispose();
+	}
+
+	@Test
+	public void itemsAreFoundByTheirText() {
+		assertEquals(0, index.indexOf("1977"));
+		assertEquals(1, index.indexOf("1978"));
+		assertEquals(3, index.indexOf("1979"));
+		assertEquals(-1, index.indexOf("19.*"));
+	}
+
+	@Test
+	public void changedItemsDropTheIndex() throws Exception {
+		assertEquals(-1, index.indexOf("1980"));
+		EventQueue.invokeAndWait(new Runnable() {
+			@Override
+			public void run() {
+				comboBox.setSelectedIndex(2);
+				comboBox.insertItemAt("1980", 0);
+			}
+		});
+		assertEquals(0, index.indexOf("1980"));
+		assertEquals(1, index.indexOf("1977"));
+
+		EventQueue.invokeAndWait(new Runnable() {
+			@Override
+			public void run() {
+				comboBox.removeItem("1977");
+			}
+		});
+		assertEquals(-1, index.indexOf("1977"));
+	}
+
+	@Test
+	public void newModelIsNotIndexed() throws Exception {
+		assertTrue(index.isIndexOf(comboBox));
+		EventQueue.invokeAndWait(new Runnable() {
+			@Override
+			public void run() {
+				comboBox.setModel(new DefaultComboBoxModel(new Object[] { "2000" }));
+			}
+		});
+		assertFalse(index.isIndexOf(comboBox));
+	}
+}
@@ -0,0 +1,147 @@
+/*******************************************************************************
+ * Copyright (c) 2012 - 2015 Signal Iduna Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Signal Iduna Corporation - initial API and implementation
+ * akquinet AG
+ *******************************************************************************/
+package org.testeditor.fixture.swing;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.EventQueue;
+
+import javax.swing.JButton;
+import javax.swing.JFrame;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ComponentIndexTest {
+
+	private JFrame frame;
+	private JPanel panel;
+	private JButton button;
+	private ComponentIndex index;
+
+	@Before
+	public void setUp() throws Exception {
+		EventQueue.invokeAndWait(new Runnable() {
+			@Override
+			public void run() {
+				frame = new JFrame("index");
+				panel = new JPanel();
+				button = new JButton("ok");
+				button.setName("ok");
+				JLabel label = new JLabel("label");
+				label.setName("label");
+				panel.add(button);
+				panel.add(label);
+				frame.add(panel);
+				frame.pack();
+				frame.setVisible(true);
+			}
+		});
+		index = new ComponentIndex(frame);
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		index.dispose();
+		EventQueue.invokeAndWait(new Runnable() {
+			@Override
+			public void run() {
+				frame.dispose();
+			}
+		});
+	}
+
+	@Test
+	public void lookupsAreCountedAsHitsAndMisses() {
+		assertSame(button, index.lookup("ok", JButton.class));
+		assertNull(index.lookup("unknown", JButton.class));
+		assertNull(index.lookup("label", JButton.class));
+		assertEquals(1, index.getHits());
+		assertEquals(2, index.getMisses());
+	}
+
+	@Test
+	public void renamedComponentIsFoundByItsNewName() throws Exception {
+		EventQueue.invokeAndWait(new Runnable() {
+			@Override
+			public void run() {
+				button.setName("renamed");
+			}
+		});
+		assertNull(index.lookup("ok", JButton.class));
+		assertSame(button, index.lookup("renamed", JButton.class));
+	}
+
+	@Test
+	public void addedAndRemovedComponentsAreTracked() throws Exception {
+		final JButton added = new JButton("added");
+		added.setName("added");
+		EventQueue.invokeAndWait(new Runnable() {
+			@Override
+			public void run() {
+				panel.add(added);
+				panel.remove(button);
+				frame.validate();
+			}
+		});
+		assertSame(added, index.lookup("added", JButton.class));
+		assertNull(index.lookup("ok", JButton.class));
+	}
+
+	@Test
+	public void ambiguousNamesAreLeftToTheFallback() throws Exception {
+		final JButton twin = new JButton("twin");
+		twin.setName("ok");
+		EventQueue.invokeAndWait(new Runnable() {
+			@Override
+			public void run() {
+				panel.add(twin);
+				frame.validate();
+			}
+		});
+		assertNull(index.lookup("ok", JButton.class));
+		assertEquals(1, index.getMisses());
+
+		EventQueue.invokeAndWait(new Runnable() {
+			@Override
+			public void run() {
+				twin.setVisible(false);
+			}
+		});
+		assertSame(button, index.lookup("ok", JButton.class));
+	}
+
+	@Test
+	public void disabledIndexFallsBackToTheHierarchy() {
+		SwingFixture fixture = new SwingFixture();
+		fixture.setElementlist("./src/test/resources/standInElementList.txt");
+		assertTrue(fixture.startApplication("org.testeditor.fixture.swing.StandInApplication"));
+		try {
+			assertNotNull(fixture.findComponent("Text"));
+			assertFalse(fixture.getComponentIndexStatistics().startsWith("hits: 0,"));
+
+			fixture.setComponentIndexEnabled(false);
+			assertNotNull(fixture.findComponent("Text"));
+			assertEquals("hits: 0, misses: 0", fixture.getComponentIndexStatistics());
+		} finally {
+			fixture.stopApplication();
+		}
+	}
+}
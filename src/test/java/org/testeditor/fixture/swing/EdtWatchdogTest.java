@@ -0,0 +1,94 @@
+/*******************************************************************************
+ * Copyright (c) 2012 - 2015 Signal Iduna Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Signal Iduna Corporation - initial API and implementation
+ * akquinet AG
+ *******************************************************************************/
+package org.testeditor.fixture.swing;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.EventQueue;
+import java.util.Arrays;
+
+import org.fest.swing.edt.GuiActionRunner;
+import org.fest.swing.edt.GuiTask;
+import org.junit.After;
+import org.junit.Test;
+
+public class EdtWatchdogTest {
+
+	private final EdtWatchdog watchdog = EdtWatchdog.start(50);
+
+	@After
+	public void tearDown() {
+		watchdog.stop();
+	}
+
+	@Test
+	public void stallIsLinkedToTheRunningStep() throws Exception {
+		Thread.sleep(2 * EdtWatchdog.PROBE_INTERVAL);
+		watchdog.beginStep("clickButton");
+		EventQueue.invokeAndWait(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					Thread.sleep(300);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		});
+		Thread.sleep(EdtWatchdog.PROBE_INTERVAL);
+		assertTrue(watchdog.endStep() >= 200);
+		String report = watchdog.describe();
+		assertTrue(report, report.contains("during step clickButton"));
+		assertTrue(report, report.contains("EdtWatchdogTest"));
+	}
+
+	@Test
+	public void idleEdtHasNoStalls() throws Exception {
+		watchdog.beginStep("getTextFromTextField");
+		Thread.sleep(3 * EdtWatchdog.PROBE_INTERVAL);
+		assertEquals(0, watchdog.endStep());
+	}
+
+	@Test
+	public void fixtureTaskIsNotAStallOfTheStep() throws Exception {
+		Thread.sleep(2 * EdtWatchdog.PROBE_INTERVAL);
+		watchdog.beginStep("getTableRowSelectionStatistics");
+		GuiActionRunner.execute(new GuiTask() {
+			@Override
+			protected void executeInEDT() {
+				try {
+					Thread.sleep(300);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		});
+		Thread.sleep(EdtWatchdog.PROBE_INTERVAL);
+		assertEquals(0, watchdog.endStep());
+		String report = watchdog.describe();
+		assertTrue(report, report.contains("fixture tasks over 50 ms: 1"));
+	}
+
+	@Test
+	public void applicationCodeOnTopOfAFixtureTaskIsAStall() {
+		StackTraceElement[] stack = new StackTraceElement[] {
+				new StackTraceElement("java.lang.Thread", "sleep", null, -1),
+				new StackTraceElement("de.akquinet.birthday.controller.EmployeeController", "save", null, 10),
+				new StackTraceElement("javax.swing.AbstractButton", "doClick", null, -1),
+				new StackTraceElement("org.testeditor.fixture.swing.SwingFixture$1", "executeInEDT", null, 1),
+				new StackTraceElement("org.fest.swing.edt.GuiTask", "run", null, -1) };
+		assertFalse(EdtWatchdog.isFixtureTask(stack));
+		assertTrue(EdtWatchdog.isFixtureTask(Arrays.copyOfRange(stack, 2, stack.length)));
+	}
+}
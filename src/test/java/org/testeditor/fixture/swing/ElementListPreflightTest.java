@@ -0,0 +1,32 @@
+/*******************************************************************************
+ * Copyright (c) 2012 - 2015 Signal Iduna Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Signal Iduna Corporation - initial API and implementation
+ * akquinet AG
+ *******************************************************************************/
+package org.testeditor.fixture.swing;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.junit.Test;
+
+public class ElementListPreflightTest {
+
+	@Test
+	public void readKeysSkipsCommentsAndEmptyLines() throws IOException {
+		List<String> keys = ElementListPreflight.readKeys("./src/test/resources/elementListContent.txt");
+		assertEquals(13, keys.size());
+		assertEquals("Name", keys.get(0));
+		assertEquals("GeschlechtVerbergen", keys.get(7));
+		assertEquals("AlleAngestellten", keys.get(12));
+	}
+
+}
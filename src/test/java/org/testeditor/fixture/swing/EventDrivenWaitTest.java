@@ -0,0 +1,151 @@
+/*******************************************************************************
+ * Copyright (c) 2012 - 2015 Signal Iduna Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Signal Iduna Corporation - initial API and implementation
+ * akquinet AG
+ *******************************************************************************/
+package org.testeditor.fixture.swing;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.EventQueue;
+import java.awt.GridLayout;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+
+import javax.swing.JButton;
+import javax.swing.JFrame;
+import javax.swing.JLabel;
+import javax.swing.JTable;
+import javax.swing.JTextField;
+import javax.swing.RowFilter;
+import javax.swing.Timer;
+import javax.swing.table.DefaultTableModel;
+import javax.swing.table.TableRowSorter;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class EventDrivenWaitTest {
+
+	private static final long TIMEOUT = 5000;
+	private JFrame frame;
+	private JButton button;
+	private JTextField text;
+	private DefaultTableModel rows;
+	private JTable table;
+	private TableRowSorter<DefaultTableModel> sorter;
+
+	@Before
+	public void setUp() throws Exception {
+		EventQueue.invokeAndWait(new Runnable() {
+			@Override
+			public void run() {
+				frame = new JFrame("waits");
+				frame.setLayout(new GridLayout(0, 1));
+				button = new JButton("Ok");
+				button.setEnabled(false);
+				text = new JTextField(20);
+				rows = new DefaultTableModel(new Object[][] { { "Max" }, { "Erika" } }, new Object[] { "Name" });
+				table = new JTable(rows);
+				sorter = new TableRowSorter<DefaultTableModel>(rows);
+				sorter.setRowFilter(RowFilter.regexFilter("Max"));
+				table.setRowSorter(sorter);
+				frame.add(button);
+				frame.add(text);
+				frame.add(table);
+				frame.pack();
+				frame.setVisible(true);
+			}
+		});
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		EventQueue.invokeAndWait(new Runnable() {
+			@Override
+			public void run() {
+				frame.dispose();
+			}
+		});
+	}
+
+	@Test
+	public void waitsForEnabled() throws Exception {
+		later(new Runnable() {
+			@Override
+			public void run() {
+				button.setEnabled(true);
+			}
+		});
+		assertTrue(EventDrivenWait.waitFor(EventDrivenWait.enabled(button), TIMEOUT));
+	}
+
+	@Test
+	public void waitsForText() throws Exception {
+		later(new Runnable() {
+			@Override
+			public void run() {
+				text.setText("done");
+			}
+		});
+		assertTrue(EventDrivenWait.waitFor(EventDrivenWait.textEquals(text, "done"), TIMEOUT));
+	}
+
+	@Test
+	public void waitsForRowsShownByTheFilter() throws Exception {
+		assertFalse(EventDrivenWait.waitFor(EventDrivenWait.tableRowCountAtLeast(table, 2), 100));
+		later(new Runnable() {
+			@Override
+			public void run() {
+				sorter.setRowFilter(null);
+			}
+		});
+		assertTrue(EventDrivenWait.waitFor(EventDrivenWait.tableRowCountAtLeast(table, 2), TIMEOUT));
+	}
+
+	@Test
+	public void waitsForAddedRowsPassingTheFilter() throws Exception {
+		later(new Runnable() {
+			@Override
+			public void run() {
+				rows.addRow(new Object[] { "Erika" });
+				rows.addRow(new Object[] { "Max" });
+			}
+		});
+		assertTrue(EventDrivenWait.waitFor(EventDrivenWait.tableRowCountAtLeast(table, 2), TIMEOUT));
+	}
+
+	@Test
+	public void waitsForVisibleComponent() throws Exception {
+		later(new Runnable() {
+			@Override
+			public void run() {
+				JLabel label = new JLabel("added");
+				label.setName("added");
+				frame.add(label);
+				frame.validate();
+			}
+		});
+		assertTrue(EventDrivenWait.waitFor(EventDrivenWait.visible("added", new ApplicationWindows(frame, null)),
+				TIMEOUT));
+	}
+
+	private static void later(final Runnable change) {
+		Timer timer = new Timer(100, new ActionListener() {
+			@Override
+			public void actionPerformed(ActionEvent e) {
+				change.run();
+			}
+		});
+		timer.setRepeats(false);
+		timer.start();
+	}
+}
@@ -0,0 +1,167 @@
+/*******************************************************************************
+ * Copyright (c) 2012 - 2015 Signal Iduna Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Signal Iduna Corporation - initial API and implementation
+ * akquinet AG
+ *******************************************************************************/
+package org.testeditor.fixture.swing;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.EventQueue;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import javax.swing.JButton;
+import javax.swing.JFrame;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class FailureDiagnosticsTest {
+
+	private final FailureDiagnostics diagnostics = new FailureDiagnostics();
+	private File directory;
+	private JFrame frame;
+
+	@Before
+	public void setUp() throws Exception {
+		directory = Files.createTempDirectory("failures").toFile();
+		diagnostics.setDirectory(directory);
+		EventQueue.invokeAndWait(new Runnable() {
+			@Override
+			public void run() {
+				frame = new JFrame("diagnostics");
+				JButton button = new JButton("Ok");
+				button.setName("ok");
+				frame.add(button);
+				frame.setSize(200, 100);
+				frame.setVisible(true);
+			}
+		});
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		EventQueue.invokeAndWait(new Runnable() {
+			@Override
+			public void run() {
+				frame.dispose();
+			}
+		});
+		for (File file : directory.listFiles()) {
+			file.delete();
+		}
+		directory.delete();
+	}
+
+	@Test
+	public void falseAnswerOfACheckCapturesNothing() throws Exception {
+		SwingFixture fixture = new SwingFixture();
+		fixture.setElementlist("./src/test/resources/standInElementList.txt");
+		fixture.setFailureDiagnosticsDirectory(directory.getPath());
+		assertTrue(fixture.startApplication("org.testeditor.fixture.swing.StandInApplication"));
+		try {
+			Method check = SwingFixture.class.getMethod("checkIfTextNotEquals", String.class, String.class);
+			fixture.preInvoke(check, fixture, "Text", "");
+			assertFalse(fixture.checkIfTextNotEquals("Text", ""));
+			fixture.postInvoke(check, fixture, "Text", "");
+			FailureDiagnostics.flush(5000);
+
+			assertNull(fixture.getLastFailureDiagnostics());
+			assertEquals(0, directory.listFiles().length);
+		} finally {
+			fixture.stopApplication();
+		}
+	}
+
+	@Test
+	public void captureWritesHierarchyAndScreenshot() throws Exception {
+		String baseName = diagnostics.capture("clickButton", "button not found", frame);
+		FailureDiagnostics.flush(5000);
+
+		assertNotNull(baseName);
+		String hierarchy = new String(Files.readAllBytes(new File(directory, baseName + "-hierarchy.txt").toPath()),
+				StandardCharsets.UTF_8);
+		assertTrue(hierarchy, hierarchy.startsWith("clickButton: button not found"));
+		assertTrue(hierarchy, hierarchy.contains("JButton name=ok text=\"Ok\""));
+		assertTrue(new File(directory, baseName + "-frame-0.png").isFile());
+		assertFalse(new File(directory, baseName + "-frame-1.png").exists());
+	}
+
+	@Test
+	public void framesAreOptIn() {
+		diagnostics.setFrameInterval(0);
+		diagnostics.recordFrame(frame);
+		assertEquals(0, diagnostics.frameCount());
+	}
+
+	@Test
+	public void framesAreCappedByCountAndMemory() throws Exception {
+		diagnostics.setFrameInterval(0);
+		diagnostics.setMaxFrames(2);
+		for (int i = 0; i < 3; i++) {
+			diagnostics.recordFrame(frame);
+		}
+		assertEquals(2, diagnostics.frameCount());
+
+		diagnostics.setLimits(4L * frame.getWidth() * frame.getHeight(), 100L * 1024 * 1024);
+		assertEquals(1, diagnostics.frameCount());
+		diagnostics.recordFrame(frame);
+		assertEquals(1, diagnostics.frameCount());
+
+		String baseName = diagnostics.capture("clickButton", "error", frame);
+		FailureDiagnostics.flush(5000);
+		assertEquals(0, diagnostics.frameCount());
+		assertTrue(new File(directory, baseName + "-frame-1.png").isFile());
+		assertFalse(new File(directory, baseName + "-frame-2.png").exists());
+	}
+
+	@Test
+	public void framesAreRateLimited() {
+		diagnostics.setMaxFrames(3);
+		diagnostics.setFrameInterval(60000);
+		diagnostics.recordFrame(frame);
+		diagnostics.recordFrame(frame);
+		assertEquals(1, diagnostics.frameCount());
+	}
+
+	@Test
+	public void oldestDiagnosticsAreEvicted() throws Exception {
+		File old = new File(directory, "swing-failure-00000000-000000-000-old-hierarchy.txt");
+		writeBytes(old, 2048);
+		File unrelated = new File(directory, "unrelated.txt");
+		writeBytes(unrelated, 2048);
+		diagnostics.setLimits(1024, 1024);
+
+		String baseName = diagnostics.capture("clickButton", "error", null);
+		FailureDiagnostics.flush(5000);
+
+		assertFalse(old.exists());
+		assertTrue(unrelated.exists());
+		assertTrue(new File(directory, baseName + "-hierarchy.txt").isFile());
+	}
+
+	private static void writeBytes(File file, int size) throws IOException {
+		FileOutputStream out = new FileOutputStream(file);
+		try {
+			out.write(new byte[size]);
+		} finally {
+			out.close();
+		}
+	}
+}
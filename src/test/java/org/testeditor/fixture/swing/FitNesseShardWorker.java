@@ -0,0 +1,62 @@
+/*******************************************************************************
+ * Copyright (c) 2012 - 2015 Signal Iduna Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Signal Iduna Corporation - initial API and implementation
+ * akquinet AG
+ *******************************************************************************/
+package org.testeditor.fixture.swing;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+
+import fitnesse.junit.JUnitHelper;
+
+/**
+ * Worker JVM of the {@link ShardedFitNesseRunner}. Reads the names of test
+ * pages from stdin, one per line, runs each page with its own FitNesse port
+ * on the display given by the environment and writes one result line per
+ * page to stdout:
+ * <code>RESULT &lt;page&gt; PASS|FAIL &lt;ms&gt; &lt;message&gt;</code>,
+ * separated by tabs. Everything else the page prints goes to stderr. The
+ * worker exits when stdin is closed.
+ *
+ */
+public class FitNesseShardWorker {
+
+	static final String RESULT = "RESULT";
+
+	/**
+	 * @param args
+	 *            FitNesse root, output directory and FitNesse port
+	 * @throws Exception
+	 *             if stdin can't be read
+	 */
+	public static void main(String[] args) throws Exception {
+		PrintStream results = System.out;
+		System.setOut(System.err);
+		JUnitHelper jUnitHelper = new JUnitHelper(args[0], args[1]);
+		jUnitHelper.setPort(Integer.parseInt(args[2]));
+		BufferedReader pages = new BufferedReader(new InputStreamReader(System.in, "UTF-8"));
+		String page;
+		while ((page = pages.readLine()) != null) {
+			long start = System.currentTimeMillis();
+			String status = "PASS";
+			String message = "";
+			try {
+				jUnitHelper.assertTestPasses(page);
+			} catch (Throwable failure) {
+				status = "FAIL";
+				message = String.valueOf(failure).replace('\t', ' ').replace('\n', ' ').replace('\r', ' ');
+			}
+			results.println(RESULT + "\t" + page + "\t" + status + "\t" + (System.currentTimeMillis() - start)
+					+ "\t" + message);
+			results.flush();
+		}
+	}
+}
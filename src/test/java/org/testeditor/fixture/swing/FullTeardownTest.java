@@ -0,0 +1,82 @@
+/*******************************************************************************
+ * Copyright (c) 2012 - 2015 Signal Iduna Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Signal Iduna Corporation - initial API and implementation
+ * akquinet AG
+ *******************************************************************************/
+package org.testeditor.fixture.swing;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.EventQueue;
+import java.awt.Window;
+import java.util.Arrays;
+
+import javax.swing.JFrame;
+import javax.swing.SwingUtilities;
+
+import org.junit.Test;
+
+public class FullTeardownTest {
+
+	@Test
+	public void teardownDisposesOnlyTheWindowsOfTheApplication() throws Exception {
+		final JFrame[] foreign = new JFrame[1];
+		EventQueue.invokeAndWait(new Runnable() {
+			@Override
+			public void run() {
+				foreign[0] = new JFrame("foreign");
+				foreign[0].setSize(100, 100);
+				foreign[0].setLocation(600, 400);
+				foreign[0].setVisible(true);
+			}
+		});
+		try {
+			SwingFixture fixture = new SwingFixture();
+			fixture.setElementlist("./src/test/resources/standInElementList.txt");
+			fixture.setFullTeardown(true);
+			assertTrue(fixture.startApplication("org.testeditor.fixture.swing.StandInApplication"));
+			final Window standIn = SwingUtilities.getWindowAncestor(fixture.findComponent("Text"));
+
+			assertTrue(fixture.stopApplication());
+			assertTrue(fixture.stopApplication());
+
+			EventQueue.invokeAndWait(new Runnable() {
+				@Override
+				public void run() {
+					assertFalse(standIn.isDisplayable());
+					assertTrue(foreign[0].isDisplayable());
+				}
+			});
+		} finally {
+			EventQueue.invokeAndWait(new Runnable() {
+				@Override
+				public void run() {
+					foreign[0].dispose();
+				}
+			});
+		}
+	}
+
+	@Test
+	public void growthIsOnlyCountedAboveTheTolerance() {
+		long mb = TeardownAccounting.HEAP_TOLERANCE;
+		assertTrue(TeardownAccounting.grows(
+				Arrays.asList(new long[] { 10 * mb }, new long[] { 12 * mb }, new long[] { 14 * mb },
+						new long[] { 16 * mb }), 0, mb));
+		assertFalse(TeardownAccounting.grows(
+				Arrays.asList(new long[] { 10 * mb }, new long[] { 10 * mb + 1 }, new long[] { 10 * mb + 2 },
+						new long[] { 10 * mb + 3 }), 0, mb));
+		assertFalse(TeardownAccounting.grows(
+				Arrays.asList(new long[] { 10 * mb }, new long[] { 12 * mb }, new long[] { 11 * mb },
+						new long[] { 16 * mb }), 0, mb));
+		assertFalse(TeardownAccounting.grows(
+				Arrays.asList(new long[] { 10 * mb }, new long[] { 12 * mb }, new long[] { 14 * mb }), 0, mb));
+	}
+}
@@ -0,0 +1,76 @@
+/*******************************************************************************
+ * Copyright (c) 2012 - 2015 Signal Iduna Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Signal Iduna Corporation - initial API and implementation
+ * akquinet AG
+ *******************************************************************************/
+package org.testeditor.fixture.swing;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class IsolatedApplicationTest {
+
+	private static final String MAIN_CLASS = "org.testeditor.fixture.swing.StandInApplication";
+
+	private SwingFixture first;
+	private SwingFixture second;
+
+	@Before
+	public void setUp() {
+		first = new SwingFixture();
+		first.setElementlist("./src/test/resources/standInElementList.txt");
+		second = new SwingFixture();
+		second.setElementlist("./src/test/resources/standInElementList.txt");
+	}
+
+	@After
+	public void tearDown() {
+		first.stopApplication();
+		second.stopApplication();
+	}
+
+	@Test
+	public void twoInstancesRunAtTheSameTimeWithoutInterfering() throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			Future<String> firstResult = executor.submit(scenario(first, "first"));
+			Future<String> secondResult = executor.submit(scenario(second, "second"));
+			assertEquals("first", firstResult.get());
+			assertEquals("second", secondResult.get());
+		} finally {
+			executor.shutdown();
+		}
+		assertNotSame(first.findComponent("Text"), second.findComponent("Text"));
+	}
+
+	private Callable<String> scenario(final SwingFixture fixture, final String text) {
+		return new Callable<String>() {
+			@Override
+			public String call() {
+				assertTrue(fixture.startIsolatedApplication(MAIN_CLASS));
+				assertEquals("1", fixture.getTextFromTextField("Instances"));
+				fixture.setTextEntryMode("document");
+				assertTrue(fixture.insertIntoTextField("Text", text));
+				assertTrue(fixture.clickButton("Copy"));
+				return fixture.getTextFromTextField("Instances");
+			}
+		};
+	}
+
+}
@@ -0,0 +1,75 @@
+/*******************************************************************************
+ * Copyright (c) 2012 - 2015 Signal Iduna Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Signal Iduna Corporation - initial API and implementation
+ * akquinet AG
+ *******************************************************************************/
+package org.testeditor.fixture.swing;
+
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.awt.EventQueue;
+import java.awt.event.WindowEvent;
+
+import javax.swing.JFrame;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class MainWindowWatcherTest {
+
+	private final MainWindowWatcher watcher = new MainWindowWatcher(null, null, null);
+	private JFrame existing;
+	private JFrame launched;
+
+	@After
+	public void tearDown() throws Exception {
+		watcher.uninstall();
+		EventQueue.invokeAndWait(new Runnable() {
+			@Override
+			public void run() {
+				existing.dispose();
+				if (launched != null) {
+					launched.dispose();
+				}
+			}
+		});
+	}
+
+	@Test
+	public void activatedExistingFrameIsNotTheMainFrame() throws Exception {
+		EventQueue.invokeAndWait(new Runnable() {
+			@Override
+			public void run() {
+				existing = new JFrame("existing");
+				existing.setSize(100, 100);
+				existing.setVisible(true);
+			}
+		});
+		watcher.install();
+		EventQueue.invokeAndWait(new Runnable() {
+			@Override
+			public void run() {
+				existing.dispatchEvent(new WindowEvent(existing, WindowEvent.WINDOW_ACTIVATED));
+			}
+		});
+		assertNull(watcher.await(100));
+
+		EventQueue.invokeAndWait(new Runnable() {
+			@Override
+			public void run() {
+				launched = new JFrame("launched");
+				launched.setSize(100, 100);
+				launched.setLocation(200, 0);
+				launched.setVisible(true);
+			}
+		});
+		assertSame(launched, watcher.await(5000));
+	}
+}
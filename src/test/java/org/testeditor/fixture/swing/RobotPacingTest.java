@@ -0,0 +1,145 @@
+/*******************************************************************************
+ * Copyright (c) 2012 - 2015 Signal Iduna Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Signal Iduna Corporation - initial API and implementation
+ * akquinet AG
+ *******************************************************************************/
+package org.testeditor.fixture.swing;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.EventQueue;
+
+import javax.swing.text.AbstractDocument;
+import javax.swing.text.AttributeSet;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.DocumentFilter;
+import javax.swing.text.JTextComponent;
+
+import org.fest.swing.core.BasicRobot;
+import org.fest.swing.core.Robot;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class RobotPacingTest {
+
+	private SwingFixture fixture;
+
+	@Before
+	public void setUp() {
+		fixture = new SwingFixture();
+		fixture.setElementlist("./src/test/resources/standInElementList.txt");
+		assertTrue(fixture.startApplication("org.testeditor.fixture.swing.StandInApplication"));
+		assertTrue(fixture.setRobotMode("fast"));
+	}
+
+	@After
+	public void tearDown() {
+		fixture.stopApplication();
+	}
+
+	@Test
+	public void changedTextIsNoDroppedInput() throws Exception {
+		setFilter(new DocumentFilter() {
+			@Override
+			public void insertString(FilterBypass fb, int offset, String string, AttributeSet attr)
+					throws BadLocationException {
+				super.insertString(fb, offset, string.toUpperCase(), attr);
+			}
+
+			@Override
+			public void replace(FilterBypass fb, int offset, int length, String text, AttributeSet attrs)
+					throws BadLocationException {
+				super.replace(fb, offset, length, text.toUpperCase(), attrs);
+			}
+		});
+
+		assertTrue(fixture.insertIntoTextField("Text", "abc"));
+
+		assertEquals("ABC", fixture.getTextFromTextField("Text"));
+		assertTrue(fixture.getRobotPacingStatistics(), fixture.getRobotPacingStatistics().contains("back offs 0"));
+	}
+
+	@Test
+	public void droppedCharacterBacksOffAndTypesAgain() throws Exception {
+		setFilter(new DocumentFilter() {
+			private boolean dropped;
+
+			@Override
+			public void replace(FilterBypass fb, int offset, int length, String text, AttributeSet attrs)
+					throws BadLocationException {
+				if (!dropped && "b".equals(text)) {
+					dropped = true;
+					return;
+				}
+				super.replace(fb, offset, length, text, attrs);
+			}
+		});
+
+		assertTrue(fixture.insertIntoTextField("Text", "abc"));
+
+		assertEquals("abc", fixture.getTextFromTextField("Text"));
+		assertTrue(fixture.getRobotPacingStatistics(), fixture.getRobotPacingStatistics().contains("back offs 1"));
+	}
+
+	@Test
+	public void limitedFieldIsTypedAgainOnlyOnce() throws Exception {
+		final int[] inserts = new int[1];
+		setFilter(new DocumentFilter() {
+			@Override
+			public void replace(FilterBypass fb, int offset, int length, String text, AttributeSet attrs)
+					throws BadLocationException {
+				inserts[0]++;
+				int room = 2 - (fb.getDocument().getLength() - length);
+				super.replace(fb, offset, length, text.substring(0, Math.max(0, Math.min(room, text.length()))),
+						attrs);
+			}
+		});
+		String before = fixture.getRobotPacingStatistics();
+
+		assertTrue(fixture.insertIntoTextField("Text", "abcd"));
+
+		assertEquals("ab", fixture.getTextFromTextField("Text"));
+		assertTrue(inserts[0] <= 2 * 4 + 1);
+		String after = fixture.getRobotPacingStatistics();
+		assertTrue(after, after.contains("back offs 1"));
+		assertEquals(before.substring(0, before.indexOf(", back offs")), after.substring(0, after
+				.indexOf(", back offs")));
+	}
+
+	@Test
+	public void delaysDecayAfterVerifiedActions() {
+		Robot robot = BasicRobot.robotWithNewAwtHierarchy();
+		try {
+			RobotPacing pacing = new RobotPacing(robot);
+			pacing.setMode(RobotPacing.Mode.FAST);
+			int fastDelay = robot.settings().delayBetweenEvents();
+			assertTrue(pacing.backOff());
+			assertTrue(pacing.backOff());
+			assertEquals(4 * fastDelay, robot.settings().delayBetweenEvents());
+			for (int i = 0; i < RobotPacing.RECOVERY_ACTIONS; i++) {
+				pacing.confirm();
+			}
+			assertEquals(2 * fastDelay, robot.settings().delayBetweenEvents());
+		} finally {
+			robot.cleanUp();
+		}
+	}
+
+	private void setFilter(final DocumentFilter filter) throws Exception {
+		final JTextComponent text = (JTextComponent) fixture.findComponent("Text");
+		EventQueue.invokeAndWait(new Runnable() {
+			@Override
+			public void run() {
+				((AbstractDocument) text.getDocument()).setDocumentFilter(filter);
+			}
+		});
+	}
+}
@@ -0,0 +1,469 @@
+/*******************************************************************************
+ * Copyright (c) 2012 - 2015 Signal Iduna Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Signal Iduna Corporation - initial API and implementation
+ * akquinet AG
+ *******************************************************************************/
+package org.testeditor.fixture.swing;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.log4j.Logger;
+
+/**
+ * Runs the test pages of a FitNesse suite in parallel on one Linux box. Each
+ * of the N workers has its own Xvfb display, FitNesse port and output
+ * directory and runs the pages in a {@link FitNesseShardWorker} JVM. The
+ * workers take the pages from one shared queue, so a worker which is done
+ * early takes over pages the others would have run. The queue is ordered by
+ * the durations of the pages recorded in earlier runs, longest first; pages
+ * without a recorded duration go first. The results are merged into one
+ * JUnit report and the durations are stored for the next run; pages whose
+ * worker died keep the duration of the earlier run. <br />
+ *
+ * Usage: <code>ShardedFitNesseRunner &lt;FitNesse root&gt; &lt;suite&gt;
+ * [&lt;workers&gt;] [&lt;output directory&gt;]</code>, e.g.
+ * <code>/home/ci/.testeditor/DemoSwingTests DemoSwingTests.StartStopSuite 4</code>.
+ * The system properties <code>fitnesse.basePort</code> (default 8064) and
+ * <code>xvfb.baseDisplay</code> (default 90) set the port and display of the
+ * first worker; worker i uses base + i. A page running longer than
+ * <code>fitnesse.pageTimeout</code> ms (default 600000) fails, its worker JVM
+ * is killed and a new one takes the next page.
+ *
+ */
+public class ShardedFitNesseRunner {
+
+	private static final Logger LOGGER = Logger.getLogger(ShardedFitNesseRunner.class);
+	private static final String DURATIONS_FILE = "page-durations.properties";
+	private static final long DISPLAY_START_TIMEOUT = 10000;
+	static final String END_OF_OUTPUT = "\u0000end";
+	static final String NOT_MEASURED = "-1";
+
+	private final File fitNesseRoot;
+	private final String suite;
+	private final int workers;
+	private final File outputDirectory;
+	private final int basePort = Integer.getInteger("fitnesse.basePort", 8064);
+	private final int baseDisplay = Integer.getInteger("xvfb.baseDisplay", 90);
+	private final long pageTimeout = Long.getLong("fitnesse.pageTimeout", 600000);
+	private final BlockingQueue<String> pages = new LinkedBlockingQueue<String>();
+	private final List<String[]> results = Collections.synchronizedList(new ArrayList<String[]>());
+
+	/**
+	 * @param fitNesseRoot
+	 *            directory containing the <code>FitNesseRoot</code>
+	 * @param suite
+	 *            full name of the suite page
+	 * @param workers
+	 *            number of workers
+	 * @param outputDirectory
+	 *            directory of the report, the durations and the worker output
+	 */
+	public ShardedFitNesseRunner(File fitNesseRoot, String suite, int workers, File outputDirectory) {
+		this.fitNesseRoot = fitNesseRoot;
+		this.suite = suite;
+		this.workers = workers;
+		this.outputDirectory = outputDirectory;
+	}
+
+	/**
+	 * Runs the suite.
+	 *
+	 * @return <code>true</code> if all pages passed
+	 * @throws IOException
+	 *             if the suite can't be read or the report can't be written
+	 * @throws InterruptedException
+	 *             if interrupted while waiting for the workers
+	 */
+	public boolean run() throws IOException, InterruptedException {
+		outputDirectory.mkdirs();
+		File durationsFile = new File(outputDirectory, DURATIONS_FILE);
+		Properties durations = load(durationsFile);
+		pages.addAll(orderByDuration(findTestPages(), durations));
+		LOGGER.info(pages.size() + " pages of " + suite + " on " + workers + " workers");
+		long start = System.currentTimeMillis();
+		List<Thread> threads = new ArrayList<Thread>();
+		for (int i = 0; i < workers; i++) {
+			final int shard = i;
+			Thread thread = new Thread("fitnesse-shard-" + shard) {
+				@Override
+				public void run() {
+					runShard(shard);
+				}
+			};
+			thread.start();
+			threads.add(thread);
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		String page;
+		while ((page = pages.poll()) != null) {
+			results.add(new String[] { page, "FAIL", NOT_MEASURED, "no worker left to run the page" });
+		}
+		int failures = 0;
+		synchronized (results) {
+			for (String[] result : results) {
+				if (!"PASS".equals(result[1])) {
+					failures++;
+				}
+			}
+			recordDurations(results, durations);
+		}
+		store(durations, durationsFile);
+		writeReport(new File(outputDirectory, "TEST-" + suite + ".xml"), suite, results, System.currentTimeMillis()
+				- start);
+		LOGGER.info(results.size() + " pages run, " + failures + " failed in " + (System.currentTimeMillis() - start)
+				+ " ms");
+		return failures == 0;
+	}
+
+	/**
+	 * Starts the display and the worker JVM of a shard and feeds it pages
+	 * from the shared queue until the queue is empty. If the worker JVM
+	 * dies or a page times out, the page fails and a new worker JVM
+	 * continues.
+	 */
+	private void runShard(int shard) {
+		int display = baseDisplay + shard;
+		Process xvfb = null;
+		Process worker = null;
+		try {
+			xvfb = startDisplay(display);
+			BlockingQueue<String> output = null;
+			String page;
+			while ((page = pages.poll()) != null) {
+				if (worker == null) {
+					worker = startWorker(shard, display);
+					output = readLines(worker.getInputStream(), "fitnesse-shard-" + shard + "-output");
+				}
+				send(worker.getOutputStream(), page);
+				long start = System.currentTimeMillis();
+				String[] result = awaitResult(output, page, pageTimeout);
+				if (result == null) {
+					result = new String[] { page, "FAIL", NOT_MEASURED, "worker " + shard + " exited" };
+					if (System.currentTimeMillis() - start >= pageTimeout) {
+						result = new String[] { page, "FAIL", String.valueOf(pageTimeout),
+								"timed out after " + pageTimeout + " ms" };
+					}
+					worker.destroyForcibly();
+					worker.waitFor();
+					worker = null;
+				}
+				LOGGER.info("worker " + shard + ": " + result[0] + " " + result[1] + " in " + result[2] + " ms");
+				results.add(result);
+			}
+			if (worker != null) {
+				worker.getOutputStream().close();
+				worker.waitFor();
+				worker = null;
+			}
+		} catch (IOException e) {
+			LOGGER.error("worker " + shard + " failed Error: " + e);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} finally {
+			if (worker != null) {
+				worker.destroyForcibly();
+			}
+			if (xvfb != null) {
+				xvfb.destroy();
+			}
+		}
+	}
+
+	/**
+	 * Starts Xvfb and waits until its socket exists while the process is
+	 * still running. A display whose socket exists before the start belongs
+	 * to another X server and is not used.
+	 */
+	private Process startDisplay(int display) throws IOException, InterruptedException {
+		File socket = new File("/tmp/.X11-unix/X" + display);
+		if (socket.exists()) {
+			throw new IOException("display :" + display + " is already in use");
+		}
+		ProcessBuilder builder = new ProcessBuilder("Xvfb", ":" + display, "-screen", "0", "1280x1024x24",
+				"-nolisten", "tcp");
+		builder.redirectErrorStream(true);
+		builder.redirectOutput(new File(outputDirectory, "xvfb-" + display + ".log"));
+		Process xvfb = builder.start();
+		long deadline = System.currentTimeMillis() + DISPLAY_START_TIMEOUT;
+		while (!socket.exists()) {
+			if (!xvfb.isAlive()) {
+				break;
+			}
+			if (System.currentTimeMillis() > deadline) {
+				xvfb.destroy();
+				throw new IOException("display :" + display + " not started within " + DISPLAY_START_TIMEOUT + " ms");
+			}
+			Thread.sleep(50);
+		}
+		if (!xvfb.isAlive()) {
+			throw new IOException("Xvfb for display :" + display + " exited with " + xvfb.exitValue());
+		}
+		return xvfb;
+	}
+
+	private Process startWorker(int shard, int display) throws IOException {
+		File workerOutput = new File(outputDirectory, "worker-" + shard);
+		workerOutput.mkdirs();
+		String java = new File(new File(System.getProperty("java.home"), "bin"), "java").getPath();
+		ProcessBuilder builder = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+				FitNesseShardWorker.class.getName(), fitNesseRoot.getPath(), workerOutput.getPath(),
+				String.valueOf(basePort + shard));
+		builder.environment().put("DISPLAY", ":" + display);
+		builder.redirectError(ProcessBuilder.Redirect.appendTo(new File(workerOutput, "worker.log")));
+		return builder.start();
+	}
+
+	private static void send(OutputStream worker, String page) throws IOException {
+		worker.write((page + "\n").getBytes("UTF-8"));
+		worker.flush();
+	}
+
+	/**
+	 * Reads the lines of the worker output in a daemon thread, so the result
+	 * of a page can be awaited with a timeout. The end of the output is
+	 * marked by {@link #END_OF_OUTPUT}.
+	 */
+	static BlockingQueue<String> readLines(InputStream in, String name) throws IOException {
+		final BlockingQueue<String> lines = new LinkedBlockingQueue<String>();
+		final BufferedReader reader = new BufferedReader(new InputStreamReader(in, "UTF-8"));
+		Thread thread = new Thread(name) {
+			@Override
+			public void run() {
+				try {
+					String line;
+					while ((line = reader.readLine()) != null) {
+						lines.add(line);
+					}
+				} catch (IOException e) {
+					LOGGER.warn("could not read the worker output Error: " + e);
+				} finally {
+					lines.add(END_OF_OUTPUT);
+				}
+			}
+		};
+		thread.setDaemon(true);
+		thread.start();
+		return lines;
+	}
+
+	/**
+	 * @return page, status, duration and message of the page or
+	 *         <code>null</code> if the worker exited or the page timed out
+	 */
+	static String[] awaitResult(BlockingQueue<String> output, String page, long timeoutMillis)
+			throws InterruptedException {
+		long deadline = System.currentTimeMillis() + timeoutMillis;
+		long remaining = timeoutMillis;
+		while (remaining > 0) {
+			String line = output.poll(remaining, TimeUnit.MILLISECONDS);
+			if (line == null || END_OF_OUTPUT.equals(line)) {
+				return null;
+			}
+			String[] fields = line.split("\t", 5);
+			if (fields.length == 5 && FitNesseShardWorker.RESULT.equals(fields[0]) && page.equals(fields[1])) {
+				return new String[] { fields[1], fields[2], fields[3], fields[4] };
+			}
+			remaining = deadline - System.currentTimeMillis();
+		}
+		return null;
+	}
+
+	/**
+	 * Collects the test pages below the suite. A page is a test page if its
+	 * properties mark it as test or its name ends with <code>Test</code>.
+	 */
+	private List<String> findTestPages() throws IOException {
+		String path = suite.replace('.', File.separatorChar);
+		File suiteDirectory = new File(new File(fitNesseRoot, "FitNesseRoot"), path);
+		if (!suiteDirectory.isDirectory()) {
+			suiteDirectory = new File(fitNesseRoot, path);
+		}
+		if (!suiteDirectory.isDirectory()) {
+			throw new IOException("suite " + suite + " not found in " + fitNesseRoot);
+		}
+		List<String> result = new ArrayList<String>();
+		collectTestPages(suiteDirectory, suite, result);
+		return result;
+	}
+
+	private static void collectTestPages(File directory, String name, List<String> result) throws IOException {
+		if (isTestPage(directory)) {
+			result.add(name);
+		}
+		File[] children = directory.listFiles();
+		if (children == null) {
+			return;
+		}
+		for (File child : children) {
+			if (child.isDirectory() && Character.isUpperCase(child.getName().charAt(0))) {
+				collectTestPages(child, name + "." + child.getName(), result);
+			}
+		}
+	}
+
+	private static boolean isTestPage(File directory) throws IOException {
+		String name = directory.getName();
+		if (name.endsWith("SetUp") || name.endsWith("TearDown")) {
+			return false;
+		}
+		File properties = new File(directory, "properties.xml");
+		if (properties.isFile() && read(properties).contains("<Test")) {
+			return true;
+		}
+		return name.endsWith("Test") && new File(directory, "content.txt").isFile();
+	}
+
+	static List<String> orderByDuration(List<String> testPages, final Properties durations) {
+		List<String> ordered = new ArrayList<String>(testPages);
+		Collections.sort(ordered, new Comparator<String>() {
+			@Override
+			public int compare(String first, String second) {
+				return Long.compare(durationOf(second, durations), durationOf(first, durations));
+			}
+		});
+		return ordered;
+	}
+
+	private static long durationOf(String page, Properties durations) {
+		String duration = durations.getProperty(page);
+		if (duration == null) {
+			return Long.MAX_VALUE;
+		}
+		return Long.parseLong(duration);
+	}
+
+	/**
+	 * Stores the measured durations of the results. Pages without a measured
+	 * duration, e.g. because their worker died, keep the duration of the
+	 * earlier run, so a crashing page is not scheduled last next time.
+	 */
+	static void recordDurations(List<String[]> pageResults, Properties durations) {
+		for (String[] result : pageResults) {
+			if (!NOT_MEASURED.equals(result[2])) {
+				durations.setProperty(result[0], result[2]);
+			}
+		}
+	}
+
+	static void writeReport(File report, String suite, List<String[]> results, long millis) throws IOException {
+		int failures = 0;
+		StringBuilder testCases = new StringBuilder();
+		synchronized (results) {
+			for (String[] result : results) {
+				long pageMillis = Math.max(0, Long.parseLong(result[2]));
+				testCases.append("  <testcase classname=\"").append(escape(suite)).append("\" name=\"")
+						.append(escape(result[0])).append("\" time=\"").append(seconds(pageMillis)).append('"');
+				if ("PASS".equals(result[1])) {
+					testCases.append("/>\n");
+				} else {
+					failures++;
+					testCases.append(">\n    <failure message=\"").append(escape(result[3]))
+							.append("\"/>\n  </testcase>\n");
+				}
+			}
+		}
+		Writer writer = new OutputStreamWriter(new FileOutputStream(report), "UTF-8");
+		try {
+			writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+			writer.write("<testsuite name=\"" + escape(suite) + "\" tests=\"" + results.size() + "\" failures=\""
+					+ failures + "\" time=\"" + seconds(millis) + "\">\n");
+			writer.write(testCases.toString());
+			writer.write("</testsuite>\n");
+		} finally {
+			writer.close();
+		}
+	}
+
+	private static String seconds(long millis) {
+		return String.valueOf(millis / 1000.0);
+	}
+
+	private static String escape(String text) {
+		return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;").replace("\"", "&quot;");
+	}
+
+	private static String read(File file) throws IOException {
+		Reader in = new InputStreamReader(new FileInputStream(file), "UTF-8");
+		try {
+			StringBuilder content = new StringBuilder();
+			char[] buffer = new char[4096];
+			int read;
+			while ((read = in.read(buffer)) > 0) {
+				content.append(buffer, 0, read);
+			}
+			return content.toString();
+		} finally {
+			in.close();
+		}
+	}
+
+	private static Properties load(File file) throws IOException {
+		Properties properties = new Properties();
+		if (file.isFile()) {
+			InputStream in = new FileInputStream(file);
+			try {
+				properties.load(in);
+			} finally {
+				in.close();
+			}
+		}
+		return properties;
+	}
+
+	private static void store(Properties properties, File file) throws IOException {
+		OutputStream out = new FileOutputStream(file);
+		try {
+			properties.store(out, "durations of the FitNesse pages in ms");
+		} finally {
+			out.close();
+		}
+	}
+
+	/**
+	 * @param args
+	 *            FitNesse root, suite, optional number of workers and output
+	 *            directory
+	 * @throws Exception
+	 *             if the suite can't be run
+	 */
+	public static void main(String[] args) throws Exception {
+		int workers = Runtime.getRuntime().availableProcessors();
+		if (args.length > 2) {
+			workers = Integer.parseInt(args[2]);
+		}
+		File output = new File(System.getProperty("java.io.tmpdir"), "fitnesse-shards");
+		if (args.length > 3) {
+			output = new File(args[3]);
+		}
+		boolean passed = new ShardedFitNesseRunner(new File(args[0]), args[1], workers, output).run();
+		if (!passed) {
+			System.exit(1);
+		}
+	}
+}
@@ -0,0 +1,111 @@
+/*******************************************************************************
+ * Copyright (c) 2012 - 2015 Signal Iduna Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Signal Iduna Corporation - initial API and implementation
+ * akquinet AG
+ *******************************************************************************/
+package org.testeditor.fixture.swing;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import org.junit.Test;
+
+public class ShardedFitNesseRunnerTest {
+
+	@Test
+	public void pagesAreOrderedLongestFirstAndUnknownPagesFirstOfAll() {
+		Properties durations = new Properties();
+		durations.setProperty("Suite.ShortTest", "100");
+		durations.setProperty("Suite.LongTest", "5000");
+
+		List<String> ordered = ShardedFitNesseRunner.orderByDuration(Arrays.asList("Suite.ShortTest",
+				"Suite.LongTest", "Suite.NewTest"), durations);
+
+		assertEquals(Arrays.asList("Suite.NewTest", "Suite.LongTest", "Suite.ShortTest"), ordered);
+	}
+
+	@Test
+	public void resultOfThePageIsTakenFromTheWorkerOutput() throws Exception {
+		String output = "some log line\n" + FitNesseShardWorker.RESULT + "\tSuite.OtherTest\tPASS\t1\tok\n"
+				+ FitNesseShardWorker.RESULT + "\tSuite.PageTest\tFAIL\t42\t1 wrong\n";
+		BlockingQueue<String> lines = ShardedFitNesseRunner.readLines(new ByteArrayInputStream(output
+				.getBytes(StandardCharsets.UTF_8)), "test-output");
+
+		String[] result = ShardedFitNesseRunner.awaitResult(lines, "Suite.PageTest", 5000);
+
+		assertArrayEquals(new String[] { "Suite.PageTest", "FAIL", "42", "1 wrong" }, result);
+	}
+
+	@Test
+	public void deadWorkerEndsTheWait() throws Exception {
+		BlockingQueue<String> lines = ShardedFitNesseRunner.readLines(new ByteArrayInputStream(new byte[0]),
+				"test-output");
+		long start = System.currentTimeMillis();
+
+		assertNull(ShardedFitNesseRunner.awaitResult(lines, "Suite.PageTest", 60000));
+		assertTrue(System.currentTimeMillis() - start < 30000);
+	}
+
+	@Test
+	public void silentWorkerTimesOut() throws Exception {
+		long start = System.currentTimeMillis();
+
+		assertNull(ShardedFitNesseRunner.awaitResult(new LinkedBlockingQueue<String>(), "Suite.PageTest", 100));
+		assertTrue(System.currentTimeMillis() - start >= 100);
+	}
+
+	@Test
+	public void crashedPagesKeepTheirEarlierDuration() {
+		Properties durations = new Properties();
+		durations.setProperty("Suite.HeavyTest", "90000");
+		List<String[]> results = new ArrayList<String[]>();
+		results.add(new String[] { "Suite.HeavyTest", "FAIL", ShardedFitNesseRunner.NOT_MEASURED, "worker 0 exited" });
+		results.add(new String[] { "Suite.LightTest", "PASS", "200", "" });
+
+		ShardedFitNesseRunner.recordDurations(results, durations);
+
+		assertEquals("90000", durations.getProperty("Suite.HeavyTest"));
+		assertEquals("200", durations.getProperty("Suite.LightTest"));
+	}
+
+	@Test
+	public void reportMergesTheResultsOfAllWorkers() throws Exception {
+		List<String[]> results = new ArrayList<String[]>();
+		results.add(new String[] { "Suite.ATest", "PASS", "1500", "" });
+		results.add(new String[] { "Suite.BTest", "FAIL", ShardedFitNesseRunner.NOT_MEASURED, "worker 1 exited" });
+		results.add(new String[] { "Suite.<C>Test", "FAIL", "250", "1 \"wrong\"" });
+		File report = File.createTempFile("TEST-Suite", ".xml");
+		try {
+			ShardedFitNesseRunner.writeReport(report, "Suite", results, 2000);
+			String xml = new String(Files.readAllBytes(report.toPath()), StandardCharsets.UTF_8);
+
+			assertTrue(xml, xml.contains("<testsuite name=\"Suite\" tests=\"3\" failures=\"2\" time=\"2.0\">"));
+			assertTrue(xml, xml.contains("<testcase classname=\"Suite\" name=\"Suite.ATest\" time=\"1.5\"/>"));
+			assertTrue(xml, xml.contains("name=\"Suite.BTest\" time=\"0.0\">\n"
+					+ "    <failure message=\"worker 1 exited\"/>"));
+			assertTrue(xml, xml.contains("name=\"Suite.&lt;C&gt;Test\" time=\"0.25\">\n"
+					+ "    <failure message=\"1 &quot;wrong&quot;\"/>"));
+		} finally {
+			report.delete();
+		}
+	}
+}
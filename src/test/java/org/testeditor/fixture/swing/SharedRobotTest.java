@@ -0,0 +1,42 @@
+/*******************************************************************************
+ * Copyright (c) 2012 - 2015 Signal Iduna Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Signal Iduna Corporation - initial API and implementation
+ * akquinet AG
+ *******************************************************************************/
+package org.testeditor.fixture.swing;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+
+import org.fest.swing.core.Robot;
+import org.junit.Test;
+
+public class SharedRobotTest {
+
+	@Test
+	public void usersKeepTheirOwnSettings() {
+		Robot first = SharedRobot.acquire();
+		Robot second = SharedRobot.acquire();
+		try {
+			int idleTimeout = second.settings().idleTimeout();
+			int delay = second.settings().delayBetweenEvents();
+			first.settings().idleTimeout(1);
+			first.settings().delayBetweenEvents(2);
+			first.waitForIdle();
+
+			assertNotSame(first.settings(), second.settings());
+			assertEquals(idleTimeout, second.settings().idleTimeout());
+			assertEquals(delay, second.settings().delayBetweenEvents());
+			assertEquals(1, first.settings().idleTimeout());
+		} finally {
+			SharedRobot.release();
+			SharedRobot.release();
+		}
+	}
+}
@@ -0,0 +1,85 @@
+/*******************************************************************************
+ * Copyright (c) 2012 - 2015 Signal Iduna Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Signal Iduna Corporation - initial API and implementation
+ * akquinet AG
+ *******************************************************************************/
+package org.testeditor.fixture.swing;
+
+import java.awt.Frame;
+import java.awt.GridLayout;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+
+import javax.swing.JButton;
+import javax.swing.JFrame;
+import javax.swing.JTextField;
+import javax.swing.SwingUtilities;
+
+/**
+ * Small stand-in application for tests which need an AUT of their own. The
+ * static instance counter shows whether two instances share their classes.
+ * Each main frame is placed next to the frames already open, so clicks on
+ * two instances running at the same time do not hit the other instance.
+ * 
+ */
+public final class StandInApplication {
+
+	private static final int FRAME_GAP = 20;
+	private static int instances;
+
+	private StandInApplication() {
+	}
+
+	/**
+	 * Opens the main frame of the stand-in application.
+	 * 
+	 * @param args
+	 *            not used
+	 */
+	public static void main(String[] args) {
+		instances++;
+		SwingUtilities.invokeLater(new Runnable() {
+			@Override
+			public void run() {
+				JFrame frame = new JFrame("Stand-in");
+				frame.setName("standInFrame");
+				frame.setLayout(new GridLayout(3, 1));
+				final JTextField text = new JTextField(20);
+				text.setName("standInText");
+				final JTextField result = new JTextField(String.valueOf(instances), 20);
+				result.setEditable(false);
+				result.setName("standInInstances");
+				JButton copy = new JButton("copy");
+				copy.setName("standInCopy");
+				copy.addActionListener(new ActionListener() {
+					@Override
+					public void actionPerformed(ActionEvent e) {
+						result.setText(text.getText());
+					}
+				});
+				frame.add(text);
+				frame.add(result);
+				frame.add(copy);
+				frame.pack();
+				frame.setLocation(showingFrames() * (frame.getWidth() + FRAME_GAP), 0);
+				frame.setVisible(true);
+			}
+		});
+	}
+
+	private static int showingFrames() {
+		int showing = 0;
+		for (Frame frame : Frame.getFrames()) {
+			if (frame.isShowing()) {
+				showing++;
+			}
+		}
+		return showing;
+	}
+}
@@ -0,0 +1,89 @@
+/*******************************************************************************
+ * Copyright (c) 2012 - 2015 Signal Iduna Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Signal Iduna Corporation - initial API and implementation
+ * akquinet AG
+ *******************************************************************************/
+package org.testeditor.fixture.swing;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import javax.swing.JButton;
+import javax.swing.text.JTextComponent;
+
+import org.junit.Test;
+
+public class StepBudgetTest {
+
+	private final StepBudget budget = new StepBudget();
+
+	@Test
+	public void withoutBudgetTimeoutsAreKept() {
+		budget.startStep();
+		assertFalse(budget.isLimited());
+		assertEquals(30000, budget.cap(30000));
+		budget.check("the lookup");
+	}
+
+	@Test
+	public void stepBudgetCapsTimeouts() {
+		budget.setStepBudget(1000);
+		budget.startStep();
+		assertTrue(budget.cap(30000) <= 1000);
+		assertEquals(10, budget.cap(10));
+		budget.endStep();
+		assertFalse(budget.isLimited());
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void exhaustedPageBudgetFailsLookups() throws InterruptedException {
+		budget.startPage(1);
+		Thread.sleep(5);
+		budget.startStep();
+		assertEquals(0, budget.cap(30000));
+		budget.check("the lookup");
+	}
+
+	@Test
+	public void failedLookupsAreRememberedUntilTheyExpire() throws InterruptedException {
+		FailedLookupCache cache = new FailedLookupCache();
+		cache.setTimeToLive(50);
+		cache.failed("Name", JTextComponent.class);
+		assertTrue(cache.failedRecently("Name", JTextComponent.class));
+		assertFalse(cache.failedRecently("Name", JButton.class));
+		assertFalse(cache.failedRecently("Vorname", JTextComponent.class));
+		Thread.sleep(60);
+		assertFalse(cache.failedRecently("Name", JTextComponent.class));
+		assertEquals(1, cache.getHits());
+	}
+
+	@Test
+	public void failedFestLookupsAreRemembered() {
+		SwingFixture fixture = new SwingFixture();
+		fixture.setElementlist("./src/test/resources/standInElementList.txt");
+		assertTrue(fixture.startApplication("org.testeditor.fixture.swing.StandInApplication"));
+		try {
+			fixture.setFailedLookupMemory(10000);
+			assertNull(fixture.findComponent("Missing"));
+			assertNull(fixture.findComponent("Missing"));
+			assertTrue(fixture.getTimeBudgetStatistics().endsWith("remembered failed lookups: 1"));
+		} finally {
+			fixture.stopApplication();
+		}
+	}
+
+	@Test
+	public void failedLookupsAreNotRememberedByDefault() {
+		FailedLookupCache cache = new FailedLookupCache();
+		cache.failed("Name", JTextComponent.class);
+		assertFalse(cache.failedRecently("Name", JTextComponent.class));
+	}
+}
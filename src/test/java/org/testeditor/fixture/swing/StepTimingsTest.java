@@ -0,0 +1,64 @@
+/*******************************************************************************
+ * Copyright (c) 2012 - 2015 Signal Iduna Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Signal Iduna Corporation - initial API and implementation
+ * akquinet AG
+ *******************************************************************************/
+package org.testeditor.fixture.swing;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+import org.junit.Test;
+import org.testeditor.fixture.swing.StepTimings.Phase;
+
+public class StepTimingsTest {
+
+	private final StepTimings timings = new StepTimings();
+
+	@Test
+	public void nestedPhasesAreAccountedToTheOuterPhase() throws InterruptedException {
+		timings.startStep("clickButton");
+		long lookup = timings.startPhase();
+		long nested = timings.startPhase();
+		Thread.sleep(2);
+		timings.stopPhase(Phase.ELEMENT_LIST, nested);
+		timings.stopPhase(Phase.LOOKUP, lookup);
+		timings.endStep();
+
+		assertEquals(1, timings.getHistogram("clickButton", Phase.LOOKUP).getCount());
+		assertEquals(0, timings.getHistogram("clickButton", Phase.ELEMENT_LIST).getCount());
+		assertEquals(1, timings.getHistogram("clickButton", Phase.TOTAL).getCount());
+		assertTrue(timings.getHistogram("clickButton", Phase.LOOKUP).maxMillis() >= 2);
+	}
+
+	@Test
+	public void phasesOutsideOfStepsAreIgnored() {
+		timings.stopPhase(Phase.INPUT, timings.startPhase());
+		timings.endStep();
+		assertTrue(timings.isEmpty());
+		assertNull(timings.getHistogram("clickButton", Phase.INPUT));
+	}
+
+	@Test
+	public void writesCsvAndJson() throws IOException {
+		timings.startStep("insertIntoTextField");
+		timings.endStep();
+		StringWriter csv = new StringWriter();
+		timings.writeCsv(csv);
+		assertTrue(csv.toString().contains("insertIntoTextField;TOTAL;1;"));
+		StringWriter json = new StringWriter();
+		timings.writeJson(json);
+		assertTrue(json.toString().contains("\"insertIntoTextField\": {"));
+	}
+
+}
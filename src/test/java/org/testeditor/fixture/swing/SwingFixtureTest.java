@@ -18,7 +18,22 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.swing.JComboBox;
+import javax.swing.JTable;
+import javax.swing.RowFilter;
+import javax.swing.RowSorter;
+import javax.swing.SortOrder;
+import javax.swing.table.TableModel;
+import javax.swing.table.TableRowSorter;
+
 import org.fest.swing.edt.FailOnThreadViolationRepaintManager;
+import org.fest.swing.edt.GuiActionRunner;
+import org.fest.swing.edt.GuiQuery;
+import org.fest.swing.edt.GuiTask;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.BeforeClass;
@@ -49,9 +64,16 @@ public class SwingFixtureTest {
 		FailOnThreadViolationRepaintManager.install();
 	}
 
+	/**
+	 * @return the fixture under test, before the application is started
+	 */
+	protected SwingFixture createFixture() {
+		return new SwingFixture();
+	}
+
 	@Before
 	public void setUp() throws ClassNotFoundException {
-		swingFixture = new SwingFixture();
+		swingFixture = createFixture();
 		swingFixture.setElementlist("./src/test/resources/elementListContent.txt");
 		swingFixture.startApplication("de.akquinet.birthday.controller.EmployeeController");
 	}
@@ -154,4 +176,104 @@ public class SwingFixtureTest {
 		assertTrue(swingFixture.isCheckedRadioButton(RADIOBUTTON_MALENAME));
 	}
 
+	@Test
+	public void tableRowIndexTest() {
+		swingFixture.insertIntoTextField(TEXTFIELD_NAME, "Mustermann");
+		swingFixture.insertIntoTextField(TEXTFIELD_VORNAME, "Max");
+		swingFixture.clickButton(BTN_HINZUFUEGEN);
+		assertTrue(swingFixture.selectTableRowByViewIndex(TABLE_NAME, 2));
+		assertEquals(2, swingFixture.getSelectedTableRowIndex(TABLE_NAME));
+		assertTrue(swingFixture.selectTableRowByModelIndex(TABLE_NAME, 0));
+		assertEquals(0, swingFixture.getSelectedTableRowIndex(TABLE_NAME));
+		assertFalse(swingFixture.selectTableRowByViewIndex(TABLE_NAME, 100000));
+		assertFalse(swingFixture.selectTableRowById(TABLE_NAME, 100000));
+	}
+
+	@Test
+	public void tableRowIndexWithRowSorterTest() {
+		swingFixture.insertIntoTextField(TEXTFIELD_NAME, "Mustermann");
+		swingFixture.insertIntoTextField(TEXTFIELD_VORNAME, "Max");
+		swingFixture.clickButton(BTN_HINZUFUEGEN);
+		final JTable table = (JTable) swingFixture.findComponent(TABLE_NAME);
+		GuiActionRunner.execute(new GuiTask() {
+			@Override
+			protected void executeInEDT() {
+				TableRowSorter<TableModel> sorter = new TableRowSorter<TableModel>(table.getModel());
+				sorter.setSortKeys(Collections.singletonList(new RowSorter.SortKey(0, SortOrder.DESCENDING)));
+				sorter.setRowFilter(new RowFilter<TableModel, Integer>() {
+					@Override
+					public boolean include(Entry<? extends TableModel, ? extends Integer> entry) {
+						return entry.getIdentifier() != 1;
+					}
+				});
+				table.setRowSorter(sorter);
+			}
+		});
+		int modelRowCount = GuiActionRunner.execute(new GuiQuery<Integer>() {
+			@Override
+			protected Integer executeInEDT() {
+				return table.getModel().getRowCount();
+			}
+		});
+
+		assertTrue(swingFixture.selectTableRowByModelIndex(TABLE_NAME, modelRowCount - 1));
+		assertEquals(modelRowCount - 1, selectedModelRow(table));
+		assertTrue(swingFixture.selectTableRowByModelIndex(TABLE_NAME, 0));
+		assertEquals(0, selectedModelRow(table));
+		assertFalse(swingFixture.selectTableRowByModelIndex(TABLE_NAME, 1));
+
+		assertTrue(swingFixture.selectTableRowByViewIndex(TABLE_NAME, 0));
+		assertEquals(0, swingFixture.getSelectedTableRowIndex(TABLE_NAME));
+		assertFalse(swingFixture.selectTableRowByViewIndex(TABLE_NAME, modelRowCount - 1));
+	}
+
+	@Test
+	public void comboBoxIndexTest() {
+		assertTrue(swingFixture.selectComboBoxItemByName(COMBOBOX_GJ_NAME, "1978"));
+		assertEquals("1978", swingFixture.getSelectedComboBoxItemText(COMBOBOX_GJ_NAME));
+		assertTrue(swingFixture.selectComboBoxItemByName(COMBOBOX_GJ_NAME, "1979"));
+		assertEquals("1979", swingFixture.getSelectedComboBoxItemText(COMBOBOX_GJ_NAME));
+
+		final JComboBox comboBox = (JComboBox) swingFixture.findComponent(COMBOBOX_GJ_NAME);
+		GuiActionRunner.execute(new GuiTask() {
+			@Override
+			protected void executeInEDT() {
+				comboBox.setEnabled(false);
+			}
+		});
+		assertFalse(swingFixture.selectComboBoxItemByName(COMBOBOX_GJ_NAME, "1978"));
+		assertFalse(swingFixture.selectComboBoxItemById(COMBOBOX_GJ_NAME, 0));
+		assertEquals("1979", swingFixture.getSelectedComboBoxItemText(COMBOBOX_GJ_NAME));
+	}
+
+	/**
+	 * @return the model index of the selected row of the table
+	 */
+	private static int selectedModelRow(final JTable table) {
+		return GuiActionRunner.execute(new GuiQuery<Integer>() {
+			@Override
+			protected Integer executeInEDT() {
+				return table.convertRowIndexToModel(table.getSelectedRow());
+			}
+		});
+	}
+
+	@Test
+	public void fillFormTest() {
+		Map<String, String> fields = new LinkedHashMap<String, String>();
+		fields.put(TEXTFIELD_NAME, "Mustermann");
+		fields.put(TEXTFIELD_VORNAME, "Max");
+		fields.put(COMBOBOX_GT_NAME, "20");
+		fields.put(COMBOBOX_GM_NAME, "11");
+		fields.put(COMBOBOX_GJ_NAME, "1978");
+		fields.put(RADIOBUTTON_MALENAME, "true");
+		fields.put(CHECKBOX_HIDEGENDER_NAME, "false");
+		assertTrue(swingFixture.fillForm(fields));
+		assertEquals("Mustermann", swingFixture.getTextFromTextField(TEXTFIELD_NAME));
+		assertEquals("Max", swingFixture.getTextFromTextField(TEXTFIELD_VORNAME));
+		assertEquals("1978", swingFixture.getSelectedComboBoxItemText(COMBOBOX_GJ_NAME));
+		assertFalse(swingFixture.isCheckedCheckBox(CHECKBOX_HIDEGENDER_NAME));
+		assertTrue(swingFixture.isCheckedRadioButton(RADIOBUTTON_MALENAME));
+	}
+
 }
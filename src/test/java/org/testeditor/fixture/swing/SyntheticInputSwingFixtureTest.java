@@ -0,0 +1,26 @@
+/*******************************************************************************
+ * Copyright (c) 2012 - 2015 Signal Iduna Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Signal Iduna Corporation - initial API and implementation
+ * akquinet AG
+ *******************************************************************************/
+package org.testeditor.fixture.swing;
+
+/**
+ * Runs the steps of {@link SwingFixtureTest} with the synthetic input driver.
+ *
+ */
+public class SyntheticInputSwingFixtureTest extends SwingFixtureTest {
+
+	@Override
+	protected SwingFixture createFixture() {
+		SwingFixture fixture = new SwingFixture();
+		fixture.setInputDriver("synthetic");
+		return fixture;
+	}
+}
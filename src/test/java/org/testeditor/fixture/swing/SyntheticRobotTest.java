@@ -0,0 +1,116 @@
+/*******************************************************************************
+ * Copyright (c) 2012 - 2015 Signal Iduna Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Signal Iduna Corporation - initial API and implementation
+ * akquinet AG
+ *******************************************************************************/
+package org.testeditor.fixture.swing;
+
+import static org.junit.Assert.assertEquals;
+
+import java.awt.EventQueue;
+import java.awt.GridLayout;
+import java.awt.Point;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.swing.JButton;
+import javax.swing.JFrame;
+import javax.swing.JTextField;
+
+import org.fest.swing.core.BasicRobot;
+import org.fest.swing.core.MouseButton;
+import org.fest.swing.core.Robot;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class SyntheticRobotTest {
+
+	private final AtomicInteger firstClicks = new AtomicInteger();
+	private final AtomicInteger secondClicks = new AtomicInteger();
+	private Robot robot;
+	private JFrame frame;
+	private JButton first;
+	private JButton second;
+	private JTextField text;
+
+	@Before
+	public void setUp() throws Exception {
+		robot = SyntheticRobot.wrap(BasicRobot.robotWithCurrentAwtHierarchy());
+		EventQueue.invokeAndWait(new Runnable() {
+			@Override
+			public void run() {
+				frame = new JFrame("synthetic");
+				frame.setLayout(new GridLayout(3, 1));
+				first = new JButton("first");
+				first.addActionListener(counter(firstClicks));
+				second = new JButton("second");
+				second.addActionListener(counter(secondClicks));
+				text = new JTextField(20);
+				frame.add(first);
+				frame.add(second);
+				frame.add(text);
+				frame.pack();
+				frame.setVisible(true);
+			}
+		});
+	}
+
+	@After
+	public void tearDown() {
+		robot.cleanUp();
+	}
+
+	@Test
+	public void screenPointIsClickedOnTheComponentBelowIt() throws Exception {
+		robot.click(first);
+		final Point[] center = new Point[1];
+		EventQueue.invokeAndWait(new Runnable() {
+			@Override
+			public void run() {
+				Point location = second.getLocationOnScreen();
+				center[0] = new Point(location.x + second.getWidth() / 2, location.y + second.getHeight() / 2);
+			}
+		});
+
+		robot.click(center[0], MouseButton.LEFT_BUTTON, 1);
+
+		assertEquals(1, firstClicks.get());
+		assertEquals(1, secondClicks.get());
+	}
+
+	@Test
+	public void hiddenKeyTargetIsNotTypedInto() throws Exception {
+		robot.focus(text);
+		EventQueue.invokeAndWait(new Runnable() {
+			@Override
+			public void run() {
+				text.setVisible(false);
+			}
+		});
+		robot.focus(first);
+		robot.enterText("x");
+		EventQueue.invokeAndWait(new Runnable() {
+			@Override
+			public void run() {
+				assertEquals("", text.getText());
+			}
+		});
+	}
+
+	private static ActionListener counter(final AtomicInteger clicks) {
+		return new ActionListener() {
+			@Override
+			public void actionPerformed(ActionEvent e) {
+				clicks.incrementAndGet();
+			}
+		};
+	}
+}
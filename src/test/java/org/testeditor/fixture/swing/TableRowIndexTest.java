@@ -0,0 +1,114 @@
+/*******************************************************************************
+ * Copyright (c) 2012 - 2015 Signal Iduna Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Signal Iduna Corporation - initial API and implementation
+ * akquinet AG
+ *******************************************************************************/
+package org.testeditor.fixture.swing;
+
+import static org.junit.Assert.assertEquals;
+
+import java.awt.EventQueue;
+import java.util.Collections;
+
+import javax.swing.JTable;
+import javax.swing.RowFilter;
+import javax.swing.RowSorter;
+import javax.swing.SortOrder;
+import javax.swing.table.DefaultTableCellRenderer;
+import javax.swing.table.DefaultTableModel;
+import javax.swing.table.TableRowSorter;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TableRowIndexTest {
+
+	private DefaultTableModel rows;
+	private JTable table;
+	private TableRowSorter<DefaultTableModel> sorter;
+	private TableRowIndex index;
+
+	@Before
+	public void setUp() throws Exception {
+		EventQueue.invokeAndWait(new Runnable() {
+			@Override
+			public void run() {
+				rows = new DefaultTableModel(new Object[][] { { "max", 1 }, { "erika", 2 }, { "max", 3 } },
+						new Object[] { "Name", "Id" });
+				table = new JTable(rows);
+				table.getColumnModel().getColumn(0).setCellRenderer(new DefaultTableCellRenderer() {
+					@Override
+					protected void setValue(Object value) {
+						setText(String.valueOf(value).toUpperCase());
+					}
+				});
+				sorter = new TableRowSorter<DefaultTableModel>(rows);
+				table.setRowSorter(sorter);
+			}
+		});
+		index = TableRowIndex.create(table);
+	}
+
+	@After
+	public void tearDown() {
+		index.dispose();
+	}
+
+	@Test
+	public void rowsAreFoundByTheirRenderedText() {
+		assertEquals(0, index.viewRowOf(table, 0, "MAX"));
+		assertEquals(1, index.viewRowOf(table, 0, "ERIKA"));
+		assertEquals(-1, index.viewRowOf(table, 0, "max"));
+	}
+
+	@Test
+	public void firstRowOfTheSortedAndFilteredViewIsFound() throws Exception {
+		EventQueue.invokeAndWait(new Runnable() {
+			@Override
+			public void run() {
+				sorter.setSortKeys(Collections.singletonList(new RowSorter.SortKey(1, SortOrder.DESCENDING)));
+			}
+		});
+		assertEquals(0, index.viewRowOf(table, 0, "MAX"));
+		assertEquals(2, convertToModel(0));
+
+		EventQueue.invokeAndWait(new Runnable() {
+			@Override
+			public void run() {
+				sorter.setRowFilter(RowFilter.numberFilter(RowFilter.ComparisonType.BEFORE, 3, 1));
+			}
+		});
+		assertEquals(1, index.viewRowOf(table, 0, "MAX"));
+		assertEquals(0, convertToModel(1));
+	}
+
+	@Test
+	public void changedModelIsIndexedAgain() throws Exception {
+		EventQueue.invokeAndWait(new Runnable() {
+			@Override
+			public void run() {
+				rows.setValueAt("otto", 1, 0);
+			}
+		});
+		assertEquals(-1, index.viewRowOf(table, 0, "ERIKA"));
+		assertEquals(1, index.viewRowOf(table, 0, "OTTO"));
+	}
+
+	private int convertToModel(final int viewRow) throws Exception {
+		final int[] modelRow = new int[1];
+		EventQueue.invokeAndWait(new Runnable() {
+			@Override
+			public void run() {
+				modelRow[0] = table.convertRowIndexToModel(viewRow);
+			}
+		});
+		return modelRow[0];
+	}
+}
@@ -0,0 +1,57 @@
+/*******************************************************************************
+ * Copyright (c) 2012 - 2015 Signal Iduna Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Signal Iduna Corporation - initial API and implementation
+ * akquinet AG
+ *******************************************************************************/
+package org.testeditor.fixture.swing;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+public class TableSnapshotTest {
+
+	private final TableSnapshot snapshot = new TableSnapshot(new String[] { "Name", "Vorname" }, new String[][] {
+			{ "Mustermann", "Musterfrau" }, { "Max", "Erika" } }, 10);
+
+	@Test
+	public void cellValueUsesViewRowAndColumnName() {
+		assertEquals("Erika", snapshot.valueAt(11, snapshot.columnIndex("Vorname")));
+		assertEquals("Mustermann", snapshot.valueAt(10, snapshot.columnIndex("0")));
+	}
+
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void rowOutsideSnapshotIsRejected() {
+		snapshot.valueAt(9, 0);
+	}
+
+	@Test
+	public void columnContainsAndRowEquals() {
+		assertTrue(snapshot.columnContains(1, "Max"));
+		assertFalse(snapshot.columnContains(0, "Max"));
+		assertTrue(snapshot.rowEquals(11, new String[] { "Musterfrau", "Erika" }));
+		assertFalse(snapshot.rowEquals(10, new String[] { "Mustermann" }));
+	}
+
+	@Test
+	public void diffReportsEveryDifferentCell() {
+		List<String[]> expected = new ArrayList<String[]>();
+		expected.add(new String[] { "Mustermann", "Moritz" });
+		expected.add(new String[] { "Musterfrau", "Erika" });
+		assertEquals(1, snapshot.diff(expected).size());
+		expected.add(new String[] { "Schmidt", "Hans" });
+		assertEquals(2, snapshot.diff(expected).size());
+	}
+
+}
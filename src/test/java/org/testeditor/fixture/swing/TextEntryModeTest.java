@@ -0,0 +1,130 @@
+/*******************************************************************************
+ * Copyright (c) 2012 - 2015 Signal Iduna Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Signal Iduna Corporation - initial API and implementation
+ * akquinet AG
+ *******************************************************************************/
+package org.testeditor.fixture.swing;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.awt.EventQueue;
+import java.awt.Toolkit;
+import java.awt.datatransfer.Clipboard;
+import java.awt.datatransfer.DataFlavor;
+import java.awt.datatransfer.StringSelection;
+import java.awt.event.KeyAdapter;
+import java.awt.event.KeyEvent;
+import java.util.Locale;
+
+import javax.swing.JFrame;
+import javax.swing.JTextField;
+
+import org.fest.swing.core.BasicRobot;
+import org.fest.swing.core.Robot;
+import org.fest.swing.fixture.JTextComponentFixture;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TextEntryModeTest {
+
+	private Robot robot;
+	private JFrame frame;
+	private JTextField textField;
+	private final StringBuilder keyEvents = new StringBuilder();
+
+	@Before
+	public void setUp() throws Exception {
+		robot = BasicRobot.robotWithCurrentAwtHierarchy();
+		EventQueue.invokeAndWait(new Runnable() {
+			@Override
+			public void run() {
+				frame = new JFrame("text entry");
+				textField = new JTextField(20);
+				textField.setName("text");
+				frame.add(textField);
+				frame.pack();
+				frame.setVisible(true);
+			}
+		});
+	}
+
+	@After
+	public void tearDown() {
+		robot.cleanUp();
+	}
+
+	@Test
+	public void documentModeSendsKeyEventsForEachCharacter() {
+		textField.addKeyListener(new KeyAdapter() {
+			@Override
+			public void keyPressed(KeyEvent e) {
+				keyEvents.append('p').append(e.getKeyChar());
+			}
+
+			@Override
+			public void keyTyped(KeyEvent e) {
+				keyEvents.append('t').append(e.getKeyChar());
+				if (e.getKeyChar() == '#') {
+					e.consume();
+				}
+			}
+
+			@Override
+			public void keyReleased(KeyEvent e) {
+				keyEvents.append('r').append(e.getKeyChar());
+			}
+		});
+
+		TextEntryMode.DOCUMENT.enterText(new JTextComponentFixture(robot, textField), "a#b");
+
+		assertEquals("ab", new JTextComponentFixture(robot, textField).text());
+		assertEquals("patarap#t#r#pbtbrb", keyEvents.toString());
+	}
+
+	@Test
+	public void documentModeRejectsReadOnlyField() throws Exception {
+		EventQueue.invokeAndWait(new Runnable() {
+			@Override
+			public void run() {
+				textField.setEditable(false);
+			}
+		});
+		try {
+			TextEntryMode.DOCUMENT.enterText(new JTextComponentFixture(robot, textField), "text");
+			fail("read only text field was changed");
+		} catch (IllegalStateException e) {
+			assertEquals("", new JTextComponentFixture(robot, textField).text());
+		}
+	}
+
+	@Test
+	public void clipboardModeRestoresThePreviousContent() throws Exception {
+		Clipboard clipboard = Toolkit.getDefaultToolkit().getSystemClipboard();
+		clipboard.setContents(new StringSelection("previous"), null);
+
+		TextEntryMode.CLIPBOARD.enterText(new JTextComponentFixture(robot, textField), "pasted");
+
+		assertEquals("pasted", new JTextComponentFixture(robot, textField).text());
+		assertEquals("previous", clipboard.getData(DataFlavor.stringFlavor));
+	}
+
+	@Test
+	public void namesAreReadIndependentOfTheLocale() {
+		Locale locale = Locale.getDefault();
+		Locale.setDefault(new Locale("tr", "TR"));
+		try {
+			assertEquals(TextEntryMode.CLIPBOARD, TextEntryMode.fromName("clipboard"));
+		} finally {
+			Locale.setDefault(locale);
+		}
+		assertEquals(TextEntryMode.DOCUMENT, TextEntryMode.fromName(" Document "));
+	}
+}
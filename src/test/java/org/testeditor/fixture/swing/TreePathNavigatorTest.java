@@ -0,0 +1,125 @@
+/*******************************************************************************
+ * Copyright (c) 2012 - 2015 Signal Iduna Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Signal Iduna Corporation - initial API and implementation
+ * akquinet AG
+ *******************************************************************************/
+package org.testeditor.fixture.swing;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.swing.JTree;
+import javax.swing.Timer;
+import javax.swing.event.TreeExpansionEvent;
+import javax.swing.event.TreeWillExpandListener;
+import javax.swing.tree.DefaultMutableTreeNode;
+import javax.swing.tree.DefaultTreeModel;
+import javax.swing.tree.TreePath;
+
+import org.fest.swing.edt.GuiActionRunner;
+import org.fest.swing.edt.GuiQuery;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TreePathNavigatorTest {
+
+	private static final Map<Object, String> LAZY_CHILDREN = new HashMap<Object, String>();
+
+	static {
+		LAZY_CHILDREN.put("B", "C");
+		LAZY_CHILDREN.put("C", "D");
+	}
+
+	private DefaultTreeModel model;
+	private JTree tree;
+	private DefaultMutableTreeNode other;
+
+	@Before
+	public void setUp() {
+		tree = GuiActionRunner.execute(new GuiQuery<JTree>() {
+			@Override
+			protected JTree executeInEDT() {
+				DefaultMutableTreeNode root = new DefaultMutableTreeNode("Root");
+				DefaultMutableTreeNode a = new DefaultMutableTreeNode("A");
+				final DefaultMutableTreeNode b = new DefaultMutableTreeNode("B", true);
+				other = new DefaultMutableTreeNode("Other", true);
+				root.add(a);
+				root.add(other);
+				a.add(b);
+				model = new DefaultTreeModel(root, true);
+				JTree result = new JTree(model);
+				result.addTreeWillExpandListener(new TreeWillExpandListener() {
+					@Override
+					public void treeWillExpand(TreeExpansionEvent event) {
+						final DefaultMutableTreeNode node = (DefaultMutableTreeNode) event.getPath()
+								.getLastPathComponent();
+						final String child = LAZY_CHILDREN.get(node.getUserObject());
+						if (child != null && node.getChildCount() == 0) {
+							Timer timer = new Timer(200, new ActionListener() {
+								@Override
+								public void actionPerformed(ActionEvent e) {
+									model.insertNodeInto(new DefaultMutableTreeNode(child, !"D".equals(child)), node,
+											0);
+								}
+							});
+							timer.setRepeats(false);
+							timer.start();
+						}
+					}
+
+					@Override
+					public void treeWillCollapse(TreeExpansionEvent event) {
+					}
+				});
+				return result;
+			}
+		});
+	}
+
+	@Test
+	public void lazyChildrenAreAwaited() throws InterruptedException {
+		TreePath path = TreePathNavigator.expand(tree, "Root/A/B/C", false, 5000);
+		assertEquals(4, path.getPathCount());
+		assertEquals("C", TreePathNavigator.textOf(tree, path));
+		assertTrue(isExpanded(path.getParentPath()));
+	}
+
+	@Test
+	public void onlyNodesOnThePathAreExpanded() throws InterruptedException {
+		TreePathNavigator.expand(tree, "Root/A", true, 5000);
+		assertTrue(isExpanded(new TreePath(new Object[] { model.getRoot(), model.getChild(model.getRoot(), 0) })));
+		assertFalse(isExpanded(new TreePath(new Object[] { model.getRoot(), other })));
+	}
+
+	@Test
+	public void timeoutAppliesToEachNode() throws InterruptedException {
+		TreePath path = TreePathNavigator.expand(tree, "Root/A/B/C/D", false, 300);
+		assertEquals("D", TreePathNavigator.textOf(tree, path));
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void missingNodeFailsAfterTheTimeout() throws InterruptedException {
+		TreePathNavigator.expand(tree, "Root/A/Missing", false, 300);
+	}
+
+	private boolean isExpanded(final TreePath path) {
+		return GuiActionRunner.execute(new GuiQuery<Boolean>() {
+			@Override
+			protected Boolean executeInEDT() {
+				return tree.isExpanded(path);
+			}
+		});
+	}
+}
@@ -0,0 +1,101 @@
+/*******************************************************************************
+ * Copyright (c) 2012 - 2015 Signal Iduna Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Signal Iduna Corporation - initial API and implementation
+ * akquinet AG
+ *******************************************************************************/
+package org.testeditor.fixture.swing.agent;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+public class AgentProtocolTest {
+
+	@Test
+	public void requestsKeepTheirArguments() throws IOException {
+		Map<String, String> fields = new LinkedHashMap<String, String>();
+		fields.put("Name", "Mustermann");
+		fields.put("Vorname", null);
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		AgentProtocol.writeRequest(out, 1, "fillForm", fields);
+		AgentProtocol.writeRequest(out, 2, "startApplicationThread", "de.example.Main", new String[] { "a", null },
+				null);
+		AgentProtocol.writeRequest(out, 3, "selectComboBoxItemById", "Jahr", 42);
+		out.flush();
+
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+		AgentProtocol.Request first = AgentProtocol.readRequest(in);
+		assertEquals(1, first.getId());
+		assertEquals("fillForm", first.getMethod());
+		assertEquals(fields, first.getArguments()[0]);
+		AgentProtocol.Request second = AgentProtocol.readRequest(in);
+		assertEquals("de.example.Main", second.getArguments()[0]);
+		assertArrayEquals(new String[] { "a", null }, (String[]) second.getArguments()[1]);
+		assertNull(second.getArguments()[2]);
+		AgentProtocol.Request third = AgentProtocol.readRequest(in);
+		assertEquals(3, third.getId());
+		assertEquals(42, third.getArguments()[1]);
+	}
+
+	@Test
+	public void valuesSurviveTheRoundTrip() throws IOException {
+		Object[] values = { null, "\u00e4\u00f6\u00fc", Integer.MIN_VALUE, Long.MAX_VALUE, Boolean.TRUE };
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		for (Object value : values) {
+			AgentProtocol.writeValue(out, value);
+		}
+		out.flush();
+
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+		for (Object value : values) {
+			assertEquals(value, AgentProtocol.readValue(in));
+		}
+	}
+
+	@Test(expected = IOException.class)
+	public void unsupportedTypesAreRejected() throws IOException {
+		AgentProtocol.writeValue(new DataOutputStream(new ByteArrayOutputStream()), new Object());
+	}
+
+	@Test(expected = IOException.class)
+	public void negativeLengthsAreRejected() throws IOException {
+		AgentProtocol.readValue(valueWithLength(1, -1));
+	}
+
+	@Test(expected = IOException.class)
+	public void hugeLengthsAreRejected() throws IOException {
+		AgentProtocol.readValue(valueWithLength(5, Integer.MAX_VALUE));
+	}
+
+	/**
+	 * @return a stream with the type byte and the length of a value, but
+	 *         without its payload
+	 */
+	private static DataInputStream valueWithLength(int type, int length) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		out.writeByte(type);
+		out.writeInt(length);
+		out.flush();
+		return new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+	}
+
+}
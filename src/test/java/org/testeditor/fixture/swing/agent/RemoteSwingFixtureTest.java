@@ -0,0 +1,97 @@
+/*******************************************************************************
+ * Copyright (c) 2012 - 2015 Signal Iduna Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Signal Iduna Corporation - initial API and implementation
+ * akquinet AG
+ *******************************************************************************/
+package org.testeditor.fixture.swing.agent;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+import org.junit.After;
+import org.junit.Test;
+import org.testeditor.fixture.swing.SwingFixture;
+
+public class RemoteSwingFixtureTest {
+
+	private static final String MAIN_CLASS = "org.testeditor.fixture.swing.StandInApplication";
+
+	private RemoteSwingFixture fixture;
+
+	@After
+	public void tearDown() {
+		if (fixture != null) {
+			fixture.stopAgent();
+		}
+	}
+
+	@Test
+	public void everyFixtureMethodIsSentToTheAgent() {
+		for (Method method : SwingFixture.class.getDeclaredMethods()) {
+			if (!Modifier.isPublic(method.getModifiers()) || method.getName().endsWith("TestName")) {
+				continue;
+			}
+			try {
+				RemoteSwingFixture.class.getDeclaredMethod(method.getName(), method.getParameterTypes());
+			} catch (NoSuchMethodException e) {
+				fail("RemoteSwingFixture does not override " + method);
+			}
+		}
+	}
+
+	@Test
+	public void stepsRunInTheAgentJvm() throws Exception {
+		fixture = new RemoteSwingFixture();
+		assertTrue(fixture.startAgent(System.getProperty("java.class.path")));
+		fixture.setElementlist("./src/test/resources/standInElementList.txt");
+		assertTrue(fixture.startApplication(MAIN_CLASS));
+		assertTrue(fixture.insertIntoTextField("Text", "remote"));
+		assertTrue(fixture.clickButton("Copy"));
+		assertEquals("remote", fixture.getTextFromTextField("Instances"));
+		assertFalse(fixture.clickButton("Unknown"));
+		assertTrue(fixture.stopApplication());
+	}
+
+	@Test
+	public void pipelinedRequestsAreAnsweredInOrder() throws Exception {
+		fixture = new RemoteSwingFixture();
+		assertTrue(fixture.startAgent(System.getProperty("java.class.path")));
+		AgentConnection connection = fixture.getConnection();
+		connection.send("setElementlist", "./src/test/resources/standInElementList.txt");
+		PendingResult started = connection.send("startApplication", MAIN_CLASS);
+		connection.send("setTextEntryMode", "document");
+		PendingResult inserted = connection.send("insertIntoTextField", "Text", "batch");
+		connection.send("clickButton", "Copy");
+		PendingResult copied = connection.send("getTextFromTextField", "Instances");
+		connection.flush();
+		assertEquals(Boolean.TRUE, started.get(30000));
+		assertEquals(Boolean.TRUE, inserted.get(10000));
+		assertEquals("batch", copied.get(10000));
+		try {
+			connection.call("noSuchStep");
+			fail("unknown steps must fail");
+		} catch (AgentException e) {
+			assertTrue(e.getMessage().contains("noSuchStep"));
+		}
+	}
+
+	@Test
+	public void stepsFailWhenTheAgentIsGone() {
+		fixture = new RemoteSwingFixture();
+		assertTrue(fixture.startAgent(System.getProperty("java.class.path")));
+		fixture.stopAgent();
+		assertFalse(fixture.clickButton("Copy"));
+	}
+
+}